@@ -19,10 +19,13 @@ package com.sun.faces.application;
 import static com.sun.faces.RIConstants.FACES_CONFIG_VERSION;
 import static com.sun.faces.RIConstants.FACES_PREFIX;
 import static com.sun.faces.config.ConfigManager.getAnnotatedClasses;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableELResolverInlineCache;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableFaceletsResourceResolverResolveCompositeComponents;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableLazyBeanValidation;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableResourceIndex;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.FaceletsSkipComments;
 import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.FaceletCache;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.FaceletsCompilationCacheDirectory;
 import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.FaceletsDecorators;
 import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.FaceletsDefaultRefreshPeriod;
 import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.FaceletsDefaultRefreshPeriodDeprecated;
@@ -48,6 +51,7 @@ import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.INFO;
 import static java.util.logging.Level.SEVERE;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -73,6 +77,7 @@ import com.sun.faces.el.DemuxCompositeELResolver;
 import com.sun.faces.el.VariableResolverChainWrapper;
 import com.sun.faces.facelets.PrivateApiFaceletCacheAdapter;
 import com.sun.faces.facelets.compiler.Compiler;
+import com.sun.faces.facelets.compiler.FaceletCompilationCache;
 import com.sun.faces.facelets.compiler.SAXCompiler;
 import com.sun.faces.facelets.impl.DefaultFaceletFactory;
 import com.sun.faces.facelets.impl.DefaultResourceResolver;
@@ -295,6 +300,9 @@ public class ApplicationAssociate {
         }
 
         resourceManager = new ResourceManager(applicationMap, resourceCache);
+        if (!devModeEnabled && webConfig.isOptionEnabled(EnableResourceIndex)) {
+            resourceManager.initResourceIndex(externalContext);
+        }
         namedEventManager = new NamedEventManager();
         applicationStateInfo = new ApplicationStateInfo();
 
@@ -454,8 +462,10 @@ public class ApplicationAssociate {
     public void initializeELResolverChains() {
         // 1. initialize the chains with default values
         if (applicationImpl.getCompositeELResolver() == null) {
-            applicationImpl.setCompositeELResolver(new DemuxCompositeELResolver(Faces));
-            buildFacesResolver(applicationImpl.getCompositeELResolver(), this);
+            DemuxCompositeELResolver compositeELResolver = new DemuxCompositeELResolver(Faces);
+            compositeELResolver.setInlineCacheEnabled(WebConfiguration.getInstance().isOptionEnabled(EnableELResolverInlineCache));
+            applicationImpl.setCompositeELResolver(compositeELResolver);
+            buildFacesResolver(compositeELResolver, this);
         }
     }
 
@@ -822,13 +832,24 @@ public class ApplicationAssociate {
 
     protected Compiler createCompiler(Map<String, Object> appMap, WebConfiguration webConfig) {
 
-        Compiler newCompiler = new SAXCompiler();
+        SAXCompiler newCompiler = new SAXCompiler();
 
         loadDecorators(appMap, newCompiler);
 
         // Skip params?
         newCompiler.setTrimmingComments(webConfig.isOptionEnabled(FaceletsSkipComments));
 
+        String compilationCacheDirectory = webConfig.getOptionValue(FaceletsCompilationCacheDirectory);
+        if (compilationCacheDirectory != null && compilationCacheDirectory.length() > 0) {
+            newCompiler.setCompilationCache(new FaceletCompilationCache(new File(compilationCacheDirectory)));
+        }
+
+        ServletContext servletContext = webConfig.getServletContext();
+        Set<String> precompiled = servletContext != null ? servletContext.getResourcePaths(FaceletCompilationCache.PRECOMPILED_DIRECTORY + "/") : null;
+        if (precompiled != null && !precompiled.isEmpty()) {
+            newCompiler.setPrecompiledPath(FaceletCompilationCache.PRECOMPILED_DIRECTORY);
+        }
+
         addTagLibraries(newCompiler);
 
         return newCompiler;
@@ -855,6 +876,16 @@ public class ApplicationAssociate {
     }
 
     protected void addTagLibraries(Compiler newCompiler) {
+        addTagLibraries(newCompiler, isDevModeEnabled());
+    }
+
+    /**
+     * Adds the tag libraries provided by the implementation to the specified compiler.
+     *
+     * @param newCompiler the compiler
+     * @param devModeEnabled whether to add the development tools library
+     */
+    public static void addTagLibraries(Compiler newCompiler, boolean devModeEnabled) {
         newCompiler.addTagLibrary(new CoreLibrary());
         newCompiler.addTagLibrary(new CoreLibrary(CoreLibrary.XMLNSNamespace));
 
@@ -873,7 +904,7 @@ public class ApplicationAssociate {
 
         newCompiler.addTagLibrary(new FunctionLibrary(JstlFunction.class, FunctionLibrary.Namespace));
         newCompiler.addTagLibrary(new FunctionLibrary(JstlFunction.class, FunctionLibrary.XMLNSNamespace));
-        if (isDevModeEnabled()) {
+        if (devModeEnabled) {
             newCompiler.addTagLibrary(new FunctionLibrary(DevTools.class, DevTools.Namespace));
             newCompiler.addTagLibrary(new FunctionLibrary(DevTools.class, DevTools.NewNamespace));
         }
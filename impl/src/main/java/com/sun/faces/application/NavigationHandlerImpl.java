@@ -17,6 +17,7 @@
 package com.sun.faces.application;
 
 import static com.sun.faces.application.SharedUtils.evaluateExpressions;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableCompiledNavigationRules;
 import static com.sun.faces.flow.FlowHandlerImpl.FLOW_RETURN_DEPTH_PARAM_NAME;
 import static com.sun.faces.util.Util.notNull;
 import static jakarta.faces.component.UIViewAction.isProcessingBroadcast;
@@ -35,11 +36,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -47,6 +51,7 @@ import java.util.regex.Pattern;
 
 import com.sun.faces.RIConstants;
 import com.sun.faces.config.InitFacesContext;
+import com.sun.faces.config.WebConfiguration;
 import com.sun.faces.flow.FlowHandlerImpl;
 import com.sun.faces.flow.FlowImpl;
 import com.sun.faces.flow.builder.MutableNavigationCase;
@@ -119,6 +124,13 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
      * Flag indicated the current mode.
      */
     private boolean development;
+
+    /**
+     * Flag indicating whether the navigation rules are matched through the compiled per view id, action and outcome
+     * lookups of the {@link NavigationMap}.
+     */
+    private boolean compiledNavigationRules;
+
     private static final Pattern REDIRECT_EQUALS_TRUE = Pattern.compile("(.*)(faces-redirect=true)(.*)");
     private static final Pattern INCLUDE_VIEW_PARAMS_EQUALS_TRUE = Pattern.compile("(.*)(includeViewParams=true)(.*)");
 
@@ -141,6 +153,11 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
             development = associate.isDevModeEnabled();
         }
 
+        WebConfiguration webConfig = WebConfiguration.getInstance();
+        if (webConfig != null) {
+            compiledNavigationRules = webConfig.isOptionEnabled(EnableCompiledNavigationRules);
+        }
+
     }
 
     // ------------------------------ Methods from ConfigurableNavigationHandler
@@ -672,7 +689,7 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
         // 3) elements specifying only from-action
         // 4) elements where both from-action and from-outcome are null
 
-        CaseStruct result = determineViewFromActionOutcome(ctx, caseSet, fromAction, outcome, toFlowDocumentId);
+        CaseStruct result = determineViewFromActionOutcome(ctx, navMap, viewId, caseSet, fromAction, outcome, toFlowDocumentId);
         if (null != result) {
             FlowHandler flowHandler = ctx.getApplication().getFlowHandler();
             if (null != flowHandler) {
@@ -699,8 +716,10 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
             Map<String, Set<NavigationCase>> navMap) {
         CaseStruct result = null;
 
+        Set<String> wildCardMatchList = isCompiled(navMap) ? ((NavigationMap) navMap).getWildCardMatches(viewId) : getWildCardMatchList(ctx);
+
         StringBuilder sb = new StringBuilder(32);
-        for (String fromViewId : getWildCardMatchList(ctx)) {
+        for (String fromViewId : wildCardMatchList) {
             // See if the entire wildcard string (without the trailing "*" is
             // contained in the incoming viewIdToTest.
             // Ex: /foobar is contained with /foobarbaz
@@ -730,7 +749,7 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
             // 3) elements specifying only from-action
             // 4) elements where both from-action and from-outcome are null
 
-            result = determineViewFromActionOutcome(ctx, ccaseSet, fromAction, outcome, toFlowDocumentId);
+            result = determineViewFromActionOutcome(ctx, navMap, wcFromViewId, ccaseSet, fromAction, outcome, toFlowDocumentId);
             if (result != null) {
                 break;
             }
@@ -770,7 +789,7 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
         // 3) elements specifying only from-action
         // 4) elements where both from-action and from-outcome are null
 
-        CaseStruct result = determineViewFromActionOutcome(ctx, caseSet, fromAction, outcome, toFlowDocumentId);
+        CaseStruct result = determineViewFromActionOutcome(ctx, navMap, "*", caseSet, fromAction, outcome, toFlowDocumentId);
 
         if (null != result) {
             FlowHandler flowHandler = ctx.getApplication().getFlowHandler();
@@ -1336,6 +1355,46 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
         return result;
     }
 
+    private boolean isCompiled(Map<String, Set<NavigationCase>> navMap) {
+        return compiledNavigationRules && navMap instanceof NavigationMap;
+    }
+
+    /**
+     * If the navigation rules are compiled, evaluate only the cases which were precomputed by the {@link NavigationMap}
+     * for the given <code>from-view-id</code>, action and outcome, otherwise evaluate the entire case set.
+     */
+    private CaseStruct determineViewFromActionOutcome(FacesContext ctx, Map<String, Set<NavigationCase>> navMap, String fromViewId,
+            Set<NavigationCase> caseSet, String fromAction, String outcome, String toFlowDocumentId) {
+
+        if (isCompiled(navMap)) {
+            List<NavigationCase> cases = ((NavigationMap) navMap).getMatchingCases(fromViewId, caseSet, fromAction, outcome);
+            return determineViewFromMatchingCases(ctx, cases, outcome, toFlowDocumentId);
+        }
+
+        return determineViewFromActionOutcome(ctx, caseSet, fromAction, outcome, toFlowDocumentId);
+    }
+
+    private CaseStruct determineViewFromMatchingCases(FacesContext ctx, List<NavigationCase> cases, String outcome, String toFlowDocumentId) {
+
+        for (NavigationCase cnc : cases) {
+            if (cnc.hasCondition() && Boolean.FALSE.equals(cnc.getCondition(ctx))) {
+                continue;
+            }
+
+            CaseStruct result = new CaseStruct();
+            result.viewId = cnc.getToViewId(ctx);
+            result.navCase = cnc;
+            String caseToFlowDocumentId = null != cnc.getToFlowDocumentId() ? cnc.getToFlowDocumentId() : toFlowDocumentId;
+            if (null != caseToFlowDocumentId && null != outcome) {
+                FlowHandler fh = ctx.getApplication().getFlowHandler();
+                result.isFlowEntryFromExplicitRule = null != fh.getFlow(ctx, caseToFlowDocumentId, convertToViewIdToFlowOrNodeId(ctx, result));
+            }
+            return result;
+        }
+
+        return null;
+    }
+
     /**
      * This method will attempt to find the <code>view</code> identifier based on action reference and outcome. Refer to
      * section 7.4.2 of the specification for more details.
@@ -1352,18 +1411,10 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
         CaseStruct result = new CaseStruct();
         boolean match = false;
         for (NavigationCase cnc : caseSet) {
-            String cncFromAction = cnc.getFromAction();
-            String cncFromOutcome = cnc.getFromOutcome();
             boolean cncHasCondition = cnc.hasCondition();
             String cncToViewId = cnc.getToViewId(ctx);
 
-            if (cncFromAction != null && cncFromAction.equals(fromAction) && cncFromOutcome != null && cncFromOutcome.equals(outcome)) {
-                match = true;
-            } else if (cncFromAction == null && cncFromOutcome != null && cncFromOutcome.equals(outcome)) {
-                match = true;
-            } else if (cncFromAction != null && cncFromAction.equals(fromAction) && cncFromOutcome == null && (outcome != null || cncHasCondition)) {
-                match = true;
-            } else if (cncFromAction == null && cncFromOutcome == null && (outcome != null || cncHasCondition)) {
+            if (matches(cnc, fromAction, outcome)) {
                 match = true;
             }
 
@@ -1388,6 +1439,26 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
         return null;
     }
 
+    /**
+     * @return <code>true</code> if the <code>from-action</code> and <code>from-outcome</code> of the given case match the
+     * given action and outcome, regardless of the condition of the case.
+     */
+    private static boolean matches(NavigationCase cnc, String fromAction, String outcome) {
+        String cncFromAction = cnc.getFromAction();
+        String cncFromOutcome = cnc.getFromOutcome();
+        boolean cncHasCondition = cnc.hasCondition();
+
+        if (cncFromAction != null && cncFromAction.equals(fromAction) && cncFromOutcome != null && cncFromOutcome.equals(outcome)) {
+            return true;
+        } else if (cncFromAction == null && cncFromOutcome != null && cncFromOutcome.equals(outcome)) {
+            return true;
+        } else if (cncFromAction != null && cncFromAction.equals(fromAction) && cncFromOutcome == null && (outcome != null || cncHasCondition)) {
+            return true;
+        } else {
+            return cncFromAction == null && cncFromOutcome == null && (outcome != null || cncHasCondition);
+        }
+    }
+
     /**
      * To look for the Flow or Node by the id, the '/' in the id got from navCase should be trimmed.
      *
@@ -1416,11 +1487,20 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
         private Map<String, SwitchNode> switches;
     }
 
-    private static final class NavigationMap extends AbstractMap<String, Set<NavigationCase>> {
+    static final class NavigationMap extends AbstractMap<String, Set<NavigationCase>> {
+
+        /**
+         * The maximum number of entries of each compiled lookup, so that dynamic outcomes cannot grow them unbounded.
+         */
+        private static final int MAX_COMPILED_ENTRIES = 4096;
 
         private HashMap<String, Set<NavigationCase>> mapToLookForNavCase = new HashMap<>();
         private TreeSet<String> wildcardMatchList = new TreeSet<>((fromViewId1, fromViewId2) -> -fromViewId1.compareTo(fromViewId2));
 
+        // Replaced rather than cleared on modification, so that lookups compiled concurrently with a modification end
+        // up in the discarded instance.
+        private volatile CompiledLookups compiled = new CompiledLookups();
+
         // ---------------------------------------------------- Methods from Map
 
         @Override
@@ -1442,6 +1522,7 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
                 throw new IllegalArgumentException();
             }
             updateWildcards(key);
+            clearCompiled();
             Set<NavigationCase> existing = mapToLookForNavCase.get(key);
             if (existing == null) {
                 mapToLookForNavCase.put(key, value);
@@ -1458,6 +1539,7 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
             if (m == null) {
                 return;
             }
+            clearCompiled();
             for (Map.Entry<? extends String, ? extends Set<NavigationCase>> entry : m.entrySet()) {
                 String key = entry.getKey();
                 updateWildcards(key);
@@ -1556,7 +1638,7 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
 
                         @Override
                         public Entry<String, Set<NavigationCase>> next() {
-                            return i.next();
+                            return new NavigationEntry(i.next());
                         }
 
                         @Override
@@ -1573,8 +1655,99 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
             };
         }
 
+        // ------------------------------------------------------ Compiled Lookups
+
+        /**
+         * @param viewId the view id to match
+         * @return the wildcard <code>from-view-id</code> prefixes (without the trailing "*") the given view id starts
+         * with, longest first.
+         */
+        Set<String> getWildCardMatches(String viewId) {
+            ConcurrentMap<String, Set<String>> wildcardMatches = compiled.wildcardMatches;
+            Set<String> matches = wildcardMatches.get(viewId);
+            if (matches == null) {
+                matches = new LinkedHashSet<>();
+                for (String fromViewId : wildcardMatchList) {
+                    if (viewId.startsWith(fromViewId)) {
+                        matches.add(fromViewId);
+                    }
+                }
+                matches = matches.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(matches);
+                if (wildcardMatches.size() < MAX_COMPILED_ENTRIES) {
+                    wildcardMatches.put(viewId, matches);
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * <p>
+         * Returns the cases of the given case set which match the given action and outcome, in the order they have to be
+         * evaluated. As a case without condition always wins, the list ends at the first such case, so that for rules
+         * without conditions the result is a single precomputed case.
+         * </p>
+         *
+         * <p>
+         * The case sets are kept as put, so they may still be modified through a reference held by the caller. The
+         * matching cases are therefore only reused as long as the case set holds the same cases as when they were
+         * compiled, which is checked by identity without evaluating any case.
+         * </p>
+         *
+         * @param fromViewId the <code>from-view-id</code> the case set is mapped to
+         * @param caseSet the case set mapped to <code>fromViewId</code>
+         * @param fromAction the action reference string
+         * @param outcome the outcome string
+         * @return the matching cases
+         */
+        List<NavigationCase> getMatchingCases(String fromViewId, Set<NavigationCase> caseSet, String fromAction, String outcome) {
+            CompiledLookups lookups = compiled;
+
+            NavigationCase[] snapshot = lookups.caseSets.get(fromViewId);
+            if (snapshot == null || !isSnapshotOf(snapshot, caseSet)) {
+                snapshot = caseSet.toArray(new NavigationCase[caseSet.size()]);
+                lookups.caseSets.put(fromViewId, snapshot);
+            }
+
+            CaseKey key = new CaseKey(fromViewId, fromAction, outcome);
+            CompiledCases matching = lookups.cases.get(key);
+            if (matching == null || matching.caseSet != snapshot) {
+                List<NavigationCase> cases = new ArrayList<>(2);
+                for (NavigationCase cnc : snapshot) {
+                    if (matches(cnc, fromAction, outcome)) {
+                        cases.add(cnc);
+                        if (!cnc.hasCondition()) {
+                            break;
+                        }
+                    }
+                }
+                matching = new CompiledCases(snapshot, cases.isEmpty() ? Collections.emptyList() : cases);
+                if (lookups.cases.size() < MAX_COMPILED_ENTRIES) {
+                    lookups.cases.put(key, matching);
+                }
+            }
+
+            return matching.cases;
+        }
+
         // ----------------------------------------------------- Private Methods
 
+        private void clearCompiled() {
+            compiled = new CompiledLookups();
+        }
+
+        private static boolean isSnapshotOf(NavigationCase[] snapshot, Set<NavigationCase> caseSet) {
+            if (snapshot.length != caseSet.size()) {
+                return false;
+            }
+            int i = 0;
+            for (NavigationCase cnc : caseSet) {
+                if (i == snapshot.length || snapshot[i++] != cnc) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         private void updateWildcards(String fromViewId) {
 
             if (!mapToLookForNavCase.containsKey(fromViewId) && fromViewId.endsWith("*")) {
@@ -1582,5 +1755,106 @@ public class NavigationHandlerImpl extends ConfigurableNavigationHandler {
             }
         }
 
+        // ---------------------------------------------------------- Nested Classes
+
+        /**
+         * An entry of the map, which clears the compiled lookups when its case set is replaced.
+         */
+        private final class NavigationEntry implements Entry<String, Set<NavigationCase>> {
+
+            private final Entry<String, Set<NavigationCase>> entry;
+
+            NavigationEntry(Entry<String, Set<NavigationCase>> entry) {
+                this.entry = entry;
+            }
+
+            @Override
+            public String getKey() {
+                return entry.getKey();
+            }
+
+            @Override
+            public Set<NavigationCase> getValue() {
+                return entry.getValue();
+            }
+
+            @Override
+            public Set<NavigationCase> setValue(Set<NavigationCase> value) {
+                Set<NavigationCase> previous = entry.setValue(value);
+                clearCompiled();
+                return previous;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                return entry.equals(obj);
+            }
+
+            @Override
+            public int hashCode() {
+                return entry.hashCode();
+            }
+
+            @Override
+            public String toString() {
+                return entry.toString();
+            }
+        }
+
+    }
+
+    private static final class CaseKey {
+
+        private final String fromViewId;
+        private final String fromAction;
+        private final String outcome;
+        private final int hashCode;
+
+        CaseKey(String fromViewId, String fromAction, String outcome) {
+            this.fromViewId = fromViewId;
+            this.fromAction = fromAction;
+            this.outcome = outcome;
+            hashCode = Objects.hash(fromViewId, fromAction, outcome);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CaseKey)) {
+                return false;
+            }
+            CaseKey other = (CaseKey) obj;
+            return fromViewId.equals(other.fromViewId) && Objects.equals(fromAction, other.fromAction) && Objects.equals(outcome, other.outcome);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class CompiledLookups {
+
+        // The wildcard from-view-id prefixes matching a view id, longest first.
+        private final ConcurrentMap<String, Set<String>> wildcardMatches = new ConcurrentHashMap<>();
+
+        // The cases of each from-view-id the matching cases were compiled from.
+        private final ConcurrentMap<String, NavigationCase[]> caseSets = new ConcurrentHashMap<>();
+
+        // The cases of a from-view-id matching an action and outcome, in evaluation order.
+        private final ConcurrentMap<CaseKey, CompiledCases> cases = new ConcurrentHashMap<>();
+    }
+
+    private static final class CompiledCases {
+
+        private final NavigationCase[] caseSet;
+        private final List<NavigationCase> cases;
+
+        CompiledCases(NavigationCase[] caseSet, List<NavigationCase> cases) {
+            this.caseSet = caseSet;
+            this.cases = cases;
+        }
     }
 }
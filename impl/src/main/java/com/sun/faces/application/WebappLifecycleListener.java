@@ -34,6 +34,8 @@ import com.sun.faces.flow.FlowCDIContext;
 import com.sun.faces.io.FastStringWriter;
 import com.sun.faces.mgbean.BeanManager;
 import com.sun.faces.renderkit.StateHelper;
+import com.sun.faces.spi.ViewStateStore;
+import com.sun.faces.spi.ViewStateStoreFactory;
 import com.sun.faces.util.FacesLogger;
 import com.sun.faces.util.Util;
 
@@ -213,6 +215,14 @@ public class WebappLifecycleListener {
         if (manager != null) {
             manager.sessionDestroyed(event);
         }
+
+        ViewStateStore viewStateStore = (ViewStateStore) servletContext.getAttribute(ViewStateStoreFactory.VIEW_STATE_STORE);
+        if (viewStateStore != null) {
+            String sessionKey = (String) event.getSession().getAttribute(ViewStateStoreFactory.SESSION_KEY);
+            if (sessionKey != null) {
+                viewStateStore.removeSession(sessionKey);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.application.resource;
+
+/**
+ * <p>
+ * A single byte range requested through the HTTP <code>Range</code> header, see RFC 7233. Only a single range is
+ * supported; requests for multiple ranges are answered with the complete resource, as permitted by the RFC.
+ * </p>
+ */
+final class ByteRange {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    /**
+     * Returned by {@link #parse(String, long)} for a range which does not overlap the resource.
+     */
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private final long start;
+    private final long end;
+
+    // ------------------------------------------------------------ Constructors
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    // ------------------------------------------------- Package Private Methods
+
+    /**
+     * @param header the value of the <code>Range</code> header
+     * @param length the length of the resource in bytes
+     * @return the requested range, limited to the length of the resource, {@link #UNSATISFIABLE} if the range does
+     * not overlap the resource, or <code>null</code> if the header should be ignored because it is invalid or requests
+     * multiple ranges
+     */
+    static ByteRange parse(String header, long length) {
+
+        if (!header.startsWith(BYTES_UNIT)) {
+            return null;
+        }
+
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash == -1 || spec.indexOf(',') != -1) {
+            return null;
+        }
+
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                // suffix range, the final bytes of the resource
+                long suffixLength = parsePosition(last);
+                if (suffixLength == 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+            }
+
+            long start = parsePosition(first);
+            long end = last.isEmpty() ? length - 1 : parsePosition(last);
+            if (end < start) {
+                return last.isEmpty() ? UNSATISFIABLE : null;
+            }
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(start, Math.min(end, length - 1));
+        } catch (NumberFormatException nfe) {
+            return null;
+        }
+
+    }
+
+    /**
+     * @return the position of the first byte of this range
+     */
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the position of the last byte of this range, inclusive
+     */
+    long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the number of bytes in this range
+     */
+    long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * @param length the length of the resource in bytes
+     * @return the value of the <code>Content-Range</code> response header for this range
+     */
+    String toContentRange(long length) {
+        return this == UNSATISFIABLE ? "bytes */" + length : "bytes " + start + '-' + end + '/' + length;
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static long parsePosition(String value) {
+        if (value.isEmpty() || value.charAt(0) == '-' || value.charAt(0) == '+') {
+            throw new NumberFormatException(value);
+        }
+        return Long.parseLong(value);
+    }
+
+}
@@ -43,6 +43,7 @@ public class ClientResourceInfo extends ResourceInfo {
     boolean compressible;
     boolean supportsEL;
     private volatile long lastModified = Long.MIN_VALUE;
+    private volatile String contentHash;
 
     /**
      * Constructs a new <code>ClientResourceInfo</code> using the specified details. The {@link ResourceHelper} of the
@@ -112,6 +113,7 @@ public class ClientResourceInfo extends ResourceInfo {
         compressible = other.compressible;
         isDevStage = other.isDevStage;
         lastModified = other.lastModified;
+        contentHash = other.contentHash;
         supportsEL = other.supportsEL;
     }
 
@@ -174,6 +176,33 @@ public class ClientResourceInfo extends ResourceInfo {
 
     }
 
+    /**
+     * Returns a hash of the content of this resource, see {@link ResourceHelper#getContentHash(ResourceInfo, FacesContext)}.
+     * The hash is computed once for the lifetime of this <code>ClientResourceInfo</code> instance, unless this context is
+     * in development stage.
+     *
+     * @param ctx the {@link FacesContext} for the current request
+     *
+     * @return the content hash, or <code>null</code> if this resource may contain EL expressions or its content cannot
+     * be read
+     */
+    public String getContentHash(FacesContext ctx) {
+
+        if (supportsEL) {
+            return null;
+        }
+        if (isDevStage) {
+            return helper.getContentHash(this, ctx);
+        }
+
+        String hash = contentHash;
+        if (hash == null) {
+            contentHash = hash = helper.getContentHash(this, ctx);
+        }
+        return hash;
+
+    }
+
     @Override
     public String toString() {
         return "ResourceInfo{" + "name='" + name + '\'' + ", version=\'" + (version != null ? version : "NONE") + '\'' + ", libraryName='" + libraryName
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.application.resource;
+
+import static java.util.logging.Level.FINE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Logger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.faces.util.ConcurrentLRUMap;
+import com.sun.faces.util.FacesLogger;
+
+import jakarta.faces.context.FacesContext;
+
+/**
+ * <p>
+ * A size-bounded cache holding the complete bodies of static resources, so that a resource request can be served with
+ * a single write of a byte array instead of opening and copying the resource for every request.
+ * </p>
+ *
+ * <p>
+ * For compressible resources the gzip and deflate encoded bodies are computed once, when the resource is first loaded,
+ * and only kept if they are smaller than the original content. Resources which support EL are never cached as their
+ * content depends on the request.
+ * </p>
+ *
+ * <p>
+ * Entries are keyed by the path of the resource. An entry is only used as long as the {@link ResourceInfo} it was loaded for is the one returned by the
+ * {@link ResourceCache}, so the content is reloaded whenever the <code>ResourceCache</code> discards the resource after
+ * its update check period (<code>com.sun.faces.resourceUpdateCheckPeriod</code>). Entries are kept in a
+ * {@link ConcurrentLRUMap} weighted by the size of their bodies, so once the combined size of all bodies exceeds the
+ * configured maximum, the least recently used entries are evicted. Resources larger than a quarter of the maximum size
+ * are not cached at all.
+ * </p>
+ */
+final class ResourceContentCache {
+
+    private static final Logger LOGGER = FacesLogger.RESOURCE.getLogger();
+
+    // the expected number of cached resources
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ConcurrentLRUMap<String, Content> contents;
+    private final long maxEntrySize;
+
+    // ------------------------------------------------------------ Constructors
+
+    /**
+     * @param maxSize the maximum combined size, in bytes, of the cached bodies
+     */
+    ResourceContentCache(long maxSize) {
+        contents = new ContentMap(maxSize);
+        maxEntrySize = maxSize / 4;
+    }
+
+    // ------------------------------------------------- Package Private Methods
+
+    /**
+     * @param info the resource to obtain the content for
+     * @param ctx the {@link FacesContext} for the current request
+     * @return the cached content, loading it if necessary, or <code>null</code> if the resource cannot be cached or
+     * could not be found
+     * @throws IOException if an error occurs reading the resource
+     */
+    Content get(ResourceInfo info, FacesContext ctx) throws IOException {
+
+        if (!(info instanceof ClientResourceInfo) || ((ClientResourceInfo) info).supportsEL()) {
+            return null;
+        }
+
+        String path = info.getPath();
+        Content content = contents.get(path);
+        if (content != null) {
+            if (content.info == info) {
+                return content;
+            }
+
+            // the ResourceCache has discarded the ResourceInfo this content was loaded for
+            contents.remove(path, content);
+        }
+
+        ClientResourceInfo clientInfo = (ClientResourceInfo) info;
+        byte[] bytes = read(clientInfo, ctx);
+        if (bytes == null) {
+            return null;
+        }
+
+        return add(info, bytes, clientInfo.isCompressable());
+    }
+
+    /**
+     * Add the content of the specified resource to the cache, computing the compressed variants if requested.
+     *
+     * @param info the resource the content belongs to, cached by its path
+     * @param bytes the uncompressed content
+     * @param compress <code>true</code> if the content should also be kept in compressed form
+     * @return the cached content
+     * @throws IOException if an error occurs compressing the content
+     */
+    Content add(ResourceInfo info, byte[] bytes, boolean compress) throws IOException {
+
+        Content content = new Content(info, bytes, compress);
+        contents.put(info.getPath(), content);
+
+        if (LOGGER.isLoggable(FINE)) {
+            LOGGER.log(FINE, "Cached content of {0}, {1} bytes", new Object[] { info, content.size() });
+        }
+
+        return content;
+    }
+
+    /**
+     * @return the combined size of all cached bodies in bytes
+     */
+    long size() {
+        return contents.getWeight();
+    }
+
+    /**
+     * Empty the cache.
+     */
+    void clear() {
+        contents.clear();
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private byte[] read(ClientResourceInfo info, FacesContext ctx) throws IOException {
+
+        ResourceHelper helper = info.getHelper();
+        InputStream in = helper.getNonCompressedInputStream(info, ctx);
+        if (in == null) {
+            ClientResourceInfo infoWithoutLocalePrefix = new ClientResourceInfo(info, false);
+            in = helper.getNonCompressedInputStream(infoWithoutLocalePrefix, ctx);
+            if (in == null) {
+                return null;
+            }
+            info.copy(infoWithoutLocalePrefix);
+        }
+
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            for (int read = stream.read(buf); read != -1; read = stream.read(buf)) {
+                if (out.size() + read > maxEntrySize) {
+                    return null;
+                }
+                out.write(buf, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] compress(byte[] bytes, boolean gzip) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(bytes.length / 2);
+        try (OutputStream out = gzip ? new GZIPOutputStream(baos) : new DeflaterOutputStream(baos)) {
+            out.write(bytes);
+        }
+        byte[] compressed = baos.toByteArray();
+        return compressed.length < bytes.length ? compressed : null;
+    }
+
+    // ---------------------------------------------------------- Nested Classes
+
+    /**
+     * Weighs the cached bodies by their size in bytes.
+     */
+    private static final class ContentMap extends ConcurrentLRUMap<String, Content> {
+
+        private static final long serialVersionUID = -3320453637520867093L;
+
+        ContentMap(long maxSize) {
+            super(INITIAL_CAPACITY, maxSize);
+        }
+
+        @Override
+        protected long weigh(Content content) {
+            return content.size();
+        }
+
+    }
+
+    /**
+     * The content codings a cached body is available in, in order of preference.
+     */
+    enum Encoding {
+
+        GZIP("gzip"), DEFLATE("deflate"), IDENTITY("identity");
+
+        private final String name;
+
+        Encoding(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the value of the <code>Content-Encoding</code> header for this coding
+         */
+        String getName() {
+            return name;
+        }
+
+    }
+
+    /**
+     * The cached bodies of a single resource.
+     */
+    static final class Content {
+
+        private final ResourceInfo info;
+        private final byte[] identity;
+        private final byte[] gzip;
+        private final byte[] deflate;
+
+        Content(ResourceInfo info, byte[] identity, boolean compress) throws IOException {
+            this.info = info;
+            this.identity = identity;
+            gzip = compress ? compress(identity, true) : null;
+            deflate = compress ? compress(identity, false) : null;
+        }
+
+        /**
+         * @return <code>true</code> if the body is available in a compressed form, in which case the response varies by
+         * <code>Accept-Encoding</code>
+         */
+        boolean isCompressed() {
+            return gzip != null || deflate != null;
+        }
+
+        /**
+         * Select the preferred encoding which is available for this content and accepted by the user agent.
+         *
+         * @param acceptEncoding the values of the <code>Accept-Encoding</code> request header, may be <code>null</code>
+         * @return the encoding to send
+         */
+        Encoding negotiate(String[] acceptEncoding) {
+            if (acceptEncoding != null && isCompressed()) {
+                if (gzip != null && accepts(acceptEncoding, Encoding.GZIP)) {
+                    return Encoding.GZIP;
+                }
+                if (deflate != null && accepts(acceptEncoding, Encoding.DEFLATE)) {
+                    return Encoding.DEFLATE;
+                }
+            }
+            return Encoding.IDENTITY;
+        }
+
+        /**
+         * @param encoding the encoding as returned by {@link #negotiate(String[])}
+         * @return the body in the specified encoding. The returned array is shared and must not be modified.
+         */
+        byte[] getBytes(Encoding encoding) {
+            switch (encoding) {
+            case GZIP:
+                return gzip;
+            case DEFLATE:
+                return deflate;
+            default:
+                return identity;
+            }
+        }
+
+        private int size() {
+            return identity.length + (gzip != null ? gzip.length : 0) + (deflate != null ? deflate.length : 0);
+        }
+
+        /*
+         * See RFC 7231, section 5.3.4. A coding is accepted if it is listed, or matched by "*", with a non-zero quality.
+         */
+        private static boolean accepts(String[] acceptEncoding, Encoding encoding) {
+            Boolean wildcard = null;
+            for (String value : acceptEncoding) {
+                for (String coding : value.split(",")) {
+                    String[] parts = coding.split(";");
+                    String name = parts[0].trim();
+                    boolean accepted = !isZeroQuality(parts);
+                    if (name.equalsIgnoreCase(encoding.getName())) {
+                        return accepted;
+                    }
+                    if ("*".equals(name)) {
+                        wildcard = accepted;
+                    }
+                }
+            }
+            return wildcard != null && wildcard;
+        }
+
+        private static boolean isZeroQuality(String[] parameters) {
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        return Float.parseFloat(parameter.substring(2).trim()) == 0;
+                    } catch (NumberFormatException nfe) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -18,6 +18,7 @@ package com.sun.faces.application.resource;
 
 import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.DefaultResourceMaxAge;
 import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.ResourceBufferSize;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.ResourceContentCacheSize;
 import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.ResourceExcludes;
 import static com.sun.faces.util.RequestStateManager.RESOURCE_REQUEST;
 import static com.sun.faces.util.Util.getFacesMapping;
@@ -28,16 +29,25 @@ import static jakarta.faces.application.ProjectStage.Development;
 import static jakarta.faces.application.ProjectStage.Production;
 import static jakarta.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 import static jakarta.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static jakarta.servlet.http.HttpServletResponse.SC_PARTIAL_CONTENT;
+import static jakarta.servlet.http.HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE;
 import static java.lang.Boolean.FALSE;
 import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.WARNING;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +67,8 @@ import jakarta.faces.application.ResourceHandler;
 import jakarta.faces.application.ResourceVisitOption;
 import jakarta.faces.context.ExternalContext;
 import jakarta.faces.context.FacesContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * This is the default implementation of {@link ResourceHandler}.
@@ -71,6 +83,7 @@ public class ResourceHandlerImpl extends ResourceHandler {
     private long creationTime;
     private long maxAge;
     private WebConfiguration webconfig;
+    private ResourceContentCache contentCache;
 
     // ------------------------------------------------------------ Constructors
 
@@ -81,10 +94,12 @@ public class ResourceHandlerImpl extends ResourceHandler {
 
         creationTime = System.currentTimeMillis();
         webconfig = WebConfiguration.getInstance();
-        ExternalContext extContext = FacesContext.getCurrentInstance().getExternalContext();
+        FacesContext context = FacesContext.getCurrentInstance();
+        ExternalContext extContext = context.getExternalContext();
         manager = ApplicationAssociate.getInstance(extContext).getResourceManager();
         initExclusions(extContext.getApplicationMap());
         initMaxAge();
+        initContentCache(context);
     }
 
     // ------------------------------------------- Methods from Resource Handler
@@ -283,6 +298,13 @@ public class ResourceHandlerImpl extends ResourceHandler {
 
         if (resource != null) {
             if (resource.userAgentNeedsUpdate(context)) {
+                if (resource instanceof ResourceImpl && handleRangeRequest(context, (ResourceImpl) resource)) {
+                    return;
+                }
+                if (contentCache != null && resource instanceof ResourceImpl && handleCachedResourceRequest(context, (ResourceImpl) resource)) {
+                    return;
+                }
+
                 ReadableByteChannel resourceChannel = null;
                 WritableByteChannel out = null;
                 ByteBuffer buf = allocateByteBuffer();
@@ -342,6 +364,178 @@ public class ResourceHandlerImpl extends ResourceHandler {
 
     }
 
+    /**
+     * Serve the resource from the {@link ResourceContentCache} with a single write.
+     *
+     * @return <code>false</code> if the resource cannot be cached, in which case nothing has been written
+     */
+    private boolean handleCachedResourceRequest(FacesContext context, ResourceImpl resource) throws IOException {
+
+        ResourceContentCache.Content content;
+        try {
+            content = contentCache.get(resource.getResourceInfo(), context);
+        } catch (IOException ioe) {
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Unable to cache " + resource, ioe);
+            }
+            return false;
+        }
+        if (content == null) {
+            return false;
+        }
+
+        ExternalContext extContext = context.getExternalContext();
+        ResourceContentCache.Encoding encoding = content.negotiate(extContext.getRequestHeaderValuesMap().get("accept-encoding"));
+        byte[] body = content.getBytes(encoding);
+
+        String contentType = resource.getContentType();
+        if (contentType != null) {
+            extContext.setResponseContentType(contentType);
+        }
+        if (content.isCompressed()) {
+            extContext.setResponseHeader("Vary", "Accept-Encoding");
+        }
+        if (encoding != ResourceContentCache.Encoding.IDENTITY) {
+            extContext.setResponseHeader("Content-Encoding", encoding.getName());
+        }
+        handleHeaders(context, resource);
+        extContext.setResponseContentLength(body.length);
+        extContext.getResponseOutputStream().write(body);
+
+        return true;
+    }
+
+    /**
+     * Serve a single byte range of the resource if the request asks for one, see RFC 7233. Ranges always refer to the
+     * uncompressed content. File backed resources are transferred using {@link FileChannel#transferTo}.
+     *
+     * @return <code>false</code> if there is no <code>Range</code> header, or if it has to be ignored, in which case
+     * nothing has been written
+     */
+    private boolean handleRangeRequest(FacesContext context, ResourceImpl resource) throws IOException {
+
+        ExternalContext extContext = context.getExternalContext();
+        Object request = extContext.getRequest();
+        if (!(request instanceof HttpServletRequest) || !"GET".equals(((HttpServletRequest) request).getMethod())) {
+            return false;
+        }
+
+        Map<String, String> requestHeaders = extContext.getRequestHeaderMap();
+        String rangeHeader = requestHeaders.get("Range");
+        if (rangeHeader == null) {
+            return false;
+        }
+
+        // the content of resources supporting EL depends on the request
+        ResourceInfo info = resource.getResourceInfo();
+        if (!(info instanceof ClientResourceInfo) || ((ClientResourceInfo) info).supportsEL()) {
+            return false;
+        }
+
+        // If-Range only matches the strong entity tag of the identity representation; a date, or the entity tag of a
+        // content coded representation, may refer to a compressed body the range does not apply to
+        Map<String, String> responseHeaders = resource.getResponseHeaders();
+        String ifRange = requestHeaders.get("If-Range");
+        if (ifRange != null && (ifRange.startsWith("W/") || !ifRange.equals(responseHeaders.get("ETag")))) {
+            return false;
+        }
+
+        URL url = resource.getURL();
+        if (url == null) {
+            return false;
+        }
+
+        File file = toFile(url);
+        if (file != null) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteRange range = ByteRange.parse(rangeHeader, channel.size());
+                if (range == null) {
+                    return false;
+                }
+                if (sendRangeHeaders(context, resource, range, channel.size())) {
+                    WritableByteChannel out = Channels.newChannel(extContext.getResponseOutputStream());
+                    for (long position = range.getStart(), end = range.getEnd() + 1; position < end;) {
+                        long transferred = channel.transferTo(position, end - position, out);
+                        if (transferred <= 0) {
+                            break;
+                        }
+                        position += transferred;
+                    }
+                }
+                return true;
+            }
+        }
+
+        URLConnection conn = url.openConnection();
+        conn.setUseCaches(false);
+        try (InputStream in = conn.getInputStream()) {
+            long length = conn.getContentLengthLong();
+            ByteRange range = length == -1 ? null : ByteRange.parse(rangeHeader, length);
+            if (range == null) {
+                return false;
+            }
+            if (sendRangeHeaders(context, resource, range, length)) {
+                skipFully(in, range.getStart());
+                OutputStream out = extContext.getResponseOutputStream();
+                byte[] buf = new byte[(int) Math.min(range.getLength(), getResourceBufferSize())];
+                long remaining = range.getLength();
+                for (int read; remaining > 0 && (read = in.read(buf, 0, (int) Math.min(buf.length, remaining))) != -1;) {
+                    out.write(buf, 0, read);
+                    remaining -= read;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the range is satisfiable and its content should be written
+     */
+    private boolean sendRangeHeaders(FacesContext context, Resource resource, ByteRange range, long length) {
+
+        ExternalContext extContext = context.getExternalContext();
+        extContext.setResponseHeader("Accept-Ranges", "bytes");
+        extContext.setResponseHeader("Content-Range", range.toContentRange(length));
+        if (range == ByteRange.UNSATISFIABLE) {
+            extContext.setResponseStatus(SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return false;
+        }
+
+        extContext.setResponseStatus(SC_PARTIAL_CONTENT);
+        String contentType = resource.getContentType();
+        if (contentType != null) {
+            extContext.setResponseContentType(contentType);
+        }
+        handleHeaders(context, resource);
+        extContext.setResponseHeader("Content-Length", String.valueOf(range.getLength()));
+        return true;
+    }
+
+    private static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            File file = new File(url.toURI());
+            return file.isFile() ? file : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        for (long remaining = count; remaining > 0;) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new IOException("Unexpected end of stream");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
     private boolean libraryNameIsSafe(String libraryName) {
         assert null != libraryName;
         boolean result;
@@ -554,15 +748,63 @@ public class ResourceHandlerImpl extends ResourceHandler {
         maxAge = Long.parseLong(webconfig.getOptionValue(DefaultResourceMaxAge));
     }
 
+    /**
+     * Resource content is not cached in development, where resources are expected to change, or if
+     * <code>com.sun.faces.resourceContentCacheSize</code> is not a positive number of bytes.
+     */
+    private void initContentCache(FacesContext context) {
+        if (context.isProjectStage(Development)) {
+            return;
+        }
+
+        long size;
+        try {
+            size = Long.parseLong(webconfig.getOptionValue(ResourceContentCacheSize));
+        } catch (NumberFormatException nfe) {
+            if (LOGGER.isLoggable(WARNING)) {
+                LOGGER.log(WARNING, "Invalid value ''{0}'' for {1}, resource content will not be cached",
+                        new Object[] { webconfig.getOptionValue(ResourceContentCacheSize), ResourceContentCacheSize.getQualifiedName() });
+            }
+            size = 0;
+        }
+
+        if (size > 0) {
+            contentCache = new ResourceContentCache(size);
+        }
+    }
+
     private void handleHeaders(FacesContext ctx, Resource resource) {
 
         ExternalContext extContext = ctx.getExternalContext();
+        String contentCoding = getResponseContentEncoding(extContext);
         for (Map.Entry<String, String> cur : resource.getResponseHeaders().entrySet()) {
-            extContext.setResponseHeader(cur.getKey(), cur.getValue());
+            String value = cur.getValue();
+            if (contentCoding != null && "ETag".equals(cur.getKey())) {
+                // each content coding is a different representation and needs its own entity tag
+                value = ResourceImpl.getEntityTag(value, contentCoding);
+            }
+            extContext.setResponseHeader(cur.getKey(), value);
         }
     }
 
+    /*
+     * The Content-Encoding is set either while serving a cached compressed body, or by ResourceHelper when the
+     * resource input stream is gzipped on the fly.
+     */
+    private static String getResponseContentEncoding(ExternalContext extContext) {
+
+        Object response = extContext.getResponse();
+        if (response instanceof HttpServletResponse) {
+            return ((HttpServletResponse) response).getHeader("Content-Encoding");
+        }
+        return null;
+    }
+
     private ByteBuffer allocateByteBuffer() {
+        return ByteBuffer.allocate(getResourceBufferSize());
+    }
+
+    private int getResourceBufferSize() {
 
         int size;
         try {
@@ -575,7 +817,7 @@ public class ResourceHandlerImpl extends ResourceHandler {
             size = Integer.parseInt(ResourceBufferSize.getDefaultValue());
         }
 
-        return ByteBuffer.allocate(size);
+        return size;
     }
 
 }
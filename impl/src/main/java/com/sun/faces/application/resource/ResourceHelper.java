@@ -30,8 +30,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -64,6 +67,11 @@ public abstract class ResourceHelper {
 
     private static final Logger LOGGER = FacesLogger.RESOURCE.getLogger();
 
+    /**
+     * Number of digest bytes used for content hashes, 128 bits.
+     */
+    private static final int CONTENT_HASH_LENGTH = 16;
+
     /**
      * This pattern represents a version for a library. Examples: 1_1 1_11 1_11_1 1_11_1_2
      */
@@ -258,6 +266,37 @@ public abstract class ResourceHelper {
 
     }
 
+    /**
+     * <p>
+     * Compute a hash of the uncompressed content of the specified resource. The hash is the base64url encoded, truncated
+     * SHA-256 digest of the content, suitable for strong entity tags and for use in URLs.
+     * </p>
+     *
+     * @param resource the resource in question
+     * @param ctx the {@link FacesContext} for the current request
+     * @return the hash, or <code>null</code> if the content of the resource cannot be read
+     */
+    public String getContentHash(ResourceInfo resource, FacesContext ctx) {
+
+        try (InputStream in = getNonCompressedInputStream(resource, ctx)) {
+            if (in == null) {
+                return null;
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buf = new byte[8192];
+            for (int read = in.read(buf); read != -1; read = in.read(buf)) {
+                digest.update(buf, 0, read);
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), CONTENT_HASH_LENGTH));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Unable to compute content hash of " + resource, e);
+            }
+            return null;
+        }
+
+    }
+
     // ------------------------------------------------------- Protected Methods
 
     /**
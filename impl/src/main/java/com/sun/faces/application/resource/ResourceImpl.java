@@ -16,6 +16,7 @@
 
 package com.sun.faces.application.resource;
 
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableResourceContentHash;
 import static com.sun.faces.util.Util.getFacesMapping;
 import static com.sun.faces.util.Util.getFirstWildCardMappingToFacesServlet;
 import static com.sun.faces.util.Util.getLastModified;
@@ -49,6 +50,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.sun.faces.application.ApplicationAssociate;
+import com.sun.faces.config.WebConfiguration;
 import com.sun.faces.util.FacesLogger;
 
 import jakarta.faces.application.ProjectStage;
@@ -73,6 +75,16 @@ public class ResourceImpl extends Resource implements Externalizable {
 
     private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
 
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    /**
+     * Request parameter carrying the content hash of a fingerprinted resource URL.
+     */
+    static final String CONTENT_HASH_PARAM = "hash";
+
+    /* Lifespan of fingerprinted resources, one year as recommended by RFC 7234 for content that never expires */
+    private static final long FINGERPRINTED_MAX_AGE = 31536000L;
+
     private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
 
     /* The meta data on the resource */
@@ -172,9 +184,18 @@ public class ResourceImpl extends Resource implements Externalizable {
                 responseHeaders = new HashMap<>(6, 1.0f);
             }
 
+            FacesContext context = FacesContext.getCurrentInstance();
+            String contentHash = getContentHash(context);
+            boolean fingerprinted = contentHash != null
+                    && contentHash.equals(context.getExternalContext().getRequestParameterMap().get(CONTENT_HASH_PARAM));
+
             long expiresTime;
-            if (FacesContext.getCurrentInstance().isProjectStage(Development)) {
+            if (context.isProjectStage(Development)) {
                 expiresTime = new Date().getTime();
+            } else if (fingerprinted) {
+                // the URL changes along with the content, so the response may be cached for good
+                expiresTime = new Date().getTime() + FINGERPRINTED_MAX_AGE * 1000L;
+                responseHeaders.put("Cache-Control", "public, max-age=" + FINGERPRINTED_MAX_AGE + ", immutable");
             } else {
                 expiresTime = new Date().getTime() + maxAge;
             }
@@ -196,7 +217,9 @@ public class ResourceImpl extends Resource implements Externalizable {
                     lastModified = initialTime;
                 }
                 responseHeaders.put("Last-Modified", format.format(new Date(lastModified)));
-                if (lastModified != 0 && contentLength != -1) {
+                if (contentHash != null) {
+                    responseHeaders.put("ETag", '"' + contentHash + '"');
+                } else if (lastModified != 0 && contentLength != -1) {
                     responseHeaders.put("ETag", "W/\"" + contentLength + '-' + lastModified + '"');
                 }
             } catch (IOException ioe) {
@@ -295,6 +318,12 @@ public class ResourceImpl extends Resource implements Externalizable {
             queryStarted = true;
         }
 
+        String contentHash = getContentHash(context);
+        if (contentHash != null) {
+            uri += (queryStarted ? "&" : "?") + CONTENT_HASH_PARAM + '=' + contentHash;
+            queryStarted = true;
+        }
+
         if (JSF_SCRIPT_RESOURCE_NAME.equals(getResourceName()) && JSF_SCRIPT_LIBRARY_NAME.equals(getLibraryName())) {
             ProjectStage stage = context.getApplication().getProjectStage();
             switch (stage) {
@@ -344,6 +373,15 @@ public class ResourceImpl extends Resource implements Externalizable {
 
         Map<String, String> requestHeaders = context.getExternalContext().getRequestHeaderMap();
 
+        // RFC 7232, section 6: If-None-Match takes precedence over If-Modified-Since
+        String ifNoneMatch = requestHeaders.get(IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String contentHash = getContentHash(context);
+            if (contentHash != null) {
+                return !matchesEntityTag(ifNoneMatch, contentHash);
+            }
+        }
+
         if (requestHeaders.containsKey(IF_MODIFIED_SINCE)) {
             initResourceInfo();
             /*
@@ -363,8 +401,68 @@ public class ResourceImpl extends Resource implements Externalizable {
 
     }
 
+    // ------------------------------------------------- Package Private Methods
+
+    /**
+     * @return the {@link ResourceInfo} backing this resource
+     */
+    ResourceInfo getResourceInfo() {
+        initResourceInfo();
+        return resourceInfo;
+    }
+
+    /**
+     * Weak comparison of the entity tags listed in an <code>If-None-Match</code> header against the strong entity tag
+     * of the specified content hash, see RFC 7232, section 3.2. The entity tags of the content coded representations,
+     * see {@link #getEntityTag(String, String)}, match as well.
+     *
+     * @param ifNoneMatch the value of the <code>If-None-Match</code> header
+     * @param contentHash the content hash of the resource
+     * @return <code>true</code> if any of the listed entity tags matches
+     */
+    static boolean matchesEntityTag(String ifNoneMatch, String contentHash) {
+
+        for (String entityTag : ifNoneMatch.split(",")) {
+            String tag = entityTag.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() < contentHash.length() + 2 || tag.charAt(0) != '"' || !tag.endsWith("\"") || !tag.startsWith(contentHash, 1)) {
+                continue;
+            }
+            int end = tag.length() - 1;
+            int suffix = contentHash.length() + 1;
+            if (suffix == end || tag.charAt(suffix) == '-' && isContentCoding(tag.substring(suffix + 1, end))) {
+                return true;
+            }
+        }
+        return false;
+
+    }
+
+    /**
+     * @param entityTag the entity tag of the identity representation
+     * @param contentCoding the <code>Content-Encoding</code> of the response
+     * @return the entity tag of the content coded representation, e.g. <code>"hash-gzip"</code>
+     */
+    static String getEntityTag(String entityTag, String contentCoding) {
+
+        if (contentCoding == null || !entityTag.endsWith("\"") || entityTag.length() < 2) {
+            return entityTag;
+        }
+        return entityTag.substring(0, entityTag.length() - 1) + '-' + contentCoding + '"';
+
+    }
+
     // --------------------------------------------------------- Private Methods
 
+    private static boolean isContentCoding(String coding) {
+        return "gzip".equals(coding) || "deflate".equals(coding);
+    }
+
     /*
      * This method should only be called if the 'If-Modified-Since' header is present in the request header map.
      */
@@ -429,6 +527,23 @@ public class ResourceImpl extends Resource implements Externalizable {
 
     // --------------------------------------------------------- Private Methods
 
+    /*
+     * Content hashes are only used when enabled, and never in development where resources are expected to change.
+     */
+    private String getContentHash(FacesContext context) {
+
+        if (context.isProjectStage(Development) || !WebConfiguration.getInstance(context.getExternalContext()).isOptionEnabled(EnableResourceContentHash)) {
+            return null;
+        }
+
+        initResourceInfo();
+        if (resourceInfo instanceof ClientResourceInfo) {
+            return ((ClientResourceInfo) resourceInfo).getContentHash(context);
+        }
+        return null;
+
+    }
+
     private boolean isResourceRequest() {
         FacesContext ctx = FacesContext.getCurrentInstance();
         return ctx.getApplication().getResourceHandler().isResourceRequest(ctx);
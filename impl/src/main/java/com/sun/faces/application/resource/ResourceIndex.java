@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.application.resource;
+
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.INFO;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Logger;
+
+import com.sun.faces.util.FacesLogger;
+
+/**
+ * <p>
+ * An immutable index of the names of all files and directories below the resource and contract directories of the web
+ * application and of the classpath, built once at startup.
+ * </p>
+ *
+ * <p>
+ * Library names, locale prefixes, contract names, versions and resource names are all directory or file names below
+ * these roots, so a resource or library whose name is not in the index cannot exist there. The {@link ResourceManager}
+ * uses this to reject requests for unknown resources with a single hash lookup instead of probing the web application,
+ * every class loader and possibly scanning JAR files. The index does not say that a resource exists; known names are
+ * still resolved by the {@link ResourceHelper}s as before.
+ * </p>
+ *
+ * <p>
+ * JAR files are discovered through the <code>META-INF/resources</code> and <code>META-INF/contracts</code> entries, and
+ * the manifest, visible to the class loaders, and are scanned in parallel. If any of them cannot be read, for example
+ * because the container uses an unsupported URL scheme, no index is built, so that no existing resource is ever
+ * rejected.
+ * </p>
+ */
+final class ResourceIndex {
+
+    private static final Logger LOGGER = FacesLogger.RESOURCE.getLogger();
+
+    private static final String MANIFEST = JarFile.MANIFEST_NAME;
+
+    private final Set<String> names;
+
+    // ------------------------------------------------------------ Constructors
+
+    private ResourceIndex(Set<String> names) {
+        this.names = names;
+    }
+
+    // ------------------------------------------------- Package Private Methods
+
+    /**
+     * Build the index.
+     *
+     * @param resourcePaths returns the paths below a web application directory, see
+     * {@link jakarta.faces.context.ExternalContext#getResourcePaths(String)}
+     * @param webappRoots the resource and contract directories of the web application
+     * @param loaders the class loaders to consult
+     * @param classpathRoots the resource and contract directories on the classpath
+     * @return the index, or <code>null</code> if it could not be built completely
+     */
+    static ResourceIndex build(Function<String, Set<String>> resourcePaths, Collection<String> webappRoots, List<ClassLoader> loaders,
+            Collection<String> classpathRoots) {
+
+        long start = System.currentTimeMillis();
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        AtomicBoolean complete = new AtomicBoolean(true);
+
+        for (String root : webappRoots) {
+            addWebappPaths(resourcePaths, root.endsWith("/") ? root : root + '/', names);
+        }
+
+        Map<String, URL> jars = new LinkedHashMap<>();
+        Map<String, File> directories = new LinkedHashMap<>();
+        try {
+            for (ClassLoader loader : loaders) {
+                for (String root : classpathRoots) {
+                    collectRoots(loader.getResources(root), root, jars, directories, complete);
+                }
+                collectRoots(loader.getResources(MANIFEST), MANIFEST, jars, directories, complete);
+            }
+        } catch (IOException ioe) {
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Unable to enumerate classpath resources", ioe);
+            }
+            complete.set(false);
+        }
+
+        jars.values().parallelStream().forEach(jar -> addJarEntries(jar, classpathRoots, names, complete));
+        directories.values().parallelStream().forEach(directory -> {
+            for (String root : classpathRoots) {
+                addFiles(new File(directory, root), names);
+            }
+        });
+
+        if (!complete.get()) {
+            if (LOGGER.isLoggable(INFO)) {
+                LOGGER.log(INFO, "Not all resource locations could be indexed, resource lookups will not use an index");
+            }
+            return null;
+        }
+
+        if (LOGGER.isLoggable(FINE)) {
+            LOGGER.log(FINE, "Indexed {0} resource names from {1} JAR files and {2} directories in {3} ms",
+                    new Object[] { names.size(), jars.size(), directories.size(), System.currentTimeMillis() - start });
+        }
+
+        return new ResourceIndex(names);
+    }
+
+    /**
+     * @param name a library, contract or resource name
+     * @return <code>false</code> if no file or directory with the final path element of the name exists below any of the
+     * indexed roots
+     */
+    boolean mayContain(String name) {
+        int slash = name.lastIndexOf('/');
+        return names.contains(slash == -1 ? name : name.substring(slash + 1));
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static void addWebappPaths(Function<String, Set<String>> resourcePaths, String directory, Set<String> names) {
+        Set<String> paths = resourcePaths.apply(directory);
+        if (paths == null) {
+            return;
+        }
+        for (String path : paths) {
+            if (path.endsWith("/")) {
+                addName(path.substring(0, path.length() - 1), names);
+                addWebappPaths(resourcePaths, path, names);
+            } else {
+                addName(path, names);
+            }
+        }
+    }
+
+    /*
+     * Records the JAR file or the classpath directory containing each of the URLs, which were looked up by the specified
+     * name.
+     */
+    private static void collectRoots(Enumeration<URL> urls, String name, Map<String, URL> jars, Map<String, File> directories, AtomicBoolean complete)
+            throws IOException {
+
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("jar".equals(url.getProtocol())) {
+                URLConnection conn = url.openConnection();
+                if (conn instanceof JarURLConnection) {
+                    URL jarFileURL = ((JarURLConnection) conn).getJarFileURL();
+                    jars.putIfAbsent(jarFileURL.toString(), url);
+                    continue;
+                }
+            } else if ("file".equals(url.getProtocol())) {
+                try {
+                    File file = new File(url.toURI());
+                    for (int i = 0, depth = name.split("/").length; i < depth && file != null; i++) {
+                        file = file.getParentFile();
+                    }
+                    if (file != null) {
+                        directories.putIfAbsent(file.getPath(), file);
+                        continue;
+                    }
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // fall through, this location cannot be indexed
+                }
+            }
+
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Unable to index resources in {0}", url);
+            }
+            complete.set(false);
+        }
+    }
+
+    private static void addJarEntries(URL url, Collection<String> roots, Set<String> names, AtomicBoolean complete) {
+        try {
+            // the JarFile is cached by the JDK, as for any other resource lookup, so it must not be closed
+            JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+                String entry = entries.nextElement().getName();
+                for (String root : roots) {
+                    if (entry.startsWith(root) && entry.length() > root.length() && entry.charAt(root.length()) == '/') {
+                        for (String path : entry.substring(root.length() + 1).split("/")) {
+                            addName(path, names);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | ClassCastException e) {
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Unable to index resources in " + url, e);
+            }
+            complete.set(false);
+        }
+    }
+
+    private static void addFiles(File directory, Set<String> names) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            names.add(file.getName());
+            if (file.isDirectory()) {
+                addFiles(file, names);
+            }
+        }
+    }
+
+    private static void addName(String path, Set<String> names) {
+        int slash = path.lastIndexOf('/');
+        String name = slash == -1 ? path : path.substring(slash + 1);
+        if (!name.isEmpty()) {
+            names.add(name);
+        }
+    }
+
+}
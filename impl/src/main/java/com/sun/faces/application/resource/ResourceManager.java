@@ -40,6 +40,7 @@ import jakarta.faces.application.ProjectStage;
 import jakarta.faces.application.ResourceHandler;
 import jakarta.faces.application.ResourceVisitOption;
 import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.ExternalContext;
 import jakarta.faces.context.FacesContext;
 
 /**
@@ -85,6 +86,11 @@ public class ResourceManager {
      */
     private ReentrantLock lock = new ReentrantLock();
 
+    /**
+     * Index used to reject lookups of unknown libraries and resources, <code>null</code> if not enabled.
+     */
+    private volatile ResourceIndex resourceIndex;
+
     // ------------------------------------------------------------ Constructors
 
     /*
@@ -174,6 +180,27 @@ public class ResourceManager {
         return faceletWebappResourceHelper.getViewResources(facesContext, path, maxDepth, options);
     }
 
+    /**
+     * <p>
+     * Build a {@link ResourceIndex} of the resource and contract directories of the web application and the classpath.
+     * Once built, libraries and resources whose names are not in the index are not looked up in these locations. As the
+     * index is never updated, this should only be used if resources are not added while the application is running.
+     * </p>
+     *
+     * @param extContext the {@link ExternalContext} of the application
+     */
+    public void initResourceIndex(ExternalContext extContext) {
+        List<ClassLoader> loaders = new ArrayList<>(2);
+        loaders.add(Util.getCurrentLoader(this));
+        if (!loaders.contains(ResourceManager.class.getClassLoader())) {
+            loaders.add(ResourceManager.class.getClassLoader());
+        }
+
+        resourceIndex = ResourceIndex.build(extContext::getResourcePaths,
+                Arrays.asList(webappResourceHelper.getBaseResourcePath(), webappResourceHelper.getBaseContractsPath()), loaders,
+                Arrays.asList(classpathResourceHelper.getBaseResourcePath(), classpathResourceHelper.getBaseContractsPath()));
+    }
+
     // ----------------------------------------------------- Private Methods
 
     private ResourceInfo findResourceCompressed(String libraryName, String resourceName, boolean isViewResource, String localePrefix, List<String> contracts,
@@ -285,11 +312,18 @@ public class ResourceManager {
             return null;
         }
 
-        ResourceInfo info = findResource(library, resourceName, localePrefix, compressable, isViewResource, ctx);
+        // An unknown resource can only be found by the FaceletWebappResourceHelper, which does not handle libraries
+        boolean indexed = isIndexed(resName);
+        if (!indexed && library != null) {
+            return null;
+        }
+        boolean skipToFaceletResourceHelper = isViewResource || !indexed;
+
+        ResourceInfo info = findResource(library, resourceName, localePrefix, compressable, skipToFaceletResourceHelper, ctx);
         if (info == null && localePrefix != null) {
             // no localized resource found, try to find a
             // resource that isn't localized
-            info = findResource(library, resourceName, null, compressable, isViewResource, ctx);
+            info = findResource(library, resourceName, null, compressable, skipToFaceletResourceHelper, ctx);
         }
 
         // If no resource has been found so far, and we have a library that
@@ -326,6 +360,15 @@ public class ResourceManager {
         return info;
     }
 
+    /**
+     * @param name a library or resource name
+     * @return <code>false</code> if the resource index is enabled and does not contain the name
+     */
+    private boolean isIndexed(String name) {
+        ResourceIndex index = resourceIndex;
+        return index == null || name == null || index.mayContain(name);
+    }
+
     /**
      * @param s input String
      * @return the String without a leading slash if it has one.
@@ -411,6 +454,10 @@ public class ResourceManager {
      */
     LibraryInfo findLibrary(String libraryName, String localePrefix, String contract, FacesContext ctx) {
 
+        if (!isIndexed(libraryName)) {
+            return null;
+        }
+
         LibraryInfo library = webappResourceHelper.findLibrary(libraryName, localePrefix, contract, ctx);
 
         if (library == null) {
@@ -427,6 +474,9 @@ public class ResourceManager {
     }
 
     LibraryInfo findLibraryOnClasspathWithZipDirectoryEntryScan(String libraryName, String localePrefix, String contract, FacesContext ctx, boolean forceScan) {
+        if (!isIndexed(libraryName)) {
+            return null;
+        }
         return classpathResourceHelper.findLibraryWithZipDirectoryEntryScan(libraryName, localePrefix, contract, ctx, forceScan);
     }
 
@@ -18,6 +18,7 @@ package com.sun.faces.application.view;
 
 import static com.sun.faces.RIConstants.DYNAMIC_ACTIONS;
 import static com.sun.faces.RIConstants.DYNAMIC_COMPONENT;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableIncrementalStateSaving;
 import static com.sun.faces.util.ComponentStruct.ADD;
 import static com.sun.faces.util.ComponentStruct.REMOVE;
 import static com.sun.faces.util.Util.isEmpty;
@@ -37,16 +38,20 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.sun.faces.component.StateModificationTracker;
+import com.sun.faces.config.WebConfiguration;
 import com.sun.faces.context.StateContext;
 import com.sun.faces.renderkit.RenderKitUtils;
 import com.sun.faces.util.ComponentStruct;
 import com.sun.faces.util.FacesLogger;
 import com.sun.faces.util.MessageUtils;
+import com.sun.faces.util.RequestStateManager;
 import com.sun.faces.util.Util;
 
 import jakarta.faces.FacesException;
 import jakarta.faces.application.ProjectStage;
 import jakarta.faces.component.NamingContainer;
+import jakarta.faces.component.TransientStateHelper;
 import jakarta.faces.component.UIComponent;
 import jakarta.faces.component.UIForm;
 import jakarta.faces.component.UIViewRoot;
@@ -72,6 +77,10 @@ public class FaceletPartialStateManagementStrategy extends StateManagementStrate
      * Stores the skip hint.
      */
     private static final String SKIP_ITERATION_HINT = "jakarta.faces.visit.SKIP_ITERATION";
+    /**
+     * Stores whether modified state should be tracked for incremental state saving.
+     */
+    private final boolean incrementalStateSaving;
 
     /**
      * Constructor.
@@ -86,6 +95,7 @@ public class FaceletPartialStateManagementStrategy extends StateManagementStrate
      * @param context the Faces context.
      */
     public FaceletPartialStateManagementStrategy(FacesContext context) {
+        incrementalStateSaving = WebConfiguration.getInstance(context.getExternalContext()).isOptionEnabled(EnableIncrementalStateSaving);
     }
 
     /**
@@ -431,6 +441,7 @@ public class FaceletPartialStateManagementStrategy extends StateManagementStrate
 
         final Map<String, Object> stateMap = new HashMap<>();
         final StateContext stateContext = StateContext.getStateContext(context);
+        final Set<String> modified = incrementalStateSaving && context.getPartialViewContext().isAjaxRequest() ? new HashSet<>() : null;
 
         context.getAttributes().put(SKIP_ITERATION_HINT, true);
         Set<VisitHint> hints = EnumSet.of(VisitHint.SKIP_ITERATION);
@@ -442,14 +453,19 @@ public class FaceletPartialStateManagementStrategy extends StateManagementStrate
                 VisitResult result = VisitResult.ACCEPT;
                 Object stateObj;
                 if (!target.isTransient()) {
-                    if (stateContext.componentAddedDynamically(target)) {
+                    boolean dynamic = stateContext.componentAddedDynamically(target);
+                    if (dynamic) {
                         target.getAttributes().put(DYNAMIC_COMPONENT, target.getParent().getChildren().indexOf(target));
                         stateObj = new StateHolderSaver(finalContext, target);
                     } else {
                         stateObj = target.saveState(context1.getFacesContext());
                     }
                     if (stateObj != null) {
-                        stateMap.put(target.getClientId(context1.getFacesContext()), stateObj);
+                        String clientId = target.getClientId(context1.getFacesContext());
+                        stateMap.put(clientId, stateObj);
+                        if (modified != null && (isStateModified(target) || dynamic)) {
+                            modified.add(clientId);
+                        }
                     }
                 } else {
                     return VisitResult.REJECT;
@@ -462,6 +478,59 @@ public class FaceletPartialStateManagementStrategy extends StateManagementStrate
 
         saveDynamicActions(context, stateContext, stateMap);
         StateContext.release(context);
+        if (modified != null) {
+            saveModifiedState(context, stateMap, modified);
+        }
         return new Object[] { null, stateMap };
     }
+
+    /**
+     * Determine whether the partial state of the component was modified since it was restored, and mark it as saved.
+     * Only the state kept in the component's <code>StateHelper</code> and the attached objects of the standard components
+     * is tracked, so components keeping state in their own fields are only considered modified if they also modify the
+     * <code>StateHelper</code>.
+     *
+     * @param component the component.
+     * @return <code>true</code> if the state of the component was modified, otherwise <code>false</code>.
+     */
+    private static boolean isStateModified(UIComponent component) {
+        if (!component.initialStateMarked()) {
+            return true;
+        }
+
+        TransientStateHelper helper = component.getTransientStateHelper(false);
+        if (helper == null) {
+            return false;
+        }
+        if (!(helper instanceof StateModificationTracker)) {
+            return true;
+        }
+
+        StateModificationTracker tracker = (StateModificationTracker) helper;
+        boolean modified = tracker.isModified();
+        tracker.clearModified();
+        return modified;
+    }
+
+    /**
+     * Publish the client ids whose state was modified since it was restored at the start of this Ajax request, so that
+     * the <code>ResponseStateManager</code> only needs to write the state that changed. As saving marks the state as
+     * saved, the client ids of earlier saves during the same request are kept.
+     *
+     * @param context the Faces context.
+     * @param stateMap the state.
+     * @param modified the client ids modified since the previous save.
+     */
+    private void saveModifiedState(FacesContext context, Map<String, Object> stateMap, Set<String> modified) {
+        Set<String> previouslyModified = RequestStateManager.get(context, RequestStateManager.MODIFIED_PARTIAL_STATE);
+        if (previouslyModified != null) {
+            modified.addAll(previouslyModified);
+        }
+
+        if (LOGGER.isLoggable(Level.FINEST)) {
+            LOGGER.log(Level.FINEST, "FaceletPartialStateManagementStrategy.saveModifiedState: {0} of {1} modified",
+                    new Object[] { modified.size(), stateMap.size() });
+        }
+        RequestStateManager.set(context, RequestStateManager.MODIFIED_PARTIAL_STATE, modified);
+    }
 }
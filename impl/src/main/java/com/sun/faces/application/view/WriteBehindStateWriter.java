@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.io.Writer;
 
 import com.sun.faces.RIConstants;
+import com.sun.faces.io.EncodedText;
+import com.sun.faces.io.EncodedTextWriter;
 import com.sun.faces.io.FastStringWriter;
 import com.sun.faces.util.Util;
 
@@ -31,7 +33,7 @@ import jakarta.faces.context.ResponseWriter;
  * Custom {@link Writer} to efficiently handle the state manager replacement marker written out by
  * {@link MultiViewHandler#writeState(jakarta.faces.context.FacesContext)}.
  */
-final class WriteBehindStateWriter extends Writer {
+final class WriteBehindStateWriter extends Writer implements EncodedTextWriter {
 
     // length of the state marker
     private static final int STATE_MARKER_LEN = RIConstants.SAVESTATE_FIELD_MARKER.length();
@@ -117,6 +119,17 @@ final class WriteBehindStateWriter extends Writer {
         out.write(cbuf, off, len);
     }
 
+    /**
+     * Writes directly to the current <code>out</code>, if it supports pre-encoded text. Once the state marker has been
+     * written content is buffered as characters, so this will return <code>false</code>.
+     *
+     * @see EncodedTextWriter#writeEncoded(EncodedText)
+     */
+    @Override
+    public boolean writeEncoded(EncodedText text) throws IOException {
+        return out instanceof EncodedTextWriter && ((EncodedTextWriter) out).writeEncoded(text);
+    }
+
     /**
      * This is a no-op.
      */
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.component;
+
+/**
+ * Implemented by state helpers that track whether the partial state of their component was modified since it was
+ * restored or last saved. Used by incremental state saving to only write the state of modified components.
+ */
+public interface StateModificationTracker {
+
+    /**
+     * @return <code>true</code> if the partial state was modified since the last call to {@link #clearModified()} or
+     * since it was restored, otherwise <code>false</code>
+     */
+    boolean isModified();
+
+    /**
+     * Mark the current partial state as saved.
+     */
+    void clearModified();
+
+}
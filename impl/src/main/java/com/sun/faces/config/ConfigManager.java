@@ -19,6 +19,7 @@ package com.sun.faces.config;
 import static com.sun.faces.RIConstants.FACES_PREFIX;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableThreading;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.ValidateFacesConfigFiles;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.ConfigurationSnapshotFile;
 import static com.sun.faces.config.manager.Documents.getProgrammaticDocuments;
 import static com.sun.faces.config.manager.Documents.getXMLDocuments;
 import static com.sun.faces.config.manager.Documents.mergeDocuments;
@@ -30,13 +31,16 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableList;
 import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.SEVERE;
 
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -48,16 +52,19 @@ import java.util.logging.Logger;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 
+import com.sun.faces.application.ApplicationAssociate;
 import com.sun.faces.config.configpopulator.JsfRIRuntimePopulator;
 import com.sun.faces.config.configprovider.MetaInfFaceletTaglibraryConfigProvider;
 import com.sun.faces.config.configprovider.MetaInfFacesConfigResourceProvider;
 import com.sun.faces.config.configprovider.WebAppFlowConfigResourceProvider;
 import com.sun.faces.config.configprovider.WebFaceletTaglibResourceProvider;
 import com.sun.faces.config.configprovider.WebFacesConfigResourceProvider;
+import com.sun.faces.config.manager.ConfigurationSnapshot;
 import com.sun.faces.config.manager.DbfFactory;
 import com.sun.faces.config.manager.FacesConfigInfo;
 import com.sun.faces.config.manager.documents.DocumentInfo;
 import com.sun.faces.config.manager.tasks.FindAnnotatedConfigClasses;
+import com.sun.faces.config.manager.tasks.ProcessFaceletTaglibDocumentTask;
 import com.sun.faces.config.manager.tasks.ProvideMetadataToAnnotationScanTask;
 import com.sun.faces.config.processor.ApplicationConfigProcessor;
 import com.sun.faces.config.processor.BehaviorConfigProcessor;
@@ -76,6 +83,8 @@ import com.sun.faces.config.processor.RenderKitConfigProcessor;
 import com.sun.faces.config.processor.ResourceLibraryContractsConfigProcessor;
 import com.sun.faces.config.processor.ValidatorConfigProcessor;
 import com.sun.faces.el.ELContextImpl;
+import com.sun.faces.facelets.compiler.Compiler;
+import com.sun.faces.facelets.tag.TagLibrary;
 import com.sun.faces.spi.ConfigurationResourceProvider;
 import com.sun.faces.spi.ConfigurationResourceProviderFactory;
 import com.sun.faces.spi.HighAvailabilityEnabler;
@@ -83,6 +92,7 @@ import com.sun.faces.spi.InjectionProvider;
 import com.sun.faces.spi.InjectionProviderFactory;
 import com.sun.faces.spi.ThreadContext;
 import com.sun.faces.util.FacesLogger;
+import com.sun.faces.util.Timer;
 
 import jakarta.el.ELContext;
 import jakarta.el.ELContextEvent;
@@ -161,7 +171,7 @@ public class ConfigManager {
      * The chain of {@link ConfigProcessor} instances to processing of facelet-taglib documents.
      * </p>
      */
-    private final ConfigProcessor faceletTaglibConfigProcessor = new FaceletTaglibConfigProcessor();
+    private final FaceletTaglibConfigProcessor faceletTaglibConfigProcessor = new FaceletTaglibConfigProcessor();
 
     // ---------------------------------------------------------- Public STATIC Methods
 
@@ -219,13 +229,14 @@ public class ConfigManager {
             try {
                 WebConfiguration webConfig = WebConfiguration.getInstance(servletContext);
                 boolean validating = webConfig.isOptionEnabled(ValidateFacesConfigFiles);
+                ConfigurationSnapshot snapshot = getConfigurationSnapshot(servletContext, webConfig);
 
                 if (useThreads(servletContext)) {
                     executor = createExecutorService();
                 }
 
                 // Obtain and merge the XML and Programmatic documents
-                DocumentInfo[] facesDocuments = mergeDocuments(getXMLDocuments(servletContext, getFacesConfigResourceProviders(), executor, validating),
+                DocumentInfo[] facesDocuments = mergeDocuments(getXMLDocuments(servletContext, getFacesConfigResourceProviders(), executor, validating, snapshot),
                         getProgrammaticDocuments(getConfigPopulators()));
 
                 FacesConfigInfo lastFacesConfigInfo = new FacesConfigInfo(facesDocuments[facesDocuments.length - 1]);
@@ -236,7 +247,7 @@ public class ConfigManager {
                 facesContext.getAttributes().put(INJECTION_PROVIDER_KEY, containerConnector);
 
                 if (!lastFacesConfigInfo.isWebInfFacesConfig() || !lastFacesConfigInfo.isMetadataComplete()) {
-                    findAnnotations(facesDocuments, containerConnector, servletContext, facesContext, executor);
+                    findAnnotations(facesDocuments, containerConnector, servletContext, facesContext, executor, snapshot);
                 }
 
                 // See if the app is running in a HA enabled env
@@ -244,60 +255,35 @@ public class ConfigManager {
                     ((HighAvailabilityEnabler) containerConnector).enableHighAvailability(servletContext);
                 }
 
+                // The facelet-taglib documents are independent of the faces-config documents, so when threading is
+                // enabled, their tag libraries are created while the faces-config documents are being processed.
+                List<Future<TagLibrary>> faceletTaglibs = null;
+                if (executor != null) {
+                    faceletTaglibs = createTagLibraries(servletContext, facesContext,
+                        getXMLDocuments(servletContext, getFaceletConfigResourceProviders(), executor, validating, snapshot), containerConnector, executor);
+                }
+
                 // Process the ordered and merged documents
                 // This invokes a chain or processors where each processor grabs its own elements of interest
                 // from each document.
-
-                DocumentInfo[] facesDocuments2 = facesDocuments;
-                configProcessors.subList(0, 3).stream().forEach(e -> {
+                for (ConfigProcessor configProcessor : configProcessors) {
                     try {
-                        e.process(servletContext, facesContext, facesDocuments2);
-                    } catch (Exception e2) {
-                        // TODO Auto-generated catch block
-                        e2.printStackTrace();
-                    }
-                });
-
-                long parentThreadId = Thread.currentThread().getId();
-                ClassLoader parentContextClassLoader = Thread.currentThread().getContextClassLoader();
-
-                ThreadContext threadContext = getThreadContext(containerConnector);
-                Object parentWebContext = threadContext != null ? threadContext.getParentWebContext() : null;
-
-                configProcessors.subList(3, configProcessors.size()).stream().forEach(e -> {
-
-                    long currentThreadId = Thread.currentThread().getId();
-
-                    InitFacesContext initFacesContext = null;
-                    if (currentThreadId != parentThreadId) {
-                        Thread.currentThread().setContextClassLoader(parentContextClassLoader);
-                        initFacesContext = InitFacesContext.getInstance(servletContext);
-                        if (parentWebContext != null) {
-                            threadContext.propagateWebContextToChild(parentWebContext);
-                        }
-
-                    } else {
-                        initFacesContext = facesContext;
+                        process(configProcessor, servletContext, facesContext, facesDocuments);
+                    } catch (Exception e) {
+                        LOGGER.log(SEVERE, "Processing of faces-config documents by " + configProcessor.getClass().getName() + " failed", e);
                     }
+                }
 
-                    try {
-                        e.process(servletContext, initFacesContext, facesDocuments2);
-                    } catch (Exception e1) {
-                        // TODO Auto-generated catch block
-                        e1.printStackTrace();
-                    } finally {
-                        if (currentThreadId != parentThreadId) {
-                            Thread.currentThread().setContextClassLoader(null);
-                            if (parentWebContext != null) {
-                                threadContext.clearChildContext();
-                            }
-                        }
-
-                    }
-                });
+                if (faceletTaglibs != null) {
+                    addTagLibraries(facesContext, faceletTaglibs);
+                } else {
+                    process(faceletTaglibConfigProcessor, servletContext, facesContext,
+                        getXMLDocuments(servletContext, getFaceletConfigResourceProviders(), executor, validating, snapshot));
+                }
 
-                faceletTaglibConfigProcessor.process(servletContext, facesContext,
-                    getXMLDocuments(servletContext, getFaceletConfigResourceProviders(), executor, validating));
+                if (snapshot != null) {
+                    storeConfigurationSnapshot(servletContext, snapshot);
+                }
 
             } catch (Exception e) {
                 // Clear out any configured factories
@@ -334,12 +320,20 @@ public class ConfigManager {
      * Execute the Task responsible for finding annotation classes
      *
      */
-    private void findAnnotations(DocumentInfo[] facesDocuments, InjectionProvider containerConnector, ServletContext servletContext, InitFacesContext context, ExecutorService executor) {
+    private void findAnnotations(DocumentInfo[] facesDocuments, InjectionProvider containerConnector, ServletContext servletContext, InitFacesContext context, ExecutorService executor,
+            ConfigurationSnapshot snapshot) {
+        Map<Class<? extends Annotation>, Set<Class<?>>> annotatedClasses = null;
+        if (snapshot != null) {
+            annotatedClasses = snapshot.getAnnotatedClasses(Thread.currentThread().getContextClassLoader());
+        }
+
         ProvideMetadataToAnnotationScanTask taskMetadata = new ProvideMetadataToAnnotationScanTask(facesDocuments, containerConnector);
 
         Future<Map<Class<? extends Annotation>, Set<Class<?>>>> annotationScan;
 
-        if (executor != null) {
+        if (annotatedClasses != null) {
+            annotationScan = CompletableFuture.completedFuture(annotatedClasses);
+        } else if (executor != null) {
             annotationScan = executor.submit(new FindAnnotatedConfigClasses(servletContext, context, taskMetadata));
         } else {
             annotationScan = new FutureTask<>(new FindAnnotatedConfigClasses(servletContext, context, taskMetadata));
@@ -349,6 +343,103 @@ public class ConfigManager {
         pushTaskToContext(servletContext, annotationScan);
     }
 
+    /**
+     * Invoke the given <code>ConfigProcessor</code>, logging the time it took when timing is enabled.
+     */
+    private void process(ConfigProcessor configProcessor, ServletContext servletContext, FacesContext facesContext, DocumentInfo[] documentInfos) throws Exception {
+        Timer t = Timer.getInstance();
+        if (t != null) {
+            t.startTiming();
+        }
+
+        configProcessor.process(servletContext, facesContext, documentInfos);
+
+        if (t != null) {
+            t.stopTiming();
+            t.logResult("Configuration processor " + configProcessor.getClass().getSimpleName() + " complete.");
+        }
+    }
+
+    /**
+     * Submit a task creating the tag library of each of the given facelet-taglib documents.
+     */
+    private List<Future<TagLibrary>> createTagLibraries(ServletContext servletContext, InitFacesContext facesContext, DocumentInfo[] faceletTaglibDocuments,
+            InjectionProvider containerConnector, ExecutorService executor) {
+        ThreadContext threadContext = getThreadContext(containerConnector);
+        List<Future<TagLibrary>> faceletTaglibs = new ArrayList<>(faceletTaglibDocuments.length);
+
+        for (DocumentInfo faceletTaglibDocument : faceletTaglibDocuments) {
+            faceletTaglibs.add(executor.submit(
+                new ProcessFaceletTaglibDocumentTask(faceletTaglibConfigProcessor, servletContext, facesContext, faceletTaglibDocument, threadContext)));
+        }
+
+        return faceletTaglibs;
+    }
+
+    /**
+     * Add the tag libraries created by {@link #createTagLibraries} to the <code>Compiler</code>, in document order.
+     */
+    private void addTagLibraries(FacesContext facesContext, List<Future<TagLibrary>> faceletTaglibs) throws Exception {
+        Timer t = Timer.getInstance();
+        if (t != null) {
+            t.startTiming();
+        }
+
+        Compiler compiler = ApplicationAssociate.getInstance(facesContext.getExternalContext()).getCompiler();
+
+        for (Future<TagLibrary> faceletTaglib : faceletTaglibs) {
+            try {
+                faceletTaglibConfigProcessor.addTagLibrary(compiler, faceletTaglib.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+
+        if (t != null) {
+            t.stopTiming();
+            t.logResult("Configuration processor " + FaceletTaglibConfigProcessor.class.getSimpleName() + " complete.");
+        }
+    }
+
+    /**
+     * Return the <code>ConfigurationSnapshot</code> of the previous startup if a snapshot file is configured, otherwise
+     * <code>null</code>. A relative snapshot file is resolved against the temporary directory of the application.
+     */
+    private ConfigurationSnapshot getConfigurationSnapshot(ServletContext servletContext, WebConfiguration webConfig) {
+        String snapshotFile = webConfig.getOptionValue(ConfigurationSnapshotFile);
+        if (snapshotFile == null || snapshotFile.isEmpty()) {
+            return null;
+        }
+
+        File file = new File(snapshotFile);
+        if (!file.isAbsolute()) {
+            File tempDir = (File) servletContext.getAttribute(ServletContext.TEMPDIR);
+            if (tempDir == null) {
+                return null;
+            }
+            file = new File(tempDir, snapshotFile);
+        }
+
+        return ConfigurationSnapshot.load(servletContext, file);
+    }
+
+    /**
+     * Add the results of the annotation scan to the given <code>ConfigurationSnapshot</code> and write it, if anything
+     * changed since the previous startup.
+     */
+    private void storeConfigurationSnapshot(ServletContext servletContext, ConfigurationSnapshot snapshot) throws InterruptedException, ExecutionException {
+        @SuppressWarnings("unchecked")
+        Future<Map<Class<? extends Annotation>, Set<Class<?>>>> scanTask = (Future<Map<Class<? extends Annotation>, Set<Class<?>>>>) servletContext
+                .getAttribute(ANNOTATIONS_SCAN_TASK_KEY);
+
+        if (scanTask != null) {
+            snapshot.setAnnotatedClasses(scanTask.get());
+        }
+
+        snapshot.store();
+    }
+
     /**
      * Push the provided <code>Future</code> to the specified <code>ServletContext</code>.
      */
@@ -19,12 +19,18 @@ package com.sun.faces.config;
 import static com.sun.faces.RIConstants.ANNOTATED_CLASSES;
 import static com.sun.faces.RIConstants.ERROR_PAGE_PRESENT_KEY_NAME;
 import static com.sun.faces.RIConstants.FACES_INITIALIZER_MAPPINGS_ADDED;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableAsynchronousFaceletsRefresh;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableFaceletCacheStatistics;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableLazyBeanValidation;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableLifecycleStatistics;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableThreading;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableWebsocketEndpoint;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableWebsocketStatistics;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.ForceLoadFacesConfigFiles;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.VerifyFacesConfigObjects;
 import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.JakartaFacesProjectStage;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.WebsocketSendBatchWindow;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.WebsocketSendMaxPendingFrames;
 import static com.sun.faces.push.WebsocketEndpoint.URI_TEMPLATE;
 import static java.lang.Boolean.TRUE;
 import static java.text.MessageFormat.format;
@@ -65,9 +71,18 @@ import com.sun.faces.application.ApplicationAssociate;
 import com.sun.faces.application.WebappLifecycleListener;
 import com.sun.faces.el.ELContextImpl;
 import com.sun.faces.el.ELUtils;
+import com.sun.faces.facelets.impl.FaceletCacheFactoryImpl;
+import com.sun.faces.facelets.impl.FaceletCacheStatistics;
+import com.sun.faces.lifecycle.LifecycleStatistics;
 import com.sun.faces.mgbean.BeanBuilder;
 import com.sun.faces.mgbean.BeanManager;
+import com.sun.faces.push.WebsocketBrokerDispatcher;
 import com.sun.faces.push.WebsocketEndpoint;
+import com.sun.faces.push.WebsocketSendPipeline;
+import com.sun.faces.push.WebsocketStatistics;
+import com.sun.faces.spi.LifecycleMetricsListenerFactory;
+import com.sun.faces.spi.PushBroker;
+import com.sun.faces.spi.PushBrokerFactory;
 import com.sun.faces.util.FacesLogger;
 import com.sun.faces.util.MojarraThreadFactory;
 import com.sun.faces.util.ReflectionUtils;
@@ -109,6 +124,13 @@ public class ConfigureListener implements ServletRequestListener, HttpSessionLis
     private static final Logger LOGGER = FacesLogger.CONFIG.getLogger();
 
     private ScheduledThreadPoolExecutor webResourcePool;
+    private ScheduledThreadPoolExecutor faceletsRefreshPool;
+    private FaceletCacheStatistics faceletCacheStatistics;
+    private LifecycleStatistics lifecycleStatistics;
+    private ScheduledThreadPoolExecutor websocketSendPool;
+    private ScheduledThreadPoolExecutor websocketBrokerPool;
+    private WebsocketBrokerDispatcher websocketBrokerDispatcher;
+    private WebsocketStatistics websocketStatistics;
 
     protected WebappLifecycleListener webAppListener;
     protected WebConfiguration webConfig;
@@ -189,6 +211,18 @@ public class ConfigureListener implements ServletRequestListener, HttpSessionLis
                 Verifier.setCurrentInstance(new Verifier());
             }
 
+            if (webConfig.isOptionEnabled(EnableAsynchronousFaceletsRefresh)) {
+                initFaceletsRefresh(servletContext);
+            }
+
+            if (webConfig.isOptionEnabled(EnableFaceletCacheStatistics)) {
+                initFaceletCacheStatistics(servletContext);
+            }
+
+            if (webConfig.isOptionEnabled(EnableLifecycleStatistics)) {
+                initLifecycleStatistics(servletContext);
+            }
+
             configManager.initialize(servletContext, initFacesContext);
 
             if (shouldInitConfigMonitoring()) {
@@ -240,6 +274,12 @@ public class ConfigureListener implements ServletRequestListener, HttpSessionLis
                 }
 
                 serverContainer.addEndpoint(ServerEndpointConfig.Builder.create(WebsocketEndpoint.class, URI_TEMPLATE).build());
+                if (webConfig.isOptionEnabled(EnableWebsocketStatistics)) {
+                    initWebsocketStatistics(servletContext);
+                }
+
+                initWebsocketSendPipeline(servletContext, webConfig);
+                initWebsocketBroker(webConfig);
             }
 
             webConfig.doPostBringupActions();
@@ -302,6 +342,40 @@ public class ConfigureListener implements ServletRequestListener, HttpSessionLis
                 webResourcePool.shutdownNow();
             }
 
+            if (faceletsRefreshPool != null) {
+                faceletsRefreshPool.shutdownNow();
+                context.removeAttribute(FaceletCacheFactoryImpl.REFRESH_EXECUTOR);
+            }
+
+            if (websocketBrokerDispatcher != null) {
+                websocketBrokerDispatcher.stop();
+                websocketBrokerPool.shutdownNow();
+                websocketBrokerDispatcher = null;
+            }
+
+            if (websocketStatistics != null) {
+                websocketStatistics.unregister();
+                context.removeAttribute(WebsocketStatistics.KEY);
+                websocketStatistics = null;
+            }
+
+            if (websocketSendPool != null) {
+                websocketSendPool.shutdownNow();
+                context.removeAttribute(WebsocketSendPipeline.KEY);
+            }
+
+            if (faceletCacheStatistics != null) {
+                faceletCacheStatistics.unregister();
+                context.removeAttribute(FaceletCacheFactoryImpl.STATISTICS);
+                faceletCacheStatistics = null;
+            }
+
+            if (lifecycleStatistics != null) {
+                lifecycleStatistics.unregister();
+                context.removeAttribute(LifecycleStatistics.KEY);
+                lifecycleStatistics = null;
+            }
+
             if (LOGGER.isLoggable(FINE)) {
                 LOGGER.log(FINE, "ConfigureListener.contextDestroyed({0})", context.getServletContextName());
             }
@@ -466,6 +540,59 @@ public class ConfigureListener implements ServletRequestListener, HttpSessionLis
         context.removeAttribute("com.sun.faces.webresources");
     }
 
+    private void initFaceletsRefresh(ServletContext context) {
+        faceletsRefreshPool = new ScheduledThreadPoolExecutor(1, new MojarraThreadFactory("FaceletsRefresh"));
+        context.setAttribute(FaceletCacheFactoryImpl.REFRESH_EXECUTOR, faceletsRefreshPool);
+    }
+
+    private void initWebsocketStatistics(ServletContext context) {
+        websocketStatistics = new WebsocketStatistics();
+        websocketStatistics.register(getServletContextIdentifier(context));
+        context.setAttribute(WebsocketStatistics.KEY, websocketStatistics);
+    }
+
+    private void initWebsocketSendPipeline(ServletContext context, WebConfiguration webConfig) {
+        long window;
+        int maxPendingFrames;
+        try {
+            window = Long.parseLong(webConfig.getOptionValue(WebsocketSendBatchWindow));
+            maxPendingFrames = Integer.parseInt(webConfig.getOptionValue(WebsocketSendMaxPendingFrames));
+        } catch (NumberFormatException nfe) {
+            if (LOGGER.isLoggable(WARNING)) {
+                LOGGER.log(WARNING, "Invalid value for {0} or {1}, push messages will not be batched",
+                        new Object[] { WebsocketSendBatchWindow.getQualifiedName(), WebsocketSendMaxPendingFrames.getQualifiedName() });
+            }
+            return;
+        }
+
+        if (window > 0) {
+            websocketSendPool = new ScheduledThreadPoolExecutor(1, new MojarraThreadFactory("WebsocketSend"));
+            context.setAttribute(WebsocketSendPipeline.KEY, new WebsocketSendPipeline(websocketSendPool, window, maxPendingFrames, websocketStatistics));
+        }
+    }
+
+    private void initWebsocketBroker(WebConfiguration webConfig) {
+        PushBroker broker = PushBrokerFactory.createInstance(webConfig);
+
+        if (broker != null) {
+            websocketBrokerPool = new ScheduledThreadPoolExecutor(1, new MojarraThreadFactory("WebsocketBroker"));
+            websocketBrokerDispatcher = new WebsocketBrokerDispatcher(broker, websocketBrokerPool);
+            websocketBrokerDispatcher.start();
+        }
+    }
+
+    private void initFaceletCacheStatistics(ServletContext context) {
+        faceletCacheStatistics = new FaceletCacheStatistics();
+        faceletCacheStatistics.register(getServletContextIdentifier(context));
+        context.setAttribute(FaceletCacheFactoryImpl.STATISTICS, faceletCacheStatistics);
+    }
+
+    private void initLifecycleStatistics(ServletContext context) {
+        lifecycleStatistics = new LifecycleStatistics(LifecycleMetricsListenerFactory.createInstances(webConfig));
+        lifecycleStatistics.register(getServletContextIdentifier(context));
+        context.setAttribute(LifecycleStatistics.KEY, lifecycleStatistics);
+    }
+
     private boolean isDevModeEnabled() {
         // interrogate the init parameter directly vs looking up the application
         return "Development".equals(webConfig.getOptionValue(JakartaFacesProjectStage));
@@ -277,8 +277,13 @@ public class WebConfiguration {
             if (value == null) {
                 result = new String[0];
             } else {
-                Map<String, Object> appMap = FacesContext.getCurrentInstance().getExternalContext().getApplicationMap();
-                result = split(appMap, value, sep);
+                FacesContext context = FacesContext.getCurrentInstance();
+                if (context != null) {
+                    result = split(context.getExternalContext().getApplicationMap(), value, sep);
+                } else {
+                    // e.g. when precompiling Facelets at build time
+                    result = split(servletContext, value, sep);
+                }
             }
             cachedListParams.put(param, result);
         }
@@ -757,6 +762,9 @@ public class WebConfiguration {
         NumberOfViewsDeprecated("com.sun.faces.NUMBER_OF_VIEWS_IN_SESSION", "15", true, NumberOfViews),
         NumberOfLogicalViews("com.sun.faces.numberOfLogicalViews", "15"),
         NumberOfLogicalViewsDeprecated("com.sun.faces.NUMBER_OF_VIEWS_IN_LOGICAL_VIEW_IN_SESSION", "15", true, NumberOfLogicalViews),
+        ViewStateStoreClass("com.sun.faces.viewStateStoreClass", ""),
+        ViewStateStoreMaxSize("com.sun.faces.viewStateStoreMaxSize", "67108864"),
+        ViewStateStoreSessionQuota("com.sun.faces.viewStateStoreSessionQuota", "4194304"),
         NumberOfConcurrentFlashUsers("com.sun.faces.numberOfConcerrentFlashUsers", "5000"),
         NumberOfFlashesBetweenFlashReapings("com.sun.faces.numberOfFlashesBetweenFlashReapings", "5000"),
         InjectionProviderClass("com.sun.faces.injectionProvider", ""), SerializationProviderClass("com.sun.faces.serializationProvider", ""),
@@ -766,6 +774,7 @@ public class WebConfiguration {
         ExpressionFactory("com.sun.faces.expressionFactory", "com.sun.el.ExpressionFactoryImpl"), ClientStateTimeout("com.sun.faces.clientStateTimeout", ""),
         DefaultResourceMaxAge("com.sun.faces.defaultResourceMaxAge", "604800000" // 7 days
         ), ResourceUpdateCheckPeriod("com.sun.faces.resourceUpdateCheckPeriod", "5" // in minutes
+        ), ResourceContentCacheSize("com.sun.faces.resourceContentCacheSize", "0" // in bytes
         ), CompressableMimeTypes("com.sun.faces.compressableMimeTypes", ""), DisableUnicodeEscaping("com.sun.faces.disableUnicodeEscaping", "auto"),
         FaceletsDefaultRefreshPeriod(ViewHandler.FACELETS_REFRESH_PERIOD_PARAM_NAME, "2"),
         FaceletsDefaultRefreshPeriodDeprecated("facelets.REFRESH_PERIOD", "2", true, FaceletsDefaultRefreshPeriod, new FaceletsConfigParamLoggingStrategy()),
@@ -780,6 +789,14 @@ public class WebConfiguration {
         DuplicateJARPattern("com.sun.faces.duplicateJARPattern", ""), ValidateEmptyFields(UIInput.VALIDATE_EMPTY_FIELDS_PARAM_NAME, "auto"),
         FullStateSavingViewIds(StateManager.FULL_STATE_SAVING_VIEW_IDS_PARAM_NAME, ""), AnnotationScanPackages("com.sun.faces.annotationScanPackages", ""),
         FaceletCache("com.sun.faces.faceletCache", ""), FaceletsProcessingFileExtensionProcessAs("", ""),
+        FaceletsCompilationCacheDirectory("com.sun.faces.faceletsCompilationCacheDirectory", ""),
+        FaceletsCacheSize("com.sun.faces.faceletsCacheSize", "0"),
+        FaceletsMetadataCacheSize("com.sun.faces.faceletsMetadataCacheSize", "0"),
+        WebsocketSendBatchWindow("com.sun.faces.websocketSendBatchWindow", "0" // in milliseconds
+        ), WebsocketSendMaxPendingFrames("com.sun.faces.websocketSendMaxPendingFrames", "32"),
+        PushBrokerClass("com.sun.faces.pushBrokerClass", ""),
+        ConfigurationSnapshotFile("com.sun.faces.configurationSnapshotFile", ""),
+        LifecycleMetricsListenerClasses("com.sun.faces.lifecycleMetricsListenerClasses", ""),
         ClientWindowMode(ClientWindow.CLIENT_WINDOW_MODE_PARAM_NAME, "none"),
         WebAppResourcesDirectory(ResourceHandler.WEBAPP_RESOURCES_DIRECTORY_PARAM_NAME, "/resources"),
         WebAppContractsDirectory(ResourceHandler.WEBAPP_CONTRACTS_DIRECTORY_PARAM_NAME, "/contracts");
@@ -854,6 +871,7 @@ public class WebConfiguration {
         DisableClientStateEncryption("com.sun.faces.disableClientStateEncryption", false),
         DisableFacesServletAutomaticMapping(FacesServlet.DISABLE_FACESSERVLET_TO_XHTML_PARAM_NAME, false),
         EnableClientStateDebugging("com.sun.faces.enableClientStateDebugging", false),
+        EnableCompactClientState("com.sun.faces.enableCompactClientState", false),
         EnableHtmlTagLibraryValidator("com.sun.faces.enableHtmlTagLibValidator", false),
         EnableCoreTagLibraryValidator("com.sun.faces.enableCoreTagLibValidator", false), PreferXHTMLContentType("com.sun.faces.preferXHTML", false),
         PreferXHTMLContextTypeDeprecated("com.sun.faces.PreferXHTML", false, true, PreferXHTMLContentType),
@@ -864,25 +882,37 @@ public class WebConfiguration {
         EnableLoadBundle11Compatibility("com.sun.faces.enabledLoadBundle11Compatibility", false),
         SerializeServerState(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, false),
         SerializeServerStateDeprecated("com.sun.faces.serializeServerState", false, true, SerializeServerState),
+        EnableViewStateStore("com.sun.faces.enableViewStateStore", false),
         EnableViewStateIdRendering("com.sun.faces.enableViewStateIdRendering", true),
         RegisterConverterPropertyEditors("com.sun.faces.registerConverterPropertyEditors", false),
         DisableDefaultBeanValidator(BeanValidator.DISABLE_DEFAULT_BEAN_VALIDATOR_PARAM_NAME, false),
         DateTimeConverterUsesSystemTimezone(Converter.DATETIMECONVERTER_DEFAULT_TIMEZONE_IS_SYSTEM_TIMEZONE_PARAM_NAME, false),
         EnableHttpMethodRestrictionPhaseListener("com.sun.faces.ENABLE_HTTP_METHOD_RESTRICTION_PHASE_LISTENER", false),
         FaceletsSkipComments(ViewHandler.FACELETS_SKIP_COMMENTS_PARAM_NAME, false),
+        EnableAsynchronousFaceletsRefresh("com.sun.faces.enableAsynchronousFaceletsRefresh", false),
+        EnableFaceletCacheStatistics("com.sun.faces.enableFaceletCacheStatistics", false),
+        EnableWebsocketStatistics("com.sun.faces.enableWebsocketStatistics", false),
+        EnableLifecycleStatistics("com.sun.faces.enableLifecycleStatistics", false),
         FaceletsSkipCommentsDeprecated("facelets.SKIP_COMMENTS", false, true, FaceletsSkipComments, new FaceletsConfigParamLoggingStrategy()),
         PartialStateSaving(StateManager.PARTIAL_STATE_SAVING_PARAM_NAME, true),
+        EnableIncrementalStateSaving("com.sun.faces.enableIncrementalStateSaving", false),
         GenerateUniqueServerStateIds("com.sun.faces.generateUniqueServerStateIds", true),
         InterpretEmptyStringSubmittedValuesAsNull(UIInput.EMPTY_STRING_AS_NULL_PARAM_NAME, false),
         AutoCompleteOffOnViewState("com.sun.faces.autoCompleteOffOnViewState", true), EnableThreading("com.sun.faces.enableThreading", false),
         AllowTextChildren("com.sun.faces.allowTextChildren", false),
         CacheResourceModificationTimestamp("com.sun.faces.cacheResourceModificationTimestamp", false),
+        EnableResourceContentHash("com.sun.faces.enableResourceContentHash", false),
+        EnableResourceIndex("com.sun.faces.enableResourceIndex", false),
         EnableAgressiveSessionDirtying("com.sun.faces.enableAgressiveSessionDirtying", false), EnableDistributable("com.sun.faces.enableDistributable", false),
         EnableFaceletsResourceResolverResolveCompositeComponents("com.sun.faces.enableFaceletsResourceResolverCompositeComponents", false),
         EnableMissingResourceLibraryDetection("com.sun.faces.enableMissingResourceLibraryDetection", false),
         DisableIdUniquenessCheck("com.sun.faces.disableIdUniquenessCheck", false),
         EnableTransitionTimeNoOpFlash("com.sun.faces.enableTransitionTimeNoOpFlash", false),
         ForceAlwaysWriteFlashCookie("com.sun.faces.forceAlwaysWriteFlashCookie", false),
+        EnableSessionFlash("com.sun.faces.enableSessionFlash", false),
+        EnableELResolverInlineCache("com.sun.faces.enableELResolverInlineCache", false),
+        EnableMethodHandleBeanELResolver("com.sun.faces.enableMethodHandleBeanELResolver", false),
+        EnableCompiledNavigationRules("com.sun.faces.enableCompiledNavigationRules", false),
         ViewRootPhaseListenerQueuesException(UIViewRoot.VIEWROOT_PHASE_LISTENER_QUEUES_EXCEPTIONS_PARAM_NAME, false),
         EnableValidateWholeBean(BeanValidator.ENABLE_VALIDATE_WHOLE_BEAN_PARAM_NAME, false),
         EnableWebsocketEndpoint(PushContext.ENABLE_WEBSOCKET_ENDPOINT_PARAM_NAME, false), DisallowDoctypeDecl("com.sun.faces.disallowDoctypeDecl", false);
@@ -0,0 +1,532 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.config.manager;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import com.sun.faces.config.manager.documents.DocumentInfo;
+import com.sun.faces.util.FacesLogger;
+
+import jakarta.servlet.ServletContext;
+
+/**
+ * <p>
+ * A snapshot of the startup configuration of a web application, which is written to a file after a successful startup
+ * and read back on the next startup, so that the configuration documents do not need to be validated and transformed
+ * again, and the annotation scan does not need to be repeated.
+ * </p>
+ *
+ * <p>
+ * The snapshot is keyed by a hash of the names and timestamps of the jars in <code>/WEB-INF/lib</code>, the classes in
+ * <code>/WEB-INF/classes</code> and the Mojarra jar itself, and of the timestamp and size of
+ * <code>/WEB-INF/faces-config.xml</code>. If the key differs, the snapshot is discarded entirely.
+ * Additionally, each document is only taken from the snapshot if the timestamp of its source is known and unchanged.
+ * </p>
+ *
+ * <p>
+ * Documents are stored as serialized XML and annotated classes by name, so the snapshot contains no Java serialized
+ * objects.
+ * </p>
+ */
+public class ConfigurationSnapshot {
+
+    private static final Logger LOGGER = FacesLogger.CONFIG.getLogger();
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String WEB_INF_LIB = "/WEB-INF/lib/";
+    private static final String WEB_INF_CLASSES = "/WEB-INF/classes/";
+    private static final String WEB_INF_FACES_CONFIG = "/WEB-INF/faces-config.xml";
+
+    private final File file;
+    private final String key;
+    private final ConcurrentMap<String, CachedDocument> documents = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<String>> annotatedClasses;
+    private volatile boolean dirty;
+
+    // ------------------------------------------------------------ Constructors
+
+    private ConfigurationSnapshot(File file, String key) {
+        this.file = file;
+        this.key = key;
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * <p>
+     * Reads the snapshot from the given file. If the file does not exist, cannot be read, is corrupt, or was written for a
+     * different set of jars and classes, an empty snapshot is returned which will be written to the given file by
+     * {@link #store()}.
+     * </p>
+     *
+     * @param servletContext the <code>ServletContext</code> of the application being configured
+     * @param file the snapshot file
+     * @return the snapshot, never <code>null</code>
+     */
+    public static ConfigurationSnapshot load(ServletContext servletContext, File file) {
+        ConfigurationSnapshot snapshot = new ConfigurationSnapshot(file, computeKey(servletContext));
+
+        if (!file.isFile()) {
+            snapshot.dirty = true;
+            return snapshot;
+        }
+
+        // The whole file is read up front, so that each length read from it can be checked against what remains of it.
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+            if (in.readInt() != FORMAT_VERSION || !snapshot.key.equals(readString(in))) {
+                if (LOGGER.isLoggable(FINE)) {
+                    LOGGER.log(FINE, "Configuration snapshot {0} is outdated and will be replaced.", file);
+                }
+                snapshot.dirty = true;
+                return snapshot;
+            }
+
+            for (int i = 0, documentCount = in.readInt(); i < documentCount; i++) {
+                String uri = readString(in);
+                long lastModified = in.readLong();
+                boolean validated = in.readBoolean();
+                snapshot.documents.put(uri, new CachedDocument(lastModified, validated, readBytes(in)));
+            }
+
+            if (in.readBoolean()) {
+                Map<String, Set<String>> annotatedClasses = new HashMap<>();
+                for (int i = 0, annotationCount = in.readInt(); i < annotationCount; i++) {
+                    String annotation = readString(in);
+                    Set<String> classes = new HashSet<>();
+                    for (int j = 0, classCount = in.readInt(); j < classCount; j++) {
+                        classes.add(readString(in));
+                    }
+                    annotatedClasses.put(annotation, classes);
+                }
+                snapshot.annotatedClasses = annotatedClasses;
+            }
+
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Configuration snapshot {0} loaded with {1} documents.", new Object[] { file, snapshot.documents.size() });
+            }
+        } catch (IOException | RuntimeException e) {
+            if (LOGGER.isLoggable(WARNING)) {
+                LOGGER.log(WARNING, "Unable to read configuration snapshot " + file + ", it will be replaced.", e);
+            }
+            snapshot.documents.clear();
+            snapshot.annotatedClasses = null;
+            snapshot.dirty = true;
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * <p>
+     * Writes this snapshot to its file, if anything changed since it was loaded. Failures are logged and otherwise
+     * ignored, as the snapshot is merely an optimization.
+     * </p>
+     */
+    public void store() {
+        if (!dirty) {
+            return;
+        }
+
+        Path target = file.toPath();
+        Path temp = null;
+
+        try {
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, file.getName(), ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, key);
+
+                Map<String, CachedDocument> documentsToStore = new HashMap<>(documents);
+                out.writeInt(documentsToStore.size());
+                for (Map.Entry<String, CachedDocument> document : documentsToStore.entrySet()) {
+                    writeString(out, document.getKey());
+                    out.writeLong(document.getValue().lastModified);
+                    out.writeBoolean(document.getValue().validated);
+                    writeBytes(out, document.getValue().xml);
+                }
+
+                Map<String, Set<String>> classesToStore = annotatedClasses;
+                out.writeBoolean(classesToStore != null);
+                if (classesToStore != null) {
+                    out.writeInt(classesToStore.size());
+                    for (Map.Entry<String, Set<String>> classes : classesToStore.entrySet()) {
+                        writeString(out, classes.getKey());
+                        out.writeInt(classes.getValue().size());
+                        for (String className : classes.getValue()) {
+                            writeString(out, className);
+                        }
+                    }
+                }
+            }
+
+            try {
+                Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp, target, REPLACE_EXISTING);
+            }
+            temp = null;
+            dirty = false;
+
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Configuration snapshot {0} written.", file);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (LOGGER.isLoggable(WARNING)) {
+                LOGGER.log(WARNING, "Unable to write configuration snapshot " + file, e);
+            }
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Nothing more we can do.
+                }
+            }
+        }
+    }
+
+    /**
+     * @param uri the source of the document
+     * @param validating whether the document is required to have been validated
+     * @return the document as parsed on a previous startup, or <code>null</code> if the snapshot does not contain an up
+     * to date copy of it
+     */
+    public DocumentInfo getDocument(URI uri, boolean validating) {
+        CachedDocument cached = documents.get(uri.toString());
+        if (cached == null || (validating && !cached.validated)) {
+            return null;
+        }
+
+        long lastModified = getLastModified(uri);
+        if (lastModified == 0 || lastModified != cached.lastModified) {
+            return null;
+        }
+
+        try {
+            DocumentBuilder builder = DbfFactory.getFactory().newDocumentBuilder();
+            InputSource source = new InputSource(new ByteArrayInputStream(cached.xml));
+            source.setSystemId(uri.toURL().toExternalForm());
+            return new DocumentInfo(builder.parse(source), uri);
+        } catch (Exception e) {
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Unable to restore " + uri + " from configuration snapshot.", e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * <p>
+     * Adds the given document, as parsed by this startup, to the snapshot. Documents whose source has no known timestamp
+     * are not added.
+     * </p>
+     *
+     * @param documentInfo the parsed document
+     * @param validated whether the document was validated
+     */
+    public void putDocument(DocumentInfo documentInfo, boolean validated) {
+        URI uri = documentInfo.getSourceURI();
+        long lastModified = uri != null ? getLastModified(uri) : 0;
+        if (lastModified == 0) {
+            return;
+        }
+
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            StringWriter xml = new StringWriter();
+            transformer.transform(new DOMSource(documentInfo.getDocument()), new StreamResult(xml));
+            documents.put(uri.toString(), new CachedDocument(lastModified, validated, xml.toString().getBytes(UTF_8)));
+            dirty = true;
+        } catch (Exception e) {
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Unable to add " + uri + " to configuration snapshot.", e);
+            }
+        }
+    }
+
+    /**
+     * @param classLoader the <code>ClassLoader</code> to load the classes with
+     * @return the annotated classes as found on a previous startup, or <code>null</code> if the snapshot does not
+     * contain them or they could not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Class<? extends Annotation>, Set<Class<?>>> getAnnotatedClasses(ClassLoader classLoader) {
+        Map<String, Set<String>> classNames = annotatedClasses;
+        if (classNames == null) {
+            return null;
+        }
+
+        Map<Class<? extends Annotation>, Set<Class<?>>> result = new HashMap<>();
+        try {
+            for (Map.Entry<String, Set<String>> entry : classNames.entrySet()) {
+                Set<Class<?>> classes = new HashSet<>();
+                for (String className : entry.getValue()) {
+                    classes.add(Class.forName(className, false, classLoader));
+                }
+                result.put((Class<? extends Annotation>) Class.forName(entry.getKey(), false, classLoader), classes);
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            if (LOGGER.isLoggable(FINE)) {
+                LOGGER.log(FINE, "Unable to restore annotated classes from configuration snapshot.", e);
+            }
+            return null;
+        }
+
+        return result;
+    }
+
+    /**
+     * @param annotatedClasses the annotated classes as found by this startup
+     */
+    public void setAnnotatedClasses(Map<Class<? extends Annotation>, Set<Class<?>>> annotatedClasses) {
+        Map<String, Set<String>> classNames = new HashMap<>();
+        for (Map.Entry<Class<? extends Annotation>, Set<Class<?>>> entry : annotatedClasses.entrySet()) {
+            Set<String> classes = new HashSet<>();
+            for (Class<?> annotatedClass : entry.getValue()) {
+                classes.add(annotatedClass.getName());
+            }
+            classNames.put(entry.getKey().getName(), classes);
+        }
+
+        if (!classNames.equals(this.annotatedClasses)) {
+            this.annotatedClasses = classNames;
+            dirty = true;
+        }
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static String computeKey(ServletContext servletContext) {
+        StringBuilder fingerprint = new StringBuilder();
+
+        CodeSource mojarra = ConfigurationSnapshot.class.getProtectionDomain().getCodeSource();
+        if (mojarra != null && mojarra.getLocation() != null) {
+            fingerprint.append(mojarra.getLocation()).append('=').append(getLastModified(mojarra.getLocation())).append('\n');
+        }
+
+        appendResources(servletContext, WEB_INF_LIB, fingerprint);
+        appendResources(servletContext, WEB_INF_CLASSES, fingerprint);
+        appendFacesConfig(servletContext, fingerprint);
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.toString().getBytes(UTF_8));
+            StringBuilder key = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void appendResources(ServletContext servletContext, String path, StringBuilder fingerprint) {
+        Set<String> paths = servletContext.getResourcePaths(path);
+        if (paths == null) {
+            return;
+        }
+
+        for (String resourcePath : new TreeSet<>(paths)) {
+            if (resourcePath.endsWith("/")) {
+                appendResources(servletContext, resourcePath, fingerprint);
+            } else {
+                long lastModified = 0;
+                try {
+                    URL resource = servletContext.getResource(resourcePath);
+                    lastModified = resource != null ? getLastModified(resource) : 0;
+                } catch (IOException ignored) {
+                    // Then the timestamp is unknown.
+                }
+                fingerprint.append(resourcePath).append('=');
+                if (lastModified != 0) {
+                    fingerprint.append(lastModified);
+                } else {
+                    // Without a timestamp, changes cannot be detected, so the snapshot must never be considered up to date.
+                    fingerprint.append('?').append(System.nanoTime());
+                }
+                fingerprint.append('\n');
+            }
+        }
+    }
+
+    private static void appendFacesConfig(ServletContext servletContext, StringBuilder fingerprint) {
+        URL resource = null;
+        try {
+            resource = servletContext.getResource(WEB_INF_FACES_CONFIG);
+        } catch (IOException ignored) {
+            // Then it is treated as absent.
+        }
+
+        fingerprint.append(WEB_INF_FACES_CONFIG).append('=');
+        if (resource == null) {
+            fingerprint.append('-');
+        } else {
+            long lastModified = getLastModified(resource);
+            if (lastModified != 0) {
+                fingerprint.append(lastModified).append(',').append(getSize(resource));
+            } else {
+                fingerprint.append('?').append(System.nanoTime());
+            }
+        }
+        fingerprint.append('\n');
+    }
+
+    private static long getSize(URL url) {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return new File(url.toURI()).length();
+            }
+
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            try {
+                return connection.getContentLengthLong();
+            } finally {
+                if (connection.getDoInput()) {
+                    try {
+                        connection.getInputStream().close();
+                    } catch (IOException ignored) {
+                        // Only releasing the connection.
+                    }
+                }
+            }
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static long getLastModified(URI uri) {
+        try {
+            return getLastModified(uri.toURL());
+        } catch (IOException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private static long getLastModified(URL url) {
+        String externalForm = url.toExternalForm();
+
+        try {
+            if (externalForm.startsWith("jar:")) {
+                // The timestamp of a jar entry is that of the jar itself.
+                int separator = externalForm.indexOf("!/");
+                return getLastModified(new URL(separator > 0 ? externalForm.substring(4, separator) : externalForm.substring(4)));
+            }
+
+            if ("file".equals(url.getProtocol())) {
+                return new File(url.toURI()).lastModified();
+            }
+
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            try {
+                return connection.getLastModified();
+            } finally {
+                if (connection.getDoInput()) {
+                    try {
+                        connection.getInputStream().close();
+                    } catch (IOException ignored) {
+                        // Only releasing the connection.
+                    }
+                }
+            }
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid length " + length + ", only " + in.available() + " bytes remain");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        writeBytes(out, string.getBytes(UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // ----------------------------------------------------------- Inner Classes
+
+    private static final class CachedDocument {
+
+        private final long lastModified;
+        private final boolean validated;
+        private final byte[] xml;
+
+        CachedDocument(long lastModified, boolean validated, byte[] xml) {
+            this.lastModified = lastModified;
+            this.validated = validated;
+            this.xml = xml;
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
@@ -66,6 +67,25 @@ public class Documents {
      */
     public static DocumentInfo[] getXMLDocuments(ServletContext servletContext, List<ConfigurationResourceProvider> providers, ExecutorService executor,
             boolean validating) {
+        return getXMLDocuments(servletContext, providers, executor, validating, null);
+    }
+
+    /**
+     * <p>
+     * Obtains an array of <code>Document</code>s to be processed, taking up to date documents from the given snapshot
+     * instead of parsing them, and adding the parsed documents to it.
+     * </p>
+     *
+     * @param servletContext the <code>ServletContext</code> for the application to be processed
+     * @param providers <code>List</code> of <code>ConfigurationResourceProvider</code> instances that provide the URL of
+     * the documents to parse.
+     * @param executor the <code>ExecutorService</code> used to dispatch parse request to
+     * @param validating flag indicating whether or not the documents should be validated
+     * @param snapshot the <code>ConfigurationSnapshot</code> of a previous startup, may be <code>null</code>
+     * @return an array of <code>DocumentInfo</code>s
+     */
+    public static DocumentInfo[] getXMLDocuments(ServletContext servletContext, List<ConfigurationResourceProvider> providers, ExecutorService executor,
+            boolean validating, ConfigurationSnapshot snapshot) {
 
         // Query all configuration providers to give us a URL to the configuration they are providing
 
@@ -89,7 +109,20 @@ public class Documents {
         for (FutureTask<Collection<URI>> uriTask : uriTasks) {
             try {
                 for (URI uri : uriTask.get()) {
-                    FutureTask<DocumentInfo> docTask = new FutureTask<>(new ParseConfigResourceToDOMTask(servletContext, validating, uri));
+                    FutureTask<DocumentInfo> docTask;
+                    if (snapshot == null) {
+                        docTask = new FutureTask<>(new ParseConfigResourceToDOMTask(servletContext, validating, uri));
+                    } else {
+                        Callable<DocumentInfo> parseTask = new ParseConfigResourceToDOMTask(servletContext, validating, uri);
+                        docTask = new FutureTask<>(() -> {
+                            DocumentInfo documentInfo = snapshot.getDocument(uri, validating);
+                            if (documentInfo == null) {
+                                documentInfo = parseTask.call();
+                                snapshot.putDocument(documentInfo, validating);
+                            }
+                            return documentInfo;
+                        });
+                    }
                     docTasks.add(docTask);
 
                     if (executor != null) {
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.config.manager.tasks;
+
+import static com.sun.faces.config.ConfigManager.INJECTION_PROVIDER_KEY;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.sun.faces.config.InitFacesContext;
+import com.sun.faces.config.manager.documents.DocumentInfo;
+import com.sun.faces.config.processor.FaceletTaglibConfigProcessor;
+import com.sun.faces.facelets.tag.TagLibrary;
+import com.sun.faces.spi.ThreadContext;
+
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.FacesContextWrapper;
+import jakarta.servlet.ServletContext;
+
+/**
+ * <p>
+ * This <code>Callable</code> creates the tag library of a single facelet-taglib document on a thread other than the one
+ * initializing the application, so that the facelet-taglib documents can be processed while the faces-config documents
+ * are being processed. The resulting libraries must be added to the <code>Compiler</code> in document order.
+ * </p>
+ *
+ * <p>
+ * The attributes of the <code>InitFacesContext</code> are not safe to read while the faces-config documents are being
+ * processed, so the tag library is created with an immutable snapshot of the attributes it reads, taken when the task
+ * is constructed.
+ * </p>
+ */
+public class ProcessFaceletTaglibDocumentTask implements Callable<TagLibrary> {
+
+    private final FaceletTaglibConfigProcessor processor;
+    private final ServletContext servletContext;
+    private final InitFacesContext facesContext;
+    private final FacesContext taglibFacesContext;
+    private final DocumentInfo documentInfo;
+    private final Thread parentThread;
+    private final ClassLoader parentContextClassLoader;
+    private final ThreadContext threadContext;
+    private final Object parentWebContext;
+
+    // -------------------------------------------------------- Constructors
+
+    /**
+     * Constructs a new <code>ProcessFaceletTaglibDocumentTask</code> instance. Must be invoked on the thread initializing
+     * the application, so that its context can be propagated to the thread executing the task.
+     *
+     * @param processor the processor creating the tag library
+     * @param servletContext the <code>ServletContext</code> of the application being configured
+     * @param facesContext the <code>InitFacesContext</code> of the application being configured
+     * @param documentInfo the facelet-taglib document to process
+     * @param threadContext the <code>ThreadContext</code> of the container, if any
+     */
+    public ProcessFaceletTaglibDocumentTask(FaceletTaglibConfigProcessor processor, ServletContext servletContext, InitFacesContext facesContext,
+            DocumentInfo documentInfo, ThreadContext threadContext) {
+        this.processor = processor;
+        this.servletContext = servletContext;
+        this.facesContext = facesContext;
+        taglibFacesContext = new TaglibFacesContext(facesContext);
+        this.documentInfo = documentInfo;
+        this.threadContext = threadContext;
+        parentThread = Thread.currentThread();
+        parentContextClassLoader = parentThread.getContextClassLoader();
+        parentWebContext = threadContext != null ? threadContext.getParentWebContext() : null;
+    }
+
+    // ----------------------------------------------- Methods from Callable
+
+    /**
+     * @return the tag library described by the document, or <code>null</code> if it describes none
+     * @throws Exception if the document could not be processed
+     */
+    @Override
+    public TagLibrary call() throws Exception {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread == parentThread) {
+            return processor.createTagLibrary(servletContext, taglibFacesContext, documentInfo);
+        }
+
+        ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+
+        // We are executing on a different thread.
+        currentThread.setContextClassLoader(parentContextClassLoader);
+        facesContext.addInitContextEntryForCurrentThread();
+        if (parentWebContext != null) {
+            threadContext.propagateWebContextToChild(parentWebContext);
+        }
+
+        try {
+            return processor.createTagLibrary(servletContext, taglibFacesContext, documentInfo);
+        } finally {
+            if (parentWebContext != null) {
+                threadContext.clearChildContext();
+            }
+            facesContext.removeInitContextEntryForCurrentThread();
+            currentThread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    // ------------------------------------------------------ Nested Classes
+
+    /**
+     * The <code>InitFacesContext</code> of the application being configured, with the immutable snapshot of the
+     * attributes read while creating a tag library.
+     */
+    private static final class TaglibFacesContext extends FacesContextWrapper {
+
+        private final Map<Object, Object> attributes;
+
+        TaglibFacesContext(InitFacesContext facesContext) {
+            super(facesContext);
+            Object injectionProvider = facesContext.getAttributes().get(INJECTION_PROVIDER_KEY);
+            attributes = injectionProvider != null ? singletonMap(INJECTION_PROVIDER_KEY, injectionProvider) : emptyMap();
+        }
+
+        @Override
+        public Map<Object, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+}
@@ -36,6 +36,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 
 import org.w3c.dom.NamedNodeMap;
@@ -70,19 +71,36 @@ public abstract class AbstractConfigProcessor implements ConfigProcessor {
 
     private static final Logger LOGGER = FacesLogger.CONFIG.getLogger();
     private static final String CLASS_METADATA_MAP_KEY_SUFFIX = ".METADATA";
+    private static final String CLASS_METADATA_MAPS_KEY = AbstractConfigProcessor.class.getName() + ".CLASS_METADATA_MAPS";
 
     // -------------------------------------------- Methods from ConfigProcessor
 
+    /*
+     * The class metadata maps are created atomically, as the facelet-taglib documents may be processed by several
+     * threads at once, which would otherwise each create and use their own map.
+     */
     private ApplicationInstanceFactoryMetadataMap<String, Object> getClassMetadataMap(ServletContext servletContext) {
-        ApplicationInstanceFactoryMetadataMap<String, Object> classMetadataMap = (ApplicationInstanceFactoryMetadataMap<String, Object>) servletContext
-                .getAttribute(getClassMetadataMapKey());
+        return getClassMetadataMaps(servletContext).computeIfAbsent(getClassMetadataMapKey(),
+                key -> new ApplicationInstanceFactoryMetadataMap<>(new ConcurrentHashMap<>()));
+    }
 
-        if (classMetadataMap == null) {
-            classMetadataMap = new ApplicationInstanceFactoryMetadataMap(new ConcurrentHashMap<>());
-            servletContext.setAttribute(getClassMetadataMapKey(), classMetadataMap);
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<String, ApplicationInstanceFactoryMetadataMap<String, Object>> getClassMetadataMaps(ServletContext servletContext) {
+        ConcurrentMap<String, ApplicationInstanceFactoryMetadataMap<String, Object>> classMetadataMaps = (ConcurrentMap<String, ApplicationInstanceFactoryMetadataMap<String, Object>>) servletContext
+                .getAttribute(CLASS_METADATA_MAPS_KEY);
+
+        if (classMetadataMaps == null) {
+            synchronized (servletContext) {
+                classMetadataMaps = (ConcurrentMap<String, ApplicationInstanceFactoryMetadataMap<String, Object>>) servletContext
+                        .getAttribute(CLASS_METADATA_MAPS_KEY);
+                if (classMetadataMaps == null) {
+                    classMetadataMaps = new ConcurrentHashMap<>();
+                    servletContext.setAttribute(CLASS_METADATA_MAPS_KEY, classMetadataMaps);
+                }
+            }
         }
 
-        return classMetadataMap;
+        return classMetadataMaps;
     }
 
     @Override
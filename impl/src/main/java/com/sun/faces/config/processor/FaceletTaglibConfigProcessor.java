@@ -217,34 +217,66 @@ public class FaceletTaglibConfigProcessor extends AbstractConfigProcessor {
         Compiler compiler = associate.getCompiler();
 
         for (int i = 0, length = documentInfos.length; i < length; i++) {
-            if (LOGGER.isLoggable(FINE)) {
-                LOGGER.log(FINE, format("Processing facelet-taglibrary document: ''{0}''", documentInfos[i].getSourceURI()));
-            }
+            addTagLibrary(compiler, createTagLibrary(sc, facesContext, documentInfos[i]));
+        }
 
-            Document document = documentInfos[i].getDocument();
-            String namespace = document.getDocumentElement().getNamespaceURI();
-            Element documentElement = document.getDocumentElement();
-            NodeList libraryClass = documentElement.getElementsByTagNameNS(namespace, LIBRARY_CLASS);
+    }
 
-            if (libraryClass != null && libraryClass.getLength() > 0) {
-                processTaglibraryClass(sc, facesContext, libraryClass, compiler);
-            } else {
-                processTagLibrary(sc, facesContext, documentElement, namespace, compiler);
-            }
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * <p>
+     * Creates the tag library described by the given facelet-taglib document, without adding it to the
+     * <code>Compiler</code>. The documents are independent of each other, so this may be invoked concurrently for different
+     * documents, as long as the resulting libraries are added in document order.
+     * </p>
+     *
+     * @param sc the <code>ServletContext</code> for the application being configured
+     * @param facesContext the <code>FacesContext</code> for the application being configured
+     * @param documentInfo the facelet-taglib document
+     * @return the tag library described by the document
+     */
+    public TagLibrary createTagLibrary(ServletContext sc, FacesContext facesContext, DocumentInfo documentInfo) {
+        if (LOGGER.isLoggable(FINE)) {
+            LOGGER.log(FINE, format("Processing facelet-taglibrary document: ''{0}''", documentInfo.getSourceURI()));
         }
 
+        Document document = documentInfo.getDocument();
+        String namespace = document.getDocumentElement().getNamespaceURI();
+        Element documentElement = document.getDocumentElement();
+        NodeList libraryClass = documentElement.getElementsByTagNameNS(namespace, LIBRARY_CLASS);
+
+        if (libraryClass != null && libraryClass.getLength() > 0) {
+            return processTaglibraryClass(sc, facesContext, libraryClass);
+        } else {
+            return processTagLibrary(sc, facesContext, documentElement, namespace);
+        }
+    }
+
+    /**
+     * <p>
+     * Adds the given tag library, as created by {@link #createTagLibrary(ServletContext, FacesContext, DocumentInfo)}, to
+     * the given <code>Compiler</code>.
+     * </p>
+     *
+     * @param compiler the <code>Compiler</code> of the application being configured
+     * @param taglib the tag library, may be <code>null</code> if the document did not describe one
+     */
+    public void addTagLibrary(Compiler compiler, TagLibrary taglib) {
+        if (taglib != null) {
+            compiler.addTagLibrary(taglib);
+        }
     }
 
     // --------------------------------------------------------- Private Methods
 
-    private void processTaglibraryClass(ServletContext servletContext, FacesContext facesContext, NodeList libraryClass, Compiler compiler) {
+    private TagLibrary processTaglibraryClass(ServletContext servletContext, FacesContext facesContext, NodeList libraryClass) {
         Node n = libraryClass.item(0);
         String className = getNodeText(n);
-        TagLibrary taglib = (TagLibrary) createInstance(servletContext, facesContext, className, n);
-        compiler.addTagLibrary(taglib);
+        return (TagLibrary) createInstance(servletContext, facesContext, className, n);
     }
 
-    private void processTagLibrary(ServletContext sc, FacesContext facesContext, Element documentElement, String namespace, Compiler compiler) {
+    private TagLibrary processTagLibrary(ServletContext sc, FacesContext facesContext, Element documentElement, String namespace) {
 
         NodeList children = documentElement.getChildNodes();
         if (children != null && children.getLength() > 0) {
@@ -267,7 +299,6 @@ public class FaceletTaglibConfigProcessor extends AbstractConfigProcessor {
             TagLibraryImpl taglibrary;
             if (compositeLibraryName != null) {
                 taglibrary = new CompositeComponentTagLibrary(taglibNamespace, compositeLibraryName);
-                compiler.addTagLibrary(taglibrary);
             } else {
                 taglibrary = new TagLibraryImpl(taglibNamespace);
 
@@ -276,9 +307,10 @@ public class FaceletTaglibConfigProcessor extends AbstractConfigProcessor {
             processTags(sc, facesContext, documentElement, tags, taglibrary);
             NodeList functions = documentElement.getElementsByTagNameNS(namespace, FUNCTION);
             processFunctions(sc, facesContext, functions, taglibrary);
-            compiler.addTagLibrary(taglibrary);
+            return taglibrary;
         }
 
+        return null;
     }
 
     private void processTags(ServletContext servletContext, FacesContext facesContext, Element documentElement, NodeList tags, TagLibraryImpl taglibrary) {
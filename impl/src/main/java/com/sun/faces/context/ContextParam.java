@@ -31,6 +31,10 @@ public enum ContextParam {
      * Send the "X-Powered-By" header.
      */
     SendPoweredByHeader("com.sun.faces.sendPoweredByHeader", Boolean.class, false),
+    /**
+     * Write UTF-8 responses directly to the servlet output stream instead of the servlet writer.
+     */
+    EnableDirectUtf8Output("com.sun.faces.enableDirectUtf8Output", Boolean.class, false),
     /**
      * The websocket endpoint port (default 0 means the code will take the port from the request)
      */
@@ -18,11 +18,13 @@ package com.sun.faces.context;
 
 import static com.sun.faces.RIConstants.FACES_PREFIX;
 import static com.sun.faces.RIConstants.PUSH_RESOURCE_URLS_KEY_NAME;
+import static com.sun.faces.context.ContextParam.EnableDirectUtf8Output;
 import static com.sun.faces.context.ContextParam.SendPoweredByHeader;
 import static com.sun.faces.util.MessageUtils.NULL_PARAMETERS_ERROR_MESSAGE_ID;
 import static com.sun.faces.util.MessageUtils.getExceptionMessageString;
 import static com.sun.faces.util.Util.isEmpty;
 import static java.lang.Boolean.FALSE;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,6 +48,8 @@ import java.util.logging.Logger;
 import com.sun.faces.RIConstants;
 import com.sun.faces.application.ApplicationAssociate;
 import com.sun.faces.context.flash.ELFlash;
+import com.sun.faces.io.Utf8OutputStreamWriter;
+import com.sun.faces.lifecycle.LifecycleStatistics;
 import com.sun.faces.util.FacesLogger;
 import com.sun.faces.util.MessageUtils;
 import com.sun.faces.util.TypedCollections;
@@ -99,6 +103,9 @@ public class ExternalContextImpl extends ExternalContext {
     private Map<String, String> fallbackContentTypeMap = null;
     private Flash flash;
     private boolean distributable;
+    private boolean directUtf8Output;
+    private Utf8OutputStreamWriter responseOutputWriter;
+    private boolean lifecycleStatistics;
 
     private enum ALLOWABLE_COOKIE_PROPERTIES {
         domain, maxAge, path, secure, httpOnly
@@ -126,6 +133,8 @@ public class ExternalContextImpl extends ExternalContext {
         }
 
         distributable = ContextParamUtils.getValue(servletContext, ContextParam.EnableDistributable, Boolean.class);
+        directUtf8Output = ContextParamUtils.getValue(servletContext, EnableDirectUtf8Output, Boolean.class);
+        lifecycleStatistics = servletContext.getAttribute(LifecycleStatistics.KEY) != null;
 
         fallbackContentTypeMap = new HashMap<>(3, 1.0f);
         fallbackContentTypeMap.put("js", "text/javascript");
@@ -226,6 +235,7 @@ public class ExternalContextImpl extends ExternalContext {
     @Override
     public void setResponse(Object response) {
         if (response instanceof ServletResponse) {
+            releaseResponseOutputWriter();
             this.response = (ServletResponse) response;
         }
     }
@@ -804,6 +814,7 @@ public class ExternalContextImpl extends ExternalContext {
      */
     @Override
     public OutputStream getResponseOutputStream() throws IOException {
+        flushResponseOutputWriter();
         return response.getOutputStream();
     }
 
@@ -812,6 +823,47 @@ public class ExternalContextImpl extends ExternalContext {
      */
     @Override
     public Writer getResponseOutputWriter() throws IOException {
+        Writer writer = getServletResponseOutputWriter();
+        if (lifecycleStatistics) {
+            return LifecycleStatistics.getCountingWriter(FacesContext.getCurrentInstance(), writer);
+        }
+        return writer;
+    }
+
+    private void flushResponseOutputWriter() throws IOException {
+        if (responseOutputWriter != null) {
+            responseOutputWriter.flushBuffer();
+        }
+    }
+
+    // Writes out what is left in the buffer of the response output writer, without committing the response
+    private void releaseResponseOutputWriter() {
+        try {
+            flushResponseOutputWriter();
+        } catch (IOException ioe) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Unable to write the buffered response output", ioe);
+            }
+        }
+        responseOutputWriter = null;
+    }
+
+    private Writer getServletResponseOutputWriter() throws IOException {
+        if (directUtf8Output && UTF_8.name().equalsIgnoreCase(response.getCharacterEncoding())) {
+            if (responseOutputWriter == null) {
+                try {
+                    responseOutputWriter = new Utf8OutputStreamWriter(response.getOutputStream());
+                } catch (IllegalStateException ise) {
+                    // getWriter() has already been called for this response
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.log(Level.FINE, "Unable to write directly to the response output stream", ise);
+                    }
+                    directUtf8Output = false;
+                    return response.getWriter();
+                }
+            }
+            return responseOutputWriter;
+        }
         return response.getWriter();
     }
 
@@ -885,6 +937,7 @@ public class ExternalContextImpl extends ExternalContext {
     @Override
     public void responseReset() {
         response.reset();
+        responseOutputWriter = null;
     }
 
     /**
@@ -917,6 +970,7 @@ public class ExternalContextImpl extends ExternalContext {
             doLastPhaseActions(facesContext, false);
         }
 
+        flushResponseOutputWriter();
         response.flushBuffer();
     }
 
@@ -1030,6 +1084,7 @@ public class ExternalContextImpl extends ExternalContext {
     
     @Override
     public void release() {
+        releaseResponseOutputWriter();
         servletContext = null;
         request = null;
         response = null;
@@ -709,11 +709,11 @@ public class ELFlash extends Flash {
         context.getAttributes().put(CONSTANTS.KeepFlagAttributeName, Boolean.TRUE);
     }
 
-    void clearKeepFlag(FacesContext context) {
+    static void clearKeepFlag(FacesContext context) {
         context.getAttributes().remove(CONSTANTS.KeepFlagAttributeName);
     }
 
-    boolean isKeepFlagSet(FacesContext context) {
+    static boolean isKeepFlagSet(FacesContext context) {
         return Boolean.TRUE == context.getAttributes().get(CONSTANTS.KeepFlagAttributeName);
     }
 
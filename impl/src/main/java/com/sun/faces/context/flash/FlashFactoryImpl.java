@@ -16,6 +16,10 @@
 
 package com.sun.faces.context.flash;
 
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableSessionFlash;
+
+import com.sun.faces.config.WebConfiguration;
+
 import jakarta.faces.context.ExternalContext;
 import jakarta.faces.context.FacesContext;
 import jakarta.faces.context.Flash;
@@ -33,7 +37,12 @@ public class FlashFactoryImpl extends FlashFactory {
     @Override
     public Flash getFlash(boolean create) {
         ExternalContext context = FacesContext.getCurrentInstance().getExternalContext();
-        Flash result = ELFlash.getFlash(context, create);
+        Flash result;
+        if (WebConfiguration.getInstance(context).isOptionEnabled(EnableSessionFlash)) {
+            result = SessionFlash.getFlash(context, create);
+        } else {
+            result = ELFlash.getFlash(context, create);
+        }
 
         return result;
     }
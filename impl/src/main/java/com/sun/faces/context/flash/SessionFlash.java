@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.context.flash;
+
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.NumberOfLogicalViews;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.faces.config.WebConfiguration;
+import com.sun.faces.util.FacesLogger;
+
+import jakarta.faces.application.FacesMessage;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.Flash;
+import jakarta.faces.event.PhaseId;
+import jakarta.faces.event.PostKeepFlashValueEvent;
+import jakarta.faces.event.PostPutFlashValueEvent;
+import jakarta.faces.event.PreRemoveFlashValueEvent;
+import jakarta.faces.lifecycle.ClientWindow;
+
+/**
+ * <p>
+ * A {@link Flash} implementation which keeps the flash of the next request in the <code>HttpSession</code>, per
+ * {@link ClientWindow} if one is available, instead of in an application wide map referenced by a cookie as
+ * {@link ELFlash} does.
+ * </p>
+ *
+ * <p>
+ * The flash for a window is taken out of the session at the start of the next request of that window, so it is cleaned
+ * up deterministically rather than by reaping. The session is only touched when the flash is not empty, and no cookie is
+ * ever written. The number of windows per session with a pending flash is bounded by
+ * <code>com.sun.faces.numberOfLogicalViews</code>; the flash of the least recently written window is dropped first.
+ * </p>
+ *
+ * <p>
+ * Values put into the flash before the <em>Render Response</em> phase are available in the current and the next request,
+ * values put during <em>Render Response</em> are only available in the next request, as with {@link ELFlash}.
+ * </p>
+ */
+public class SessionFlash extends Flash {
+
+    private static final Logger LOGGER = FacesLogger.FLASH.getLogger();
+
+    /**
+     * <p>
+     * The key in the application map that stores the singleton <code>SessionFlash</code> instance.
+     * </p>
+     */
+    static final String FLASH_ATTRIBUTE_NAME = SessionFlash.class.getName();
+
+    /**
+     * <p>
+     * The key in the session map that stores the {@link Store} of the session.
+     * </p>
+     */
+    static final String STORE_ATTRIBUTE_NAME = SessionFlash.class.getName() + ".STORE";
+
+    private static final String STATE_ATTRIBUTE_NAME = SessionFlash.class.getName() + ".STATE";
+
+    private static final String SAVED_RESPONSE_COMPLETE_ATTRIBUTE_NAME = SessionFlash.class.getName() + ".SAVED_RESPONSE_COMPLETE";
+
+    private final int maxWindows;
+
+    // ------------------------------------------------------------ Constructors
+
+    SessionFlash(int maxWindows) {
+        this.maxWindows = maxWindows;
+    }
+
+    /**
+     * @param extContext the <code>ExternalContext</code> for this request
+     * @param create <code>true</code> to create the instance if necessary
+     * @return the <code>SessionFlash</code> of this application
+     */
+    static SessionFlash getFlash(ExternalContext extContext, boolean create) {
+        Map<String, Object> appMap = extContext.getApplicationMap();
+        SessionFlash flash = (SessionFlash) appMap.get(FLASH_ATTRIBUTE_NAME);
+        if (flash == null && create) {
+            int maxWindows;
+            String value = WebConfiguration.getInstance(extContext).getOptionValue(NumberOfLogicalViews);
+            try {
+                maxWindows = Integer.parseInt(value);
+            } catch (NumberFormatException nfe) {
+                maxWindows = Integer.parseInt(NumberOfLogicalViews.getDefaultValue());
+            }
+            flash = new SessionFlash(Math.max(1, maxWindows));
+            Object existing = appMap.putIfAbsent(FLASH_ATTRIBUTE_NAME, flash);
+            if (existing != null) {
+                flash = (SessionFlash) existing;
+            }
+        }
+
+        return flash;
+    }
+
+    // ------------------------------------------------------ Flash overrides
+
+    @Override
+    public boolean isKeepMessages() {
+        Entry next = getState(FacesContext.getCurrentInstance()).next;
+        return next != null && next.keepMessages;
+    }
+
+    @Override
+    public void setKeepMessages(boolean newValue) {
+        FacesContext context = FacesContext.getCurrentInstance();
+        getState(context).getNext(context).keepMessages = newValue;
+    }
+
+    @Override
+    public boolean isRedirect() {
+        return getState(FacesContext.getCurrentInstance()).current.redirect;
+    }
+
+    /**
+     * <p>
+     * Takes no action, as with {@link ELFlash}, because the decision whether or not to redirect is made by the
+     * <code>NavigationHandler</code>.
+     * </p>
+     */
+    @Override
+    public void setRedirect(boolean newValue) {
+    }
+
+    @Override
+    public void keep(String key) {
+        FacesContext context = FacesContext.getCurrentInstance();
+        State state = getState(context);
+        Object toKeep = context.getExternalContext().getRequestMap().remove(key);
+        if (toKeep == null) {
+            toKeep = state.current.values.get(key);
+        }
+
+        if (toKeep != null) {
+            state.getNext(context).values.put(key, toKeep);
+            context.getApplication().publishEvent(context, PostKeepFlashValueEvent.class, key);
+        }
+    }
+
+    @Override
+    public void putNow(String key, Object value) {
+        getState(FacesContext.getCurrentInstance()).current.values.put(key, value);
+    }
+
+    @Override
+    public void doPrePhaseActions(FacesContext context) {
+        Map<Object, Object> contextMap = context.getAttributes();
+        contextMap.put(SAVED_RESPONSE_COMPLETE_ATTRIBUTE_NAME, context.getResponseComplete());
+
+        if (context.getCurrentPhaseId() == PhaseId.RESTORE_VIEW) {
+            Entry current = getState(context).current;
+            if (current.messages != null) {
+                for (Map.Entry<String, List<FacesMessage>> messages : current.messages.entrySet()) {
+                    for (FacesMessage message : messages.getValue()) {
+                        context.addMessage(messages.getKey(), message);
+                    }
+                }
+                current.messages = null;
+            }
+        }
+    }
+
+    @Override
+    public void doPostPhaseActions(FacesContext context) {
+        Map<Object, Object> contextMap = context.getAttributes();
+        if (contextMap.containsKey(ELFlash.ACT_AS_DO_LAST_PHASE_ACTIONS)) {
+            doLastPhaseActions(context, (Boolean) contextMap.get(ELFlash.ACT_AS_DO_LAST_PHASE_ACTIONS));
+            return;
+        }
+
+        boolean responseCompleteJustSetTrue = Boolean.FALSE == contextMap.get(SAVED_RESPONSE_COMPLETE_ATTRIBUTE_NAME) && context.getResponseComplete();
+        if (responseCompleteJustSetTrue || context.getCurrentPhaseId() == PhaseId.RENDER_RESPONSE) {
+            doLastPhaseActions(context, false);
+        }
+    }
+
+    /**
+     * <p>
+     * Stores the flash for the next request of the current window in the session, if it is not empty. Only the first
+     * invocation per request takes action.
+     * </p>
+     *
+     * @param context the <code>FacesContext</code> for this request
+     * @param outgoingResponseIsRedirect whether the response of this request is a redirect
+     */
+    void doLastPhaseActions(FacesContext context, boolean outgoingResponseIsRedirect) {
+        State state = (State) context.getAttributes().get(STATE_ATTRIBUTE_NAME);
+        if (state == null || state.done) {
+            return;
+        }
+        state.done = true;
+
+        Entry next = state.next;
+        if (next != null && next.keepMessages) {
+            HashMap<String, List<FacesMessage>> messages = new HashMap<>();
+            Iterator<String> clientIds = context.getClientIdsWithMessages();
+            while (clientIds.hasNext()) {
+                String clientId = clientIds.next();
+                List<FacesMessage> list = new ArrayList<>();
+                context.getMessages(clientId).forEachRemaining(list::add);
+                messages.put(clientId, list);
+            }
+            next.messages = messages.isEmpty() ? null : messages;
+        }
+
+        if (next == null || next.isEmpty()) {
+            return;
+        }
+
+        next.redirect = outgoingResponseIsRedirect;
+        ExternalContext extContext = context.getExternalContext();
+        if (extContext.getSession(false) == null) {
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "No session available to store the flash, flash values for the next request are lost.");
+            }
+            return;
+        }
+
+        Map<String, Object> sessionMap = extContext.getSessionMap();
+        Store store = (Store) sessionMap.get(STORE_ATTRIBUTE_NAME);
+        if (store == null) {
+            store = new Store(maxWindows);
+        }
+        synchronized (store) {
+            store.put(getWindowKey(extContext), next);
+        }
+        // Put again, so that the change is replicated in a distributable application.
+        sessionMap.put(STORE_ATTRIBUTE_NAME, store);
+    }
+
+    // -------------------------------------------------------- Map overrides
+
+    @Override
+    public Object get(Object key) {
+        FacesContext context = FacesContext.getCurrentInstance();
+        if ("keepMessages".equals(key)) {
+            return isKeepMessages();
+        } else if ("redirect".equals(key)) {
+            return isRedirect();
+        }
+
+        Object result = getState(context).current.values.get(key);
+        if (key != null && ELFlash.isKeepFlagSet(context)) {
+            keep(key.toString());
+            ELFlash.clearKeepFlag(context);
+        }
+
+        return result;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if ("keepMessages".equals(key)) {
+            boolean b = Boolean.parseBoolean((String) value);
+            setKeepMessages(b);
+            return b;
+        } else if ("redirect".equals(key)) {
+            boolean b = Boolean.parseBoolean((String) value);
+            setRedirect(b);
+            return b;
+        }
+
+        FacesContext context = FacesContext.getCurrentInstance();
+        State state = getState(context);
+        Object result = state.getNext(context).values.put(key, value);
+        if (isBeforeRenderResponse(context)) {
+            result = state.current.values.put(key, value);
+        }
+        context.getApplication().publishEvent(context, PostPutFlashValueEvent.class, key);
+
+        return result;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        FacesContext context = FacesContext.getCurrentInstance();
+        context.getApplication().publishEvent(context, PreRemoveFlashValueEvent.class, key);
+        State state = getState(context);
+        Object result = state.current.values.remove(key);
+        if (state.next != null) {
+            Object removed = state.next.values.remove(key);
+            if (result == null) {
+                result = removed;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getState(FacesContext.getCurrentInstance()).current.values.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return getState(FacesContext.getCurrentInstance()).current.values.containsValue(value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> t) {
+        for (Map.Entry<? extends String, ?> entry : t.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return getState(FacesContext.getCurrentInstance()).current.values.values();
+    }
+
+    @Override
+    public int size() {
+        return getState(FacesContext.getCurrentInstance()).current.values.size();
+    }
+
+    @Override
+    public void clear() {
+        State state = getState(FacesContext.getCurrentInstance());
+        state.current.values.clear();
+        if (state.next != null) {
+            state.next.values.clear();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        State state = getState(FacesContext.getCurrentInstance());
+        Set<Map.Entry<String, Object>> result = new HashSet<>(state.current.values.entrySet());
+        if (state.next != null) {
+            result.addAll(state.next.values.entrySet());
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        State state = getState(FacesContext.getCurrentInstance());
+        return state.current.values.isEmpty() && (state.next == null || state.next.values.isEmpty());
+    }
+
+    @Override
+    public Set<String> keySet() {
+        State state = getState(FacesContext.getCurrentInstance());
+        Set<String> result = new HashSet<>(state.current.values.keySet());
+        if (state.next != null) {
+            result.addAll(state.next.values.keySet());
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    /**
+     * <p>
+     * Returns the flash state of this request. On first access, the flash stored for the current window by the previous
+     * request is taken out of the session.
+     * </p>
+     */
+    private State getState(FacesContext context) {
+        Map<Object, Object> contextMap = context.getAttributes();
+        State state = (State) contextMap.get(STATE_ATTRIBUTE_NAME);
+        if (state == null) {
+            Entry current = null;
+            ExternalContext extContext = context.getExternalContext();
+            if (extContext.getSession(false) != null) {
+                Map<String, Object> sessionMap = extContext.getSessionMap();
+                Store store = (Store) sessionMap.get(STORE_ATTRIBUTE_NAME);
+                if (store != null) {
+                    boolean empty;
+                    synchronized (store) {
+                        current = store.remove(getWindowKey(extContext));
+                        empty = store.isEmpty();
+                    }
+                    if (current != null) {
+                        if (empty) {
+                            sessionMap.remove(STORE_ATTRIBUTE_NAME);
+                        } else {
+                            sessionMap.put(STORE_ATTRIBUTE_NAME, store);
+                        }
+                    }
+                }
+            }
+            state = new State(current != null ? current : new Entry());
+            contextMap.put(STATE_ATTRIBUTE_NAME, state);
+        }
+
+        return state;
+    }
+
+    private static boolean isBeforeRenderResponse(FacesContext context) {
+        PhaseId currentPhase = context.getCurrentPhaseId();
+        return currentPhase == null || currentPhase.getOrdinal() < PhaseId.RENDER_RESPONSE.getOrdinal();
+    }
+
+    private static String getWindowKey(ExternalContext extContext) {
+        ClientWindow clientWindow = extContext.getClientWindow();
+        String id = clientWindow != null ? clientWindow.getId() : null;
+        return id != null ? id : "";
+    }
+
+    // ----------------------------------------------------------- Inner Classes
+
+    /**
+     * <p>
+     * The flash state of a single request.
+     * </p>
+     */
+    private static final class State {
+
+        /**
+         * The flash of the current request, as stored by the previous request.
+         */
+        private final Entry current;
+
+        /**
+         * The flash of the next request, created on first write.
+         */
+        private Entry next;
+
+        private boolean done;
+
+        State(Entry current) {
+            this.current = current;
+        }
+
+        Entry getNext(FacesContext context) {
+            if (next == null) {
+                next = new Entry();
+                try {
+                    // Create the session while the response is most likely not committed yet.
+                    context.getExternalContext().getSession(true);
+                } catch (IllegalStateException ise) {
+                    if (LOGGER.isLoggable(Level.WARNING)) {
+                        LOGGER.log(Level.WARNING, "Unable to create a session to store the flash.", ise);
+                    }
+                }
+            }
+
+            return next;
+        }
+    }
+
+    /**
+     * <p>
+     * The flash of a single window, as stored in the session between two requests.
+     * </p>
+     */
+    static final class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final HashMap<String, Object> values = new HashMap<>();
+        private HashMap<String, List<FacesMessage>> messages;
+        private boolean keepMessages;
+        private boolean redirect;
+
+        boolean isEmpty() {
+            return values.isEmpty() && messages == null && !keepMessages;
+        }
+    }
+
+    /**
+     * <p>
+     * The flashes of the windows of a single session, in order of writing.
+     * </p>
+     */
+    static final class Store extends LinkedHashMap<String, Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxWindows;
+
+        Store(int maxWindows) {
+            this.maxWindows = maxWindows;
+        }
+
+        @Override
+        public Entry put(String key, Entry value) {
+            // Move the window to the end, so that the least recently written window is dropped first.
+            remove(key);
+            return super.put(key, value);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxWindows;
+        }
+    }
+
+}
@@ -19,6 +19,8 @@ package com.sun.faces.el;
 import java.beans.FeatureDescriptor;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import jakarta.el.ELContext;
 import jakarta.el.ELException;
@@ -26,9 +28,21 @@ import jakarta.el.ELResolver;
 
 /**
  * Maintains an ordered composite list of child <code>ELResolver for Faces</code>.
+ * <p>
+ * If the inline cache is enabled, the index of the property resolver which resolved the value of a <code>String</code>
+ * property of a base class is remembered, and that resolver is tried first for the next value of the same property of
+ * the same base class. If it does not resolve the value, the whole chain is walked as usual. This assumes that the
+ * resolvers ahead of it in the chain decide whether to resolve a property by the class of the base and the property
+ * alone, which holds for all resolvers provided by Faces and EL.
  *
  */
 public class DemuxCompositeELResolver extends FacesCompositeELResolver {
+    /**
+     * Upper bound of the number of properties per base class in the inline cache, to protect against maps with arbitrary
+     * keys.
+     */
+    private static final int MAX_INLINE_CACHED_PROPERTIES = 256;
+
     private final ELResolverChainType _chainType;
 
     private ELResolver[] _rootELResolvers = new ELResolver[2];
@@ -39,6 +53,9 @@ public class DemuxCompositeELResolver extends FacesCompositeELResolver {
     private int _propertyELResolverCount = 0;
     private int _allELResolverCount = 0;
 
+    private volatile boolean _inlineCacheEnabled;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Integer>> _inlineCache = new ConcurrentHashMap<>();
+
     public DemuxCompositeELResolver(ELResolverChainType chainType) {
         if (chainType == null) {
             throw new NullPointerException();
@@ -52,6 +69,14 @@ public class DemuxCompositeELResolver extends FacesCompositeELResolver {
         return _chainType;
     }
 
+    /**
+     * @param inlineCacheEnabled whether to remember which property resolver resolved a property of a base class
+     */
+    public void setInlineCacheEnabled(boolean inlineCacheEnabled) {
+        _inlineCacheEnabled = inlineCacheEnabled;
+        _inlineCache.clear();
+    }
+
     private void _addAllELResolver(ELResolver elResolver) {
         if (elResolver == null) {
             throw new NullPointerException();
@@ -101,6 +126,9 @@ public class DemuxCompositeELResolver extends FacesCompositeELResolver {
         // assign new resolver to end
         _propertyELResolvers[_propertyELResolverCount] = elResolver;
         _propertyELResolverCount++;
+
+        // the indexes in the inline cache may no longer be the first to resolve
+        _inlineCache.clear();
     }
 
     @Override
@@ -146,10 +174,45 @@ public class DemuxCompositeELResolver extends FacesCompositeELResolver {
         return null;
     }
 
+    private Object _getCachedValue(ELContext context, Object base, String property) throws ELException {
+        ConcurrentMap<String, Integer> cachedProperties = _inlineCache.get(base.getClass());
+        Integer cachedIndex = cachedProperties != null ? cachedProperties.get(property) : null;
+
+        if (cachedIndex != null) {
+            Object result = _propertyELResolvers[cachedIndex].getValue(context, base, property);
+
+            if (context.isPropertyResolved()) {
+                return result;
+            }
+        }
+
+        for (int i = 0; i < _propertyELResolverCount; i++) {
+            Object result = _propertyELResolvers[i].getValue(context, base, property);
+
+            if (context.isPropertyResolved()) {
+                if (cachedProperties == null) {
+                    cachedProperties = _inlineCache.computeIfAbsent(base.getClass(), k -> new ConcurrentHashMap<>());
+                }
+
+                if (cachedProperties.size() < MAX_INLINE_CACHED_PROPERTIES || cachedProperties.containsKey(property)) {
+                    cachedProperties.put(property, i);
+                }
+
+                return result;
+            }
+        }
+
+        return null;
+    }
+
     @Override
     public Object getValue(ELContext context, Object base, Object property) throws ELException {
         context.setPropertyResolved(false);
 
+        if (base != null && _inlineCacheEnabled && property instanceof String) {
+            return _getCachedValue(context, base, (String) property);
+        }
+
         int resolverCount;
         ELResolver[] resolvers;
 
@@ -18,6 +18,7 @@ package com.sun.faces.el;
 
 import static com.sun.faces.RIConstants.EMPTY_CLASS_ARGS;
 import static com.sun.faces.cdi.CdiUtils.getBeanReference;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableMethodHandleBeanELResolver;
 import static com.sun.faces.el.FacesCompositeELResolver.ELResolverChainType.Faces;
 import static com.sun.faces.util.MessageUtils.NULL_PARAMETERS_ERROR_MESSAGE_ID;
 import static com.sun.faces.util.MessageUtils.getExceptionMessageString;
@@ -37,6 +38,7 @@ import java.util.regex.Pattern;
 
 import com.sun.faces.application.ApplicationAssociate;
 import com.sun.faces.cdi.CdiExtension;
+import com.sun.faces.config.WebConfiguration;
 import com.sun.faces.context.flash.FlashELResolver;
 import com.sun.faces.mgbean.BeanManager;
 import com.sun.faces.util.MessageUtils;
@@ -126,6 +128,8 @@ public class ELUtils {
 
     public static final BeanELResolver BEAN_RESOLVER = new BeanELResolver();
 
+    public static final MethodHandleBeanELResolver METHOD_HANDLE_BEAN_RESOLVER = new MethodHandleBeanELResolver();
+
     public static final FacesResourceBundleELResolver FACES_BUNDLE_RESOLVER = new FacesResourceBundleELResolver();
 
     public static final ImplicitObjectELResolver IMPLICIT_RESOLVER = new ImplicitObjectELResolver();
@@ -202,6 +206,9 @@ public class ELUtils {
         composite.addPropertyELResolver(MAP_RESOLVER);
         composite.addPropertyELResolver(LIST_RESOLVER);
         composite.addPropertyELResolver(ARRAY_RESOLVER);
+        if (WebConfiguration.getInstance().isOptionEnabled(EnableMethodHandleBeanELResolver)) {
+            composite.addPropertyELResolver(METHOD_HANDLE_BEAN_RESOLVER);
+        }
         composite.addPropertyELResolver(BEAN_RESOLVER);
         composite.addRootELResolver(SCOPED_RESOLVER);
     }
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.el;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.beans.FeatureDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import jakarta.el.BeanELResolver;
+import jakarta.el.ELContext;
+import jakarta.el.ELException;
+import jakarta.el.ELResolver;
+
+/**
+ * <p>
+ * Resolves the properties of beans through <code>MethodHandle</code>s to their accessor methods, which are looked up
+ * once per class and cached in a <code>ClassValue</code>, instead of through reflection.
+ * </p>
+ *
+ * <p>
+ * This resolver is intended to be placed directly ahead of the {@link BeanELResolver} and follows its semantics for the
+ * properties it resolves. Anything else, such as properties without a suitable accessor, method invocations and feature
+ * descriptors, is left to the {@link BeanELResolver}, so that it also reports the errors.
+ * </p>
+ */
+public class MethodHandleBeanELResolver extends ELResolver {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private static final ClassValue<Map<String, PropertyAccessor>> ACCESSORS = new ClassValue<Map<String, PropertyAccessor>>() {
+        @Override
+        protected Map<String, PropertyAccessor> computeValue(Class<?> type) {
+            return createAccessors(type);
+        }
+    };
+
+    // ------------------------------------------------- Methods from ELResolver
+
+    @Override
+    public Object getValue(ELContext context, Object base, Object property) {
+        PropertyAccessor accessor = getAccessor(base, property);
+        if (accessor == null || accessor.getter == null) {
+            return null;
+        }
+
+        Object result;
+        try {
+            result = (Object) accessor.getter.invokeExact(base);
+        } catch (Throwable t) {
+            throw toELException(t);
+        }
+
+        context.setPropertyResolved(base, property);
+        return result;
+    }
+
+    @Override
+    public Class<?> getType(ELContext context, Object base, Object property) {
+        PropertyAccessor accessor = getAccessor(base, property);
+        if (accessor == null) {
+            return null;
+        }
+
+        context.setPropertyResolved(base, property);
+        return accessor.type;
+    }
+
+    @Override
+    public void setValue(ELContext context, Object base, Object property, Object value) {
+        PropertyAccessor accessor = getAccessor(base, property);
+        if (accessor == null || accessor.setter == null) {
+            return;
+        }
+
+        try {
+            accessor.setter.invokeExact(base, value);
+        } catch (Throwable t) {
+            throw toELException(t);
+        }
+
+        context.setPropertyResolved(base, property);
+    }
+
+    @Override
+    public boolean isReadOnly(ELContext context, Object base, Object property) {
+        PropertyAccessor accessor = getAccessor(base, property);
+        if (accessor == null) {
+            return false;
+        }
+
+        context.setPropertyResolved(base, property);
+        return accessor.setter == null;
+    }
+
+    /**
+     * @return <code>null</code>, the feature descriptors are provided by the {@link BeanELResolver}
+     */
+    @Override
+    public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base) {
+        return null;
+    }
+
+    @Override
+    public Class<?> getCommonPropertyType(ELContext context, Object base) {
+        return base != null ? Object.class : null;
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static PropertyAccessor getAccessor(Object base, Object property) {
+        if (base == null || property == null) {
+            return null;
+        }
+
+        return ACCESSORS.get(base.getClass()).get(property.toString());
+    }
+
+    private static Map<String, PropertyAccessor> createAccessors(Class<?> type) {
+        PropertyDescriptor[] descriptors;
+        try {
+            descriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, PropertyAccessor> accessors = new HashMap<>(descriptors.length);
+        for (PropertyDescriptor descriptor : descriptors) {
+            Class<?> propertyType = descriptor.getPropertyType();
+            if (propertyType == null) {
+                // Indexed property without a non-indexed accessor.
+                continue;
+            }
+
+            MethodHandle getter = unreflect(type, descriptor.getReadMethod());
+            MethodHandle setter = unreflect(type, descriptor.getWriteMethod());
+            if (getter != null || setter != null) {
+                accessors.put(descriptor.getName(), new PropertyAccessor(propertyType,
+                        getter != null ? getter.asType(methodType(Object.class, Object.class)) : null,
+                        setter != null ? setter.asType(methodType(void.class, Object.class, Object.class)) : null));
+            }
+        }
+
+        return accessors;
+    }
+
+    private static MethodHandle unreflect(Class<?> type, Method method) {
+        Method accessibleMethod = method != null ? getAccessibleMethod(type, method) : null;
+        if (accessibleMethod == null) {
+            return null;
+        }
+
+        try {
+            return LOOKUP.unreflect(accessibleMethod);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Find the given method in a public class or interface, as a public method of a non-public class cannot be invoked
+     * from outside its package.
+     */
+    private static Method getAccessibleMethod(Class<?> type, Method method) {
+        if (type == null || !Modifier.isPublic(method.getModifiers())) {
+            return null;
+        }
+
+        if (Modifier.isPublic(type.getModifiers())) {
+            try {
+                Method candidate = type.getMethod(method.getName(), method.getParameterTypes());
+                if (Modifier.isPublic(candidate.getDeclaringClass().getModifiers())) {
+                    return candidate;
+                }
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            Method candidate = getAccessibleMethod(interfaceType, method);
+            if (candidate != null) {
+                return candidate;
+            }
+        }
+
+        return getAccessibleMethod(type.getSuperclass(), method);
+    }
+
+    private static ELException toELException(Throwable t) {
+        if (t instanceof ELException) {
+            return (ELException) t;
+        }
+        if (t instanceof VirtualMachineError) {
+            throw (VirtualMachineError) t;
+        }
+
+        return new ELException(t);
+    }
+
+    // ----------------------------------------------------------- Inner Classes
+
+    private static final class PropertyAccessor {
+
+        private final Class<?> type;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        PropertyAccessor(Class<?> type, MethodHandle getter, MethodHandle setter) {
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+}
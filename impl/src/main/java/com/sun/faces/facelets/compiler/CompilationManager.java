@@ -96,7 +96,7 @@ final class CompilationManager {
         units = new Stack<>();
         units.push(new CompilationUnit());
 
-        config = WebConfiguration.getInstance();
+        config = compiler.getWebConfiguration() != null ? compiler.getWebConfiguration() : WebConfiguration.getInstance();
 
     }
 
@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.sun.faces.config.WebConfiguration;
 import com.sun.faces.facelets.tag.CompositeTagDecorator;
 import com.sun.faces.facelets.tag.CompositeTagLibrary;
 import com.sun.faces.facelets.tag.TagLibrary;
@@ -66,6 +67,8 @@ public abstract class Compiler {
 
     private final Map features = new HashMap();
 
+    private WebConfiguration webConfiguration;
+
     /**
      *
      */
@@ -183,4 +186,20 @@ public abstract class Compiler {
     public final void setValidating(boolean validating) {
         this.validating = validating;
     }
+
+    /**
+     * @return the configuration documents are compiled with, or <code>null</code> if the configuration of the current
+     * application is used
+     */
+    public final WebConfiguration getWebConfiguration() {
+        return webConfiguration;
+    }
+
+    /**
+     * @param webConfiguration the configuration to compile documents with when there is no current application, such as
+     * when precompiling at build time
+     */
+    public final void setWebConfiguration(WebConfiguration webConfiguration) {
+        this.webConfiguration = webConfiguration;
+    }
 }
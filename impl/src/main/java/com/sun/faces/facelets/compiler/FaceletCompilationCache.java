@@ -0,0 +1,642 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.facelets.compiler;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.sun.faces.util.FacesLogger;
+import com.sun.faces.util.Util;
+
+import jakarta.faces.FacesException;
+
+/**
+ * <p>
+ * Persistent cache of parsed Facelets documents. The first time a document is compiled the SAX events produced by the
+ * parser are recorded and written to a versioned binary file within the configured directory. Subsequent compilations
+ * of the same, unmodified, document (including those after a restart) replay the recorded events from a memory mapped
+ * copy of that file instead of parsing the XML again.
+ * </p>
+ *
+ * <p>
+ * The events are recorded before any tag library resolution or Facelets processing configuration has been applied, so a
+ * cached document remains valid when tag libraries or <code>facelets-processing</code> settings change. Entries are
+ * keyed by the document URL, its last modified time and a fingerprint of the parser settings.
+ * </p>
+ *
+ * <p>
+ * Documents may also be precompiled at build time by {@link SAXCompiler#precompile(URL, String, File)}. Such entries are
+ * stored within the web application under {@link #PRECOMPILED_DIRECTORY}, keyed by the view alias and the fingerprint of
+ * the parser settings, and validated against a checksum of the document content.
+ * </p>
+ */
+public final class FaceletCompilationCache {
+
+    private static final Logger LOGGER = FacesLogger.FACELETS_COMPILER.getLogger();
+
+    /**
+     * The web application directory containing the entries created by {@link SAXCompiler#precompile(URL, String, File)}.
+     */
+    public static final String PRECOMPILED_DIRECTORY = "/WEB-INF/faces-precompiled";
+
+    /**
+     * The file suffix of cache entries.
+     */
+    public static final String SUFFIX = ".fcc";
+
+    private static final int MAGIC = 0x46434331;
+    private static final int VERSION = 1;
+
+    private static final byte START_DOCUMENT = 1;
+    private static final byte END_DOCUMENT = 2;
+    private static final byte START_DTD = 3;
+    private static final byte END_DTD = 4;
+    private static final byte START_PREFIX_MAPPING = 5;
+    private static final byte END_PREFIX_MAPPING = 6;
+    private static final byte START_ELEMENT = 7;
+    private static final byte END_ELEMENT = 8;
+    private static final byte CHARACTERS = 9;
+    private static final byte IGNORABLE_WHITESPACE = 10;
+    private static final byte COMMENT = 11;
+    private static final byte START_CDATA = 12;
+    private static final byte END_CDATA = 13;
+    private static final byte PROCESSING_INSTRUCTION = 14;
+
+    private final File directory;
+
+    // ------------------------------------------------------------ Constructors
+
+    public FaceletCompilationCache(File directory) {
+        this.directory = directory;
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    // --------------------------------------------------------- Package Methods
+
+    /**
+     * @param src the document URL
+     * @param fingerprint the fingerprint of the parser settings used to compile the document
+     * @return the recorded events for the specified document, or <code>null</code> if there is no up to date entry
+     */
+    Recording get(URL src, int fingerprint) {
+        long lastModified = getLastModified(src);
+        if (lastModified <= 0) {
+            return null;
+        }
+
+        File file = getFile(src);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return readEntry(buffer, src.toExternalForm(), lastModified, fingerprint);
+        } catch (IOException | RuntimeException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Unable to read compilation cache entry " + file + " for " + src, e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @param entry the URL of the precompiled entry
+     * @param src the document URL
+     * @param alias the view alias of the document
+     * @param fingerprint the fingerprint of the parser settings used to compile the document
+     * @param checksums the checksums of the documents
+     * @return the precompiled events for the specified document, or <code>null</code> if the entry does not match the
+     * current content of the document or was precompiled with different parser settings
+     */
+    static Recording getPrecompiled(URL entry, URL src, String alias, int fingerprint, Checksums checksums) {
+        try {
+            ByteBuffer buffer;
+            if ("file".equals(entry.getProtocol())) {
+                try (FileChannel channel = FileChannel.open(new File(entry.toURI()).toPath(), StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            } else {
+                try (InputStream is = entry.openStream()) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+                    byte[] chunk = new byte[4096];
+                    for (int read = is.read(chunk); read != -1; read = is.read(chunk)) {
+                        bytes.write(chunk, 0, read);
+                    }
+                    buffer = ByteBuffer.wrap(bytes.toByteArray());
+                }
+            }
+
+            return readEntry(buffer, alias, checksums.get(src), fingerprint);
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Unable to read precompiled entry " + entry + " for " + src, e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @param src the document URL
+     * @param fingerprint the fingerprint of the parser settings used to compile the document
+     * @param xmlDeclaration the XML declaration found at the start of the document, if any
+     * @param handler the handler the recorded events are forwarded to
+     * @return a handler that records the events it receives, or <code>null</code> if the document cannot be cached
+     */
+    <H extends DefaultHandler & LexicalHandler> Recorder createRecorder(URL src, int fingerprint, String xmlDeclaration, H handler) {
+        long lastModified = getLastModified(src);
+        if (lastModified <= 0) {
+            return null;
+        }
+
+        return new Recorder(getFile(src), src.toExternalForm(), lastModified, fingerprint, xmlDeclaration, handler);
+    }
+
+    /**
+     * @param file the file to write the precompiled entry to
+     * @param src the document URL
+     * @param alias the view alias of the document, relative to the web application root and starting with a slash
+     * @param fingerprint the fingerprint of the parser settings used to compile the document
+     * @param xmlDeclaration the XML declaration found at the start of the document, if any
+     * @param handler the handler the recorded events are forwarded to
+     * @return a handler that records the events it receives
+     * @throws IOException if the document cannot be read
+     */
+    static <H extends DefaultHandler & LexicalHandler> Recorder createPrecompilationRecorder(File file, URL src, String alias, int fingerprint,
+            String xmlDeclaration, H handler) throws IOException {
+        return new Recorder(file, alias, checksum(src), fingerprint, xmlDeclaration, handler);
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private File getFile(URL src) {
+        return new File(directory, Integer.toHexString(src.toExternalForm().hashCode()) + SUFFIX);
+    }
+
+    private static long getLastModified(URL src) {
+        try {
+            return Util.getLastModified(src);
+        } catch (FacesException e) {
+            // let the compiler report the missing document
+            return 0;
+        }
+    }
+
+    private static long checksum(URL src) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream is = src.openStream()) {
+            byte[] chunk = new byte[4096];
+            for (int read = is.read(chunk); read != -1; read = is.read(chunk)) {
+                crc.update(chunk, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static Recording readEntry(ByteBuffer buffer, String key, long stamp, int fingerprint) {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        if (!key.equals(readString(buffer)) || buffer.getLong() != stamp || buffer.getInt() != fingerprint) {
+            return null;
+        }
+
+        String xmlDeclaration = readString(buffer);
+        return new Recording(xmlDeclaration, buffer.slice());
+    }
+
+    private static void writeEntry(Recorder recorder) throws IOException {
+        File file = recorder.file;
+        Path directory = file.getAbsoluteFile().getParentFile().toPath();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getName(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, recorder.key);
+                out.writeLong(recorder.stamp);
+                out.writeInt(recorder.fingerprint);
+                writeString(out, recorder.xmlDeclaration);
+                recorder.events.writeTo(out);
+            }
+
+            try {
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    // ----------------------------------------------------------- Inner Classes
+
+    /**
+     * The recorded events of a single document.
+     */
+    static final class Recording {
+
+        private final String xmlDeclaration;
+        private final ByteBuffer events;
+
+        Recording(String xmlDeclaration, ByteBuffer events) {
+            this.xmlDeclaration = xmlDeclaration;
+            this.events = events;
+        }
+
+        String getXmlDeclaration() {
+            return xmlDeclaration;
+        }
+
+        <H extends DefaultHandler & LexicalHandler> void replay(H handler) throws SAXException {
+            ByteBuffer buffer = events.duplicate();
+            ReplayLocator locator = new ReplayLocator();
+            handler.setDocumentLocator(locator);
+
+            while (buffer.hasRemaining()) {
+                byte event = buffer.get();
+                switch (event) {
+                case START_DOCUMENT:
+                    handler.startDocument();
+                    break;
+                case END_DOCUMENT:
+                    handler.endDocument();
+                    break;
+                case START_DTD:
+                    handler.startDTD(readString(buffer), readString(buffer), readString(buffer));
+                    break;
+                case END_DTD:
+                    handler.endDTD();
+                    break;
+                case START_PREFIX_MAPPING:
+                    handler.startPrefixMapping(readString(buffer), readString(buffer));
+                    break;
+                case END_PREFIX_MAPPING:
+                    handler.endPrefixMapping(readString(buffer));
+                    break;
+                case START_ELEMENT:
+                    locator.lineNumber = buffer.getInt();
+                    locator.columnNumber = buffer.getInt();
+                    String uri = readString(buffer);
+                    String localName = readString(buffer);
+                    String qName = readString(buffer);
+                    int length = buffer.getInt();
+                    AttributesImpl attributes = new AttributesImpl();
+                    for (int i = 0; i < length; i++) {
+                        attributes.addAttribute(readString(buffer), readString(buffer), readString(buffer), "CDATA", readString(buffer));
+                    }
+                    handler.startElement(uri, localName, qName, attributes);
+                    break;
+                case END_ELEMENT:
+                    handler.endElement(readString(buffer), readString(buffer), readString(buffer));
+                    break;
+                case CHARACTERS:
+                    char[] text = readString(buffer).toCharArray();
+                    handler.characters(text, 0, text.length);
+                    break;
+                case IGNORABLE_WHITESPACE:
+                    char[] whitespace = readString(buffer).toCharArray();
+                    handler.ignorableWhitespace(whitespace, 0, whitespace.length);
+                    break;
+                case COMMENT:
+                    char[] comment = readString(buffer).toCharArray();
+                    handler.comment(comment, 0, comment.length);
+                    break;
+                case START_CDATA:
+                    handler.startCDATA();
+                    break;
+                case END_CDATA:
+                    handler.endCDATA();
+                    break;
+                case PROCESSING_INSTRUCTION:
+                    handler.processingInstruction(readString(buffer), readString(buffer));
+                    break;
+                default:
+                    throw new SAXException("Corrupt compilation cache entry, unknown event " + event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forwards the events received from the parser to the compilation handler and records them. Once the document has
+     * been parsed successfully {@link #store()} writes the recorded events to the cache.
+     */
+    static final class Recorder extends DefaultHandler implements LexicalHandler {
+
+        private final File file;
+        private final String key;
+        private final long stamp;
+        private final int fingerprint;
+        private final String xmlDeclaration;
+        private final DefaultHandler handler;
+        private final LexicalHandler lexicalHandler;
+        private final ByteArrayOutputStream events = new ByteArrayOutputStream(4096);
+        private final DataOutputStream out = new DataOutputStream(events);
+
+        private Locator locator;
+
+        <H extends DefaultHandler & LexicalHandler> Recorder(File file, String key, long stamp, int fingerprint, String xmlDeclaration, H handler) {
+            this.file = file;
+            this.key = key;
+            this.stamp = stamp;
+            this.fingerprint = fingerprint;
+            this.xmlDeclaration = xmlDeclaration;
+            this.handler = handler;
+            lexicalHandler = handler;
+        }
+
+        void write() throws IOException {
+            writeEntry(this);
+        }
+
+        void store() {
+            try {
+                write();
+            } catch (IOException e) {
+                if (LOGGER.isLoggable(Level.WARNING)) {
+                    LOGGER.log(Level.WARNING, "Unable to write compilation cache entry " + file + " for " + key, e);
+                }
+            }
+        }
+
+        // ------------------------------------------ Methods from DefaultHandler
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+            handler.setDocumentLocator(locator);
+        }
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) throws IOException, SAXException {
+            return handler.resolveEntity(publicId, systemId);
+        }
+
+        @Override
+        public void warning(SAXParseException e) throws SAXException {
+            handler.warning(e);
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            handler.error(e);
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            handler.fatalError(e);
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            record(START_DOCUMENT);
+            handler.startDocument();
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            record(END_DOCUMENT);
+            handler.endDocument();
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            record(START_PREFIX_MAPPING, prefix, uri);
+            handler.startPrefixMapping(prefix, uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            record(END_PREFIX_MAPPING, prefix);
+            handler.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            try {
+                out.writeByte(START_ELEMENT);
+                out.writeInt(locator != null ? locator.getLineNumber() : -1);
+                out.writeInt(locator != null ? locator.getColumnNumber() : -1);
+                writeString(out, uri);
+                writeString(out, localName);
+                writeString(out, qName);
+                int length = attributes.getLength();
+                out.writeInt(length);
+                for (int i = 0; i < length; i++) {
+                    writeString(out, attributes.getURI(i));
+                    writeString(out, attributes.getLocalName(i));
+                    writeString(out, attributes.getQName(i));
+                    writeString(out, attributes.getValue(i));
+                }
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            handler.startElement(uri, localName, qName, attributes);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            record(END_ELEMENT, uri, localName, qName);
+            handler.endElement(uri, localName, qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            record(CHARACTERS, new String(ch, start, length));
+            handler.characters(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            record(IGNORABLE_WHITESPACE, new String(ch, start, length));
+            handler.ignorableWhitespace(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            record(PROCESSING_INSTRUCTION, target, data);
+            handler.processingInstruction(target, data);
+        }
+
+        // ------------------------------------------ Methods from LexicalHandler
+
+        @Override
+        public void startDTD(String name, String publicId, String systemId) throws SAXException {
+            record(START_DTD, name, publicId, systemId);
+            lexicalHandler.startDTD(name, publicId, systemId);
+        }
+
+        @Override
+        public void endDTD() throws SAXException {
+            record(END_DTD);
+            lexicalHandler.endDTD();
+        }
+
+        @Override
+        public void startEntity(String name) throws SAXException {
+            lexicalHandler.startEntity(name);
+        }
+
+        @Override
+        public void endEntity(String name) throws SAXException {
+            lexicalHandler.endEntity(name);
+        }
+
+        @Override
+        public void startCDATA() throws SAXException {
+            record(START_CDATA);
+            lexicalHandler.startCDATA();
+        }
+
+        @Override
+        public void endCDATA() throws SAXException {
+            record(END_CDATA);
+            lexicalHandler.endCDATA();
+        }
+
+        @Override
+        public void comment(char[] ch, int start, int length) throws SAXException {
+            record(COMMENT, new String(ch, start, length));
+            lexicalHandler.comment(ch, start, length);
+        }
+
+        // ------------------------------------------------------- Private Methods
+
+        private void record(byte event, String... values) throws SAXException {
+            try {
+                out.writeByte(event);
+                for (String value : values) {
+                    writeString(out, value);
+                }
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+    }
+
+    /**
+     * Checksums of the documents validated against precompiled entries. As the last modified time of a document does not
+     * survive packaging, precompiled entries are validated against the content of the document instead, which is only
+     * read again once its last modified time changes.
+     */
+    static final class Checksums {
+
+        private final ConcurrentMap<String, long[]> checksums = new ConcurrentHashMap<>();
+
+        long get(URL src) throws IOException {
+            long lastModified = getLastModified(src);
+            String key = src.toExternalForm();
+            long[] cached = checksums.get(key);
+            if (cached != null && lastModified > 0 && cached[0] == lastModified) {
+                return cached[1];
+            }
+
+            long checksum = checksum(src);
+            if (lastModified > 0) {
+                checksums.put(key, new long[] { lastModified, checksum });
+            }
+            return checksum;
+        }
+    }
+
+    /**
+     * Locator reporting the position recorded for the element being replayed.
+     */
+    private static final class ReplayLocator implements Locator {
+
+        private int lineNumber = -1;
+        private int columnNumber = -1;
+
+        @Override
+        public String getPublicId() {
+            return null;
+        }
+
+        @Override
+        public String getSystemId() {
+            return null;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return columnNumber;
+        }
+    }
+}
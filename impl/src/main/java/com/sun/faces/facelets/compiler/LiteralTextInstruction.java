@@ -19,24 +19,25 @@ package com.sun.faces.facelets.compiler;
 import java.io.IOException;
 
 import com.sun.faces.config.FaceletsConfiguration;
+import com.sun.faces.io.EncodedText;
 
 import jakarta.el.ELContext;
 import jakarta.el.ExpressionFactory;
 import jakarta.faces.context.FacesContext;
 
 final class LiteralTextInstruction implements Instruction {
-    private final String text;
+    private final EncodedText text;
 
     public LiteralTextInstruction(String text) {
-        this.text = text;
+        this.text = new EncodedText(text);
     }
 
     @Override
     public void write(FacesContext context) throws IOException {
         if (FaceletsConfiguration.getInstance(context).isEscapeInlineText(context)) {
-            context.getResponseWriter().writeText(text, null);
+            context.getResponseWriter().writeText(text.getText(), null);
         } else {
-            context.getResponseWriter().write(text);
+            text.write(context.getResponseWriter());
         }
     }
 
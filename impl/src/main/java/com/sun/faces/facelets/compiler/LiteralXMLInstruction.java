@@ -18,6 +18,8 @@ package com.sun.faces.facelets.compiler;
 
 import java.io.IOException;
 
+import com.sun.faces.io.EncodedText;
+
 import jakarta.el.ELContext;
 import jakarta.el.ExpressionFactory;
 import jakarta.faces.context.FacesContext;
@@ -27,19 +29,17 @@ final class LiteralXMLInstruction implements Instruction {
 
     private final static char[] STOP = new char[0];
 
-    private final char[] instruction;
-    private final int len;
+    private final EncodedText instruction;
 
     public LiteralXMLInstruction(String literal) {
-        instruction = literal.toCharArray();
-        len = instruction.length;
+        instruction = new EncodedText(literal);
     }
 
     @Override
     public void write(FacesContext context) throws IOException {
         ResponseWriter rw = context.getResponseWriter();
         rw.writeText(STOP, 0, 0); // hack to get closing elements
-        rw.write(instruction, 0, len);
+        instruction.write(rw);
     }
 
     @Override
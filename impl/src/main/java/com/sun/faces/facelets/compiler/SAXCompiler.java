@@ -19,9 +19,12 @@ package com.sun.faces.facelets.compiler;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.DisallowDoctypeDecl;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -63,6 +66,8 @@ import jakarta.faces.view.facelets.TagAttributes;
  */
 public final class SAXCompiler extends Compiler {
 
+    static final String DEFAULT_DTD = "com/sun/faces/xhtml/default.dtd";
+
     private final static Pattern XmlDeclaration = Pattern.compile("^<\\?xml.+?version=['\"](.+?)['\"](.+?encoding=['\"]((.+?))['\"])?.*?\\?>");
 
     private static class CompilationHandler extends DefaultHandler implements LexicalHandler {
@@ -169,7 +174,7 @@ public final class SAXCompiler extends Compiler {
 
         @Override
         public InputSource resolveEntity(String publicId, String systemId) throws SAXException {
-            String dtd = "com/sun/faces/xhtml/default.dtd";
+            String dtd = DEFAULT_DTD;
             /*
              * if ("-//W3C//DTD XHTML 1.0 Transitional//EN".equals(publicId)) { dtd = "xhtml1-transitional.dtd"; } else if (systemId
              * != null && systemId.startsWith("file:/")) { return new InputSource(systemId); }
@@ -376,10 +381,36 @@ public final class SAXCompiler extends Compiler {
 
     }
 
+    private FaceletCompilationCache compilationCache;
+
+    private String precompiledPath;
+
+    private final FaceletCompilationCache.Checksums precompiledChecksums = new FaceletCompilationCache.Checksums();
+
     public SAXCompiler() {
         super();
     }
 
+    public FaceletCompilationCache getCompilationCache() {
+        return compilationCache;
+    }
+
+    public void setCompilationCache(FaceletCompilationCache compilationCache) {
+        this.compilationCache = compilationCache;
+    }
+
+    public String getPrecompiledPath() {
+        return precompiledPath;
+    }
+
+    /**
+     * @param precompiledPath the web application path containing the entries created by
+     * {@link #precompile(URL, String, File)}, or <code>null</code> if the application has not been precompiled
+     */
+    public void setPrecompiledPath(String precompiledPath) {
+        this.precompiledPath = precompiledPath;
+    }
+
     @Override
     public FaceletHandler doCompile(URL src, String alias) throws IOException {
 
@@ -400,11 +431,31 @@ public final class SAXCompiler extends Compiler {
     protected FaceletHandler doCompile(CompilationManager mngr, CompilationHandler handler, URL src, String alias) throws IOException {
 
         String encoding = getEncoding();
-        try (InputStream is = new BufferedInputStream(src.openStream(), 1024);) {
-
-            writeXmlDecl(is, encoding, mngr);
-            SAXParser parser = createSAXParser(handler);
-            parser.parse(is, handler);
+        FaceletCompilationCache cache = compilationCache;
+        int fingerprint = getParserFingerprint(handler);
+        FaceletCompilationCache.Recording recording = getPrecompiled(src, alias, fingerprint);
+        if (recording == null && cache != null) {
+            recording = cache.get(src, fingerprint);
+        }
+        try {
+            if (recording != null) {
+                saveXmlDecl(recording.getXmlDeclaration(), mngr);
+                recording.replay(handler);
+            } else {
+                try (InputStream is = new BufferedInputStream(src.openStream(), 1024);) {
+                    String xmlDecl = readXmlDecl(is, encoding);
+                    saveXmlDecl(xmlDecl, mngr);
+                    SAXParser parser = createSAXParser(handler);
+                    FaceletCompilationCache.Recorder recorder = cache != null ? cache.createRecorder(src, fingerprint, xmlDecl, handler) : null;
+                    if (recorder != null) {
+                        parser.getXMLReader().setProperty("http://xml.org/sax/properties/lexical-handler", recorder);
+                        parser.parse(is, recorder);
+                        recorder.store();
+                    } else {
+                        parser.parse(is, handler);
+                    }
+                }
+            }
         } catch (SAXException e) {
             throw new FaceletException("Error Parsing " + alias + ": " + e.getMessage(), e.getCause());
         } catch (ParserConfigurationException e) {
@@ -419,6 +470,56 @@ public final class SAXCompiler extends Compiler {
 
     }
 
+    /**
+     * Compiles the specified document, failing for the same errors {@link #compile(URL, String)} does, and writes the
+     * events produced by the parser to <code>file</code>, so that they are replayed at runtime when the file is found
+     * below the precompiled path.
+     *
+     * @param src the document URL
+     * @param alias the view alias of the document, relative to the web application root and starting with a slash
+     * @param file the file to write
+     * @throws IOException if the document cannot be read or the file cannot be written
+     * @throws FaceletException if the document cannot be compiled
+     */
+    public void precompile(URL src, String alias, File file) throws IOException {
+
+        CompilationManager mngr = new CompilationManager(alias, this);
+        CompilationHandler handler = new CompilationHandler(mngr, alias);
+        try (InputStream is = new BufferedInputStream(src.openStream(), 1024);) {
+            String xmlDecl = readXmlDecl(is, RIConstants.CHAR_ENCODING);
+            saveXmlDecl(xmlDecl, mngr);
+            SAXParser parser = createSAXParser(handler);
+            FaceletCompilationCache.Recorder recorder = FaceletCompilationCache.createPrecompilationRecorder(file, src, alias, getParserFingerprint(handler),
+                    xmlDecl, handler);
+            parser.getXMLReader().setProperty("http://xml.org/sax/properties/lexical-handler", recorder);
+            parser.parse(is, recorder);
+
+            // the tag handlers are only created, and their attributes checked, once the whole document has been parsed
+            mngr.createFaceletHandler();
+            recorder.write();
+        } catch (SAXException e) {
+            throw new FaceletException("Error Parsing " + alias + ": " + e.getMessage(), e.getCause());
+        } catch (ParserConfigurationException e) {
+            throw new FaceletException("Error Configuring Parser " + alias + ": " + e.getMessage(), e.getCause());
+        }
+
+    }
+
+    private FaceletCompilationCache.Recording getPrecompiled(URL src, String alias, int fingerprint) {
+        String path = precompiledPath;
+        FacesContext context = FacesContext.getCurrentInstance();
+        if (path == null || context == null) {
+            return null;
+        }
+
+        try {
+            URL entry = context.getExternalContext().getResource(path + alias + FaceletCompilationCache.SUFFIX);
+            return entry != null ? FaceletCompilationCache.getPrecompiled(entry, src, alias, fingerprint, precompiledChecksums) : null;
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
     private String getEncoding() {
         String result;
         String encodingFromRequest = null;
@@ -433,6 +534,10 @@ public final class SAXCompiler extends Compiler {
     }
 
     protected static void writeXmlDecl(InputStream is, String encoding, CompilationManager mngr) throws IOException {
+        saveXmlDecl(readXmlDecl(is, encoding), mngr);
+    }
+
+    static String readXmlDecl(InputStream is, String encoding) throws IOException {
         is.mark(128);
         try {
             byte[] b = new byte[128];
@@ -440,21 +545,36 @@ public final class SAXCompiler extends Compiler {
                 String r = new String(b, encoding);
                 Matcher m = XmlDeclaration.matcher(r);
                 if (m.find()) {
-                    WebConfiguration config = mngr.getWebConfiguration();
-                    FaceletsConfiguration faceletsConfig = config.getFaceletsConfiguration();
-                    boolean currentModeIsXhtml = faceletsConfig.isProcessCurrentDocumentAsFaceletsXhtml(mngr.getAlias());
-
-                    // We want to write the XML declaration if and only if
-                    // the file extension for the current file has a mapping
-                    // with the value of XHTML
-                    if (currentModeIsXhtml) {
-                        Util.saveXMLDECLToFacesContextAttributes(m.group(0) + "\n");
-                    }
+                    return m.group(0);
                 }
             }
         } finally {
             is.reset();
         }
+        return null;
+    }
+
+    private static void saveXmlDecl(String xmlDecl, CompilationManager mngr) {
+        if (xmlDecl != null) {
+            WebConfiguration config = mngr.getWebConfiguration();
+            FaceletsConfiguration faceletsConfig = config.getFaceletsConfiguration();
+            boolean currentModeIsXhtml = faceletsConfig.isProcessCurrentDocumentAsFaceletsXhtml(mngr.getAlias());
+
+            // We want to write the XML declaration if and only if
+            // the file extension for the current file has a mapping
+            // with the value of XHTML
+            if (currentModeIsXhtml) {
+                Util.saveXMLDECLToFacesContextAttributes(xmlDecl + "\n");
+            }
+        }
+    }
+
+    private int getParserFingerprint(CompilationHandler handler) {
+        return getParserFingerprint(isValidating(), handler.isDisallowDoctypeDeclSet(), handler.isDisallowDoctypeDecl());
+    }
+
+    static int getParserFingerprint(boolean validating, boolean disallowDoctypeDeclSet, boolean disallowDoctypeDecl) {
+        return Objects.hash(validating, disallowDoctypeDeclSet, disallowDoctypeDecl);
     }
 
     private SAXParser createSAXParser(CompilationHandler handler) throws SAXException, ParserConfigurationException {
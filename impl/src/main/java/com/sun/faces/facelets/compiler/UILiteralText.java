@@ -18,14 +18,20 @@ package com.sun.faces.facelets.compiler;
 
 import java.io.IOException;
 
+import com.sun.faces.io.EncodedText;
+
 import jakarta.faces.context.FacesContext;
 import jakarta.faces.context.ResponseWriter;
 
 public final class UILiteralText extends UILeaf {
 
-    private final String text;
+    private final EncodedText text;
 
     public UILiteralText(String text) {
+        this(new EncodedText(text));
+    }
+
+    public UILiteralText(EncodedText text) {
         this.text = text;
     }
 
@@ -33,13 +39,13 @@ public final class UILiteralText extends UILeaf {
     public void encodeBegin(FacesContext faces) throws IOException {
         if (isRendered()) {
             ResponseWriter writer = faces.getResponseWriter();
-            writer.write(text);
+            text.write(writer);
         }
     }
 
     @Override
     public String toString() {
-        return text;
+        return text.getText();
     }
 
 }
@@ -19,6 +19,7 @@ package com.sun.faces.facelets.compiler;
 import java.io.IOException;
 
 import com.sun.faces.facelets.tag.jsf.ComponentSupport;
+import com.sun.faces.io.EncodedText;
 
 import jakarta.faces.component.UIComponent;
 import jakarta.faces.component.UniqueIdVendor;
@@ -28,14 +29,18 @@ final class UILiteralTextHandler extends AbstractUIHandler {
 
     protected final String txtString;
 
+    // shared by all components created from this handler, so the text is encoded only once
+    private final EncodedText encodedText;
+
     public UILiteralTextHandler(String txtString) {
         this.txtString = txtString;
+        encodedText = new EncodedText(txtString);
     }
 
     @Override
     public void apply(FaceletContext ctx, UIComponent parent) throws IOException {
         if (parent != null) {
-            UIComponent c = new UILiteralText(txtString);
+            UIComponent c = new UILiteralText(encodedText);
             String uid;
             UIComponent ancestorNamingContainer = parent.getNamingContainer();
             if (null != ancestorNamingContainer && ancestorNamingContainer instanceof UniqueIdVendor) {
@@ -17,12 +17,21 @@
 package com.sun.faces.facelets.impl;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.URL;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.sun.faces.util.ConcurrentCache;
+import com.sun.faces.util.ConcurrentLRUMap;
 import com.sun.faces.util.ExpiringConcurrentCache;
 import com.sun.faces.util.FacesLogger;
 import com.sun.faces.util.Util;
@@ -44,25 +53,72 @@ final class DefaultFaceletCache extends FaceletCache<DefaultFacelet> {
      * refresh'
      */
     DefaultFaceletCache(final long refreshPeriod) {
+        this(refreshPeriod, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param refreshPeriod cache refresh period (in milliseconds). 0 means 'always refresh', negative value means 'never
+     * refresh'
+     * @param refreshExecutor if not <code>null</code>, the executor used to check the cached Facelets for modifications
+     * in the background, instead of checking them on the request threads
+     */
+    DefaultFaceletCache(final long refreshPeriod, ScheduledExecutorService refreshExecutor) {
+        this(refreshPeriod, refreshExecutor, 0, 0, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param refreshPeriod cache refresh period (in milliseconds). 0 means 'always refresh', negative value means 'never
+     * refresh'
+     * @param refreshExecutor if not <code>null</code>, the executor used to check the cached Facelets for modifications
+     * in the background, instead of checking them on the request threads
+     * @param maxFacelets the maximum number of cached Facelets, the least recently used are evicted first. 0 or a
+     * negative value means unbounded
+     * @param maxMetadataFacelets the maximum number of cached metadata Facelets. 0 or a negative value means unbounded
+     * @param statistics if not <code>null</code>, the statistics to update
+     */
+    DefaultFaceletCache(final long refreshPeriod, ScheduledExecutorService refreshExecutor, int maxFacelets, int maxMetadataFacelets,
+            FaceletCacheStatistics statistics) {
 
         // We will be delegating object storage to the ExpiringCocurrentCache
         // Create Factory objects here for the cache. The objects will be delegating to our
         // own instance factories
 
         final boolean checkExpiry = refreshPeriod > 0;
+        final boolean asynchronous = checkExpiry && refreshExecutor != null;
+        _records = asynchronous ? ConcurrentHashMap.newKeySet() : null;
+        _evictedLoads = asynchronous ? ConcurrentHashMap.newKeySet() : null;
+        _statistics = statistics;
 
         ConcurrentCache.Factory<URL, Record> faceletFactory = key -> {
-            // Make sure that the expensive timestamp retrieval is not done
-            // if no expiry check is going to be performed
-            long lastModified = checkExpiry ? Util.getLastModified(key) : 0;
-            return new Record(System.currentTimeMillis(), lastModified, getMemberFactory().newInstance(key), refreshPeriod);
+            long start = System.nanoTime();
+            try {
+                // Make sure that the expensive timestamp retrieval is not done
+                // if no expiry check is going to be performed
+                long lastModified = checkExpiry ? Util.getLastModified(key) : 0;
+                return track(new Record(key, System.currentTimeMillis(), lastModified, getMemberFactory().newInstance(key), refreshPeriod));
+            } finally {
+                if (_statistics != null) {
+                    _statistics.faceletLoaded(false, System.nanoTime() - start);
+                }
+            }
         };
 
         ConcurrentCache.Factory<URL, Record> metadataFaceletFactory = key -> {
-            // Make sure that the expensive timestamp retrieval is not done
-            // if no expiry check is going to be performed
-            long lastModified = checkExpiry ? Util.getLastModified(key) : 0;
-            return new Record(System.currentTimeMillis(), lastModified, getMetadataMemberFactory().newInstance(key), refreshPeriod);
+            long start = System.nanoTime();
+            try {
+                // Make sure that the expensive timestamp retrieval is not done
+                // if no expiry check is going to be performed
+                long lastModified = checkExpiry ? Util.getLastModified(key) : 0;
+                return track(new Record(key, System.currentTimeMillis(), lastModified, getMetadataMemberFactory().newInstance(key), refreshPeriod));
+            } finally {
+                if (_statistics != null) {
+                    _statistics.faceletLoaded(true, System.nanoTime() - start);
+                }
+            }
         };
 
         // No caching if refreshPeriod is 0
@@ -70,9 +126,16 @@ final class DefaultFaceletCache extends FaceletCache<DefaultFacelet> {
             _faceletCache = new NoCache(faceletFactory);
             _metadataFaceletCache = new NoCache(metadataFaceletFactory);
         } else {
-            ExpiringConcurrentCache.ExpiryChecker<URL, Record> checker = refreshPeriod > 0 ? new ExpiryChecker() : new NeverExpired();
-            _faceletCache = new ExpiringConcurrentCache<>(faceletFactory, checker);
-            _metadataFaceletCache = new ExpiringConcurrentCache<>(metadataFaceletFactory, checker);
+            ExpiringConcurrentCache.ExpiryChecker<URL, Record> checker;
+            if (asynchronous) {
+                checker = new MarkedExpired();
+                RefreshTask task = new RefreshTask(this);
+                task.future = refreshExecutor.scheduleWithFixedDelay(task, refreshPeriod, refreshPeriod, TimeUnit.MILLISECONDS);
+            } else {
+                checker = refreshPeriod > 0 ? new ExpiryChecker() : new NeverExpired();
+            }
+            _faceletCache = createCache(faceletFactory, checker, maxFacelets, false);
+            _metadataFaceletCache = createCache(metadataFaceletFactory, checker, maxMetadataFacelets, true);
         }
     }
 
@@ -81,6 +144,9 @@ final class DefaultFaceletCache extends FaceletCache<DefaultFacelet> {
         com.sun.faces.util.Util.notNull("url", url);
         DefaultFacelet f = null;
 
+        if (_statistics != null) {
+            _statistics.faceletRequested(false);
+        }
         try {
             f = _faceletCache.get(url).getFacelet();
         } catch (ExecutionException e) {
@@ -102,6 +168,9 @@ final class DefaultFaceletCache extends FaceletCache<DefaultFacelet> {
 
         DefaultFacelet f = null;
 
+        if (_statistics != null) {
+            _statistics.faceletRequested(true);
+        }
         try {
             f = _metadataFaceletCache.get(url).getFacelet();
         } catch (ExecutionException e) {
@@ -131,15 +200,140 @@ final class DefaultFaceletCache extends FaceletCache<DefaultFacelet> {
         throw new FacesException(t);
     }
 
+    private ConcurrentCache<URL, Record> createCache(ConcurrentCache.Factory<URL, Record> factory, ExpiringConcurrentCache.ExpiryChecker<URL, Record> checker,
+            int maxSize, boolean metadata) {
+        if (maxSize <= 0) {
+            return new ExpiringConcurrentCache<>(factory, checker);
+        }
+        return new ExpiringConcurrentCache<>(factory, checker, new EvictingMap(maxSize, metadata));
+    }
+
+    private Record track(Record record) {
+        if (_records != null) {
+            _records.add(record);
+        }
+        return record;
+    }
+
+    /**
+     * Checks the last modified time of every cached Facelet and marks the modified ones as expired. Runs on the refresh
+     * executor, so that request threads never have to access the underlying resources for an expiry check.
+     */
+    private void refresh() {
+        // Records of Facelets evicted while they were still loading were tracked after the eviction
+        for (Future<Record> load : _evictedLoads) {
+            if (load.isDone()) {
+                _evictedLoads.remove(load);
+                untrack(load);
+            }
+        }
+
+        for (Record record : _records) {
+            boolean expired;
+            try {
+                // The record is considered expired if its original last modified time
+                // is older than the URL's current last modified time
+                expired = Util.getLastModified(record.getURL()) > record.getLastModified();
+            } catch (RuntimeException e) {
+                // the resource is gone, let the next request report it
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "Unable to check Facelet " + record.getURL() + " for modifications", e);
+                }
+                expired = true;
+            }
+
+            if (expired) {
+                record.markExpired();
+                _records.remove(record);
+            }
+        }
+    }
+
     private final ConcurrentCache<URL, Record> _faceletCache;
     private final ConcurrentCache<URL, Record> _metadataFaceletCache;
+    private final Set<Record> _records;
+    private final Set<Future<Record>> _evictedLoads;
+    private final FaceletCacheStatistics _statistics;
+
+    private void untrack(Future<Record> load) {
+        try {
+            _records.remove(load.get());
+        } catch (InterruptedException | ExecutionException e) {
+            // nothing was tracked
+        }
+    }
+
+    /**
+     * Runs {@link DefaultFaceletCache#refresh()} on the refresh executor. Only weakly references the cache, so that a
+     * cache which is no longer used does not stay reachable from the executor, and cancels itself once it is gone.
+     */
+    private static final class RefreshTask implements Runnable {
+
+        private final WeakReference<DefaultFaceletCache> cache;
+        private volatile ScheduledFuture<?> future;
+
+        RefreshTask(DefaultFaceletCache cache) {
+            this.cache = new WeakReference<>(cache);
+        }
+
+        @Override
+        public void run() {
+            DefaultFaceletCache faceletCache = cache.get();
+            if (faceletCache == null) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+                return;
+            }
+
+            try {
+                faceletCache.refresh();
+            } catch (Throwable t) {
+                // an exception would suppress all subsequent runs
+                if (LOGGER.isLoggable(Level.WARNING)) {
+                    LOGGER.log(Level.WARNING, "Unable to check the cached Facelets for modifications", t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Size bounded map backing the caches, evicting the least recently used Facelets.
+     */
+    private final class EvictingMap extends ConcurrentLRUMap<URL, Future<Record>> {
+
+        private static final long serialVersionUID = -3960716541927853180L;
+
+        private final boolean metadata;
+
+        EvictingMap(int maxSize, boolean metadata) {
+            super(maxSize);
+            this.metadata = metadata;
+        }
+
+        @Override
+        protected void evicted(URL key, Future<Record> value) {
+            if (_statistics != null) {
+                _statistics.faceletEvicted(metadata);
+            }
+            if (_records != null) {
+                if (value.isDone()) {
+                    untrack(value);
+                } else {
+                    // the record is tracked once loaded, remove it on the next refresh
+                    _evictedLoads.add(value);
+                }
+            }
+        }
+    }
 
     /**
      * This class holds the Facelet instance and its original URL's last modified time. It also produces the time when the
      * next expiry check should be performed
      */
     private static class Record {
-        Record(long creationTime, long lastModified, DefaultFacelet facelet, long refreshInterval) {
+        Record(URL url, long creationTime, long lastModified, DefaultFacelet facelet, long refreshInterval) {
+            _url = url;
             _facelet = facelet;
             _creationTime = creationTime;
             _lastModified = lastModified;
@@ -149,6 +343,10 @@ final class DefaultFaceletCache extends FaceletCache<DefaultFacelet> {
             _nextRefreshTime = _refreshInterval > 0 ? new AtomicLong(creationTime + refreshInterval) : null;
         }
 
+        URL getURL() {
+            return _url;
+        }
+
         DefaultFacelet getFacelet() {
             return _facelet;
         }
@@ -167,11 +365,21 @@ final class DefaultFaceletCache extends FaceletCache<DefaultFacelet> {
             return _refreshInterval > 0 ? _nextRefreshTime.getAndSet(System.currentTimeMillis() + _refreshInterval) : 0;
         }
 
+        boolean isExpired() {
+            return _expired;
+        }
+
+        void markExpired() {
+            _expired = true;
+        }
+
+        private final URL _url;
         private final long _lastModified;
         private final long _refreshInterval;
         private final long _creationTime;
         private final AtomicLong _nextRefreshTime;
         private final DefaultFacelet _facelet;
+        private volatile boolean _expired;
     }
 
     private static class ExpiryChecker implements ExpiringConcurrentCache.ExpiryChecker<URL, Record> {
@@ -189,6 +397,16 @@ final class DefaultFaceletCache extends FaceletCache<DefaultFacelet> {
         }
     }
 
+    /**
+     * Expiry checker used when the cached Facelets are checked for modifications in the background.
+     */
+    private static class MarkedExpired implements ExpiringConcurrentCache.ExpiryChecker<URL, Record> {
+        @Override
+        public boolean isExpired(URL key, Record value) {
+            return value.isExpired();
+        }
+    }
+
     private static class NeverExpired implements ExpiringConcurrentCache.ExpiryChecker<URL, Record> {
         @Override
         public boolean isExpired(URL key, Record value) {
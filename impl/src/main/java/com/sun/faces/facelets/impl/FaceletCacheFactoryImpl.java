@@ -16,8 +16,18 @@
 
 package com.sun.faces.facelets.impl;
 
+import static java.util.logging.Level.WARNING;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Logger;
+
+import com.sun.faces.RIConstants;
 import com.sun.faces.config.WebConfiguration;
+import com.sun.faces.config.WebConfiguration.WebContextInitParameter;
+import com.sun.faces.util.FacesLogger;
 
+import jakarta.faces.context.FacesContext;
 import jakarta.faces.view.facelets.FaceletCache;
 import jakarta.faces.view.facelets.FaceletCacheFactory;
 
@@ -26,6 +36,19 @@ import jakarta.faces.view.facelets.FaceletCacheFactory;
  */
 public class FaceletCacheFactoryImpl extends FaceletCacheFactory {
 
+    private static final Logger LOGGER = FacesLogger.FACELETS_FACTORY.getLogger();
+
+    /**
+     * Application scoped attribute holding the {@link ScheduledExecutorService} used to check the cached Facelets for
+     * modifications in the background.
+     */
+    public static final String REFRESH_EXECUTOR = RIConstants.FACES_PREFIX + "FaceletsRefreshExecutor";
+
+    /**
+     * Application scoped attribute holding the {@link FaceletCacheStatistics} updated by the created caches.
+     */
+    public static final String STATISTICS = RIConstants.FACES_PREFIX + "FaceletCacheStatistics";
+
     public FaceletCacheFactoryImpl() {
         super(null);
     }
@@ -35,9 +58,34 @@ public class FaceletCacheFactoryImpl extends FaceletCacheFactory {
         WebConfiguration webConfig = WebConfiguration.getInstance();
         String refreshPeriod = webConfig.getOptionValue(WebConfiguration.WebContextInitParameter.FaceletsDefaultRefreshPeriod);
         long period = Long.parseLong(refreshPeriod) * 1000;
-        FaceletCache<DefaultFacelet> result = new DefaultFaceletCache(period);
+        int maxFacelets = getCacheSize(webConfig, WebContextInitParameter.FaceletsCacheSize);
+        int maxMetadataFacelets = getCacheSize(webConfig, WebContextInitParameter.FaceletsMetadataCacheSize);
+        ScheduledExecutorService refreshExecutor = null;
+        FaceletCacheStatistics statistics = null;
+        FacesContext context = FacesContext.getCurrentInstance();
+        if (context != null) {
+            Map<String, Object> applicationMap = context.getExternalContext().getApplicationMap();
+            refreshExecutor = (ScheduledExecutorService) applicationMap.get(REFRESH_EXECUTOR);
+            statistics = (FaceletCacheStatistics) applicationMap.get(STATISTICS);
+        }
+        FaceletCache<DefaultFacelet> result = new DefaultFaceletCache(period, refreshExecutor, maxFacelets, maxMetadataFacelets, statistics);
         return result;
 
     }
 
+    private static int getCacheSize(WebConfiguration webConfig, WebContextInitParameter param) {
+
+        int size;
+        try {
+            size = Integer.parseInt(webConfig.getOptionValue(param));
+        } catch (NumberFormatException nfe) {
+            if (LOGGER.isLoggable(WARNING)) {
+                LOGGER.log(WARNING, "jsf.facelets.invalid_cache_size", new Object[] { webConfig.getOptionValue(param), param.getQualifiedName(), param.getDefaultValue() });
+            }
+            size = Integer.parseInt(param.getDefaultValue());
+        }
+        return size;
+
+    }
+
 }
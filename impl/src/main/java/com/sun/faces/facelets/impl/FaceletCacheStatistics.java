@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.facelets.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import com.sun.faces.util.FacesLogger;
+import com.sun.faces.util.PlatformMBeanRegistration;
+
+/**
+ * <p>
+ * Hit, miss, eviction and load time counters of the Facelet caches created by {@link FaceletCacheFactoryImpl}. A
+ * single instance is shared by all caches of an application, including the caches created per resource library
+ * contract, and can be registered as a JMX MBean.
+ * </p>
+ */
+public class FaceletCacheStatistics implements FaceletCacheStatisticsMBean {
+
+    private static final Logger LOGGER = FacesLogger.FACELETS_FACTORY.getLogger();
+
+    private final LongAdder faceletRequests = new LongAdder();
+    private final LongAdder faceletLoads = new LongAdder();
+    private final LongAdder faceletEvictions = new LongAdder();
+    private final LongAdder metadataFaceletRequests = new LongAdder();
+    private final LongAdder metadataFaceletLoads = new LongAdder();
+    private final LongAdder metadataFaceletEvictions = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+    private final PlatformMBeanRegistration registration = new PlatformMBeanRegistration("FaceletCache", this, LOGGER);
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * Registers this instance with the platform MBean server.
+     *
+     * @param application the name identifying the application, typically its context path
+     */
+    public void register(String application) {
+        registration.register(application);
+    }
+
+    /**
+     * Unregisters this instance from the platform MBean server, if it has been registered.
+     */
+    public void unregister() {
+        registration.unregister();
+    }
+
+    // -------------------------------------- Methods from FaceletCacheStatisticsMBean
+
+    @Override
+    public long getFaceletHits() {
+        return Math.max(0, faceletRequests.sum() - faceletLoads.sum());
+    }
+
+    @Override
+    public long getFaceletMisses() {
+        return faceletLoads.sum();
+    }
+
+    @Override
+    public long getFaceletEvictions() {
+        return faceletEvictions.sum();
+    }
+
+    @Override
+    public long getMetadataFaceletHits() {
+        return Math.max(0, metadataFaceletRequests.sum() - metadataFaceletLoads.sum());
+    }
+
+    @Override
+    public long getMetadataFaceletMisses() {
+        return metadataFaceletLoads.sum();
+    }
+
+    @Override
+    public long getMetadataFaceletEvictions() {
+        return metadataFaceletEvictions.sum();
+    }
+
+    @Override
+    public long getTotalLoadTime() {
+        return TimeUnit.NANOSECONDS.toMillis(loadTime.sum());
+    }
+
+    @Override
+    public double getAverageLoadTime() {
+        long loads = faceletLoads.sum() + metadataFaceletLoads.sum();
+        return loads == 0 ? 0 : loadTime.sum() / 1e6 / loads;
+    }
+
+    @Override
+    public void reset() {
+        faceletRequests.reset();
+        faceletLoads.reset();
+        faceletEvictions.reset();
+        metadataFaceletRequests.reset();
+        metadataFaceletLoads.reset();
+        metadataFaceletEvictions.reset();
+        loadTime.reset();
+    }
+
+    // --------------------------------------------------------- Package Methods
+
+    void faceletRequested(boolean metadata) {
+        (metadata ? metadataFaceletRequests : faceletRequests).increment();
+    }
+
+    void faceletLoaded(boolean metadata, long nanos) {
+        (metadata ? metadataFaceletLoads : faceletLoads).increment();
+        loadTime.add(nanos);
+    }
+
+    void faceletEvicted(boolean metadata) {
+        (metadata ? metadataFaceletEvictions : faceletEvictions).increment();
+    }
+
+}
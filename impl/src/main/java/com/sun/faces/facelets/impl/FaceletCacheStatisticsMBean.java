@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.facelets.impl;
+
+/**
+ * Management interface of {@link FaceletCacheStatistics}.
+ */
+public interface FaceletCacheStatisticsMBean {
+
+    /**
+     * @return the number of Facelet requests served from the cache
+     */
+    long getFaceletHits();
+
+    /**
+     * @return the number of Facelet requests that required the Facelet to be compiled
+     */
+    long getFaceletMisses();
+
+    /**
+     * @return the number of Facelets evicted because the cache exceeded its maximum size
+     */
+    long getFaceletEvictions();
+
+    /**
+     * @return the number of metadata Facelet requests served from the cache
+     */
+    long getMetadataFaceletHits();
+
+    /**
+     * @return the number of metadata Facelet requests that required the metadata Facelet to be compiled
+     */
+    long getMetadataFaceletMisses();
+
+    /**
+     * @return the number of metadata Facelets evicted because the cache exceeded its maximum size
+     */
+    long getMetadataFaceletEvictions();
+
+    /**
+     * @return the total time spent compiling Facelets and metadata Facelets, in milliseconds
+     */
+    long getTotalLoadTime();
+
+    /**
+     * @return the average time spent compiling a Facelet or metadata Facelet, in milliseconds
+     */
+    double getAverageLoadTime();
+
+    /**
+     * Resets all counters.
+     */
+    void reset();
+
+}
@@ -68,6 +68,11 @@ public final class CompositeTagLibrary implements TagLibrary {
                 return true;
             }
         }
+        FacesContext context = FacesContext.getCurrentInstance();
+        if (context == null) {
+            // precompiling at build time, composite components and annotated components are only known at runtime
+            return false;
+        }
         // PENDING: this is a terribly inefficient impl. Needs refactoring.
         LazyTagLibrary lazyLibraries[] = new LazyTagLibrary[2];
         lazyLibraries[0] = new CompositeComponentTagLibrary(ns);
@@ -89,7 +94,6 @@ public final class CompositeTagLibrary implements TagLibrary {
             libraries = librariesPlusOne;
             return true;
         } else {
-            FacesContext context = FacesContext.getCurrentInstance();
             if (context.isProjectStage(ProjectStage.Development)) {
                 if (null != t && !ns.equals("http://www.w3.org/1999/xhtml")) {
                     // messageHolder will only be null in the case of the private
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * <p>
+ * Static template text which is encoded to UTF-8 at most once, the first time it is written to an
+ * {@link EncodedTextWriter} that is able to emit the bytes directly. Writers which are not able to do so receive the
+ * text as characters, exactly as if it had been written through {@link Writer#write(String)}.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe; concurrent first writes may encode the text more than once, which is harmless.
+ * </p>
+ */
+public final class EncodedText {
+
+    private final String text;
+
+    private volatile byte[] bytes;
+
+    // ------------------------------------------------------------ Constructors
+
+    public EncodedText(String text) {
+        this.text = text;
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * @return the text as characters
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the text encoded as UTF-8. The returned array is shared and must not be modified.
+     */
+    public byte[] getBytes() {
+        byte[] result = bytes;
+        if (result == null) {
+            bytes = result = text.getBytes(UTF_8);
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Write this text to the specified writer, as pre-encoded bytes when the writer supports it or as characters
+     * otherwise.
+     * </p>
+     *
+     * @param writer the target writer
+     * @throws IOException if an error occurs writing to the writer
+     */
+    public void write(Writer writer) throws IOException {
+        if (!(writer instanceof EncodedTextWriter) || !((EncodedTextWriter) writer).writeEncoded(this)) {
+            writer.write(text);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.io;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * Implemented by writers which are able to emit {@link EncodedText} as pre-encoded UTF-8 bytes, either themselves or
+ * by delegating to the writer they wrap.
+ * </p>
+ */
+public interface EncodedTextWriter {
+
+    /**
+     * <p>
+     * Write the pre-encoded bytes of the specified text, if the bytes can reach the underlying output directly.
+     * </p>
+     *
+     * @param text the text to write
+     * @return <code>true</code> if the text has been written, <code>false</code> if nothing has been written and the
+     * caller must fall back to writing the text as characters
+     * @throws IOException if an error occurs writing the bytes
+     */
+    boolean writeEncoded(EncodedText text) throws IOException;
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * <p>
+ * A {@link Writer} which encodes characters to UTF-8 itself and writes the resulting bytes straight to an
+ * {@link OutputStream}, usually the <code>ServletOutputStream</code> of the response. Compared to the writer returned
+ * by <code>ServletResponse.getWriter()</code> this avoids the generic charset encoder and allows
+ * {@link EncodedText} to be written without encoding it again for every response.
+ * </p>
+ *
+ * <p>
+ * Encoded bytes are kept in a buffer until it is full, or until {@link #flushBuffer()}, {@link #flush()} or
+ * {@link #close()} is called. A high surrogate at the end of one call is kept until the next call so that surrogate
+ * pairs may be split across writes. Unpaired surrogates are written as <code>'?'</code>, consistent with
+ * {@link String#getBytes(java.nio.charset.Charset)}.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+public class Utf8OutputStreamWriter extends Writer implements EncodedTextWriter {
+
+    private static final int BUFFER_SIZE = 1024;
+
+    // the longest encoding of a single code point
+    private static final int MAX_BYTES_PER_CHAR = 4;
+
+    private final OutputStream out;
+
+    private final byte[] buf = new byte[BUFFER_SIZE];
+
+    private int count;
+
+    private char highSurrogate;
+
+    // ------------------------------------------------------------ Constructors
+
+    /**
+     * @param out the stream receiving the encoded bytes
+     */
+    public Utf8OutputStreamWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    // ----------------------------------------------------- Methods from Writer
+
+    @Override
+    public void write(int c) throws IOException {
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > cbuf.length || off + len < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        for (int i = off, end = off + len; i < end; i++) {
+            char c = cbuf[i];
+            if (c < 0x80 && highSurrogate == 0) {
+                if (count == BUFFER_SIZE) {
+                    flushBuffer();
+                }
+                buf[count++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > str.length() || off + len < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        for (int i = off, end = off + len; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80 && highSurrogate == 0) {
+                if (count == BUFFER_SIZE) {
+                    flushBuffer();
+                }
+                buf[count++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * <p>
+     * Writes out a pending unpaired high surrogate, if any, and the buffered bytes, and closes the underlying stream.
+     * </p>
+     */
+    @Override
+    public void close() throws IOException {
+        writePendingSurrogate();
+        flushBuffer();
+        out.close();
+    }
+
+    // ------------------------------------------ Methods from EncodedTextWriter
+
+    /**
+     * Always writes the bytes of the specified text, buffered if they fit in the remaining buffer.
+     */
+    @Override
+    public boolean writeEncoded(EncodedText text) throws IOException {
+        writePendingSurrogate();
+        byte[] bytes = text.getBytes();
+        if (bytes.length > BUFFER_SIZE - count) {
+            flushBuffer();
+            if (bytes.length > BUFFER_SIZE) {
+                out.write(bytes);
+                return true;
+            }
+        }
+        System.arraycopy(bytes, 0, buf, count, bytes.length);
+        count += bytes.length;
+        return true;
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * <p>
+     * Writes the buffered bytes to the underlying stream without flushing it, so that the response is not committed.
+     * </p>
+     *
+     * @throws IOException if the underlying stream cannot be written to
+     */
+    public void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private void writePendingSurrogate() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (count == BUFFER_SIZE) {
+                flushBuffer();
+            }
+            buf[count++] = '?';
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        if (count > BUFFER_SIZE - MAX_BYTES_PER_CHAR) {
+            flushBuffer();
+        }
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                buf[count++] = (byte) (0xF0 | codePoint >> 18);
+                buf[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buf[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buf[count++] = (byte) (0x80 | codePoint & 0x3F);
+                return;
+            }
+            buf[count++] = '?';
+            if (count > BUFFER_SIZE - MAX_BYTES_PER_CHAR) {
+                flushBuffer();
+            }
+        }
+
+        if (c < 0x80) {
+            buf[count++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[count++] = (byte) (0xC0 | c >> 6);
+            buf[count++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[count++] = '?';
+        } else {
+            buf[count++] = (byte) (0xE0 | c >> 12);
+            buf[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buf[count++] = (byte) (0x80 | c & 0x3F);
+        }
+    }
+
+}
@@ -29,6 +29,7 @@ import com.sun.faces.util.Util;
 import jakarta.faces.FacesException;
 import jakarta.faces.FactoryFinder;
 import jakarta.faces.application.Application;
+import jakarta.faces.component.UIViewRoot;
 import jakarta.faces.context.ExternalContext;
 import jakarta.faces.context.FacesContext;
 import jakarta.faces.event.AbortProcessingException;
@@ -69,6 +70,9 @@ public class LifecycleImpl extends Lifecycle {
     private boolean isClientWindowEnabled = false;
     private WebConfiguration config;
 
+    // The statistics to record the phases into, if enabled
+    private LifecycleStatistics statistics;
+
     public LifecycleImpl() {
 
     }
@@ -76,6 +80,7 @@ public class LifecycleImpl extends Lifecycle {
     public LifecycleImpl(FacesContext context) {
         ExternalContext extContext = context.getExternalContext();
         config = WebConfiguration.getInstance(extContext);
+        statistics = (LifecycleStatistics) extContext.getApplicationMap().get(LifecycleStatistics.KEY);
         context.getApplication().subscribeToEvent(PostConstructApplicationEvent.class, Application.class, new PostConstructApplicationListener());
 
     }
@@ -150,13 +155,17 @@ public class LifecycleImpl extends Lifecycle {
             LOGGER.fine("execute(" + context + ")");
         }
 
+        if (statistics != null) {
+            statistics.requestStarted(context);
+        }
+
         for (int i = 1, len = phases.length - 1; i < len; i++) { // Skip ANY_PHASE placeholder
 
             if (context.getRenderResponse() || context.getResponseComplete()) {
                 break;
             }
 
-            phases[i].doPhase(context, this, listeners.listIterator());
+            doPhase(context, phases[i]);
 
         }
 
@@ -175,7 +184,30 @@ public class LifecycleImpl extends Lifecycle {
         }
 
         if (!context.getResponseComplete()) {
-            response.doPhase(context, this, listeners.listIterator());
+            if (statistics != null) {
+                statistics.requestStarted(context);
+            }
+
+            doPhase(context, response);
+
+            if (statistics != null) {
+                statistics.viewRendered(context);
+            }
+        }
+
+    }
+
+    private void doPhase(FacesContext context, Phase phase) {
+
+        if (statistics == null) {
+            phase.doPhase(context, this, listeners.listIterator());
+        } else {
+            // Attribute the phase to the view it started on, not to the one navigation may have replaced it with
+            UIViewRoot root = context.getViewRoot();
+            long start = System.nanoTime();
+            phase.doPhase(context, this, listeners.listIterator());
+            long nanos = System.nanoTime() - start;
+            statistics.phaseCompleted(context, LifecycleStatistics.getViewId(root != null ? root : context.getViewRoot()), phase.getId(), nanos);
         }
 
     }
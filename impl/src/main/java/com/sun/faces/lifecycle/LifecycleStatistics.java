@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.lifecycle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.faces.io.EncodedText;
+import com.sun.faces.io.EncodedTextWriter;
+import com.sun.faces.spi.LifecycleMetricsListener;
+import com.sun.faces.util.FacesLogger;
+import com.sun.faces.util.LatencyHistogram;
+import com.sun.faces.util.PlatformMBeanRegistration;
+
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.PhaseId;
+
+/**
+ * <p>
+ * Per view id phase latency histograms, component tree and state sizes and response lengths recorded by
+ * {@link LifecycleImpl}, which can be registered as a JMX MXBean and which notifies the configured
+ * {@link LifecycleMetricsListener}s.
+ * </p>
+ *
+ * <p>
+ * All counters are {@link LongAdder}s and the latencies are recorded in {@link LatencyHistogram}s, so the allocations
+ * per request are limited to a single {@link RequestMetrics} instance and the {@link CountingWriter} wrapping the
+ * response writer.
+ * </p>
+ */
+public class LifecycleStatistics implements LifecycleStatisticsMXBean {
+
+    /**
+     * The application scoped attribute name under which the statistics are stored, if enabled.
+     */
+    public static final String KEY = LifecycleStatistics.class.getName();
+
+    private static final Logger LOGGER = FacesLogger.LIFECYCLE.getLogger();
+
+    private static final String METRICS_KEY = RequestMetrics.class.getName();
+
+    /**
+     * The view id under which views are recorded once {@link #MAX_VIEW_IDS} distinct view ids have been seen.
+     */
+    static final String OTHER_VIEW_IDS = "*";
+
+    private static final int MAX_VIEW_IDS = 1024;
+    private static final int PHASES = PhaseId.VALUES.size();
+    private static final int COMPONENT_COUNT_SAMPLING = 16; // Walk the component tree on about one in 16 renders.
+
+    private final ConcurrentMap<String, ViewStatistics> views = new ConcurrentHashMap<>();
+    private final LifecycleMetricsListener[] listeners;
+    private final PlatformMBeanRegistration registration = new PlatformMBeanRegistration("Lifecycle", this, LOGGER);
+
+    // ------------------------------------------------------------ Constructors
+
+    /**
+     * @param listeners the listeners to notify of each completed phase and each rendered view
+     */
+    public LifecycleStatistics(List<LifecycleMetricsListener> listeners) {
+        this.listeners = listeners.toArray(new LifecycleMetricsListener[listeners.size()]);
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * Registers this instance with the platform MBean server.
+     *
+     * @param application the name identifying the application, typically its context path
+     */
+    public void register(String application) {
+        registration.register(application);
+    }
+
+    /**
+     * Unregisters this instance from the platform MBean server, if it has been registered.
+     */
+    public void unregister() {
+        registration.unregister();
+    }
+
+    /**
+     * Adds the given size to the size of the view state saved by the current request, if lifecycle statistics are being
+     * recorded for it.
+     *
+     * @param context the <code>FacesContext</code> for the current request
+     * @param size the size of the serialized or encoded state
+     */
+    public static void addStateSize(FacesContext context, long size) {
+        RequestMetrics metrics = getRequestMetrics(context);
+        if (metrics != null) {
+            metrics.stateSize = Math.max(metrics.stateSize, 0) + size;
+        }
+    }
+
+    /**
+     * Returns a writer counting the characters written to the given response writer, if lifecycle statistics are being
+     * recorded for the current request, otherwise the given writer itself.
+     *
+     * @param context the <code>FacesContext</code> for the current request
+     * @param writer the response output writer
+     * @return the writer to write the response to
+     */
+    public static Writer getCountingWriter(FacesContext context, Writer writer) {
+        RequestMetrics metrics = getRequestMetrics(context);
+        if (metrics == null) {
+            return writer;
+        }
+        if (metrics.responseWriter == null || metrics.responseWriter.writer != writer) {
+            metrics.responseWriter = new CountingWriter(writer, metrics);
+        }
+        return metrics.responseWriter;
+    }
+
+    // ---------------------------------------- Methods from LifecycleStatisticsMXBean
+
+    @Override
+    public Set<String> getViewIds() {
+        return new TreeSet<>(views.keySet());
+    }
+
+    @Override
+    public Map<String, Long> getRenderedViews() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, ViewStatistics> entry : views.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().renders.sum());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getAverageComponentCounts() {
+        return getAverages(view -> view.componentSamples.sum(), view -> view.components.sum());
+    }
+
+    @Override
+    public Map<String, Double> getAverageStateSizes() {
+        return getAverages(view -> view.statesSaved.sum(), view -> view.stateSize.sum());
+    }
+
+    @Override
+    public Map<String, Double> getAverageResponseLengths() {
+        return getAverages(view -> view.renders.sum(), view -> view.responseLength.sum());
+    }
+
+    @Override
+    public long[] getPhaseLatencyHistogramBounds() {
+        return LatencyHistogram.getBounds();
+    }
+
+    @Override
+    public long[] getPhaseLatencyHistogram(String viewId, String phase) {
+        ViewStatistics view = views.get(viewId);
+        PhaseId phaseId = PhaseId.phaseIdValueOf(phase);
+        if (view != null && phaseId != PhaseId.ANY_PHASE) {
+            return view.latencies[phaseId.getOrdinal()].getCounts();
+        }
+        return new long[LatencyHistogram.BUCKETS];
+    }
+
+    @Override
+    public Map<String, Long> getPhaseLatencyMedians(String viewId) {
+        return getPhaseLatencyPercentiles(viewId, 0.5);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseLatency99thPercentiles(String viewId) {
+        return getPhaseLatencyPercentiles(viewId, 0.99);
+    }
+
+    @Override
+    public void reset() {
+        views.clear();
+    }
+
+    // --------------------------------------------------------- Package Methods
+
+    /**
+     * Starts recording the sizes of the current request, if not already done.
+     */
+    void requestStarted(FacesContext context) {
+        Map<Object, Object> attributes = context.getAttributes();
+        if (!attributes.containsKey(METRICS_KEY)) {
+            attributes.put(METRICS_KEY, new RequestMetrics());
+        }
+    }
+
+    void phaseCompleted(FacesContext context, String viewId, PhaseId phaseId, long nanos) {
+        phaseCompleted(viewId, phaseId, nanos);
+        for (LifecycleMetricsListener listener : listeners) {
+            try {
+                listener.phaseCompleted(context, viewId, phaseId, nanos);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    void phaseCompleted(String viewId, PhaseId phaseId, long nanos) {
+        getViewStatistics(viewId).latencies[phaseId.getOrdinal()].record(nanos);
+    }
+
+    /**
+     * Records the sizes of the view rendered by the current request.
+     */
+    void viewRendered(FacesContext context) {
+        UIViewRoot root = context.getViewRoot();
+        RequestMetrics metrics = getRequestMetrics(context);
+        if (root == null || metrics == null) {
+            return;
+        }
+
+        String viewId = getViewId(root);
+        ViewStatistics view = getViewStatistics(viewId);
+        boolean sampled = view.componentCount < 0 || ThreadLocalRandom.current().nextInt(COMPONENT_COUNT_SAMPLING) == 0;
+        int componentCount = sampled ? getComponentCount(root) : view.componentCount;
+        long responseLength = metrics.responseWriter != null ? metrics.responseWriter.count : 0;
+        viewRendered(view, sampled ? componentCount : -1, metrics.stateSize, responseLength);
+        for (LifecycleMetricsListener listener : listeners) {
+            try {
+                listener.viewRendered(context, viewId, componentCount, metrics.stateSize, responseLength);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    /**
+     * Records a render of the given view, where a negative component count means the component tree was not counted.
+     */
+    void viewRendered(String viewId, int componentCount, long stateSize, long responseLength) {
+        viewRendered(getViewStatistics(viewId), componentCount, stateSize, responseLength);
+    }
+
+    static int getComponentCount(UIComponent component) {
+        int count = 1;
+        if (component.getFacetCount() > 0) {
+            for (UIComponent facet : component.getFacets().values()) {
+                count += getComponentCount(facet);
+            }
+        }
+        if (component.getChildCount() > 0) {
+            for (UIComponent child : component.getChildren()) {
+                count += getComponentCount(child);
+            }
+        }
+        return count;
+    }
+
+    static String getViewId(UIViewRoot root) {
+        String viewId = root != null ? root.getViewId() : null;
+        return viewId != null ? viewId : "";
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static RequestMetrics getRequestMetrics(FacesContext context) {
+        return context != null ? (RequestMetrics) context.getAttributes().get(METRICS_KEY) : null;
+    }
+
+    private static void viewRendered(ViewStatistics view, int componentCount, long stateSize, long responseLength) {
+        view.renders.increment();
+        if (componentCount >= 0) {
+            view.componentCount = componentCount;
+            view.componentSamples.increment();
+            view.components.add(componentCount);
+        }
+        view.responseLength.add(responseLength);
+        if (stateSize >= 0) {
+            view.statesSaved.increment();
+            view.stateSize.add(stateSize);
+        }
+    }
+
+    private ViewStatistics getViewStatistics(String viewId) {
+        ViewStatistics view = views.get(viewId);
+        if (view == null) {
+            String key = views.size() < MAX_VIEW_IDS ? viewId : OTHER_VIEW_IDS;
+            view = views.computeIfAbsent(key, k -> new ViewStatistics());
+        }
+        return view;
+    }
+
+    private Map<String, Double> getAverages(ToLongFunction<ViewStatistics> count, ToLongFunction<ViewStatistics> total) {
+        Map<String, Double> result = new TreeMap<>();
+        for (Map.Entry<String, ViewStatistics> entry : views.entrySet()) {
+            long samples = count.applyAsLong(entry.getValue());
+            if (samples > 0) {
+                result.put(entry.getKey(), (double) total.applyAsLong(entry.getValue()) / samples);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Long> getPhaseLatencyPercentiles(String viewId, double percentile) {
+        ViewStatistics view = views.get(viewId);
+        if (view == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (PhaseId phaseId : PhaseId.VALUES) {
+            if (phaseId != PhaseId.ANY_PHASE) {
+                long latency = view.latencies[phaseId.getOrdinal()].getPercentile(percentile);
+                if (latency > 0) {
+                    result.put(phaseId.getName(), latency);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void logListenerFailure(LifecycleMetricsListener listener, RuntimeException e) {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.log(Level.WARNING, "LifecycleMetricsListener " + listener.getClass().getName() + " failed", e);
+        }
+    }
+
+    // ---------------------------------------------------------- Nested Classes
+
+    private static final class ViewStatistics {
+
+        private final LatencyHistogram[] latencies = new LatencyHistogram[PHASES];
+        private final LongAdder renders = new LongAdder();
+        private final LongAdder componentSamples = new LongAdder();
+        private final LongAdder components = new LongAdder();
+        private final LongAdder statesSaved = new LongAdder();
+        private final LongAdder stateSize = new LongAdder();
+        private final LongAdder responseLength = new LongAdder();
+        private volatile int componentCount = -1; // Last counted, or -1 if not yet counted.
+
+        ViewStatistics() {
+            for (int i = 0; i < PHASES; i++) {
+                latencies[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /**
+     * The sizes recorded during a single request, stored in the <code>FacesContext</code> attributes.
+     */
+    private static final class RequestMetrics {
+
+        private long stateSize = -1;
+        private CountingWriter responseWriter;
+    }
+
+    private static final class CountingWriter extends Writer implements EncodedTextWriter {
+
+        private final Writer writer;
+        private long count;
+
+        CountingWriter(Writer writer, RequestMetrics metrics) {
+            this.writer = writer;
+            if (metrics.responseWriter != null) {
+                count = metrics.responseWriter.count;
+            }
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            writer.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            writer.write(cbuf, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            writer.write(str, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        /**
+         * Keeps the pre-encoded template text reaching the response as bytes, counted by its characters like any other text.
+         */
+        @Override
+        public boolean writeEncoded(EncodedText text) throws IOException {
+            if (writer instanceof EncodedTextWriter && ((EncodedTextWriter) writer).writeEncoded(text)) {
+                count += text.getText().length();
+                return true;
+            }
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.lifecycle;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Management interface of {@link LifecycleStatistics}. Phases are identified by their name, such as
+ * <code>RENDER_RESPONSE</code>, and latencies are expressed in microseconds.
+ */
+public interface LifecycleStatisticsMXBean {
+
+    /**
+     * @return the view ids for which statistics have been recorded
+     */
+    Set<String> getViewIds();
+
+    /**
+     * @return the number of times each view has been rendered, by view id
+     */
+    Map<String, Long> getRenderedViews();
+
+    /**
+     * @return the average number of components in the component tree of each rendered view, by view id, as counted on a
+     * sample of the renders
+     */
+    Map<String, Double> getAverageComponentCounts();
+
+    /**
+     * @return the average size of the saved state of each rendered view, by view id
+     */
+    Map<String, Double> getAverageStateSizes();
+
+    /**
+     * @return the average number of characters written to the response of each rendered view, by view id; this is a
+     * length in characters, not the number of bytes sent, which depends on the response encoding
+     */
+    Map<String, Double> getAverageResponseLengths();
+
+    /**
+     * @return the inclusive upper bound in microseconds of each bucket of the phase latency histograms
+     */
+    long[] getPhaseLatencyHistogramBounds();
+
+    /**
+     * @param viewId the view id
+     * @param phase the name of the phase
+     * @return the number of executions of the given phase for the given view per bucket of
+     * {@link #getPhaseLatencyHistogramBounds()}
+     */
+    long[] getPhaseLatencyHistogram(String viewId, String phase);
+
+    /**
+     * @param viewId the view id
+     * @return the median latency of each phase of the given view, by phase name
+     */
+    Map<String, Long> getPhaseLatencyMedians(String viewId);
+
+    /**
+     * @param viewId the view id
+     * @return the 99th percentile latency of each phase of the given view, by phase name
+     */
+    Map<String, Long> getPhaseLatency99thPercentiles(String viewId);
+
+    /**
+     * Resets all statistics.
+     */
+    void reset();
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.sun.faces.spi.PushBroker;
+
+/**
+ * <p>
+ * This push broker delivers push messages to all other started instances of this class within the same JVM. It is
+ * useful to have multiple applications in the same JVM act as nodes of a cluster, and as a reference for implementing a
+ * broker on top of an actual messaging system.
+ *
+ * @see PushBroker
+ */
+public class LoopbackPushBroker implements PushBroker {
+
+    // Constants ------------------------------------------------------------------------------------------------------
+
+    private static final List<LoopbackPushBroker> BROKERS = new CopyOnWriteArrayList<>();
+
+    // Properties -----------------------------------------------------------------------------------------------------
+
+    private volatile Receiver receiver;
+
+    // Actions --------------------------------------------------------------------------------------------------------
+
+    @Override
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+        BROKERS.add(this);
+    }
+
+    @Override
+    public void publish(List<Message> messages) {
+        for (LoopbackPushBroker broker : BROKERS) {
+            Receiver brokerReceiver = broker.receiver;
+
+            if (broker != this && brokerReceiver != null) {
+                brokerReceiver.receive(messages);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        BROKERS.remove(this);
+        receiver = null;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import static com.sun.faces.cdi.CdiUtils.getBeanReference;
+import static com.sun.faces.push.WebsocketChannelManager.EMPTY_SCOPE;
+import static com.sun.faces.push.WebsocketChannelManager.getChannelId;
+import static java.util.logging.Level.WARNING;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import com.sun.faces.spi.PushBroker;
+import com.sun.faces.spi.PushBroker.Message;
+
+import jakarta.faces.push.Push;
+
+/**
+ * <p>
+ * This web socket broker dispatcher connects the local web socket managers to a {@link PushBroker}. Push messages sent
+ * on this node are collected and published in batches from a single background thread, so that a burst of messages
+ * results in a single publish. Push messages received from other nodes are delivered to the web sockets of this node by
+ * channel identifier, by user via {@link WebsocketUserManager}, or by application scoped channel name.
+ *
+ * @see PushBroker
+ * @see Push
+ */
+public final class WebsocketBrokerDispatcher implements PushBroker.Receiver {
+
+    // Constants ------------------------------------------------------------------------------------------------------
+
+    private static final Logger logger = Logger.getLogger(WebsocketBrokerDispatcher.class.getName());
+
+    private static final String ERROR_PUBLISH = "WebsocketBrokerDispatcher: %s push messages could not be published.";
+    private static final String ERROR_RECEIVE = "WebsocketBrokerDispatcher: A received push message could not be delivered.";
+
+    // Properties -----------------------------------------------------------------------------------------------------
+
+    private final PushBroker broker;
+    private final Executor executor;
+    private final Queue<Message> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private WebsocketSessionManager socketSessions;
+    private WebsocketUserManager socketUsers;
+
+    // Constructors ---------------------------------------------------------------------------------------------------
+
+    /**
+     * Creates a web socket broker dispatcher.
+     *
+     * @param broker The push broker to publish to and receive from.
+     * @param executor The executor to publish the batches with.
+     */
+    public WebsocketBrokerDispatcher(PushBroker broker, Executor executor) {
+        this.broker = broker;
+        this.executor = executor;
+    }
+
+    // Actions --------------------------------------------------------------------------------------------------------
+
+    /**
+     * Start dispatching push messages sent on this node to the broker, and push messages received from the broker to the
+     * web sockets of this node. This must be invoked while CDI is available.
+     */
+    public void start() {
+        socketSessions = getBeanReference(WebsocketSessionManager.class);
+        socketUsers = getBeanReference(WebsocketUserManager.class);
+        socketSessions.setBrokerDispatcher(this);
+        broker.start(this);
+    }
+
+    /**
+     * Publish any pending push messages and stop the broker.
+     */
+    public void stop() {
+        flush();
+        broker.stop();
+    }
+
+    /**
+     * Queue the given push message for publishing to the other nodes.
+     *
+     * @param message The push message.
+     */
+    void publish(Message message) {
+        outbound.add(message);
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+    }
+
+    @Override
+    public void receive(List<Message> messages) {
+        for (Message message : messages) {
+            try {
+                if (message.getUser() != null) {
+                    for (String channelId : socketUsers.getChannelIds(message.getUser(), message.getChannel())) {
+                        socketSessions.sendEncoded(channelId, message.getJson());
+                    }
+                } else if (message.getChannelId() != null) {
+                    socketSessions.sendEncoded(message.getChannelId(), message.getJson());
+                } else {
+                    socketSessions.sendEncoded(getChannelId(message.getChannel(), EMPTY_SCOPE, EMPTY_SCOPE), message.getJson());
+                }
+            } catch (Exception e) {
+                logger.log(WARNING, ERROR_RECEIVE, e);
+            }
+        }
+    }
+
+    // Helpers --------------------------------------------------------------------------------------------------------
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<Message> messages = new ArrayList<>();
+        Message message;
+
+        while ((message = outbound.poll()) != null) {
+            messages.add(message);
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                broker.publish(messages);
+            } catch (Exception e) {
+                logger.log(WARNING, String.format(ERROR_PUBLISH, messages.size()), e);
+            }
+        }
+    }
+
+}
@@ -31,6 +31,8 @@ import java.util.Set;
 import java.util.concurrent.Future;
 
 import com.sun.faces.cdi.CdiUtils;
+import com.sun.faces.spi.PushBroker.Message;
+import com.sun.faces.util.Json;
 
 import jakarta.enterprise.context.SessionScoped;
 import jakarta.faces.context.FacesContext;
@@ -80,7 +82,18 @@ public class WebsocketPushContext implements PushContext {
 
     @Override
     public Set<Future<Void>> send(Object message) {
-        return socketSessions.send(getChannelId(channel, sessionScope, viewScope), message);
+        String channelId = getChannelId(channel, sessionScope, viewScope);
+        WebsocketBrokerDispatcher brokerDispatcher = socketSessions.getBrokerDispatcher();
+
+        if (brokerDispatcher == null) {
+            return socketSessions.send(channelId, message);
+        }
+
+        // Application scoped channel identifiers differ per node, so those are resolved by channel name on other nodes.
+        boolean applicationScoped = !viewScope.containsKey(channel) && !sessionScope.containsKey(channel);
+        String json = Json.encode(message);
+        brokerDispatcher.publish(new Message(channel, applicationScoped ? null : channelId, null, json));
+        return socketSessions.sendEncoded(channelId, json);
     }
 
     @Override
@@ -91,13 +104,23 @@ public class WebsocketPushContext implements PushContext {
     @Override
     public <S extends Serializable> Map<S, Set<Future<Void>>> send(Object message, Collection<S> users) {
         Map<S, Set<Future<Void>>> resultsByUser = new HashMap<>(users.size());
+        WebsocketBrokerDispatcher brokerDispatcher = socketSessions.getBrokerDispatcher();
+        String json = null;
 
         for (S user : users) {
             Set<String> channelIds = socketUsers.getChannelIds(user, channel);
             Set<Future<Void>> results = new HashSet<>(channelIds.size());
 
+            if (json == null && (brokerDispatcher != null || !channelIds.isEmpty())) {
+                json = Json.encode(message);
+            }
+
+            if (brokerDispatcher != null) {
+                brokerDispatcher.publish(new Message(channel, null, user, json));
+            }
+
             for (String channelId : channelIds) {
-                results.addAll(socketSessions.send(channelId, message));
+                results.addAll(socketSessions.sendEncoded(channelId, json));
             }
 
             resultsByUser.put(user, results);
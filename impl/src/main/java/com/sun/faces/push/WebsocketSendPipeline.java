@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.logging.Level.FINE;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Logger;
+
+import jakarta.faces.push.Push;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+/**
+ * <p>
+ * This web socket send pipeline coalesces push messages which are sent to the same channel within a configurable window
+ * into a single batched frame, and delivers those frames with at most one outstanding asynchronous send per web socket
+ * session.
+ * <p>
+ * A batched frame is a JSON array of the already encoded push messages, which is understood by the client side script.
+ * The messages of a batch are encoded only once, and the frame is built only once per batch for all sessions of the
+ * channel. When a session is still busy with a previous frame, the subsequent frames are queued and merged into a single
+ * frame once the previous send completes. If a slow session has more than the configured maximum number of pending frames,
+ * then the oldest pending frame is dropped and its results will fail.
+ *
+ * @see WebsocketSessionManager
+ * @see Push
+ */
+public final class WebsocketSendPipeline {
+
+    // Constants ------------------------------------------------------------------------------------------------------
+
+    /**
+     * The application scoped attribute name under which the pipeline is stored, if enabled.
+     */
+    public static final String KEY = WebsocketSendPipeline.class.getName();
+
+    private static final Logger logger = Logger.getLogger(WebsocketSendPipeline.class.getName());
+
+    private static final String ERROR_FRAME_DROPPED = "Push message dropped, web socket session is not keeping up.";
+    private static final String ERROR_SESSION_CLOSED = "Push message dropped, web socket session is closed.";
+
+    // Properties -----------------------------------------------------------------------------------------------------
+
+    private final ScheduledExecutorService scheduler;
+    private final long window;
+    private final int maxPendingFrames;
+    private final WebsocketStatistics statistics;
+    private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Session, Outbox> outboxes = new ConcurrentHashMap<>();
+
+    // Constructors ---------------------------------------------------------------------------------------------------
+
+    /**
+     * Creates a web socket send pipeline.
+     *
+     * @param scheduler The scheduler to flush the batches with.
+     * @param window The coalescing window in milliseconds.
+     * @param maxPendingFrames The maximum number of frames which may be queued for a single session.
+     * @param statistics The statistics to record into, or <code>null</code>.
+     */
+    public WebsocketSendPipeline(ScheduledExecutorService scheduler, long window, int maxPendingFrames, WebsocketStatistics statistics) {
+        this.scheduler = scheduler;
+        this.window = window;
+        this.maxPendingFrames = Math.max(1, maxPendingFrames);
+        this.statistics = statistics;
+    }
+
+    // Actions --------------------------------------------------------------------------------------------------------
+
+    /**
+     * Add the given encoded message to the current batch of given channel identifier for all given open sessions.
+     *
+     * @param channelId The web socket channel identifier.
+     * @param sessions The web socket sessions associated with the channel identifier.
+     * @param json The push message, already encoded as JSON.
+     * @return The results of the send operation. All messages of the same batch share the same result per session.
+     */
+    Set<Future<Void>> send(String channelId, Collection<Session> sessions, String json) {
+        while (true) {
+            Batch batch = batches.get(channelId);
+
+            if (batch == null) {
+                Batch newBatch = new Batch();
+                batch = batches.putIfAbsent(channelId, newBatch);
+
+                if (batch == null) {
+                    batch = newBatch;
+                    schedule(channelId, batch);
+                }
+            }
+
+            Set<Future<Void>> results = batch.add(sessions, json);
+
+            if (results != null) {
+                return results;
+            }
+
+            // Batch was flushed in the meanwhile, so retry with a new batch.
+            batches.remove(channelId, batch);
+        }
+    }
+
+    /**
+     * Remove the given web socket session from the pipeline. Any pending frames of the session will fail.
+     *
+     * @param session The closed web socket session.
+     */
+    void remove(Session session) {
+        Outbox outbox = outboxes.remove(session);
+
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    // Helpers --------------------------------------------------------------------------------------------------------
+
+    private void schedule(String channelId, Batch batch) {
+        try {
+            scheduler.schedule(() -> flush(channelId, batch), window, MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            flush(channelId, batch);
+        }
+    }
+
+    private void flush(String channelId, Batch batch) {
+        batches.remove(channelId, batch);
+        Map<Session, CompletableFuture<Void>> results = batch.close();
+
+        if (results.isEmpty()) {
+            return;
+        }
+
+        String frame = batch.toFrame();
+
+        for (Entry<Session, CompletableFuture<Void>> result : results.entrySet()) {
+            Session session = result.getKey();
+
+            if (session.isOpen()) {
+                outboxes.computeIfAbsent(session, Outbox::new).enqueue(frame, result.getValue());
+            } else {
+                result.getValue().completeExceptionally(new IllegalStateException(ERROR_SESSION_CLOSED));
+            }
+        }
+    }
+
+    private void recordPending(int delta) {
+        if (statistics != null && delta != 0) {
+            statistics.framesPending(delta);
+        }
+    }
+
+    private void recordDropped(int frames) {
+        if (statistics != null && frames > 0) {
+            statistics.framesDropped(frames);
+        }
+    }
+
+    private static String merge(List<String> frames) {
+        if (frames.size() == 1) {
+            return frames.get(0);
+        }
+
+        StringBuilder merged = new StringBuilder("[");
+
+        for (String frame : frames) {
+            if (merged.length() > 1) {
+                merged.append(',');
+            }
+
+            merged.append(frame, 1, frame.length() - 1);
+        }
+
+        return merged.append(']').toString();
+    }
+
+    // Nested classes -------------------------------------------------------------------------------------------------
+
+    /**
+     * The messages sent to a channel within the coalescing window, along with the result per session.
+     */
+    private static final class Batch {
+
+        private final List<String> messages = new ArrayList<>();
+        private final Map<Session, CompletableFuture<Void>> results = new LinkedHashMap<>();
+        private boolean closed;
+
+        synchronized Set<Future<Void>> add(Collection<Session> sessions, String json) {
+            if (closed) {
+                return null;
+            }
+
+            messages.add(json);
+            Set<Future<Void>> added = new HashSet<>(sessions.size());
+
+            for (Session session : sessions) {
+                if (session.isOpen()) {
+                    added.add(results.computeIfAbsent(session, s -> new CompletableFuture<>()));
+                }
+            }
+
+            return added;
+        }
+
+        synchronized Map<Session, CompletableFuture<Void>> close() {
+            closed = true;
+            return results;
+        }
+
+        synchronized String toFrame() {
+            return "[" + String.join(",", messages) + "]";
+        }
+    }
+
+    /**
+     * The frames pending for a single web socket session. At most one frame is being sent at a time.
+     */
+    private final class Outbox {
+
+        private final Session session;
+        private final Queue<Frame> pending = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        Outbox(Session session) {
+            this.session = session;
+        }
+
+        void enqueue(String text, CompletableFuture<Void> result) {
+            Frame dropped = null;
+            boolean idle;
+
+            synchronized (this) {
+                if (closed) {
+                    recordDropped(1);
+                    result.completeExceptionally(new IllegalStateException(ERROR_SESSION_CLOSED));
+                    return;
+                }
+
+                pending.add(new Frame(text, result));
+                recordPending(1);
+                idle = !sending;
+
+                if (idle) {
+                    sending = true;
+                } else if (pending.size() > maxPendingFrames) {
+                    dropped = pending.poll();
+                    recordPending(-1);
+                }
+            }
+
+            if (idle) {
+                sendPending();
+            } else if (dropped != null) {
+                if (logger.isLoggable(FINE)) {
+                    logger.log(FINE, ERROR_FRAME_DROPPED);
+                }
+
+                recordDropped(1);
+                dropped.result.completeExceptionally(new IllegalStateException(ERROR_FRAME_DROPPED));
+            }
+        }
+
+        void close() {
+            List<Frame> frames;
+
+            synchronized (this) {
+                closed = true;
+                frames = new ArrayList<>(pending);
+                pending.clear();
+                recordPending(-frames.size());
+            }
+
+            recordDropped(frames.size());
+
+            for (Frame frame : frames) {
+                frame.result.completeExceptionally(new IllegalStateException(ERROR_SESSION_CLOSED));
+            }
+        }
+
+        private void sendPending() {
+            List<String> texts = new ArrayList<>();
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+
+            synchronized (this) {
+                Frame frame;
+
+                while ((frame = pending.poll()) != null) {
+                    texts.add(frame.text);
+                    results.add(frame.result);
+                }
+
+                if (texts.isEmpty()) {
+                    sending = false;
+                    return;
+                }
+
+                recordPending(-texts.size());
+            }
+
+            long start = System.nanoTime();
+
+            try {
+                session.getAsyncRemote().sendText(merge(texts), sendResult -> sent(results, sendResult, start));
+            } catch (RuntimeException e) {
+                sent(results, new SendResult(e), start);
+            }
+        }
+
+        private void sent(List<CompletableFuture<Void>> results, SendResult sendResult, long start) {
+            if (statistics != null) {
+                statistics.frameSent(System.nanoTime() - start, sendResult.isOK());
+            }
+
+            for (CompletableFuture<Void> result : results) {
+                if (sendResult.isOK()) {
+                    result.complete(null);
+                } else {
+                    result.completeExceptionally(sendResult.getException());
+                }
+            }
+
+            sendPending();
+        }
+    }
+
+    /**
+     * A frame pending for a single web socket session.
+     */
+    private static final class Frame {
+
+        private final String text;
+        private final CompletableFuture<Void> result;
+
+        Frame(String text, CompletableFuture<Void> result) {
+            this.text = text;
+            this.result = result;
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -85,6 +86,10 @@ public class WebsocketSessionManager {
     // Properties -----------------------------------------------------------------------------------------------------
 
     private final ConcurrentMap<String, Collection<Session>> socketSessions = new ConcurrentHashMap<>();
+    private volatile WebsocketSendPipeline sendPipeline;
+    private volatile WebsocketStatistics statistics;
+    private volatile boolean applicationAttributesResolved;
+    private volatile WebsocketBrokerDispatcher brokerDispatcher;
 
     @Inject
     private WebsocketUserManager socketUsers;
@@ -97,6 +102,10 @@ public class WebsocketSessionManager {
      * @param channelId The channel identifier to register.
      */
     protected void register(String channelId) {
+        if (!applicationAttributesResolved) {
+            resolveApplicationAttributes();
+        }
+
         if (!socketSessions.containsKey(channelId)) {
             socketSessions.putIfAbsent(channelId, new ConcurrentLinkedQueue<Session>());
         }
@@ -132,6 +141,12 @@ public class WebsocketSessionManager {
                 session.getUserProperties().put("user", user);
             }
 
+            WebsocketStatistics stats = statistics;
+
+            if (stats != null) {
+                stats.sessionOpened(getChannel(session));
+            }
+
             fireEvent(session, null, SESSION_OPENED);
             return true;
         }
@@ -153,8 +168,33 @@ public class WebsocketSessionManager {
         Collection<Session> sessions = channelId != null ? socketSessions.get(channelId) : null;
 
         if (sessions != null && !sessions.isEmpty()) {
+            return sendEncoded(channelId, Json.encode(message));
+        }
+
+        return emptySet();
+    }
+
+    /**
+     * Send the given message, which is already encoded as JSON, to all open web socket sessions associated with given web
+     * socket channel identifier. If the web socket send pipeline is enabled, then the message is coalesced with other
+     * messages sent to the same channel identifier within the configured window.
+     *
+     * @param channelId The web socket channel identifier.
+     * @param json The push message, already encoded as JSON.
+     * @return The results of the send operation.
+     * @see #send(String, Object)
+     */
+    protected Set<Future<Void>> sendEncoded(String channelId, String json) {
+        Collection<Session> sessions = channelId != null ? socketSessions.get(channelId) : null;
+
+        if (sessions != null && !sessions.isEmpty()) {
+            WebsocketSendPipeline pipeline = sendPipeline;
+
+            if (pipeline != null) {
+                return pipeline.send(channelId, sessions, json);
+            }
+
             Set<Future<Void>> results = new HashSet<>(sessions.size());
-            String json = Json.encode(message);
 
             for (Session session : sessions) {
                 if (session.isOpen()) {
@@ -170,7 +210,24 @@ public class WebsocketSessionManager {
 
     private Future<Void> send(Session session, String text, boolean retrySendTomcatWebSocket) {
         try {
-            return session.getAsyncRemote().sendText(text);
+            WebsocketStatistics stats = statistics;
+
+            if (stats == null) {
+                return session.getAsyncRemote().sendText(text);
+            }
+
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            long start = System.nanoTime();
+            session.getAsyncRemote().sendText(text, sendResult -> {
+                stats.frameSent(System.nanoTime() - start, sendResult.isOK());
+
+                if (sendResult.isOK()) {
+                    result.complete(null);
+                } else {
+                    result.completeExceptionally(sendResult.getException());
+                }
+            });
+            return result;
         } catch (IllegalStateException e) {
             // Awkward workaround for Tomcat not willing to queue/synchronize asyncRemote().
             // https://bz.apache.org/bugzilla/show_bug.cgi?id=56026
@@ -191,6 +248,12 @@ public class WebsocketSessionManager {
         Exception cause = null;
 
         while (++retries < TOMCAT_WEB_SOCKET_MAX_RETRIES) {
+            WebsocketStatistics stats = statistics;
+
+            if (stats != null) {
+                stats.tomcatRetried();
+            }
+
             try {
                 Thread.sleep(TOMCAT_WEB_SOCKET_RETRY_TIMEOUT);
 
@@ -230,6 +293,18 @@ public class WebsocketSessionManager {
         Collection<Session> sessions = socketSessions.get(getChannelId(session));
 
         if (sessions != null && sessions.remove(session)) {
+            WebsocketSendPipeline pipeline = sendPipeline;
+
+            if (pipeline != null) {
+                pipeline.remove(session);
+            }
+
+            WebsocketStatistics stats = statistics;
+
+            if (stats != null) {
+                stats.sessionClosed(getChannel(session));
+            }
+
             fireEvent(session, reason, SESSION_CLOSED);
         }
     }
@@ -257,6 +332,24 @@ public class WebsocketSessionManager {
         }
     }
 
+    /**
+     * Set the dispatcher which delivers push messages to other nodes, if any.
+     *
+     * @param brokerDispatcher The web socket broker dispatcher.
+     */
+    protected void setBrokerDispatcher(WebsocketBrokerDispatcher brokerDispatcher) {
+        this.brokerDispatcher = brokerDispatcher;
+    }
+
+    /**
+     * Returns the dispatcher which delivers push messages to other nodes, if any.
+     *
+     * @return The web socket broker dispatcher, or <code>null</code> if push messages are only delivered locally.
+     */
+    protected WebsocketBrokerDispatcher getBrokerDispatcher() {
+        return brokerDispatcher;
+    }
+
     // Internal -------------------------------------------------------------------------------------------------------
 
     private static volatile WebsocketSessionManager instance;
@@ -274,6 +367,17 @@ public class WebsocketSessionManager {
 
     // Helpers --------------------------------------------------------------------------------------------------------
 
+    private void resolveApplicationAttributes() {
+        FacesContext context = FacesContext.getCurrentInstance();
+
+        if (context != null) {
+            Map<String, Object> applicationMap = context.getExternalContext().getApplicationMap();
+            sendPipeline = (WebsocketSendPipeline) applicationMap.get(WebsocketSendPipeline.KEY);
+            statistics = (WebsocketStatistics) applicationMap.get(WebsocketStatistics.KEY);
+            applicationAttributesResolved = true;
+        }
+    }
+
     private static String getChannel(Session session) {
         return session.getPathParameters().get(PARAM_CHANNEL);
     }
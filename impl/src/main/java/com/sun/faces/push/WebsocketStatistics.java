@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import com.sun.faces.util.LatencyHistogram;
+import com.sun.faces.util.PlatformMBeanRegistration;
+
+import jakarta.faces.push.Push;
+
+/**
+ * <p>
+ * Session, send latency, failure and queue counters of the {@link WebsocketSessionManager} and
+ * {@link WebsocketSendPipeline} of an application, which can be registered as a JMX MXBean.
+ * <p>
+ * All counters are {@link LongAdder}s and the send latencies are recorded in a {@link LatencyHistogram}, so recording
+ * is cheap enough to leave enabled in production.
+ *
+ * @see Push
+ */
+public class WebsocketStatistics implements WebsocketStatisticsMXBean {
+
+    // Constants ------------------------------------------------------------------------------------------------------
+
+    /**
+     * The application scoped attribute name under which the statistics are stored, if enabled.
+     */
+    public static final String KEY = WebsocketStatistics.class.getName();
+
+    private static final Logger logger = Logger.getLogger(WebsocketStatistics.class.getName());
+
+    // Properties -----------------------------------------------------------------------------------------------------
+
+    private final LongAdder openSessions = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> openSessionsPerChannel = new ConcurrentHashMap<>();
+    private final LongAdder sentFrames = new LongAdder();
+    private final LongAdder failedFrames = new LongAdder();
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder tomcatRetries = new LongAdder();
+    private final LongAdder pendingFrames = new LongAdder();
+    private final LatencyHistogram sendLatencies = new LatencyHistogram();
+    private final PlatformMBeanRegistration registration = new PlatformMBeanRegistration("Websocket", this, logger);
+
+    // Actions --------------------------------------------------------------------------------------------------------
+
+    /**
+     * Registers this instance with the platform MBean server.
+     *
+     * @param application The name identifying the application, typically its context path.
+     */
+    public void register(String application) {
+        registration.register(application);
+    }
+
+    /**
+     * Unregisters this instance from the platform MBean server, if it has been registered.
+     */
+    public void unregister() {
+        registration.unregister();
+    }
+
+    // Methods from WebsocketStatisticsMXBean -------------------------------------------------------------------------
+
+    @Override
+    public long getOpenSessions() {
+        return openSessions.sum();
+    }
+
+    @Override
+    public Map<String, Long> getOpenSessionsPerChannel() {
+        Map<String, Long> result = new TreeMap<>();
+
+        for (Map.Entry<String, LongAdder> entry : openSessionsPerChannel.entrySet()) {
+            long sessions = entry.getValue().sum();
+
+            if (sessions > 0) {
+                result.put(entry.getKey(), sessions);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public long getSentFrames() {
+        return sentFrames.sum();
+    }
+
+    @Override
+    public long getFailedFrames() {
+        return failedFrames.sum();
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return droppedFrames.sum();
+    }
+
+    @Override
+    public long getTomcatRetries() {
+        return tomcatRetries.sum();
+    }
+
+    @Override
+    public long getPendingFrames() {
+        return pendingFrames.sum();
+    }
+
+    @Override
+    public long[] getSendLatencyHistogramBounds() {
+        return LatencyHistogram.getBounds();
+    }
+
+    @Override
+    public long[] getSendLatencyHistogram() {
+        return sendLatencies.getCounts();
+    }
+
+    @Override
+    public long getSendLatencyMedian() {
+        return sendLatencies.getPercentile(0.5);
+    }
+
+    @Override
+    public long getSendLatency99thPercentile() {
+        return sendLatencies.getPercentile(0.99);
+    }
+
+    @Override
+    public void reset() {
+        sentFrames.reset();
+        failedFrames.reset();
+        droppedFrames.reset();
+        tomcatRetries.reset();
+        sendLatencies.reset();
+    }
+
+    // Package ---------------------------------------------------------------------------------------------------------
+
+    void sessionOpened(String channel) {
+        openSessions.increment();
+        openSessionsPerChannel.computeIfAbsent(String.valueOf(channel), c -> new LongAdder()).increment();
+    }
+
+    void sessionClosed(String channel) {
+        openSessions.decrement();
+        LongAdder sessions = openSessionsPerChannel.get(String.valueOf(channel));
+
+        if (sessions != null) {
+            sessions.decrement();
+        }
+    }
+
+    void frameSent(long nanos, boolean ok) {
+        if (ok) {
+            sentFrames.increment();
+            sendLatencies.record(nanos);
+        } else {
+            failedFrames.increment();
+        }
+    }
+
+    void framesDropped(int frames) {
+        droppedFrames.add(frames);
+    }
+
+    void tomcatRetried() {
+        tomcatRetries.increment();
+    }
+
+    void framesPending(int delta) {
+        pendingFrames.add(delta);
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link WebsocketStatistics}.
+ */
+public interface WebsocketStatisticsMXBean {
+
+    /**
+     * @return the number of currently open web socket sessions
+     */
+    long getOpenSessions();
+
+    /**
+     * @return the number of currently open web socket sessions per channel name
+     */
+    Map<String, Long> getOpenSessionsPerChannel();
+
+    /**
+     * @return the number of frames successfully sent to a web socket session
+     */
+    long getSentFrames();
+
+    /**
+     * @return the number of frames which could not be sent to a web socket session
+     */
+    long getFailedFrames();
+
+    /**
+     * @return the number of frames which were dropped because a web socket session did not keep up
+     */
+    long getDroppedFrames();
+
+    /**
+     * @return the number of retries needed because Tomcat does not support concurrent sends to a web socket session
+     */
+    long getTomcatRetries();
+
+    /**
+     * @return the number of frames currently waiting for a busy web socket session
+     */
+    long getPendingFrames();
+
+    /**
+     * @return the upper bounds, in microseconds, of the buckets of {@link #getSendLatencyHistogram()}; the last bucket
+     * is unbounded
+     */
+    long[] getSendLatencyHistogramBounds();
+
+    /**
+     * @return the number of sent frames per send latency bucket, where the send latency is the time from handing a frame
+     * to the container until the container reports its completion
+     */
+    long[] getSendLatencyHistogram();
+
+    /**
+     * @return the approximate median send latency, in microseconds
+     */
+    long getSendLatencyMedian();
+
+    /**
+     * @return the approximate 99th percentile send latency, in microseconds
+     */
+    long getSendLatency99thPercentile();
+
+    /**
+     * Resets all counters. The gauges of open sessions and pending frames are not affected.
+     */
+    void reset();
+
+}
@@ -41,6 +41,7 @@ import java.util.zip.GZIPOutputStream;
 
 import com.sun.faces.RIConstants;
 import com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter;
+import com.sun.faces.lifecycle.LifecycleStatistics;
 import com.sun.faces.util.DebugObjectOutputStream;
 import com.sun.faces.util.DebugUtil;
 import com.sun.faces.util.FacesLogger;
@@ -128,6 +129,11 @@ public class ClientSideStateHelper extends StateHelper {
      * </p>
      *
      * <p>
+     * If {@link BooleanWebContextInitParameter#EnableCompactClientState} is <code>true</code>, the compact encoding of
+     * {@link CompactObjectOutputStream} is used instead of Java Serialization.
+     * </p>
+     *
+     * <p>
      * If <code>stateCapture</code> is <code>null</code>, the Base64 encoded state will be written to the client as a hidden
      * field using the <code>ResponseWriter</code> from the provided <code>FacesContext</code>.
      * </p>
@@ -142,7 +148,9 @@ public class ClientSideStateHelper extends StateHelper {
     public void writeState(FacesContext ctx, Object state, StringBuilder stateCapture) throws IOException {
 
         if (stateCapture != null) {
+            int start = stateCapture.length();
             doWriteState(ctx, state, new StringBuilderWriter(stateCapture));
+            LifecycleStatistics.addStateSize(ctx, stateCapture.length() - start);
         } else {
             ResponseWriter writer = ctx.getResponseWriter();
 
@@ -155,6 +163,7 @@ public class ClientSideStateHelper extends StateHelper {
             }
             StringBuilder stateBuilder = new StringBuilder();
             doWriteState(ctx, state, new StringBuilderWriter(stateBuilder));
+            LifecycleStatistics.addStateSize(ctx, stateBuilder.length());
             writer.writeAttribute("value", stateBuilder.toString(), null);
             if (webConfig.isOptionEnabled(AutoCompleteOffOnViewState)) {
                 writer.writeAttribute("autocomplete", "off", null);
@@ -465,6 +474,14 @@ public class ClientSideStateHelper extends StateHelper {
 
         debugSerializedState = webConfig.isOptionEnabled(BooleanWebContextInitParameter.EnableClientStateDebugging);
 
+        if (webConfig.isOptionEnabled(BooleanWebContextInitParameter.EnableCompactClientState)) {
+            // keep using the configured provider for the objects the compact encoding does not handle
+            serialProvider = new CompactSerializationProvider(serialProvider);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Using compact encoding for client state");
+            }
+        }
+
     }
 
     /**
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.renderkit;
+
+import static com.sun.faces.renderkit.CompactObjectOutputStream.ARRAY_LIST;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.ENUM;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.FALSE;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.HASH_MAP;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.INTEGER;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.LONG;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.NULL;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.OBJECT_ARRAY;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.SERIALIZED;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.STRING;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.STRING_REFERENCE;
+import static com.sun.faces.renderkit.CompactObjectOutputStream.TRUE;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.faces.spi.SerializationProvider;
+
+/**
+ * <p>
+ * Reads the encoding produced by {@link CompactObjectOutputStream}. Classes of enum constants and, unless a
+ * <code>SerializationProvider</code> is given, of objects that have been written using standard Java serialization are
+ * resolved relative to the current application's class loader, see {@link ApplicationObjectInputStream}.
+ * </p>
+ */
+public class CompactObjectInputStream extends ObjectInputStream {
+
+    // sizes are read from the client, only allocate more as the input actually provides the elements
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+    private static final int MAX_CHUNK_SIZE = 8192;
+
+    private final InputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private final Object[] serialized;
+
+    // ------------------------------------------------------------ Constructors
+
+    public CompactObjectInputStream(InputStream in) throws IOException {
+        this(in, null);
+    }
+
+    /**
+     * @param in the stream to read from
+     * @param serializationProvider the provider of the stream reading the objects the compact encoding does not handle,
+     * or <code>null</code> to use standard Java serialization
+     * @throws IOException if an I/O error occurs
+     */
+    public CompactObjectInputStream(InputStream in, SerializationProvider serializationProvider) throws IOException {
+        super();
+        this.in = in;
+
+        int serializedSize = readSize();
+        if (serializedSize > 0) {
+            byte[] serializedBytes = readBytes(serializedSize);
+            ByteArrayInputStream serializedInput = new ByteArrayInputStream(serializedBytes);
+            try (ObjectInputStream ois = serializationProvider != null ? serializationProvider.createObjectInputStream(serializedInput)
+                    : new ApplicationObjectInputStream(serializedInput)) {
+                serialized = (Object[]) ois.readObject();
+            } catch (ClassNotFoundException cnfe) {
+                throw new IOException(cnfe);
+            }
+        } else {
+            serialized = new Object[0];
+        }
+    }
+
+    // ----------------------------------------- Methods from ObjectInputStream
+
+    @Override
+    protected Object readObjectOverride() throws IOException, ClassNotFoundException {
+        int tag = read();
+        switch (tag) {
+        case NULL:
+            return null;
+        case OBJECT_ARRAY:
+            int length = readSize();
+            Object[] array = new Object[Math.min(length, MAX_INITIAL_CAPACITY)];
+            for (int i = 0; i < length; i++) {
+                if (i == array.length) {
+                    array = Arrays.copyOf(array, (int) Math.min(length, 2L * i));
+                }
+                array[i] = readObjectOverride();
+            }
+            return array;
+        case STRING:
+            String value = new String(readBytes(readSize()), StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        case STRING_REFERENCE:
+            return strings.get(readIndex(strings.size()));
+        case INTEGER:
+            return (int) readVarLong();
+        case LONG:
+            return readVarLong();
+        case TRUE:
+            return Boolean.TRUE;
+        case FALSE:
+            return Boolean.FALSE;
+        case ARRAY_LIST:
+            int listSize = readSize();
+            List<Object> list = new ArrayList<>(Math.min(listSize, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < listSize; i++) {
+                list.add(readObjectOverride());
+            }
+            return list;
+        case HASH_MAP:
+            int mapSize = readSize();
+            Map<Object, Object> map = new HashMap<>(Math.min(mapSize, MAX_INITIAL_CAPACITY) * 4 / 3 + 1);
+            for (int i = 0; i < mapSize; i++) {
+                map.put(readObjectOverride(), readObjectOverride());
+            }
+            return map;
+        case ENUM:
+            return readEnum();
+        case SERIALIZED:
+            return serialized[readIndex(serialized.length)];
+        default:
+            throw new StreamCorruptedException("Unknown tag " + tag);
+        }
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return readVarLong();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object readEnum() throws IOException, ClassNotFoundException {
+        String className = (String) readObjectOverride();
+        String name = (String) readObjectOverride();
+        // do not initialize classes named by the client before knowing they are enums
+        Class enumClass = Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+        if (!enumClass.isEnum()) {
+            throw new StreamCorruptedException(className + " is not an enum");
+        }
+        try {
+            return Enum.valueOf(enumClass, name);
+        } catch (IllegalArgumentException iae) {
+            throw new StreamCorruptedException("Unknown constant " + name + " of " + className);
+        }
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[Math.min(length, MAX_CHUNK_SIZE)];
+        int offset = 0;
+        while (offset < length) {
+            if (offset == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * offset));
+            }
+            int read = in.read(bytes, offset, bytes.length - offset);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            offset += read;
+        }
+        return bytes;
+    }
+
+    private int readSize() throws IOException {
+        int size = readVarInt();
+        if (size < 0) {
+            throw new StreamCorruptedException("Invalid size " + size);
+        }
+        return size;
+    }
+
+    private int readIndex(int size) throws IOException {
+        int index = readVarInt();
+        if (index < 0 || index >= size) {
+            throw new StreamCorruptedException("Invalid reference " + index);
+        }
+        return index;
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = read();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length integer");
+    }
+
+    private long readVarLong() throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = read();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return zigZag >>> 1 ^ -(zigZag & 1);
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length integer");
+    }
+
+}
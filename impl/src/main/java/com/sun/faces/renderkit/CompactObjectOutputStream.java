@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.renderkit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sun.faces.spi.SerializationProvider;
+
+/**
+ * <p>
+ * An <code>ObjectOutputStream</code> producing a compact binary encoding of the <code>Object[]</code> trees created by
+ * the state saving of components. Compared to standard Java serialization:
+ * </p>
+ * <ul>
+ * <li><code>Object[]</code>, <code>ArrayList</code> and <code>HashMap</code> are written as a tag followed by their
+ * size and elements, without any class descriptors.</li>
+ * <li><code>Integer</code> and <code>Long</code> values are written as zig-zag encoded variable length integers.</li>
+ * <li>Each distinct <code>String</code> (client ids, property keys, enum class names) is written once and referenced by
+ * index afterwards.</li>
+ * <li>Enum constants are written as their (interned) class name and constant name.</li>
+ * </ul>
+ *
+ * <p>
+ * Any other object is collected and written using a single standard <code>ObjectOutputStream</code> ahead of the compact
+ * payload, so that class descriptors of such objects are shared as well. If a <code>SerializationProvider</code> is
+ * given, that stream is created by the provider. As a consequence nothing is written to the wrapped stream until this
+ * stream is closed.
+ * </p>
+ *
+ * <p>
+ * The compact encoding does not preserve object identity. An object passed to {@link #writeObject(Object)} whose
+ * <code>Object[]</code>, <code>ArrayList</code> and <code>HashMap</code> instances are shared, or form a cycle, is
+ * therefore written using standard Java serialization as a whole.
+ * </p>
+ *
+ * @see CompactObjectInputStream
+ */
+public class CompactObjectOutputStream extends ObjectOutputStream {
+
+    static final int NULL = 0;
+    static final int OBJECT_ARRAY = 1;
+    static final int STRING = 2;
+    static final int STRING_REFERENCE = 3;
+    static final int INTEGER = 4;
+    static final int LONG = 5;
+    static final int TRUE = 6;
+    static final int FALSE = 7;
+    static final int ARRAY_LIST = 8;
+    static final int HASH_MAP = 9;
+    static final int ENUM = 10;
+    static final int SERIALIZED = 11;
+
+    private final OutputStream out;
+    private final SerializationProvider serializationProvider;
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream(1024);
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final List<Object> serialized = new ArrayList<>();
+    private boolean closed;
+
+    // ------------------------------------------------------------ Constructors
+
+    public CompactObjectOutputStream(OutputStream out) throws IOException {
+        this(out, null);
+    }
+
+    /**
+     * @param out the stream to write to
+     * @param serializationProvider the provider of the stream writing the objects the compact encoding does not handle,
+     * or <code>null</code> to use standard Java serialization
+     * @throws IOException if an I/O error occurs
+     */
+    public CompactObjectOutputStream(OutputStream out, SerializationProvider serializationProvider) throws IOException {
+        super();
+        this.out = out;
+        this.serializationProvider = serializationProvider;
+    }
+
+    // ---------------------------------------- Methods from ObjectOutputStream
+
+    @Override
+    protected void writeObjectOverride(Object obj) throws IOException {
+        if (hasSharedContainers(obj)) {
+            writeSerialized(obj);
+        } else {
+            writeCompact(obj);
+        }
+    }
+
+    @Override
+    public void writeLong(long val) throws IOException {
+        writeVarLong(val);
+    }
+
+    @Override
+    public void writeInt(int val) throws IOException {
+        writeVarLong(val);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // the compact payload can only be written once all objects are known
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        ByteArrayOutputStream serializedBytes = new ByteArrayOutputStream();
+        if (!serialized.isEmpty()) {
+            try (ObjectOutputStream oos = serializationProvider != null ? serializationProvider.createObjectOutputStream(serializedBytes)
+                    : new ObjectOutputStream(serializedBytes)) {
+                oos.writeObject(serialized.toArray());
+            }
+        }
+
+        writeVarInt(out, serializedBytes.size());
+        serializedBytes.writeTo(out);
+        payload.writeTo(out);
+        out.flush();
+        out.close();
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private void writeCompact(Object obj) throws IOException {
+        if (obj == null) {
+            payload.write(NULL);
+        } else if (obj instanceof String) {
+            writeString((String) obj);
+        } else if (obj.getClass() == Object[].class) {
+            Object[] array = (Object[]) obj;
+            payload.write(OBJECT_ARRAY);
+            writeVarInt(payload, array.length);
+            for (Object element : array) {
+                writeCompact(element);
+            }
+        } else if (obj instanceof Integer) {
+            payload.write(INTEGER);
+            writeVarLong((Integer) obj);
+        } else if (obj instanceof Long) {
+            payload.write(LONG);
+            writeVarLong((Long) obj);
+        } else if (obj instanceof Boolean) {
+            payload.write((Boolean) obj ? TRUE : FALSE);
+        } else if (obj.getClass() == ArrayList.class) {
+            List<?> list = (List<?>) obj;
+            payload.write(ARRAY_LIST);
+            writeVarInt(payload, list.size());
+            for (Object element : list) {
+                writeCompact(element);
+            }
+        } else if (obj.getClass() == HashMap.class) {
+            Map<?, ?> map = (Map<?, ?>) obj;
+            payload.write(HASH_MAP);
+            writeVarInt(payload, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeCompact(entry.getKey());
+                writeCompact(entry.getValue());
+            }
+        } else if (obj instanceof Enum) {
+            Enum<?> constant = (Enum<?>) obj;
+            payload.write(ENUM);
+            writeString(constant.getDeclaringClass().getName());
+            writeString(constant.name());
+        } else {
+            writeSerialized(obj);
+        }
+    }
+
+    private void writeSerialized(Object obj) throws IOException {
+        payload.write(SERIALIZED);
+        writeVarInt(payload, serialized.size());
+        serialized.add(obj);
+    }
+
+    /**
+     * @return <code>true</code> if any of the containers written using the compact encoding is reachable more than once
+     */
+    private static boolean hasSharedContainers(Object obj) {
+        if (!isContainer(obj)) {
+            return false;
+        }
+
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(obj);
+        while (!pending.isEmpty()) {
+            Object container = pending.pop();
+            if (!visited.add(container)) {
+                return true;
+            }
+
+            Iterable<?> elements;
+            if (container instanceof Object[]) {
+                elements = Arrays.asList((Object[]) container);
+            } else if (container instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) container;
+                for (Object key : map.keySet()) {
+                    if (isContainer(key)) {
+                        pending.push(key);
+                    }
+                }
+                elements = map.values();
+            } else {
+                elements = (Iterable<?>) container;
+            }
+            for (Object element : elements) {
+                if (isContainer(element)) {
+                    pending.push(element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isContainer(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        Class<?> type = obj.getClass();
+        return type == Object[].class || type == ArrayList.class || type == HashMap.class;
+    }
+
+    private void writeString(String value) throws IOException {
+        Integer index = strings.get(value);
+        if (index != null) {
+            payload.write(STRING_REFERENCE);
+            writeVarInt(payload, index);
+        } else {
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            payload.write(STRING);
+            writeVarInt(payload, bytes.length);
+            payload.write(bytes);
+        }
+    }
+
+    private static void writeVarInt(OutputStream target, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            target.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target.write(value);
+    }
+
+    private void writeVarLong(long value) {
+        // zig-zag encoding keeps small negative values small
+        long zigZag = value << 1 ^ value >> 63;
+        while ((zigZag & ~0x7FL) != 0) {
+            payload.write((int) (zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        payload.write((int) zigZag);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.renderkit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import com.sun.faces.spi.SerializationProvider;
+
+/**
+ * <p>
+ * A <code>SerializationProvider</code> using the compact binary encoding of {@link CompactObjectOutputStream}. This is
+ * used for client side state saving if
+ * {@link com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter#EnableCompactClientState} is
+ * <code>true</code>. Objects the compact encoding does not handle are written by the wrapped provider, which is the
+ * one configured for the application.
+ * </p>
+ */
+public class CompactSerializationProvider implements SerializationProvider {
+
+    private final SerializationProvider wrapped;
+
+    // ------------------------------------------------------------ Constructors
+
+    public CompactSerializationProvider() {
+        this(null);
+    }
+
+    /**
+     * @param wrapped the provider writing the objects the compact encoding does not handle, or <code>null</code> to use
+     * standard Java serialization
+     */
+    public CompactSerializationProvider(SerializationProvider wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    // ------------------------------------- Methods from SerializationProvider
+
+    @Override
+    public ObjectInputStream createObjectInputStream(InputStream source) throws IOException {
+        return new CompactObjectInputStream(source, wrapped);
+    }
+
+    @Override
+    public ObjectOutputStream createObjectOutputStream(OutputStream destination) throws IOException {
+        return new CompactObjectOutputStream(destination, wrapped);
+    }
+
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.renderkit;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.faces.spi.ViewStateStore;
+import com.sun.faces.util.ConcurrentLRUMap;
+import com.sun.faces.util.FacesLogger;
+
+/**
+ * <p>
+ * The default {@link ViewStateStore}. Serialized view states are copied into direct (off-heap) buffers so that they
+ * neither count against the heap nor are part of the session replication payload.
+ * </p>
+ *
+ * <p>
+ * The store is bounded in two ways. Each session may use at most <code>sessionQuota</code> bytes and
+ * <code>maxEntriesPerSession</code> states; once exceeded, the least recently used states of that session are
+ * discarded. Across all sessions at most <code>maxSize</code> bytes are kept; once exceeded, the (approximately) least
+ * recently used states of the whole application are discarded.
+ * </p>
+ *
+ * <p>
+ * The states of all sessions are kept in a {@link ConcurrentLRUMap}, so sessions never contend with each other. The
+ * states of a single session are additionally tracked under the monitor of that session's entry, which also guards
+ * reading and releasing their buffers. Buffers of discarded states are returned to a pool and reused for new states
+ * rather than being left to the garbage collector. Buffer capacities are rounded up to one of eight size classes per
+ * power of two, and the pool keeps at most a quarter of <code>maxSize</code>.
+ * </p>
+ */
+public class OffHeapViewStateStore implements ViewStateStore {
+
+    private static final Logger LOGGER = FacesLogger.RENDERKIT.getLogger();
+
+    private static final int MIN_BUFFER_CAPACITY = 64;
+
+    private final long sessionQuota;
+    private final int maxEntriesPerSession;
+
+    /**
+     * All states, weighed by their size.
+     */
+    private final Entries entries;
+
+    /**
+     * The states and memory usage of each session.
+     */
+    private final ConcurrentHashMap<String, SessionEntries> sessions = new ConcurrentHashMap<>();
+
+    private final BufferPool bufferPool;
+
+    // ------------------------------------------------------------ Constructors
+
+    /**
+     * Construct a new <code>OffHeapViewStateStore</code> instance.
+     *
+     * @param maxSize the maximum number of bytes kept for all sessions
+     * @param sessionQuota the maximum number of bytes kept per session
+     * @param maxEntriesPerSession the maximum number of states kept per session
+     */
+    public OffHeapViewStateStore(long maxSize, long sessionQuota, int maxEntriesPerSession) {
+        this.sessionQuota = Math.min(sessionQuota, maxSize);
+        this.maxEntriesPerSession = maxEntriesPerSession;
+        entries = new Entries(maxSize);
+        bufferPool = new BufferPool(maxSize / 4);
+    }
+
+    // --------------------------------------------- Methods from ViewStateStore
+
+    @Override
+    public void put(String sessionId, String viewStateId, byte[] state) {
+        if (state.length > sessionQuota) {
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "Unable to store view state {0} of {1} bytes as it exceeds the session quota of {2} bytes",
+                        new Object[] { viewStateId, state.length, sessionQuota });
+            }
+            return;
+        }
+
+        ByteBuffer buffer = bufferPool.acquire(state.length);
+        buffer.put(state);
+        StoredState entry = new StoredState(buffer, state.length);
+        Key key = new Key(sessionId, viewStateId);
+
+        while (true) {
+            SessionEntries sessionEntries = sessions.computeIfAbsent(sessionId, id -> new SessionEntries());
+            synchronized (sessionEntries) {
+                if (sessionEntries.removed) {
+                    // the session was removed concurrently, add the state to a new entry
+                    continue;
+                }
+
+                StoredState previous = sessionEntries.states.put(viewStateId, entry);
+                if (previous != null) {
+                    sessionEntries.size -= previous.length;
+                    release(previous);
+                }
+                sessionEntries.size += entry.length;
+
+                while (sessionEntries.size > sessionQuota || sessionEntries.states.size() > maxEntriesPerSession) {
+                    Map.Entry<String, StoredState> eldest = sessionEntries.states.entrySet().iterator().next();
+                    sessionEntries.remove(eldest.getKey(), eldest.getValue());
+                    entries.remove(new Key(sessionId, eldest.getKey()), eldest.getValue());
+                    logEviction(sessionId, eldest.getKey());
+                }
+            }
+            break;
+        }
+
+        // outside of the session monitor, as it may evict the states of other sessions
+        entries.put(key, entry);
+        if (entry.released) {
+            // the state was already discarded by a concurrent request of the same session
+            entries.remove(key, entry);
+        }
+    }
+
+    @Override
+    public byte[] get(String sessionId, String viewStateId) {
+        SessionEntries sessionEntries = sessions.get(sessionId);
+        if (sessionEntries == null) {
+            return null;
+        }
+
+        byte[] state;
+        synchronized (sessionEntries) {
+            StoredState entry = sessionEntries.states.get(viewStateId);
+            if (entry == null) {
+                return null;
+            }
+
+            // the buffer is only accessed while holding the session monitor, as it is reused once released
+            state = new byte[entry.length];
+            ByteBuffer buffer = entry.buffer;
+            buffer.position(0);
+            buffer.get(state);
+        }
+
+        // move to the end of the global LRU order as well
+        entries.get(new Key(sessionId, viewStateId));
+        return state;
+    }
+
+    @Override
+    public void removeSession(String sessionId) {
+        SessionEntries sessionEntries = sessions.remove(sessionId);
+        if (sessionEntries != null) {
+            synchronized (sessionEntries) {
+                sessionEntries.removed = true;
+                for (Map.Entry<String, StoredState> state : sessionEntries.states.entrySet()) {
+                    release(state.getValue());
+                    entries.remove(new Key(sessionId, state.getKey()), state.getValue());
+                }
+                sessionEntries.states.clear();
+                sessionEntries.size = 0;
+            }
+        }
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * @return the number of bytes currently kept by this store
+     */
+    public long getSize() {
+        return entries.getWeight();
+    }
+
+    // ------------------------------------------------- Package Private Methods
+
+    /**
+     * @return the number of bytes of the buffers currently kept for reuse
+     */
+    long getPooledSize() {
+        return bufferPool.size.get();
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    /**
+     * Must be invoked while holding the monitor of the session owning the entry.
+     */
+    private void release(StoredState entry) {
+        entry.released = true;
+        bufferPool.release(entry.buffer);
+    }
+
+    private static void logEviction(String sessionId, String viewStateId) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Evicting view state {0} of session {1}", new Object[] { viewStateId, sessionId });
+        }
+    }
+
+    // ----------------------------------------------------------- Inner Classes
+
+    private final class Entries extends ConcurrentLRUMap<Key, StoredState> {
+
+        private static final long serialVersionUID = -6239061527383916415L;
+
+        Entries(long maxSize) {
+            super(16, maxSize);
+        }
+
+        @Override
+        protected long weigh(StoredState entry) {
+            return entry.length;
+        }
+
+        @Override
+        protected void evicted(Key key, StoredState entry) {
+            SessionEntries owner = sessions.get(key.sessionId);
+            if (owner != null) {
+                synchronized (owner) {
+                    if (owner.remove(key.viewStateId, entry) && owner.states.isEmpty()) {
+                        owner.removed = true;
+                        sessions.remove(key.sessionId, owner);
+                    }
+                }
+            }
+            logEviction(key.sessionId, key.viewStateId);
+        }
+
+    }
+
+    /**
+     * The states of a session, guarded by its monitor.
+     */
+    private final class SessionEntries {
+
+        /**
+         * States by view state id in least recently used order.
+         */
+        private final LinkedHashMap<String, StoredState> states = new LinkedHashMap<>(16, 0.75f, true);
+        private long size;
+        private boolean removed;
+
+        boolean remove(String viewStateId, StoredState entry) {
+            if (!states.remove(viewStateId, entry)) {
+                return false;
+            }
+            size -= entry.length;
+            release(entry);
+            return true;
+        }
+
+    }
+
+    private static final class StoredState {
+
+        private final ByteBuffer buffer;
+        private final int length;
+        private volatile boolean released;
+
+        StoredState(ByteBuffer buffer, int length) {
+            this.buffer = buffer;
+            this.length = length;
+        }
+
+    }
+
+    /**
+     * Direct buffers of released states, by capacity.
+     */
+    private static final class BufferPool {
+
+        private final ConcurrentHashMap<Integer, Queue<ByteBuffer>> buffers = new ConcurrentHashMap<>();
+        private final AtomicLong size = new AtomicLong();
+        private final long maxSize;
+
+        BufferPool(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        ByteBuffer acquire(int length) {
+            int capacity = getCapacity(length);
+            Queue<ByteBuffer> pooled = buffers.get(capacity);
+            ByteBuffer buffer = pooled != null ? pooled.poll() : null;
+            if (buffer == null) {
+                return ByteBuffer.allocateDirect(capacity);
+            }
+
+            size.addAndGet(-capacity);
+            buffer.clear();
+            return buffer;
+        }
+
+        void release(ByteBuffer buffer) {
+            int capacity = buffer.capacity();
+            if (size.addAndGet(capacity) > maxSize) {
+                // the pool is full, leave the buffer to the garbage collector
+                size.addAndGet(-capacity);
+                return;
+            }
+
+            buffers.computeIfAbsent(capacity, c -> new ConcurrentLinkedQueue<>()).offer(buffer);
+        }
+
+        /**
+         * Rounds up to one of eight size classes per power of two, which wastes at most an eighth of the capacity.
+         */
+        private static int getCapacity(int length) {
+            if (length <= MIN_BUFFER_CAPACITY) {
+                return MIN_BUFFER_CAPACITY;
+            }
+
+            int step = Math.max(MIN_BUFFER_CAPACITY, Integer.highestOneBit(length - 1) >> 3);
+            return (length + step - 1) / step * step;
+        }
+
+    }
+
+    private static final class Key {
+
+        private final String sessionId;
+        private final String viewStateId;
+
+        Key(String sessionId, String viewStateId) {
+            this.sessionId = sessionId;
+            this.viewStateId = viewStateId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return sessionId.equals(other.sessionId) && viewStateId.equals(other.viewStateId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sessionId.hashCode() + viewStateId.hashCode();
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.renderkit;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Partial state of which the state of the components is kept in serialized segments, so that a save only needs to
+ * serialize the state of the components that were modified since the state was restored. Each save serializes the
+ * state of all modified components into one new segment and references the segments of the restored state for all
+ * other components. Segments no longer referenced by any component are dropped, and once the segments hold more stale
+ * than current component state, the next save serializes the state of all components into a single segment again.
+ */
+final class SegmentedState implements Serializable {
+
+    private static final long serialVersionUID = 6018240117386402516L;
+
+    /**
+     * The serialized segments, each a <code>Map</code> of client id to component state.
+     */
+    private final byte[][] segments;
+
+    /**
+     * The number of components of which the state was serialized into the segment with the same index.
+     */
+    private final int[] segmentSizes;
+
+    /**
+     * The index of the segment holding the current state of each client id.
+     */
+    private final HashMap<String, Integer> index;
+
+    private SegmentedState(byte[][] segments, int[] segmentSizes, HashMap<String, Integer> index) {
+        this.segments = segments;
+        this.segmentSizes = segmentSizes;
+        this.index = index;
+    }
+
+    // ------------------------------------------------- Package Private Methods
+
+    /**
+     * @param state the state of the components by client id
+     * @param base the state restored at the start of the current request, or <code>null</code> if the restored state
+     * was not segmented
+     * @param modified the client ids of which the state was modified since it was restored, or <code>null</code> if
+     * modifications were not tracked
+     * @param serializer serializes a <code>Map</code> of client id to component state
+     * @return the segmented state; the state of all components is serialized if either <code>base</code> or
+     * <code>modified</code> is <code>null</code>
+     */
+    static SegmentedState save(Map<String, Object> state, SegmentedState base, Set<String> modified, Function<Object, byte[]> serializer) {
+
+        if (base == null || modified == null) {
+            return saveAll(state, serializer);
+        }
+
+        HashMap<String, Object> changed = new HashMap<>();
+        HashMap<String, Integer> index = new HashMap<>(state.size() * 4 / 3 + 1);
+        List<byte[]> segments = new ArrayList<>(base.segments.length + 1);
+        List<Integer> segmentSizes = new ArrayList<>(base.segments.length + 1);
+        int[] reused = new int[base.segments.length];
+        Arrays.fill(reused, -1);
+        int stored = 0;
+
+        for (Map.Entry<String, Object> entry : state.entrySet()) {
+            String clientId = entry.getKey();
+            Integer segment = modified.contains(clientId) ? null : base.index.get(clientId);
+            if (segment == null) {
+                changed.put(clientId, entry.getValue());
+            } else {
+                if (reused[segment] == -1) {
+                    reused[segment] = segments.size();
+                    segments.add(base.segments[segment]);
+                    segmentSizes.add(base.segmentSizes[segment]);
+                    stored += base.segmentSizes[segment];
+                }
+                index.put(clientId, reused[segment]);
+            }
+        }
+
+        if (stored - index.size() > state.size()) {
+            return saveAll(state, serializer);
+        }
+
+        if (!changed.isEmpty()) {
+            Integer segment = segments.size();
+            segments.add(serializer.apply(changed));
+            segmentSizes.add(changed.size());
+            for (String clientId : changed.keySet()) {
+                index.put(clientId, segment);
+            }
+        }
+
+        int[] sizes = new int[segmentSizes.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = segmentSizes.get(i);
+        }
+
+        return new SegmentedState(segments.toArray(new byte[segments.size()][]), sizes, index);
+
+    }
+
+    /**
+     * @param deserializer de-serializes a segment
+     * @return the state of the components by client id
+     */
+    Map<String, Object> restore(Function<byte[], Object> deserializer) {
+
+        Map<?, ?>[] restoredSegments = new Map[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            restoredSegments[i] = (Map<?, ?>) deserializer.apply(segments[i]);
+        }
+
+        Map<String, Object> restored = new HashMap<>(index.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Integer> entry : index.entrySet()) {
+            restored.put(entry.getKey(), restoredSegments[entry.getValue()].get(entry.getKey()));
+        }
+
+        return restored;
+
+    }
+
+    /**
+     * @return the number of segments
+     */
+    int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * @param clientId the client id
+     * @return the serialized segment holding the state of <code>clientId</code>, or <code>null</code> if there is none
+     */
+    byte[] getSegment(String clientId) {
+        Integer segment = index.get(clientId);
+        return segment != null ? segments[segment] : null;
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static SegmentedState saveAll(Map<String, Object> state, Function<Object, byte[]> serializer) {
+
+        HashMap<String, Object> all = new HashMap<>(state);
+        HashMap<String, Integer> index = new HashMap<>(state.size() * 4 / 3 + 1);
+        for (String clientId : state.keySet()) {
+            index.put(clientId, 0);
+        }
+
+        return new SegmentedState(new byte[][] { serializer.apply(all) }, new int[] { all.size() }, index);
+
+    }
+
+}
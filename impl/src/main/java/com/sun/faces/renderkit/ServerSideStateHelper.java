@@ -17,6 +17,7 @@
 package com.sun.faces.renderkit;
 
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.AutoCompleteOffOnViewState;
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableIncrementalStateSaving;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableViewStateIdRendering;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.GenerateUniqueServerStateIds;
 import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.SerializeServerState;
@@ -31,8 +32,9 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.security.SecureRandom;
-import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -41,8 +43,11 @@ import java.util.zip.GZIPOutputStream;
 
 import com.sun.faces.config.WebConfiguration;
 import com.sun.faces.config.WebConfiguration.WebContextInitParameter;
+import com.sun.faces.lifecycle.LifecycleStatistics;
+import com.sun.faces.spi.ViewStateStore;
+import com.sun.faces.spi.ViewStateStoreFactory;
+import com.sun.faces.util.ConcurrentLRUMap;
 import com.sun.faces.util.FacesLogger;
-import com.sun.faces.util.LRUMap;
 import com.sun.faces.util.RequestStateManager;
 import com.sun.faces.util.TypedCollections;
 import com.sun.faces.util.Util;
@@ -73,6 +78,11 @@ public class ServerSideStateHelper extends StateHelper {
      */
     public static final String LOGICAL_VIEW_MAP = ServerSideStateHelper.class.getName() + ".LogicalViewMap";
 
+    /**
+     * Request attribute keeping the segmented state restored for the current request.
+     */
+    private static final String RESTORED_SEGMENTED_STATE = ServerSideStateHelper.class.getName() + ".RestoredSegmentedState";
+
     /**
      * The number of logical views as configured by the user.
      */
@@ -93,6 +103,17 @@ public class ServerSideStateHelper extends StateHelper {
      */
     protected final SecureRandom random;
 
+    /**
+     * Flag determining whether the partial state of Ajax requests is saved in segments, so that only the state of the
+     * components that were modified needs to be serialized.
+     */
+    protected final boolean incrementalStateSaving;
+
+    /**
+     * The store keeping view state outside of the session, or <code>null</code> if view state is kept in the session.
+     */
+    protected final ViewStateStore viewStateStore;
+
     // ------------------------------------------------------------ Constructors
 
     /**
@@ -114,6 +135,9 @@ public class ServerSideStateHelper extends StateHelper {
         } else {
             random = null;
         }
+        incrementalStateSaving = webConfig.isOptionEnabled(EnableIncrementalStateSaving)
+                && (webConfig.isOptionEnabled(SerializeServerStateDeprecated) || webConfig.isOptionEnabled(SerializeServerState));
+        viewStateStore = ViewStateStoreFactory.createInstance(FacesContext.getCurrentInstance().getExternalContext());
 
     }
 
@@ -133,6 +157,10 @@ public class ServerSideStateHelper extends StateHelper {
      * <p>
      * If <code>stateCapture</code> is not <code>null</code>, the composite key will be appended to the
      * <code>StringBuilder<code> without any markup included or any content written to the client.
+     *
+     * <p>
+     * If a {@link ViewStateStore} is configured, the state is serialized and kept in the store instead of the session.
+     * </p>
      */
     @Override
     public void writeState(FacesContext ctx, Object state, StringBuilder stateCapture) throws IOException {
@@ -147,21 +175,26 @@ public class ServerSideStateHelper extends StateHelper {
             if (!ctx.getAttributes().containsKey("com.sun.faces.ViewStateValue")) {
                 Util.notNull("state", state);
                 Object[] stateToWrite = (Object[]) state;
-                ExternalContext externalContext = ctx.getExternalContext();
-                Object sessionObj = externalContext.getSession(true);
-                Map<String, Object> sessionMap = externalContext.getSessionMap();
+                if (viewStateStore != null) {
+                    id = writeStateToStore(ctx, stateToWrite);
+                } else {
+                    ExternalContext externalContext = ctx.getExternalContext();
+                    Object sessionObj = externalContext.getSession(true);
+                    Map<String, Object> sessionMap = externalContext.getSessionMap();
 
-                // noinspection SynchronizationOnLocalVariableOrMethodParameter
-                synchronized (sessionObj) {
                     Map<String, Map> logicalMap = TypedCollections.dynamicallyCastMap((Map) sessionMap.get(LOGICAL_VIEW_MAP), String.class, Map.class);
                     if (logicalMap == null) {
-                        logicalMap = Collections.synchronizedMap(new LRUMap<String, Map>(numberOfLogicalViews));
-                        sessionMap.put(LOGICAL_VIEW_MAP, logicalMap);
+                        // only the creation of the map needs the session lock, the maps themselves are thread-safe
+                        // noinspection SynchronizationOnLocalVariableOrMethodParameter
+                        synchronized (sessionObj) {
+                            logicalMap = TypedCollections.dynamicallyCastMap((Map) sessionMap.get(LOGICAL_VIEW_MAP), String.class, Map.class);
+                            if (logicalMap == null) {
+                                logicalMap = new ConcurrentLRUMap<>(numberOfLogicalViews);
+                                sessionMap.put(LOGICAL_VIEW_MAP, logicalMap);
+                            }
+                        }
                     }
 
-                    Object structure = stateToWrite[0];
-                    Object savedState = handleSaveState(stateToWrite[1]);
-
                     String idInLogicalMap = (String) RequestStateManager.get(ctx, RequestStateManager.LOGICAL_VIEW_MAP);
                     if (idInLogicalMap == null) {
                         idInLogicalMap = generateUniqueStateIds ? createRandomId() : createIncrementalRequestId(ctx);
@@ -177,21 +210,26 @@ public class ServerSideStateHelper extends StateHelper {
                     }
                     Map<String, Object[]> actualMap = TypedCollections.dynamicallyCastMap(logicalMap.get(idInLogicalMap), String.class, Object[].class);
                     if (actualMap == null) {
-                        actualMap = new LRUMap<>(numberOfViews);
-                        logicalMap.put(idInLogicalMap, actualMap);
+                        Map<String, Object[]> newActualMap = new ConcurrentLRUMap<>(numberOfViews);
+                        actualMap = TypedCollections.dynamicallyCastMap(logicalMap.putIfAbsent(idInLogicalMap, newActualMap), String.class, Object[].class);
+                        if (actualMap == null) {
+                            actualMap = newActualMap;
+                        }
                     }
 
                     id = idInLogicalMap + ':' + idInActualMap;
 
-                    Object[] stateArray = actualMap.get(idInActualMap);
-                    // reuse the array if possible
-                    if (stateArray != null) {
-                        stateArray[0] = structure;
-                        stateArray[1] = savedState;
+                    Object structure = stateToWrite[0];
+                    Object savedState;
+                    if (incrementalStateSaving && ctx.getPartialViewContext().isAjaxRequest()) {
+                        savedState = handleIncrementalSaveState(ctx, stateToWrite[1]);
                     } else {
-                        actualMap.put(idInActualMap, new Object[] { structure, savedState });
+                        savedState = handleSaveState(stateToWrite[1]);
                     }
 
+                    // always replace the array, concurrent requests may be reading the previous one
+                    actualMap.put(idInActualMap, new Object[] { structure, savedState });
+
                     // always call put/setAttribute as we may be in a clustered environment.
                     sessionMap.put(LOGICAL_VIEW_MAP, logicalMap);
                     ctx.getAttributes().put("com.sun.faces.ViewStateValue", id);
@@ -267,28 +305,32 @@ public class ServerSideStateHelper extends StateHelper {
             return null;
         }
 
-        // noinspection SynchronizationOnLocalVariableOrMethodParameter
-        synchronized (sessionObj) {
-            Map logicalMap = (Map) externalCtx.getSessionMap().get(LOGICAL_VIEW_MAP);
-            if (logicalMap != null) {
-                Map actualMap = (Map) logicalMap.get(idInLogicalMap);
-                if (actualMap != null) {
-                    RequestStateManager.set(ctx, RequestStateManager.LOGICAL_VIEW_MAP, idInLogicalMap);
-
-                    Object[] restoredState = new Object[2];
-                    Object[] state = (Object[]) actualMap.get(idInActualMap);
-                    if (state != null) {
-                        restoredState[0] = state[0];
-                        restoredState[1] = state[1];
-
-                        RequestStateManager.set(ctx, RequestStateManager.ACTUAL_VIEW_MAP, idInActualMap);
-                        if (state.length == 2 && state[1] != null) {
-                            restoredState[1] = handleRestoreState(state[1]);
-                        }
-                    }
+        if (viewStateStore != null) {
+            return getStateFromStore(ctx, compoundId, idInLogicalMap, idInActualMap);
+        }
 
-                    return restoredState;
+        Map logicalMap = (Map) externalCtx.getSessionMap().get(LOGICAL_VIEW_MAP);
+        if (logicalMap != null) {
+            Map actualMap = (Map) logicalMap.get(idInLogicalMap);
+            if (actualMap != null) {
+                RequestStateManager.set(ctx, RequestStateManager.LOGICAL_VIEW_MAP, idInLogicalMap);
+
+                Object[] restoredState = new Object[2];
+                Object[] state = (Object[]) actualMap.get(idInActualMap);
+                if (state != null) {
+                    restoredState[0] = state[0];
+                    restoredState[1] = state[1];
+
+                    RequestStateManager.set(ctx, RequestStateManager.ACTUAL_VIEW_MAP, idInActualMap);
+                    if (state[1] instanceof SegmentedState) {
+                        ctx.getAttributes().put(RESTORED_SEGMENTED_STATE, state[1]);
+                    }
+                    if (state.length == 2 && state[1] != null) {
+                        restoredState[1] = handleRestoreState(state[1]);
+                    }
                 }
+
+                return restoredState;
             }
         }
 
@@ -339,27 +381,7 @@ public class ServerSideStateHelper extends StateHelper {
     protected Object handleSaveState(Object state) {
 
         if (webConfig.isOptionEnabled(SerializeServerStateDeprecated) || webConfig.isOptionEnabled(SerializeServerState)) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-            ObjectOutputStream oas = null;
-            try {
-                oas = serialProvider.createObjectOutputStream(compressViewState ? new GZIPOutputStream(baos, 1024) : baos);
-                // noinspection NonSerializableObjectPassedToObjectStream
-                oas.writeObject(state);
-                oas.flush();
-            } catch (Exception e) {
-                throw new FacesException(e);
-            } finally {
-                if (oas != null) {
-                    try {
-                        oas.close();
-                    } catch (IOException ioe) {
-                        if (LOGGER.isLoggable(Level.FINEST)) {
-                            LOGGER.log(Level.FINEST, "Closing stream", ioe);
-                        }
-                    }
-                }
-            }
-            return baos.toByteArray();
+            return serializeState(state);
         } else {
             return state;
         }
@@ -374,29 +396,192 @@ public class ServerSideStateHelper extends StateHelper {
      */
     protected Object handleRestoreState(Object state) {
 
-        if (webConfig.isOptionEnabled(SerializeServerStateDeprecated) || webConfig.isOptionEnabled(SerializeServerState)) {
-            try (ByteArrayInputStream bais = new ByteArrayInputStream((byte[]) state);
-                    ObjectInputStream ois = serialProvider.createObjectInputStream(compressViewState ? new GZIPInputStream(bais, 1024) : bais);) {
-                return ois.readObject();
-            } catch (Exception e) {
-                throw new FacesException(e);
-            }
+        if (state instanceof SegmentedState) {
+            return ((SegmentedState) state).restore(this::deserializeState);
+        } else if (webConfig.isOptionEnabled(SerializeServerStateDeprecated) || webConfig.isOptionEnabled(SerializeServerState)) {
+            return deserializeState((byte[]) state);
         } else {
             return state;
         }
 
     }
 
+    /**
+     * @param state the state to serialize
+     * @return the serialized, and if so configured compressed, form of <code>state</code>
+     */
+    protected byte[] serializeState(Object state) {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+        ObjectOutputStream oas = null;
+        try {
+            oas = serialProvider.createObjectOutputStream(compressViewState ? new GZIPOutputStream(baos, 1024) : baos);
+            // noinspection NonSerializableObjectPassedToObjectStream
+            oas.writeObject(state);
+            oas.flush();
+        } catch (Exception e) {
+            throw new FacesException(e);
+        } finally {
+            if (oas != null) {
+                try {
+                    oas.close();
+                } catch (IOException ioe) {
+                    if (LOGGER.isLoggable(Level.FINEST)) {
+                        LOGGER.log(Level.FINEST, "Closing stream", ioe);
+                    }
+                }
+            }
+        }
+        byte[] serialized = baos.toByteArray();
+        LifecycleStatistics.addStateSize(FacesContext.getCurrentInstance(), serialized.length);
+        return serialized;
+
+    }
+
+    /**
+     * @param state the state as produced by {@link #serializeState(Object)}
+     * @return the de-serialized state
+     */
+    protected Object deserializeState(byte[] state) {
+
+        try (ByteArrayInputStream bais = new ByteArrayInputStream(state);
+                ObjectInputStream ois = serialProvider.createObjectInputStream(compressViewState ? new GZIPInputStream(bais, 1024) : bais);) {
+            return ois.readObject();
+        } catch (Exception e) {
+            throw new FacesException(e);
+        }
+
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    /**
+     * Serializes the partial state of an Ajax request into segments, so that only the state of the components that were
+     * modified since the state was restored (as tracked by <code>FaceletPartialStateManagementStrategy</code>) needs to
+     * be serialized. The state of all other components references the segments of the restored state. Segments are
+     * serialized, and if so configured compressed, the same way as {@link #handleSaveState(Object)} does.
+     *
+     * @param ctx the <code>FacesContext</code> for the current request
+     * @param state the object returned from <code>UIView.processSaveState</code>
+     * @return the state to store in the session
+     */
+    @SuppressWarnings("unchecked")
+    private Object handleIncrementalSaveState(FacesContext ctx, Object state) {
+
+        if (!(state instanceof Map)) {
+            return handleSaveState(state);
+        }
+
+        // use the segments of the restored state rather than those currently stored, as a concurrent
+        // request for the same view may have replaced them in the meantime
+        SegmentedState restored = (SegmentedState) ctx.getAttributes().get(RESTORED_SEGMENTED_STATE);
+        Set<String> modified = RequestStateManager.get(ctx, RequestStateManager.MODIFIED_PARTIAL_STATE);
+
+        return SegmentedState.save((Map<String, Object>) state, restored, modified, this::serializeState);
+
+    }
+
+    /**
+     * Serializes the state and hands it to the {@link ViewStateStore}. No session lock is required as the store is
+     * thread-safe and the session is only used to obtain its key.
+     *
+     * @param ctx the <code>FacesContext</code> for the current request
+     * @param stateToWrite the tree structure and component state of the view
+     * @return the view state id to write to the client
+     */
+    private String writeStateToStore(FacesContext ctx, Object[] stateToWrite) {
+
+        String sessionKey = getViewStateStoreSessionKey(ctx.getExternalContext(), true);
+
+        String idInLogicalMap = (String) RequestStateManager.get(ctx, RequestStateManager.LOGICAL_VIEW_MAP);
+        if (idInLogicalMap == null) {
+            idInLogicalMap = generateUniqueStateIds ? createRandomId() : createIncrementalRequestId(ctx);
+        }
+        String idInActualMap = null;
+        if (ctx.getPartialViewContext().isPartialRequest()) {
+            // If partial request, do not change actual view Id, because page not actually changed.
+            idInActualMap = (String) RequestStateManager.get(ctx, RequestStateManager.ACTUAL_VIEW_MAP);
+        }
+        if (null == idInActualMap) {
+            idInActualMap = generateUniqueStateIds ? createRandomId() : createIncrementalRequestId(ctx);
+        }
+
+        String id = idInLogicalMap + ':' + idInActualMap;
+        viewStateStore.put(sessionKey, id, serializeState(new Object[] { stateToWrite[0], stateToWrite[1] }));
+        ctx.getAttributes().put("com.sun.faces.ViewStateValue", id);
+
+        return id;
+
+    }
+
+    /**
+     * @param ctx the <code>FacesContext</code> for the current request
+     * @param compoundId the view state id submitted by the client
+     * @param idInLogicalMap the logical part of <code>compoundId</code>
+     * @param idInActualMap the actual part of <code>compoundId</code>
+     * @return the restored state, or <code>null</code> if the {@link ViewStateStore} no longer has it
+     */
+    private Object getStateFromStore(FacesContext ctx, String compoundId, String idInLogicalMap, String idInActualMap) {
+
+        String sessionKey = getViewStateStoreSessionKey(ctx.getExternalContext(), false);
+        byte[] state = sessionKey != null ? viewStateStore.get(sessionKey, compoundId) : null;
+        if (state == null) {
+            return null;
+        }
+
+        RequestStateManager.set(ctx, RequestStateManager.LOGICAL_VIEW_MAP, idInLogicalMap);
+        RequestStateManager.set(ctx, RequestStateManager.ACTUAL_VIEW_MAP, idInActualMap);
+
+        return deserializeState(state);
+
+    }
+
+    /**
+     * @param externalContext the <code>ExternalContext</code> for the current request
+     * @param create <code>true</code> to create the session and its key if necessary
+     * @return the key of the current session in the {@link ViewStateStore}, which is kept as a session attribute
+     * instead of using the session id, as the latter changes on <code>HttpServletRequest.changeSessionId()</code>
+     */
+    private static String getViewStateStoreSessionKey(ExternalContext externalContext, boolean create) {
+
+        Map<String, Object> sm = externalContext.getSessionMap();
+        String sessionKey = (String) sm.get(ViewStateStoreFactory.SESSION_KEY);
+        if (sessionKey == null && create) {
+            // concurrent requests of a new session must not end up with separate keys
+            Object sessionObj = externalContext.getSession(true);
+            // noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (sessionObj) {
+                sessionKey = (String) sm.get(ViewStateStoreFactory.SESSION_KEY);
+                if (sessionKey == null) {
+                    sessionKey = UUID.randomUUID().toString();
+                    sm.put(ViewStateStoreFactory.SESSION_KEY, sessionKey);
+                }
+            }
+        }
+        return sessionKey;
+
+    }
+
     /**
      * @param ctx the <code>FacesContext</code> for the current request
      * @return a unique ID for building the keys used to store views within a session
      */
     private String createIncrementalRequestId(FacesContext ctx) {
 
-        Map<String, Object> sm = ctx.getExternalContext().getSessionMap();
+        ExternalContext externalContext = ctx.getExternalContext();
+        Map<String, Object> sm = externalContext.getSessionMap();
         AtomicInteger idgen = (AtomicInteger) sm.get(STATEMANAGED_SERIAL_ID_KEY);
         if (idgen == null) {
-            idgen = new AtomicInteger(1);
+            // concurrent requests of a new session must not end up with separate generators
+            Object sessionObj = externalContext.getSession(true);
+            // noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (sessionObj) {
+                idgen = (AtomicInteger) sm.get(STATEMANAGED_SERIAL_ID_KEY);
+                if (idgen == null) {
+                    idgen = new AtomicInteger(1);
+                    sm.put(STATEMANAGED_SERIAL_ID_KEY, idgen);
+                }
+            }
         }
 
         // always call put/setAttribute as we may be in a clustered environment.
@@ -27,6 +27,8 @@ import java.util.regex.Pattern;
 import com.sun.faces.RIConstants;
 import com.sun.faces.config.WebConfiguration;
 import com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter;
+import com.sun.faces.io.EncodedText;
+import com.sun.faces.io.EncodedTextWriter;
 import com.sun.faces.io.FastStringWriter;
 import com.sun.faces.util.HtmlUtils;
 import com.sun.faces.util.MessageUtils;
@@ -44,7 +46,7 @@ import jakarta.faces.render.Renderer;
  * <strong>HtmlResponseWriter</strong> is an Html specific implementation of the <code>ResponseWriter</code> abstract
  * class. Kudos to Adam Winer (Oracle) for much of this code.
  */
-public class HtmlResponseWriter extends ResponseWriter {
+public class HtmlResponseWriter extends ResponseWriter implements EncodedTextWriter {
 
     // Content Type for this Writer.
     //
@@ -687,6 +689,23 @@ public class HtmlResponseWriter extends ResponseWriter {
         writer.write(str, off, len);
     }
 
+    /**
+     * <p>
+     * Write the pre-encoded bytes of the specified text if the current <code>Writer</code> supports it. This is not
+     * the case while script or style content is being buffered.
+     * </p>
+     *
+     * @see EncodedTextWriter#writeEncoded(EncodedText)
+     */
+    @Override
+    public boolean writeEncoded(EncodedText text) throws IOException {
+        if (writer instanceof EncodedTextWriter) {
+            closeStartIfNecessary();
+            return ((EncodedTextWriter) writer).writeEncoded(text);
+        }
+        return false;
+    }
+
     /**
      * <p>
      * Write a properly escaped attribute name and the corresponding value. The value text will be converted to a String if
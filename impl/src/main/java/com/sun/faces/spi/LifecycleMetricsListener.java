@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.spi;
+
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.PhaseId;
+
+/**
+ * <p>
+ * This interface provides a mechanism to observe the time spent in each phase of the lifecycle and the size of each
+ * rendered view, without having to install a <code>PhaseListener</code>. Listeners are only notified when
+ * <code>com.sun.faces.enableLifecycleStatistics</code> is enabled.
+ * </p>
+ *
+ * <p>
+ * All values are passed as primitives, so notifying a listener does not allocate. Listeners are invoked on the request
+ * thread, and the implementation of this interface *must* therefore be thread-safe, cheap, and must have a no-arg
+ * constructor.
+ * </p>
+ */
+public interface LifecycleMetricsListener {
+
+    /**
+     * <p>
+     * Invoked after each phase of the lifecycle, including the <code>PhaseListener</code>s of that phase.
+     * </p>
+     *
+     * @param context the <code>FacesContext</code> for the current request
+     * @param viewId the view id of the view root at the start of the phase, or of the restored view if there was none at
+     * the start, or an empty string if there is none
+     * @param phaseId the phase that completed
+     * @param nanos the time spent in the phase, in nanoseconds
+     */
+    void phaseCompleted(FacesContext context, String viewId, PhaseId phaseId, long nanos);
+
+    /**
+     * <p>
+     * Invoked after the render response phase of a view.
+     * </p>
+     *
+     * @param context the <code>FacesContext</code> for the current request
+     * @param viewId the view id of the rendered view
+     * @param componentCount the number of components in the rendered component tree, as last counted for this view; the
+     * tree is only walked on a sample of the renders
+     * @param stateSize the size of the saved view state, in bytes or characters as written, or <code>-1</code> if the
+     * state was kept in the session without being serialized
+     * @param responseLength the number of characters written to the response, not the number of bytes sent
+     */
+    void viewRendered(FacesContext context, String viewId, int componentCount, long stateSize, long responseLength);
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.spi;
+
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.LifecycleMetricsListenerClasses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.faces.config.WebConfiguration;
+import com.sun.faces.config.WebConfiguration.WebContextInitParameter;
+import com.sun.faces.util.FacesLogger;
+import com.sun.faces.util.Util;
+
+/**
+ * <p>
+ * A factory for creating <code>LifecycleMetricsListener</code> instances.
+ * </p>
+ */
+public class LifecycleMetricsListenerFactory {
+
+    private static final Logger LOGGER = FacesLogger.LIFECYCLE.getLogger();
+
+    /**
+     * <p>
+     * Creates the <code>LifecycleMetricsListener</code>s specified using
+     * {@link WebContextInitParameter#LifecycleMetricsListenerClasses}, if any.
+     * </p>
+     *
+     * @param webConfig the configuration of this application
+     * @return the <code>LifecycleMetricsListener</code>s, in the order they were specified
+     */
+    public static List<LifecycleMetricsListener> createInstances(WebConfiguration webConfig) {
+        String listenerClasses = webConfig.getOptionValue(LifecycleMetricsListenerClasses);
+        List<LifecycleMetricsListener> listeners = new ArrayList<>();
+        if (listenerClasses == null || listenerClasses.trim().length() == 0) {
+            return listeners;
+        }
+
+        for (String listenerClass : Util.split(webConfig.getServletContext(), listenerClasses.trim(), "[\\s,]+")) {
+            LifecycleMetricsListener listener = getListenerInstance(listenerClass);
+            if (listener != null) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "jsf.spi.lifecyclemetricslistener.configured", new Object[] { listenerClass });
+                }
+                listeners.add(listener);
+            }
+        }
+
+        return listeners;
+    }
+
+    private static LifecycleMetricsListener getListenerInstance(String className) {
+        try {
+            Class<?> clazz = Util.loadClass(className, LifecycleMetricsListenerFactory.class);
+            if (LifecycleMetricsListener.class.isAssignableFrom(clazz)) {
+                return (LifecycleMetricsListener) clazz.newInstance();
+            } else {
+                if (LOGGER.isLoggable(Level.SEVERE)) {
+                    LOGGER.log(Level.SEVERE, "jsf.spi.lifecyclemetricslistener.not_implemented", new Object[] { className });
+                }
+            }
+        } catch (ClassNotFoundException cnfe) {
+            if (LOGGER.isLoggable(Level.SEVERE)) {
+                LOGGER.log(Level.SEVERE, "jsf.spi.lifecyclemetricslistener.not_found", new Object[] { className });
+            }
+        } catch (InstantiationException | IllegalAccessException ie) {
+            if (LOGGER.isLoggable(Level.SEVERE)) {
+                LOGGER.log(Level.SEVERE, "jsf.spi.lifecyclemetricslistener.cannot_instantiate", new Object[] { className });
+                LOGGER.log(Level.SEVERE, "", ie);
+            }
+        }
+
+        return null;
+    }
+
+} // END LifecycleMetricsListenerFactory
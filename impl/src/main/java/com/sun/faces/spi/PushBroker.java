@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.spi;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * <p>
+ * This interface provides a mechanism to deliver push messages sent by <code>jakarta.faces.push.PushContext</code> to
+ * web sockets which are connected to other nodes of a cluster. Every push message is delivered to the web sockets of the
+ * local node as usual, and is additionally handed to the broker, which must deliver it to the {@link Receiver} of every
+ * other node.
+ * </p>
+ *
+ * <p>
+ * Messages are handed to the broker in batches, from a single background thread. The implementation of this interface
+ * *must* be thread-safe and must have a no-arg constructor. It must not deliver a message back to the node it was
+ * published by, as that node has already delivered it locally.
+ * </p>
+ */
+public interface PushBroker {
+
+    /**
+     * <p>
+     * Starts the broker. From now on, messages published by other nodes must be handed to the given receiver.
+     * </p>
+     *
+     * @param receiver the receiver of messages published by other nodes
+     */
+    void start(Receiver receiver);
+
+    /**
+     * <p>
+     * Publishes the given batch of messages to all other nodes.
+     * </p>
+     *
+     * @param messages the messages to publish, in the order they were sent
+     */
+    void publish(List<Message> messages);
+
+    /**
+     * <p>
+     * Stops the broker. This is invoked when the application is destroyed.
+     * </p>
+     */
+    void stop();
+
+    /**
+     * <p>
+     * The receiver of messages published by other nodes, which delivers them to the web sockets of the local node.
+     * </p>
+     */
+    interface Receiver {
+
+        /**
+         * <p>
+         * Delivers the given batch of messages to the web sockets of the local node.
+         * </p>
+         *
+         * @param messages the messages published by another node
+         */
+        void receive(List<Message> messages);
+
+    }
+
+    /**
+     * <p>
+     * A push message, already encoded as JSON, along with its target. A message targets either a channel identifier, a
+     * user of a channel, or, if both are <code>null</code>, the application scoped channel of the given name.
+     * </p>
+     */
+    final class Message implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String channel;
+        private final String channelId;
+        private final Serializable user;
+        private final String json;
+
+        /**
+         * @param channel the channel name
+         * @param channelId the session or view scoped channel identifier, or <code>null</code>
+         * @param user the user of the channel, or <code>null</code>
+         * @param json the push message, encoded as JSON
+         */
+        public Message(String channel, String channelId, Serializable user, String json) {
+            this.channel = channel;
+            this.channelId = channelId;
+            this.user = user;
+            this.json = json;
+        }
+
+        /**
+         * @return the channel name
+         */
+        public String getChannel() {
+            return channel;
+        }
+
+        /**
+         * @return the session or view scoped channel identifier, or <code>null</code>
+         */
+        public String getChannelId() {
+            return channelId;
+        }
+
+        /**
+         * @return the user of the channel, or <code>null</code>
+         */
+        public Serializable getUser() {
+            return user;
+        }
+
+        /**
+         * @return the push message, encoded as JSON
+         */
+        public String getJson() {
+            return json;
+        }
+
+    }
+
+} // END PushBroker
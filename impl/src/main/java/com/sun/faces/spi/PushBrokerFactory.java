@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.spi;
+
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.PushBrokerClass;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.faces.config.WebConfiguration;
+import com.sun.faces.config.WebConfiguration.WebContextInitParameter;
+import com.sun.faces.util.FacesLogger;
+import com.sun.faces.util.Util;
+
+/**
+ * <p>
+ * A factory for creating <code>PushBroker</code> instances.
+ * </p>
+ */
+public class PushBrokerFactory {
+
+    private static final Logger LOGGER = FacesLogger.APPLICATION.getLogger();
+
+    /**
+     * <p>
+     * Creates the <code>PushBroker</code> specified using {@link WebContextInitParameter#PushBrokerClass}, if any.
+     * </p>
+     *
+     * @param webConfig the configuration of this application
+     * @return the <code>PushBroker</code>, or <code>null</code> if push messages should only be delivered locally
+     */
+    public static PushBroker createInstance(WebConfiguration webConfig) {
+        String brokerClass = webConfig.getOptionValue(PushBrokerClass);
+        if (brokerClass == null || brokerClass.length() == 0) {
+            return null;
+        }
+
+        PushBroker broker = getBrokerInstance(brokerClass);
+        if (broker != null && LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "jsf.spi.pushbroker.configured", new Object[] { brokerClass });
+        }
+
+        return broker;
+    }
+
+    private static PushBroker getBrokerInstance(String className) {
+        try {
+            Class<?> clazz = Util.loadClass(className, PushBrokerFactory.class);
+            if (PushBroker.class.isAssignableFrom(clazz)) {
+                return (PushBroker) clazz.newInstance();
+            } else {
+                if (LOGGER.isLoggable(Level.SEVERE)) {
+                    LOGGER.log(Level.SEVERE, "jsf.spi.pushbroker.not_implemented", new Object[] { className });
+                }
+            }
+        } catch (ClassNotFoundException cnfe) {
+            if (LOGGER.isLoggable(Level.SEVERE)) {
+                LOGGER.log(Level.SEVERE, "jsf.spi.pushbroker.not_found", new Object[] { className });
+            }
+        } catch (InstantiationException | IllegalAccessException ie) {
+            if (LOGGER.isLoggable(Level.SEVERE)) {
+                LOGGER.log(Level.SEVERE, "jsf.spi.pushbroker.cannot_instantiate", new Object[] { className });
+                LOGGER.log(Level.SEVERE, "", ie);
+            }
+        }
+
+        return null;
+    }
+
+} // END PushBrokerFactory
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.spi;
+
+/**
+ * <p>
+ * This interface provides a mechanism to store server side view state outside of the <code>HttpSession</code>. When a
+ * <code>ViewStateStore</code> is configured, the <code>ServerSideStateHelper</code> will serialize the state of each
+ * view and hand it to the store keyed by the owning session and the view state id that is written to the client.
+ * Sessions are identified by a key kept as the {@link ViewStateStoreFactory#SESSION_KEY} session attribute rather
+ * than by their id, so that their states remain available when the session id is changed, e.g. on login.
+ * </p>
+ *
+ * <p>
+ * The implementation of this interface *must* be thread-safe and must have a no-arg constructor. Implementations are
+ * free to discard entries at any time (e.g. in order to enforce size limits), in which case the affected view will be
+ * reported as expired.
+ * </p>
+ */
+public interface ViewStateStore {
+
+    /**
+     * <p>
+     * Stores the serialized state of a view.
+     * </p>
+     *
+     * @param sessionId the key of the session owning the view
+     * @param viewStateId the view state id as written to the client
+     * @param state the serialized view state
+     */
+    void put(String sessionId, String viewStateId, byte[] state);
+
+    /**
+     * <p>
+     * Obtains the serialized state of a view previously stored by {@link #put(String, String, byte[])}.
+     * </p>
+     *
+     * @param sessionId the key of the session owning the view
+     * @param viewStateId the view state id as submitted by the client
+     * @return the serialized view state, or <code>null</code> if no such state is available (anymore)
+     */
+    byte[] get(String sessionId, String viewStateId);
+
+    /**
+     * <p>
+     * Removes all states owned by the specified session. This is invoked when the session is destroyed.
+     * </p>
+     *
+     * @param sessionId the key of the destroyed session
+     */
+    void removeSession(String sessionId);
+
+} // END ViewStateStore
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.spi;
+
+import static com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter.EnableViewStateStore;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.NumberOfLogicalViews;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.NumberOfViews;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.ViewStateStoreClass;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.ViewStateStoreMaxSize;
+import static com.sun.faces.config.WebConfiguration.WebContextInitParameter.ViewStateStoreSessionQuota;
+
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.faces.RIConstants;
+import com.sun.faces.config.WebConfiguration;
+import com.sun.faces.config.WebConfiguration.WebContextInitParameter;
+import com.sun.faces.renderkit.OffHeapViewStateStore;
+import com.sun.faces.util.FacesLogger;
+import com.sun.faces.util.Util;
+
+import jakarta.faces.context.ExternalContext;
+
+/**
+ * <p>
+ * A factory for creating <code>ViewStateStore</code> instances.
+ * </p>
+ */
+public class ViewStateStoreFactory {
+
+    /**
+     * <p>
+     * The application scoped attribute under which the <code>ViewStateStore</code> of the application is kept.
+     * </p>
+     */
+    public static final String VIEW_STATE_STORE = RIConstants.FACES_PREFIX + "ViewStateStore";
+
+    /**
+     * <p>
+     * The session scoped attribute holding the key under which the view states of the session are stored. Unlike the
+     * session id, the key does not change when the container changes the session id.
+     * </p>
+     */
+    public static final String SESSION_KEY = RIConstants.FACES_PREFIX + "ViewStateStoreSessionKey";
+
+    private static final Logger LOGGER = FacesLogger.APPLICATION.getLogger();
+
+    /**
+     * <p>
+     * Obtains the <code>ViewStateStore</code> of this application, creating it on first access. The store is only
+     * available if either {@link com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter#EnableViewStateStore}
+     * is <code>true</code> or a custom implementation has been specified using
+     * {@link WebContextInitParameter#ViewStateStoreClass}.
+     * </p>
+     *
+     * @param extContext the ExternalContext for this application
+     * @return the <code>ViewStateStore</code>, or <code>null</code> if view state should be stored in the session
+     */
+    public static ViewStateStore createInstance(ExternalContext extContext) {
+        Map<String, Object> appMap = extContext.getApplicationMap();
+        ViewStateStore store = (ViewStateStore) appMap.get(VIEW_STATE_STORE);
+        if (store != null) {
+            return store;
+        }
+
+        WebConfiguration webConfig = WebConfiguration.getInstance(extContext);
+        String storeClass = webConfig.getOptionValue(ViewStateStoreClass);
+        if (storeClass != null && storeClass.length() > 0) {
+            store = getStoreInstance(storeClass);
+        } else if (webConfig.isOptionEnabled(EnableViewStateStore)) {
+            long maxEntries = getLongConfigValue(webConfig, NumberOfLogicalViews) * getLongConfigValue(webConfig, NumberOfViews);
+            store = new OffHeapViewStateStore(getLongConfigValue(webConfig, ViewStateStoreMaxSize),
+                    getLongConfigValue(webConfig, ViewStateStoreSessionQuota), (int) Math.min(maxEntries, Integer.MAX_VALUE));
+        }
+
+        if (store != null) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "jsf.spi.viewstatestore.configured", new Object[] { store.getClass().getName() });
+            }
+            Object existing = appMap.putIfAbsent(VIEW_STATE_STORE, store);
+            if (existing != null) {
+                store = (ViewStateStore) existing;
+            }
+        }
+
+        return store;
+    }
+
+    private static ViewStateStore getStoreInstance(String className) {
+        try {
+            Class<?> clazz = Util.loadClass(className, ViewStateStoreFactory.class);
+            if (ViewStateStore.class.isAssignableFrom(clazz)) {
+                return (ViewStateStore) clazz.newInstance();
+            } else {
+                if (LOGGER.isLoggable(Level.SEVERE)) {
+                    LOGGER.log(Level.SEVERE, "jsf.spi.viewstatestore.not_implemented", new Object[] { className });
+                }
+            }
+        } catch (ClassNotFoundException cnfe) {
+            if (LOGGER.isLoggable(Level.SEVERE)) {
+                LOGGER.log(Level.SEVERE, "jsf.spi.viewstatestore.not_found", new Object[] { className });
+            }
+        } catch (InstantiationException | IllegalAccessException ie) {
+            if (LOGGER.isLoggable(Level.SEVERE)) {
+                LOGGER.log(Level.SEVERE, "jsf.spi.viewstatestore.cannot_instantiate", new Object[] { className });
+                LOGGER.log(Level.SEVERE, "", ie);
+            }
+        }
+
+        return null;
+    }
+
+    private static long getLongConfigValue(WebConfiguration webConfig, WebContextInitParameter param) {
+        String value = webConfig.getOptionValue(param);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException nfe) {
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "jsf.state.server.cannot.parse.int.option", new Object[] { param.getQualifiedName(), param.getDefaultValue() });
+            }
+            return Long.parseLong(param.getDefaultValue());
+        }
+    }
+
+} // END ViewStateStoreFactory
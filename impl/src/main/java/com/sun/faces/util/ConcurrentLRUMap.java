@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe, size-bounded map with LRU functionality, the concurrent counterpart of {@link LRUMap}.
+ *
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap}, so reads and writes never block each other. The access order is
+ * approximate: a shared counter is only advanced by insertions, and every access stamps the entry with its current value,
+ * so reads do not contend on the counter.
+ * </p>
+ *
+ * <p>
+ * Once an insertion causes the map to exceed its capacity, an entry is removed using a conditional remove, so concurrent
+ * writers never evict more than necessary. Maps of up to {@value #EXACT_EVICTION_SIZE} entries, such as the view state
+ * maps of {@link com.sun.faces.renderkit.ServerSideStateHelper} with their default size, are scanned for the entry with
+ * the oldest stamp. Larger maps are swept by a clock hand that continues where the previous eviction left off, and the
+ * first entry not accessed since the hand last passed it is removed, so an eviction does not scan all entries.
+ * </p>
+ *
+ * <p>
+ * By default the capacity is a number of entries. Subclasses may instead bound the combined weight of the values, such
+ * as their size in bytes, by using {@link #ConcurrentLRUMap(int, long)} and overriding {@link #weigh(Object)}.
+ * </p>
+ */
+public class ConcurrentLRUMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>, Serializable {
+
+    private static final long serialVersionUID = 2945174536419245812L;
+
+    private static final int EXACT_EVICTION_SIZE = 16;
+
+    private final ConcurrentHashMap<K, Node<V>> map;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong weight = new AtomicLong();
+    private final long maxWeight;
+
+    // guards the clock hand, writers only
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private transient Iterator<Map.Entry<K, Node<V>>> evictionHand;
+
+    // ------------------------------------------------------------ Constructors
+
+    public ConcurrentLRUMap(int maxCapacity) {
+        this(maxCapacity + 1, maxCapacity);
+    }
+
+    /**
+     * @param initialCapacity the expected number of entries
+     * @param maxWeight the maximum combined weight of the values, as returned by {@link #weigh(Object)}
+     */
+    protected ConcurrentLRUMap(int initialCapacity, long maxWeight) {
+        map = new ConcurrentHashMap<>(initialCapacity);
+        this.maxWeight = maxWeight;
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * @return the combined weight of the values, which is the number of entries unless {@link #weigh(Object)} is
+     * overridden
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    // ---------------------------------------------------- Methods from Map
+
+    @Override
+    public V get(Object key) {
+        Node<V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        touch(node);
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Node<V> node = newNode(value);
+        Node<V> previous = map.put(key, node);
+        replaced(previous, node);
+        return previous == null ? null : previous.value;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<V> previous = map.remove(key);
+        if (previous == null) {
+            return null;
+        }
+        weight.addAndGet(-previous.weight);
+        return previous.value;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public void clear() {
+        for (K key : map.keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    // ---------------------------------------------- Methods from ConcurrentMap
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Node<V> node = newNode(value);
+        Node<V> previous = map.putIfAbsent(key, node);
+        if (previous == null) {
+            replaced(null, node);
+            return null;
+        }
+        touch(previous);
+        return previous.value;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Node<V> node;
+        while ((node = map.get(key)) != null && Objects.equals(node.value, value)) {
+            if (map.remove(key, node)) {
+                weight.addAndGet(-node.weight);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Node<V> node;
+        while ((node = map.get(key)) != null && Objects.equals(node.value, oldValue)) {
+            Node<V> replacement = newNode(newValue);
+            if (map.replace(key, node, replacement)) {
+                replaced(node, replacement);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Node<V> node = newNode(value);
+        Node<V> previous = map.replace(key, node);
+        if (previous == null) {
+            return null;
+        }
+        replaced(previous, node);
+        return previous.value;
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private Node<V> newNode(V value) {
+        return new Node<>(value, clock.addAndGet(2), weigh(value));
+    }
+
+    private void replaced(Node<V> previous, Node<V> node) {
+        weight.addAndGet(node.weight - (previous != null ? previous.weight : 0));
+        evict();
+    }
+
+    // Accessed entries are stamped just after the last insertion, so they are kept over it
+    private void touch(Node<V> node) {
+        long now = clock.get() + 1;
+        if (node.lastAccess != now) {
+            node.lastAccess = now;
+        }
+    }
+
+    private void evict() {
+        while (weight.get() > maxWeight) {
+            Map.Entry<K, Node<V>> eldest;
+            evictionLock.lock();
+            try {
+                eldest = map.size() <= EXACT_EVICTION_SIZE ? findEldest() : advanceEvictionHand();
+            } finally {
+                evictionLock.unlock();
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (map.remove(eldest.getKey(), eldest.getValue())) {
+                weight.addAndGet(-eldest.getValue().weight);
+                evicted(eldest.getKey(), eldest.getValue().value);
+            }
+        }
+    }
+
+    private Map.Entry<K, Node<V>> findEldest() {
+        Map.Entry<K, Node<V>> eldest = null;
+        for (Map.Entry<K, Node<V>> entry : map.entrySet()) {
+            if (eldest == null || entry.getValue().lastAccess < eldest.getValue().lastAccess) {
+                eldest = entry;
+            }
+        }
+        return eldest;
+    }
+
+    private Map.Entry<K, Node<V>> advanceEvictionHand() {
+        Map.Entry<K, Node<V>> entry = null;
+        // After two full turns without a candidate, entries keep being accessed concurrently; take the current one
+        for (int i = 0, turns = 2 * map.size(); i <= turns; i++) {
+            if (evictionHand == null || !evictionHand.hasNext()) {
+                evictionHand = map.entrySet().iterator();
+                if (!evictionHand.hasNext()) {
+                    return null;
+                }
+            }
+            entry = evictionHand.next();
+            Node<V> node = entry.getValue();
+            long lastAccess = node.lastAccess;
+            if (lastAccess == node.lastPassed) {
+                break;
+            }
+            node.lastPassed = lastAccess;
+        }
+        return entry;
+    }
+
+    // ------------------------------------------------------- Protected Methods
+
+    /**
+     * Returns the weight of the specified value, counted against the maximum weight of the map. The weight of a value
+     * must not change while it is in the map.
+     *
+     * @param value the value to weigh
+     * @return the weight of the value, <code>1</code> by default
+     */
+    protected long weigh(V value) {
+        return 1;
+    }
+
+    /**
+     * Invoked after an entry has been evicted because the map exceeded its capacity.
+     *
+     * @param key the key of the evicted entry
+     * @param value the value of the evicted entry
+     */
+    protected void evicted(K key, V value) {
+    }
+
+    // ----------------------------------------------------------- Inner Classes
+
+    private static final class Node<V> implements Serializable {
+
+        private static final long serialVersionUID = -4727361208472547126L;
+
+        private final V value;
+        private final long weight;
+        private volatile long lastAccess;
+        private long lastPassed = -1; // the access stamp when the clock hand last passed, writers only
+
+        Node(V value, long lastAccess, long weight) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+            this.weight = weight;
+        }
+
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            Iterator<Map.Entry<K, Node<V>>> iterator = map.entrySet().iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+
+                private Map.Entry<K, Node<V>> current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    current = iterator.next();
+                    return new SimpleImmutableEntry<>(current.getKey(), current.getValue().value);
+                }
+
+                @Override
+                public void remove() {
+                    if (current == null) {
+                        throw new IllegalStateException();
+                    }
+                    if (map.remove(current.getKey(), current.getValue())) {
+                        weight.addAndGet(-current.getValue().weight);
+                    }
+                    current = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+    }
+
+}
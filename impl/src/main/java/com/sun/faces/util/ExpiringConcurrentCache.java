@@ -58,8 +58,20 @@ public final class ExpiringConcurrentCache<K, V> extends ConcurrentCache<K, V> {
      * @param checker used to check whether an object in the cache has expired
      */
     public ExpiringConcurrentCache(Factory<K, V> f, ExpiryChecker<K, V> checker) {
+        this(f, checker, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param f used to create new instances of objects that are not already available
+     * @param checker used to check whether an object in the cache has expired
+     * @param map the map backing the cache, for example a {@link ConcurrentLRUMap} to bound the size of the cache
+     */
+    public ExpiringConcurrentCache(Factory<K, V> f, ExpiryChecker<K, V> checker, ConcurrentMap<K, Future<V>> map) {
         super(f);
         _checker = checker;
+        _cache = map;
     }
 
     @Override
@@ -152,7 +164,7 @@ public final class ExpiringConcurrentCache<K, V> extends ConcurrentCache<K, V> {
     }
 
     private final ExpiryChecker<K, V> _checker;
-    private final ConcurrentMap<K, Future<V>> _cache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<K, Future<V>> _cache;
 
     private static final Logger _LOGGER = FacesLogger.UTIL.getLogger();
 }
@@ -51,6 +51,11 @@ public class HtmlUtils {
      * Write char array text.
      */
     static public void writeText(Writer out, boolean escapeUnicode, boolean escapeIsocode, char[] buff, char[] text, int start, int length) throws IOException {
+        if (!requiresTextEscaping(escapeUnicode, escapeIsocode, text, start, start + length)) {
+            out.write(text, start, length);
+            return;
+        }
+
         int buffLength = buff.length;
         int buffIndex = 0;
 
@@ -69,6 +74,12 @@ public class HtmlUtils {
 
         int length = text.length();
 
+        // Most text does not contain anything to escape, write it as is
+        if (!requiresTextEscaping(escapeUnicode, escapeIsocode, text, length)) {
+            out.write(text, 0, length);
+            return;
+        }
+
         if (length >= 16) {
             text.getChars(0, length, textBuff, 0);
             writeText(out, escapeUnicode, escapeIsocode, buff, textBuff, 0, length);
@@ -111,8 +122,6 @@ public class HtmlUtils {
             } else {
                 if (ch == '&') {
                     nextIndex = addToBuffer(out, buff, buffIndex, buffLength, AMP_CHARS);
-                } else if (ch == '"') {
-                    nextIndex = addToBuffer(out, buff, buffIndex, buffLength, "\"".toCharArray());
                 } else {
                     nextIndex = addToBuffer(out, buff, buffIndex, buffLength, ch);
                 }
@@ -135,6 +144,57 @@ public class HtmlUtils {
         return nextIndex;
     }
 
+    /**
+     * @return <code>true</code> if {@link #writeText(Writer, boolean, boolean, char[], String, char[])} would not write
+     * the specified text unchanged
+     */
+    private static boolean requiresTextEscaping(boolean escapeUnicode, boolean escapeIsocode, String text, int length) {
+        for (int i = 0; i < length; i++) {
+            if (requiresTextEscaping(escapeUnicode, escapeIsocode, text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean requiresTextEscaping(boolean escapeUnicode, boolean escapeIsocode, char[] text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (requiresTextEscaping(escapeUnicode, escapeIsocode, text[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean requiresTextEscaping(boolean escapeUnicode, boolean escapeIsocode, char ch) {
+        if (ch < 0xA0) {
+            if (ch >= 0x3f) {
+                return false;
+            }
+            return ch == '<' || ch == '>' || ch == '&' || ch <= 0x1f && !isPrintableControlChar(ch);
+        }
+        return ch <= 0xff ? escapeIsocode : escapeUnicode;
+    }
+
+    /**
+     * @return <code>true</code> if
+     * {@link #writeAttribute(Writer, boolean, boolean, char[], String, char[], boolean)} would not write the specified
+     * text unchanged
+     */
+    private static boolean requiresAttributeEscaping(boolean escapeUnicode, boolean escapeIsocode, String text, int length,
+            boolean isScriptInAttributeValueEnabled) {
+        for (int i = 0; i < length; i++) {
+            char ch = text.charAt(i);
+            if (ch == '"' || requiresTextEscaping(escapeUnicode, escapeIsocode, ch)) {
+                return true;
+            }
+            if (ch == 's' && !isScriptInAttributeValueEnabled && text.startsWith("script:", i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Write a string attribute. Note that this code is duplicated below for character arrays - change both places if you
      * make any changes!!!
@@ -143,6 +203,12 @@ public class HtmlUtils {
             boolean isScriptInAttributeValueEnabled) throws IOException {
 
         int length = text.length();
+
+        // Most attribute values do not contain anything to escape, write them as is
+        if (!requiresAttributeEscaping(escapeUnicode, escapeIsocode, text, length, isScriptInAttributeValueEnabled)) {
+            out.write(text, 0, length);
+            return;
+        }
         if (length >= 16) {
             if (length > textBuff.length) {
                 // resize our buffer
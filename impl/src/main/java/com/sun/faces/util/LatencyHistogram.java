@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A latency histogram of fixed power of two buckets in microseconds, from up to 64 microseconds to above 2^24
+ * microseconds, about 16.8 seconds. Each bucket is a {@link LongAdder}, so recording a latency neither allocates nor
+ * contends, which makes it cheap enough to leave enabled in production.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The number of buckets, the last of which is unbounded.
+     */
+    public static final int BUCKETS = 20;
+
+    private static final int FIRST_BUCKET_SHIFT = 6; // 64 microseconds.
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    // ------------------------------------------------------------ Constructors
+
+    /**
+     * Creates a histogram with all buckets at zero.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * @param nanos the latency to record, in nanoseconds
+     */
+    public void record(long nanos) {
+        buckets[getBucket(TimeUnit.NANOSECONDS.toMicros(nanos))].increment();
+    }
+
+    /**
+     * @return the number of latencies recorded in each bucket
+     */
+    public long[] getCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 1
+     * @return the upper bound in microseconds of the bucket holding the given percentile, or 0 if no latency has been
+     * recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = getCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                return getBound(i);
+            }
+        }
+        return getBound(BUCKETS - 1);
+    }
+
+    /**
+     * Resets all buckets to zero.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    /**
+     * @return the inclusive upper bound in microseconds of each bucket, where the last bucket is unbounded
+     */
+    public static long[] getBounds() {
+        long[] bounds = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            bounds[i] = getBound(i);
+        }
+        return bounds;
+    }
+
+    /**
+     * @param micros the latency in microseconds
+     * @return the index of the bucket the given latency is recorded in
+     */
+    public static int getBucket(long micros) {
+        int bucket = 64 - Long.numberOfLeadingZeros(Math.max(0, micros - 1)) - FIRST_BUCKET_SHIFT;
+        return Math.min(Math.max(bucket, 0), BUCKETS - 1);
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static long getBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << (FIRST_BUCKET_SHIFT + bucket);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>
+ * The registration of an MBean of an application with the platform MBean server, under the name
+ * <code>com.sun.faces:type=&lt;type&gt;,application=&lt;application&gt;</code>.
+ * </p>
+ */
+public final class PlatformMBeanRegistration {
+
+    private final String type;
+    private final Object mbean;
+    private final Logger logger;
+
+    private ObjectName objectName;
+
+    // ------------------------------------------------------------ Constructors
+
+    /**
+     * @param type the type of the MBean, part of its object name
+     * @param mbean the MBean or MXBean to register
+     * @param logger the logger to report registration failures to
+     */
+    public PlatformMBeanRegistration(String type, Object mbean, Logger logger) {
+        this.type = type;
+        this.mbean = mbean;
+        this.logger = logger;
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * Registers the MBean with the platform MBean server, logging a warning if it cannot be registered.
+     *
+     * @param application the name identifying the application, typically its context path
+     */
+    public synchronized void register(String application) {
+        try {
+            ObjectName name = new ObjectName("com.sun.faces:type=" + type + ",application=" + ObjectName.quote(application != null ? application : ""));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+            objectName = name;
+        } catch (JMException | SecurityException e) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "Unable to register " + type + " MBean for application " + application, e);
+            }
+        }
+    }
+
+    /**
+     * Unregisters the MBean from the platform MBean server, if it has been registered.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException | SecurityException e) {
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, "Unable to unregister " + objectName, e);
+            }
+        } finally {
+            objectName = null;
+        }
+    }
+
+}
@@ -118,6 +118,11 @@ public class RequestStateManager {
      */
     public static final String PROCESSED_RADIO_BUTTON_GROUPS = "com.sun.faces.PROCESSED_RADIO_BUTTON_GROUPS";
 
+    /**
+     * Used to communicate the client ids whose partial state was modified since it was restored.
+     */
+    public static final String MODIFIED_PARTIAL_STATE = "com.sun.faces.MODIFIED_PARTIAL_STATE";
+
     /**
      * Used to store the Set of resource dependencies that have been rendered.
      */
@@ -32,6 +32,8 @@ import jakarta.el.ValueExpression;
 import jakarta.faces.context.FacesContext;
 import java.util.function.Supplier;
 
+import com.sun.faces.component.StateModificationTracker;
+
 /**
  * A base implementation for maps which implement the PartialStateHolder and TransientStateHolder interfaces.
  *
@@ -39,10 +41,11 @@ import java.util.function.Supplier;
  * other implementations of the StateHolder interface.
  */
 @SuppressWarnings({ "unchecked" })
-class ComponentStateHelper implements StateHelper, TransientStateHelper {
+class ComponentStateHelper implements StateHelper, TransientStateHelper, StateModificationTracker {
 
     private UIComponent component;
     private boolean isTransient;
+    private boolean modified;
     private Map<Serializable, Object> deltaMap;
     private Map<Serializable, Object> defaultMap;
     private Map<Object, Object> transientState;
@@ -68,6 +71,7 @@ class ComponentStateHelper implements StateHelper, TransientStateHelper {
     @Override
     public Object put(Serializable key, Object value) {
 
+        markModified();
         if (component.initialStateMarked() || value instanceof PartialStateHolder) {
             Object retVal = deltaMap.put(key, value);
 
@@ -91,6 +95,7 @@ class ComponentStateHelper implements StateHelper, TransientStateHelper {
      */
     @Override
     public Object remove(Serializable key) {
+        markModified();
         if (component.initialStateMarked()) {
             Object retVal = deltaMap.remove(key);
 
@@ -111,6 +116,7 @@ class ComponentStateHelper implements StateHelper, TransientStateHelper {
     @Override
     public Object put(Serializable key, String mapKey, Object value) {
 
+        markModified();
         Object ret = null;
         if (component.initialStateMarked()) {
             Map<String, Object> dMap = (Map<String, Object>) deltaMap.get(key);
@@ -201,6 +207,7 @@ class ComponentStateHelper implements StateHelper, TransientStateHelper {
     @Override
     public void add(Serializable key, Object value) {
 
+        markModified();
         if (component.initialStateMarked()) {
             ((List<Object>) deltaMap.computeIfAbsent(key, e -> new ArrayList<>(4))).add(value);
         }
@@ -219,6 +226,7 @@ class ComponentStateHelper implements StateHelper, TransientStateHelper {
      */
     @Override
     public Object remove(Serializable key, Object valueOrKey) {
+        markModified();
         Object source = get(key);
 
         if (source instanceof Collection) {
@@ -270,6 +278,9 @@ class ComponentStateHelper implements StateHelper, TransientStateHelper {
             return;
         }
 
+        // restoring the state does not modify it
+        boolean wasModified = modified;
+
         if (!component.initialStateMarked() && !defaultMap.isEmpty()) {
             defaultMap.clear();
             if (!isEmpty(deltaMap)) {
@@ -311,6 +322,8 @@ class ComponentStateHelper implements StateHelper, TransientStateHelper {
                 handleAttribute(serializable.toString(), value);
             }
         }
+
+        modified = wasModified;
     }
 
     /*
@@ -355,6 +368,33 @@ class ComponentStateHelper implements StateHelper, TransientStateHelper {
         isTransient = newTransientValue;
     }
 
+    // ----------------------------------- Methods from StateModificationTracker
+
+    /**
+     * @see StateModificationTracker#isModified()
+     */
+    @Override
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * @see StateModificationTracker#clearModified()
+     */
+    @Override
+    public void clearModified() {
+        modified = false;
+    }
+
+    /**
+     * Marks the partial state as modified. Also used by the component for state it keeps outside of this helper.
+     */
+    void markModified() {
+        if (component.initialStateMarked()) {
+            modified = true;
+        }
+    }
+
     // --------------------------------------------------------- Private Methods
 
     private Object saveMap(FacesContext context, Map<Serializable, Object> map) {
@@ -518,6 +518,20 @@ public abstract class UIComponent implements PartialStateHolder, TransientStateH
         return stateHelper;
     }
 
+    /**
+     * Marks the partial state of this component as modified, for changes to state that is not kept in the
+     * {@link StateHelper}.
+     */
+    void markStateModified() {
+
+        if (initialStateMarked()) {
+            if (stateHelper == null) {
+                stateHelper = new ComponentStateHelper(this);
+            }
+            stateHelper.markModified();
+        }
+    }
+
     /**
      * <p class="changed_added_2_1">
      * For components that need to support the concept of transient state, this method will restore any state saved on a
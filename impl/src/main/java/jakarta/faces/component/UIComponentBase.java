@@ -642,6 +642,7 @@ public abstract class UIComponentBase extends UIComponent {
         }
 
         listeners.add(listener);
+        markStateModified();
     }
 
     /**
@@ -694,6 +695,7 @@ public abstract class UIComponentBase extends UIComponent {
 
         if (listeners != null) {
             listeners.remove(listener);
+            markStateModified();
         }
     }
 
@@ -798,6 +800,7 @@ public abstract class UIComponentBase extends UIComponent {
 
                 if (existingListener.equals(componentListener)) {
                     i.remove();
+                    markStateModified();
                     break;
                 }
             }
@@ -1598,6 +1601,7 @@ public abstract class UIComponentBase extends UIComponent {
             }
 
             eventBehaviours.add(behavior);
+            markStateModified();
         }
     }
 
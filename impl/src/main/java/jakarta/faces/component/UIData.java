@@ -525,6 +525,7 @@ public class UIData extends UIComponentBase implements NamingContainer, UniqueId
             Map<String, Object> sm = saveFullDescendantComponentStates(facesContext, null, getChildren().iterator(), false);
             if (sm != null && !sm.isEmpty()) {
                 _rowDeltaStates.put(getContainerClientId(facesContext), sm);
+                markStateModified();
             }
             if (getRowIndex() != -1) {
                 _rowTransientStates.put(getContainerClientId(facesContext),
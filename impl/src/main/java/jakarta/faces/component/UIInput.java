@@ -1306,6 +1306,7 @@ public class UIInput extends UIOutput implements EditableValueHolder {
             validators = new AttachedObjectListHolder<>();
         }
         validators.add(validator);
+        markStateModified();
 
     }
 
@@ -1339,6 +1340,7 @@ public class UIInput extends UIOutput implements EditableValueHolder {
 
         if (validators != null) {
             validators.remove(validator);
+            markStateModified();
         }
 
     }
@@ -3349,13 +3349,18 @@ if (!((jsf && jsf.specversion && jsf.specversion >= 23000 ) &&
                 }
 
                 socket.onmessage = function(event) {
-                    var message = JSON.parse(event.data).data;
-                    onmessage(message, channel, event);
-                    var functions = behaviors[message];
+                    var json = JSON.parse(event.data);
+                    var messages = (json instanceof Array) ? json : [json]; // Server may batch messages into a single frame.
 
-                    if (functions && functions.length) {
-                        for (var i = 0; i < functions.length; i++) {
-                            functions[i]();
+                    for (var m = 0; m < messages.length; m++) {
+                        var message = messages[m].data;
+                        onmessage(message, channel, event);
+                        var functions = behaviors[message];
+
+                        if (functions && functions.length) {
+                            for (var i = 0; i < functions.length; i++) {
+                                functions[i]();
+                            }
                         }
                     }
                 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.application;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.sun.faces.application.NavigationHandlerImpl.NavigationMap;
+
+import jakarta.faces.application.NavigationCase;
+import jakarta.faces.context.FacesContext;
+
+public class NavigationMapTest {
+
+    private static final String[] ACTIONS = { null, "#{bean.save}", "#{bean.cancel}" };
+    private static final String[] OUTCOMES = { null, "", "success", "failure" };
+
+    @Test
+    public void testCompiledMatchesAgreeWithCaseSet() {
+        Set<NavigationCase> caseSet = new LinkedHashSet<>(asList(
+                new TestCase("#{bean.save}", "success", true, "/saved.xhtml"),
+                new TestCase(null, "success", null, "/success.xhtml"),
+                new TestCase("#{bean.cancel}", null, false, "/cancel-if.xhtml"),
+                new TestCase("#{bean.cancel}", null, null, "/cancel.xhtml"),
+                new TestCase(null, null, true, "/fallback-if.xhtml"),
+                new TestCase(null, null, null, "/fallback.xhtml")));
+
+        NavigationMap map = new NavigationMap();
+        map.put("/page.xhtml", caseSet);
+
+        assertAgree(map, "/page.xhtml");
+
+        // Flipping the conditions must not affect the compiled matches, as conditions are evaluated per request.
+        for (NavigationCase cnc : caseSet) {
+            ((TestCase) cnc).flipCondition();
+        }
+        assertAgree(map, "/page.xhtml");
+    }
+
+    @Test
+    public void testWildcardMatches() {
+        NavigationMap map = new NavigationMap();
+        map.put("/admin/*", singleton(new TestCase(null, "success", null, "/admin.xhtml")));
+        map.put("/admin/users/*", singleton(new TestCase(null, "success", null, "/users.xhtml")));
+        map.put("/public/*", singleton(new TestCase(null, "success", null, "/public.xhtml")));
+
+        assertEquals(asList("/admin/users/", "/admin/"), asList(map.getWildCardMatches("/admin/users/edit.xhtml").toArray()));
+        assertEquals(asList("/admin/"), asList(map.getWildCardMatches("/admin/index.xhtml").toArray()));
+        assertEquals(0, map.getWildCardMatches("/index.xhtml").size());
+
+        map.put("/*", singleton(new TestCase(null, "success", null, "/root.xhtml")));
+
+        assertEquals(asList("/admin/", "/"), asList(map.getWildCardMatches("/admin/index.xhtml").toArray()));
+        assertEquals(asList("/"), asList(map.getWildCardMatches("/index.xhtml").toArray()));
+
+        assertAgree(map, "/admin/*");
+        assertAgree(map, "/*");
+    }
+
+    @Test
+    public void testCaseSetModificationsAreSeen() {
+        Set<NavigationCase> caseSet = new LinkedHashSet<>();
+        caseSet.add(new TestCase(null, "success", null, "/first.xhtml"));
+
+        NavigationMap map = new NavigationMap();
+        map.put("/page.xhtml", caseSet);
+        assertAgree(map, "/page.xhtml");
+
+        // The case set is stored as put, so modifications through the caller's reference must be seen.
+        assertSame(caseSet, map.get("/page.xhtml"));
+        caseSet.add(new TestCase("#{bean.save}", "success", null, "/saved.xhtml"));
+        assertAgree(map, "/page.xhtml");
+
+        map.get("/page.xhtml").removeIf(cnc -> "/first.xhtml".equals(cnc.getToViewId(null)));
+        assertAgree(map, "/page.xhtml");
+        assertNull(first(map.getMatchingCases("/page.xhtml", map.get("/page.xhtml"), null, "success")));
+
+        // Same size, different cases.
+        caseSet.clear();
+        caseSet.add(new TestCase(null, "success", null, "/replaced.xhtml"));
+        assertAgree(map, "/page.xhtml");
+        assertEquals("/replaced.xhtml", first(map.getMatchingCases("/page.xhtml", caseSet, null, "success")).getToViewId(null));
+    }
+
+    @Test
+    public void testEntrySetValueIsSeen() {
+        NavigationMap map = new NavigationMap();
+        map.put("/page.xhtml", new LinkedHashSet<>(singleton(new TestCase(null, "success", null, "/first.xhtml"))));
+        assertAgree(map, "/page.xhtml");
+
+        for (Map.Entry<String, Set<NavigationCase>> entry : map.entrySet()) {
+            entry.setValue(new LinkedHashSet<>(singleton(new TestCase(null, "success", null, "/second.xhtml"))));
+        }
+
+        Set<NavigationCase> caseSet = map.get("/page.xhtml");
+        assertEquals("/second.xhtml", first(map.getMatchingCases("/page.xhtml", caseSet, null, "success")).getToViewId(null));
+        assertAgree(map, "/page.xhtml");
+    }
+
+    @Test
+    public void testPutMergesIntoExistingCaseSet() {
+        Set<NavigationCase> caseSet = new LinkedHashSet<>(singleton(new TestCase(null, "success", null, "/first.xhtml")));
+
+        NavigationMap map = new NavigationMap();
+        map.put("/page.xhtml", caseSet);
+        assertAgree(map, "/page.xhtml");
+
+        map.put("/page.xhtml", singleton(new TestCase(null, "failure", null, "/failure.xhtml")));
+        assertSame(caseSet, map.get("/page.xhtml"));
+        assertEquals(2, caseSet.size());
+        assertAgree(map, "/page.xhtml");
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static void assertAgree(NavigationMap map, String fromViewId) {
+        Set<NavigationCase> caseSet = map.get(fromViewId);
+        for (String fromAction : ACTIONS) {
+            for (String outcome : OUTCOMES) {
+                NavigationCase expected = evaluate(caseSet, fromAction, outcome);
+                NavigationCase actual = evaluate(map.getMatchingCases(fromViewId, caseSet, fromAction, outcome), fromAction, outcome);
+                assertSame(fromViewId + " " + fromAction + " " + outcome, expected, actual);
+            }
+        }
+    }
+
+    /**
+     * The selection of the uncompiled lookup: the first matching case, in case set order, whose condition does not
+     * evaluate to false.
+     */
+    private static NavigationCase evaluate(Iterable<NavigationCase> cases, String fromAction, String outcome) {
+        for (NavigationCase cnc : cases) {
+            if (matches(cnc, fromAction, outcome) && !(cnc.hasCondition() && Boolean.FALSE.equals(cnc.getCondition(null)))) {
+                return cnc;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(NavigationCase cnc, String fromAction, String outcome) {
+        boolean actionMatches = cnc.getFromAction() == null || cnc.getFromAction().equals(fromAction);
+        if (cnc.getFromOutcome() != null) {
+            return actionMatches && cnc.getFromOutcome().equals(outcome);
+        }
+        return actionMatches && (outcome != null || cnc.hasCondition());
+    }
+
+    private static NavigationCase first(List<NavigationCase> cases) {
+        return cases.isEmpty() ? null : cases.get(0);
+    }
+
+    private static final class TestCase extends NavigationCase {
+
+        private final String toViewId;
+        private Boolean condition;
+
+        TestCase(String fromAction, String fromOutcome, Boolean condition, String toViewId) {
+            super(null, fromAction, fromOutcome, condition != null ? condition.toString() : null, toViewId, null, false, false);
+            this.toViewId = toViewId;
+            this.condition = condition;
+        }
+
+        void flipCondition() {
+            if (condition != null) {
+                condition = !condition;
+            }
+        }
+
+        @Override
+        public Boolean getCondition(FacesContext context) {
+            return condition;
+        }
+
+        @Override
+        public String getToViewId(FacesContext context) {
+            return toViewId;
+        }
+    }
+}
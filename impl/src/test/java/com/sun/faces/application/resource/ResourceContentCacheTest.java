@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.application.resource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+import com.sun.faces.application.resource.ResourceContentCache.Content;
+import com.sun.faces.application.resource.ResourceContentCache.Encoding;
+
+public class ResourceContentCacheTest {
+
+    private static final byte[] SCRIPT = repeat("function f() { return 'compressible'; }\n", 100).getBytes(UTF_8);
+
+    @Test
+    public void testCompressedVariants() throws IOException {
+        Content content = new ResourceContentCache(1 << 20).add(info("/resources/script.js"), SCRIPT, true);
+
+        assertTrue(content.isCompressed());
+        assertArrayEquals(SCRIPT, content.getBytes(Encoding.IDENTITY));
+        assertArrayEquals(SCRIPT, read(new GZIPInputStream(new ByteArrayInputStream(content.getBytes(Encoding.GZIP)))));
+        assertArrayEquals(SCRIPT, read(new InflaterInputStream(new ByteArrayInputStream(content.getBytes(Encoding.DEFLATE)))));
+    }
+
+    @Test
+    public void testNegotiation() throws IOException {
+        Content content = new ResourceContentCache(1 << 20).add(info("/resources/script.js"), SCRIPT, true);
+
+        assertEquals(Encoding.IDENTITY, content.negotiate(null));
+        assertEquals(Encoding.IDENTITY, content.negotiate(new String[] { "br" }));
+        assertEquals(Encoding.GZIP, content.negotiate(new String[] { "gzip, deflate, br" }));
+        assertEquals(Encoding.GZIP, content.negotiate(new String[] { "*" }));
+        assertEquals(Encoding.DEFLATE, content.negotiate(new String[] { "deflate", "gzip;q=0" }));
+        assertEquals(Encoding.DEFLATE, content.negotiate(new String[] { "gzip; q=0.0, *;q=0.5" }));
+        assertEquals(Encoding.IDENTITY, content.negotiate(new String[] { "*;q=0" }));
+    }
+
+    @Test
+    public void testIncompressibleContent() throws IOException {
+        Content content = new ResourceContentCache(1 << 20).add(info("/resources/image.png"), new byte[] { 1, 2, 3 }, true);
+
+        assertFalse(content.isCompressed());
+        assertEquals(Encoding.IDENTITY, content.negotiate(new String[] { "gzip" }));
+    }
+
+    @Test
+    public void testSizeBound() throws IOException {
+        ResourceContentCache cache = new ResourceContentCache(2500);
+
+        cache.add(info("/resources/a.js"), new byte[1000], false);
+        cache.add(info("/resources/b.js"), new byte[1000], false);
+        assertEquals(2000, cache.size());
+
+        cache.add(info("/resources/c.js"), new byte[1000], false);
+        assertEquals(2000, cache.size());
+
+        cache.add(info("/resources/c.js"), new byte[500], false);
+        assertEquals(1500, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    private static ResourceInfo info(String path) {
+        ResourceInfo info = new ResourceInfo(null, path.substring(path.lastIndexOf('/') + 1), null, null);
+        info.path = path;
+        return info;
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[512];
+        for (int read = in.read(buf); read != -1; read = in.read(buf)) {
+            out.write(buf, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+}
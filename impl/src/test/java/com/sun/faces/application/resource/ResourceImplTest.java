@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.application.resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ResourceImplTest {
+
+    private static final String HASH = "q1w2e3r4t5y6u7i8o9p0aa";
+
+    @Test
+    public void testMatchesEntityTag() {
+        assertTrue(ResourceImpl.matchesEntityTag('"' + HASH + '"', HASH));
+        assertTrue(ResourceImpl.matchesEntityTag("W/\"" + HASH + '"', HASH));
+        assertTrue(ResourceImpl.matchesEntityTag("\"other\", \"" + HASH + '"', HASH));
+        assertTrue(ResourceImpl.matchesEntityTag("*", HASH));
+        assertTrue(ResourceImpl.matchesEntityTag('"' + HASH + "-gzip\"", HASH));
+        assertTrue(ResourceImpl.matchesEntityTag("W/\"" + HASH + "-deflate\"", HASH));
+    }
+
+    @Test
+    public void testDoesNotMatchEntityTag() {
+        assertFalse(ResourceImpl.matchesEntityTag("\"other\"", HASH));
+        assertFalse(ResourceImpl.matchesEntityTag(HASH, HASH));
+        assertFalse(ResourceImpl.matchesEntityTag("W/\"1234-1600000000000\"", HASH));
+        assertFalse(ResourceImpl.matchesEntityTag('"' + HASH + "x\"", HASH));
+        assertFalse(ResourceImpl.matchesEntityTag('"' + HASH + "-br\"", HASH));
+    }
+
+    @Test
+    public void testContentCodedEntityTag() {
+        assertEquals('"' + HASH + "-gzip\"", ResourceImpl.getEntityTag('"' + HASH + '"', "gzip"));
+        assertEquals('"' + HASH + '"', ResourceImpl.getEntityTag('"' + HASH + '"', null));
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.application.resource;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResourceIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIndex() throws Exception {
+        File classes = folder.newFolder("classes");
+        File script = new File(classes, "META-INF/resources/dirlib/1_0/script.js");
+        assertTrue(script.getParentFile().mkdirs());
+        assertTrue(script.createNewFile());
+
+        // no directory entries, as created by some build tools
+        File jar = folder.newFile("library.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            out.putNextEntry(new ZipEntry("META-INF/resources/jarlib/images/logo.png"));
+            out.putNextEntry(new ZipEntry("META-INF/contracts/dark/theme.css"));
+            out.putNextEntry(new ZipEntry("com/example/Bean.class"));
+        }
+
+        Map<String, Set<String>> webapp = new HashMap<>();
+        webapp.put("/resources/", new HashSet<>(asList("/resources/webapplib/", "/resources/site.css")));
+        webapp.put("/resources/webapplib/", Collections.singleton("/resources/webapplib/app.js"));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classes.toURI().toURL(), jar.toURI().toURL() }, null)) {
+            ResourceIndex index = ResourceIndex.build(webapp::get, asList("/resources", "/contracts"), singletonList(loader),
+                    asList("META-INF/resources", "META-INF/contracts"));
+
+            assertNotNull(index);
+            assertTrue(index.mayContain("dirlib"));
+            assertTrue(index.mayContain("script.js"));
+            assertTrue(index.mayContain("jarlib"));
+            assertTrue(index.mayContain("images/logo.png"));
+            assertTrue(index.mayContain("dark"));
+            assertTrue(index.mayContain("theme.css"));
+            assertTrue(index.mayContain("webapplib"));
+            assertTrue(index.mayContain("app.js"));
+            assertTrue(index.mayContain("site.css"));
+
+            assertFalse(index.mayContain("Bean.class"));
+            assertFalse(index.mayContain("random.js"));
+            assertFalse(index.mayContain("images/random.png"));
+        }
+    }
+
+    @Test
+    public void testUnsupportedLocation() throws Exception {
+        ClassLoader loader = new ClassLoader(null) {
+            @Override
+            protected Enumeration<URL> findResources(String name) throws IOException {
+                return Collections.enumeration(singletonList(new URL("http://localhost/" + name)));
+            }
+        };
+
+        assertNull(ResourceIndex.build(path -> null, singletonList("/resources"), singletonList(loader), singletonList("META-INF/resources")));
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.config.manager;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+
+import com.sun.faces.config.manager.documents.DocumentInfo;
+import com.sun.faces.mock.MockServletContext;
+
+import jakarta.faces.component.FacesComponent;
+
+public class ConfigurationSnapshotTest {
+
+    private static final String FACES_CONFIG = "<faces-config xmlns=\"https://jakarta.ee/xml/ns/jakartaee\" version=\"3.0\">"
+            + "<component><component-type>test</component-type><component-class>jakarta.faces.component.UIOutput</component-class></component>"
+            + "</faces-config>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, File> resources = new HashMap<>();
+
+    private final MockServletContext servletContext = new MockServletContext() {
+        @Override
+        public URL getResource(String path) throws MalformedURLException {
+            File resource = resources.get(path);
+            return resource != null ? resource.toURI().toURL() : null;
+        }
+    };
+
+    @Test
+    public void testDocumentsAndAnnotatedClassesAreRestored() throws Exception {
+        File source = writeFacesConfig();
+        File file = new File(folder.getRoot(), "snapshot");
+
+        ConfigurationSnapshot snapshot = ConfigurationSnapshot.load(servletContext, file);
+        assertNull(snapshot.getDocument(source.toURI(), false));
+        snapshot.putDocument(parse(source), false);
+        snapshot.setAnnotatedClasses(Collections.singletonMap(FacesComponent.class, Collections.singleton(String.class)));
+        snapshot.store();
+        assertTrue(file.isFile());
+
+        ConfigurationSnapshot restored = ConfigurationSnapshot.load(servletContext, file);
+        DocumentInfo documentInfo = restored.getDocument(source.toURI(), false);
+        assertNotNull(documentInfo);
+        assertEquals(source.toURI(), documentInfo.getSourceURI());
+        assertEquals("faces-config", documentInfo.getDocument().getDocumentElement().getLocalName());
+        assertEquals("test", documentInfo.getDocument().getElementsByTagNameNS("*", "component-type").item(0).getTextContent());
+
+        Map<Class<? extends Annotation>, Set<Class<?>>> annotatedClasses = restored.getAnnotatedClasses(getClass().getClassLoader());
+        assertEquals(Collections.singleton(String.class), annotatedClasses.get(FacesComponent.class));
+    }
+
+    @Test
+    public void testModifiedDocumentIsNotRestored() throws Exception {
+        File source = writeFacesConfig();
+        File file = new File(folder.getRoot(), "snapshot");
+
+        ConfigurationSnapshot snapshot = ConfigurationSnapshot.load(servletContext, file);
+        snapshot.putDocument(parse(source), false);
+        snapshot.store();
+
+        assertTrue(source.setLastModified(source.lastModified() + 2000));
+        assertNull(ConfigurationSnapshot.load(servletContext, file).getDocument(source.toURI(), false));
+    }
+
+    @Test
+    public void testNonValidatedDocumentIsNotRestoredWhenValidating() throws Exception {
+        File source = writeFacesConfig();
+        File file = new File(folder.getRoot(), "snapshot");
+
+        ConfigurationSnapshot snapshot = ConfigurationSnapshot.load(servletContext, file);
+        snapshot.putDocument(parse(source), false);
+        snapshot.store();
+
+        ConfigurationSnapshot restored = ConfigurationSnapshot.load(servletContext, file);
+        assertNull(restored.getDocument(source.toURI(), true));
+        assertNotNull(restored.getDocument(source.toURI(), false));
+    }
+
+    @Test
+    public void testCorruptSnapshotIsIgnored() throws Exception {
+        File file = folder.newFile("snapshot");
+        Files.write(file.toPath(), "garbage".getBytes(UTF_8));
+
+        ConfigurationSnapshot snapshot = ConfigurationSnapshot.load(servletContext, file);
+        assertNull(snapshot.getAnnotatedClasses(getClass().getClassLoader()));
+
+        snapshot.setAnnotatedClasses(new HashMap<>());
+        snapshot.store();
+        assertFalse(new String(Files.readAllBytes(file.toPath()), UTF_8).equals("garbage"));
+        assertNotNull(ConfigurationSnapshot.load(servletContext, file).getAnnotatedClasses(getClass().getClassLoader()));
+    }
+
+    @Test
+    public void testSnapshotWithInvalidLengthIsIgnored() throws Exception {
+        File file = folder.newFile("snapshot");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file.toPath()))) {
+            out.writeInt(1);
+            out.writeInt(Integer.MAX_VALUE); // Length of the key, far beyond the end of the file.
+        }
+
+        ConfigurationSnapshot snapshot = ConfigurationSnapshot.load(servletContext, file);
+        assertNull(snapshot.getAnnotatedClasses(getClass().getClassLoader()));
+
+        snapshot.setAnnotatedClasses(new HashMap<>());
+        snapshot.store();
+        assertNotNull(ConfigurationSnapshot.load(servletContext, file).getAnnotatedClasses(getClass().getClassLoader()));
+    }
+
+    @Test
+    public void testModifiedWebInfFacesConfigDiscardsSnapshot() throws Exception {
+        File facesConfig = writeFacesConfig();
+        resources.put("/WEB-INF/faces-config.xml", facesConfig);
+        File file = new File(folder.getRoot(), "snapshot");
+
+        ConfigurationSnapshot snapshot = ConfigurationSnapshot.load(servletContext, file);
+        snapshot.setAnnotatedClasses(new HashMap<>());
+        snapshot.store();
+        assertNotNull(ConfigurationSnapshot.load(servletContext, file).getAnnotatedClasses(getClass().getClassLoader()));
+
+        // Same timestamp, different size.
+        long lastModified = facesConfig.lastModified();
+        Files.write(facesConfig.toPath(), (FACES_CONFIG + "\n").getBytes(UTF_8));
+        assertTrue(facesConfig.setLastModified(lastModified));
+        assertNull(ConfigurationSnapshot.load(servletContext, file).getAnnotatedClasses(getClass().getClassLoader()));
+
+        // Absent.
+        snapshot = ConfigurationSnapshot.load(servletContext, file);
+        snapshot.setAnnotatedClasses(new HashMap<>());
+        snapshot.store();
+        assertNotNull(ConfigurationSnapshot.load(servletContext, file).getAnnotatedClasses(getClass().getClassLoader()));
+        resources.clear();
+        assertNull(ConfigurationSnapshot.load(servletContext, file).getAnnotatedClasses(getClass().getClassLoader()));
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private File writeFacesConfig() throws Exception {
+        File source = folder.newFile("faces-config.xml");
+        Files.write(source.toPath(), FACES_CONFIG.getBytes(UTF_8));
+        return source;
+    }
+
+    private static DocumentInfo parse(File source) throws Exception {
+        Document document = DbfFactory.getFactory().newDocumentBuilder().parse(new ByteArrayInputStream(Files.readAllBytes(source.toPath())));
+        return new DocumentInfo(document, source.toURI());
+    }
+
+}
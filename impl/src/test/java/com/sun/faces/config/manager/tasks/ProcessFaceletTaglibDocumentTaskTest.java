@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.config.manager.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.sun.faces.application.ApplicationInstanceFactoryMetadataMap;
+import com.sun.faces.config.InitFacesContext;
+import com.sun.faces.config.manager.documents.DocumentInfo;
+import com.sun.faces.config.processor.AbstractConfigProcessor;
+import com.sun.faces.config.processor.FaceletTaglibConfigProcessor;
+import com.sun.faces.facelets.tag.TagLibrary;
+import com.sun.faces.mock.MockServletContext;
+
+import jakarta.faces.application.ProjectStage;
+
+public class ProcessFaceletTaglibDocumentTaskTest {
+
+    private static final String NAMESPACE = "https://jakarta.ee/xml/ns/jakartaee";
+
+    private static final String[][] FUNCTIONS = {
+            { "java.lang.Math", "double abs(double)" },
+            { "java.lang.Integer", "int parseInt(java.lang.String)" },
+            { "java.lang.Long", "long parseLong(java.lang.String)" },
+            { "java.lang.String", "java.lang.String valueOf(int)" },
+            { "java.lang.Boolean", "boolean parseBoolean(java.lang.String)" },
+            { "java.lang.Double", "double parseDouble(java.lang.String)" },
+            { "java.lang.Character", "boolean isDigit(char)" },
+            { "java.util.Objects", "boolean isNull(java.lang.Object)" } };
+
+    @Test
+    public void testConcurrentTaglibsInDocumentOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                MockServletContext servletContext = new MockServletContext();
+                servletContext.setAttribute(AbstractConfigProcessor.class.getName() + ".PROJECTSTAGE", ProjectStage.Production);
+                InitFacesContext facesContext = new InitFacesContext(servletContext);
+
+                try {
+                    FaceletTaglibConfigProcessor processor = new FaceletTaglibConfigProcessor();
+                    List<Future<TagLibrary>> taglibs = new ArrayList<>();
+                    for (int i = 0; i < FUNCTIONS.length; i++) {
+                        taglibs.add(executor.submit(new ProcessFaceletTaglibDocumentTask(processor, servletContext, facesContext, createTaglib(i), null)));
+                    }
+
+                    for (int i = 0; i < FUNCTIONS.length; i++) {
+                        TagLibrary taglib = taglibs.get(i).get();
+                        assertTrue(taglib.containsNamespace(getNamespace(i), null));
+                        assertTrue(taglib.containsFunction(getNamespace(i), "f" + i));
+                        assertFalse(taglib.containsFunction(getNamespace(i), "f" + (i + 1)));
+                    }
+
+                    // All threads must have shared a single class metadata map.
+                    Map<?, ?> classMetadataMaps = (Map<?, ?>) servletContext.getAttribute(AbstractConfigProcessor.class.getName() + ".CLASS_METADATA_MAPS");
+                    assertEquals(1, classMetadataMaps.size());
+                    ApplicationInstanceFactoryMetadataMap<?, ?> classMetadataMap = (ApplicationInstanceFactoryMetadataMap<?, ?>) classMetadataMaps.values()
+                            .iterator().next();
+                    for (String[] function : FUNCTIONS) {
+                        assertTrue(function[0], classMetadataMap.containsKey(function[0]));
+                    }
+                } finally {
+                    facesContext.release();
+                    InitFacesContext.cleanupInitMaps(servletContext);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static String getNamespace(int i) {
+        return "http://example.com/taglib" + i;
+    }
+
+    private static DocumentInfo createTaglib(int i) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().newDocument();
+
+        Element taglib = document.createElementNS(NAMESPACE, "facelet-taglib");
+        document.appendChild(taglib);
+        append(taglib, "namespace", getNamespace(i));
+
+        Element function = document.createElementNS(NAMESPACE, "function");
+        taglib.appendChild(function);
+        append(function, "function-name", "f" + i);
+        append(function, "function-class", FUNCTIONS[i][0]);
+        append(function, "function-signature", FUNCTIONS[i][1]);
+
+        return new DocumentInfo(document, new URI("test:/taglib" + i + ".taglib.xml"));
+    }
+
+    private static void append(Element parent, String name, String text) {
+        Element element = parent.getOwnerDocument().createElementNS(NAMESPACE, name);
+        element.setTextContent(text);
+        parent.appendChild(element);
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.context;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.PartialViewContext;
+import jakarta.faces.event.PhaseId;
+
+public class PartialViewContextImplTest {
+
+    /**
+     * A render-only Ajax request, such as one sent by <code>&lt;f:ajax execute="@none"&gt;</code>, must not visit the
+     * view during the execute phases.
+     */
+    @Test
+    public void testNoExecuteIdsSkipsExecutePhases() {
+        FacesContext context = createMock(FacesContext.class);
+        PartialViewContext partialViewContext = createMock(PartialViewContext.class);
+        UIViewRoot viewRoot = createMock(UIViewRoot.class);
+        expect(context.getPartialViewContext()).andReturn(partialViewContext).times(3);
+        expect(context.getViewRoot()).andReturn(viewRoot).times(3);
+        expect(partialViewContext.getExecuteIds()).andReturn(Collections.<String>emptyList()).times(3);
+        expect(partialViewContext.getRenderIds()).andReturn(Collections.singletonList("form:panel")).times(3);
+        replay(context, partialViewContext, viewRoot);
+
+        PartialViewContextImpl partialViewContextImpl = new PartialViewContextImpl(context);
+        partialViewContextImpl.processPartial(PhaseId.APPLY_REQUEST_VALUES);
+        partialViewContextImpl.processPartial(PhaseId.PROCESS_VALIDATIONS);
+        partialViewContextImpl.processPartial(PhaseId.UPDATE_MODEL_VALUES);
+
+        verify(context, partialViewContext, viewRoot);
+    }
+
+}
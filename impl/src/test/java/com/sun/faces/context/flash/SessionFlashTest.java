@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.context.flash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sun.faces.mock.MockApplication;
+import com.sun.faces.mock.MockExternalContext;
+import com.sun.faces.mock.MockFacesContext;
+import com.sun.faces.mock.MockHttpServletRequest;
+import com.sun.faces.mock.MockHttpServletResponse;
+import com.sun.faces.mock.MockHttpSession;
+import com.sun.faces.mock.MockServletContext;
+
+import jakarta.faces.application.FacesMessage;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.PhaseId;
+import jakarta.faces.lifecycle.ClientWindow;
+
+public class SessionFlashTest {
+
+    private final MockServletContext servletContext = new MockServletContext();
+    private final MockHttpSession session = new MockHttpSession();
+    private final SessionFlash flash = new SessionFlash(2);
+
+    @After
+    public void tearDown() {
+        FacesContext context = FacesContext.getCurrentInstance();
+        if (context != null) {
+            context.release();
+        }
+    }
+
+    @Test
+    public void testValueIsAvailableInNextRequestOnly() {
+        MockFacesContext context = startRequest(null);
+        flash.put("foo", "bar");
+        assertEquals("bar", flash.get("foo"));
+        endRequest(context);
+
+        context = startRequest(null);
+        assertEquals("bar", flash.get("foo"));
+        endRequest(context);
+
+        startRequest(null);
+        assertNull(flash.get("foo"));
+        assertNull(session.getAttribute(SessionFlash.STORE_ATTRIBUTE_NAME));
+    }
+
+    @Test
+    public void testValuePutDuringRenderResponseIsNotAvailableInCurrentRequest() {
+        MockFacesContext context = startRequest(null);
+        context.setCurrentPhaseId(PhaseId.RENDER_RESPONSE);
+        flash.put("foo", "bar");
+        assertNull(flash.get("foo"));
+        assertTrue(flash.keySet().contains("foo"));
+        endRequest(context);
+
+        startRequest(null);
+        assertEquals("bar", flash.get("foo"));
+    }
+
+    @Test
+    public void testEmptyFlashDoesNotTouchSession() {
+        MockFacesContext context = startRequest(null);
+        assertTrue(flash.isEmpty());
+        endRequest(context);
+
+        assertNull(session.getAttribute(SessionFlash.STORE_ATTRIBUTE_NAME));
+    }
+
+    @Test
+    public void testKeep() {
+        MockFacesContext context = startRequest(null);
+        flash.put("foo", "bar");
+        endRequest(context);
+
+        context = startRequest(null);
+        flash.keep("foo");
+        endRequest(context);
+
+        startRequest(null);
+        assertEquals("bar", flash.get("foo"));
+    }
+
+    @Test
+    public void testFlashIsBoundToClientWindow() {
+        MockFacesContext context = startRequest("one");
+        flash.put("foo", "one");
+        endRequest(context);
+
+        context = startRequest("two");
+        flash.put("foo", "two");
+        endRequest(context);
+
+        context = startRequest("two");
+        assertEquals("two", flash.get("foo"));
+        endRequest(context);
+
+        startRequest("one");
+        assertEquals("one", flash.get("foo"));
+    }
+
+    @Test
+    public void testLeastRecentlyWrittenWindowIsDropped() {
+        for (String window : new String[] { "one", "two", "three" }) {
+            MockFacesContext context = startRequest(window);
+            flash.put("foo", window);
+            endRequest(context);
+        }
+
+        MockFacesContext context = startRequest("one");
+        assertNull(flash.get("foo"));
+        endRequest(context);
+
+        startRequest("three");
+        assertEquals("three", flash.get("foo"));
+    }
+
+    @Test
+    public void testKeepMessages() {
+        MockFacesContext context = startRequest(null);
+        flash.setKeepMessages(true);
+        context.addMessage(null, new FacesMessage("message"));
+        endRequest(context);
+
+        context = startRequest(null);
+        flash.doPrePhaseActions(context);
+        assertEquals("message", ((FacesMessage) context.getMessages().next()).getSummary());
+        assertFalse(flash.isKeepMessages());
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private MockFacesContext startRequest(String windowId) {
+        FacesContext previous = FacesContext.getCurrentInstance();
+        if (previous != null) {
+            previous.release();
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest(session);
+        MockFacesContext context = new MockFacesContext(new MockExternalContext(servletContext, request, new MockHttpServletResponse()) {
+
+            @Override
+            public Object getSession(boolean create) {
+                return request.getSession(create);
+            }
+
+            @Override
+            public ClientWindow getClientWindow() {
+                return windowId == null ? null : new TestClientWindow(windowId);
+            }
+        });
+        context.setApplication(new MockApplication());
+
+        return context;
+    }
+
+    private void endRequest(MockFacesContext context) {
+        context.setCurrentPhaseId(PhaseId.RENDER_RESPONSE);
+        flash.doPostPhaseActions(context);
+    }
+
+    private static class TestClientWindow extends ClientWindow {
+
+        private final String id;
+
+        TestClientWindow(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public Map<String, String> getQueryURLParameters(FacesContext context) {
+            return null;
+        }
+
+        @Override
+        public void decode(FacesContext context) {
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.el;
+
+import static com.sun.faces.el.FacesCompositeELResolver.ELResolverChainType.Faces;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.FeatureDescriptor;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import jakarta.el.BeanELResolver;
+import jakarta.el.ELContext;
+import jakarta.el.ELResolver;
+import jakarta.el.FunctionMapper;
+import jakarta.el.MapELResolver;
+import jakarta.el.VariableMapper;
+
+public class DemuxCompositeELResolverTest {
+
+    @Test
+    public void testInlineCacheSkipsResolversAheadOfCachedResolver() {
+        CountingELResolver counting = new CountingELResolver(null);
+        DemuxCompositeELResolver resolver = createResolver(counting);
+        ELContext context = new TestELContext(resolver);
+        Bean bean = new Bean();
+
+        assertEquals("value", resolver.getValue(context, bean, "property"));
+        assertTrue(context.isPropertyResolved());
+        assertEquals(1, counting.invocations);
+
+        assertEquals("value", resolver.getValue(context, bean, "property"));
+        assertTrue(context.isPropertyResolved());
+        assertEquals(1, counting.invocations);
+    }
+
+    @Test
+    public void testInlineCacheIsPerProperty() {
+        CountingELResolver counting = new CountingELResolver("special");
+        DemuxCompositeELResolver resolver = createResolver(counting);
+        ELContext context = new TestELContext(resolver);
+        Bean bean = new Bean();
+
+        assertEquals("value", resolver.getValue(context, bean, "property"));
+        assertEquals("counted", resolver.getValue(context, bean, "special"));
+        assertEquals("counted", resolver.getValue(context, bean, "special"));
+        assertEquals("value", resolver.getValue(context, bean, "property"));
+    }
+
+    @Test
+    public void testInlineCacheFallsBackToChain() {
+        CountingELResolver counting = new CountingELResolver("special");
+        DemuxCompositeELResolver resolver = createResolver(counting);
+        ELContext context = new TestELContext(resolver);
+        Bean bean = new Bean();
+
+        assertEquals("counted", resolver.getValue(context, bean, "special"));
+
+        // The cached resolver no longer resolves the property, so the rest of the chain must be walked.
+        counting.resolvedProperty = null;
+        assertEquals("value", resolver.getValue(context, bean, "special"));
+        assertTrue(context.isPropertyResolved());
+        assertEquals("value", resolver.getValue(context, Collections.singletonMap("special", "value"), "special"));
+    }
+
+    @Test
+    public void testInlineCacheDisabled() {
+        CountingELResolver counting = new CountingELResolver(null);
+        DemuxCompositeELResolver resolver = createResolver(counting);
+        resolver.setInlineCacheEnabled(false);
+        ELContext context = new TestELContext(resolver);
+
+        resolver.getValue(context, new Bean(), "property");
+        resolver.getValue(context, new Bean(), "property");
+        assertEquals(2, counting.invocations);
+        assertNull(resolver.getValue(context, null, "property"));
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static DemuxCompositeELResolver createResolver(ELResolver first) {
+        DemuxCompositeELResolver resolver = new DemuxCompositeELResolver(Faces);
+        resolver.setInlineCacheEnabled(true);
+        resolver.addPropertyELResolver(first);
+        resolver.addPropertyELResolver(new MapELResolver());
+        resolver.addPropertyELResolver(new BeanELResolver());
+        return resolver;
+    }
+
+    public static class Bean {
+
+        public String getProperty() {
+            return "value";
+        }
+
+        public String getSpecial() {
+            return "value";
+        }
+    }
+
+    private static class CountingELResolver extends ELResolver {
+
+        private String resolvedProperty;
+        private int invocations;
+
+        CountingELResolver(String resolvedProperty) {
+            this.resolvedProperty = resolvedProperty;
+        }
+
+        @Override
+        public Object getValue(ELContext context, Object base, Object property) {
+            invocations++;
+            if (property.equals(resolvedProperty)) {
+                context.setPropertyResolved(true);
+                return "counted";
+            }
+            return null;
+        }
+
+        @Override
+        public Class<?> getType(ELContext context, Object base, Object property) {
+            return null;
+        }
+
+        @Override
+        public void setValue(ELContext context, Object base, Object property, Object value) {
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context, Object base, Object property) {
+            return false;
+        }
+
+        @Override
+        public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base) {
+            return null;
+        }
+
+        @Override
+        public Class<?> getCommonPropertyType(ELContext context, Object base) {
+            return null;
+        }
+    }
+
+    private static class TestELContext extends ELContext {
+
+        private final ELResolver resolver;
+
+        TestELContext(ELResolver resolver) {
+            this.resolver = resolver;
+        }
+
+        @Override
+        public ELResolver getELResolver() {
+            return resolver;
+        }
+
+        @Override
+        public FunctionMapper getFunctionMapper() {
+            return null;
+        }
+
+        @Override
+        public VariableMapper getVariableMapper() {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.el;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import jakarta.el.ELContext;
+import jakarta.el.ELException;
+import jakarta.el.ELResolver;
+import jakarta.el.FunctionMapper;
+import jakarta.el.VariableMapper;
+
+public class MethodHandleBeanELResolverTest {
+
+    private final MethodHandleBeanELResolver resolver = new MethodHandleBeanELResolver();
+
+    @Test
+    public void testGetAndSetValue() {
+        Bean bean = new Bean();
+
+        ELContext context = newContext();
+        resolver.setValue(context, bean, "name", "foo");
+        assertTrue(context.isPropertyResolved());
+
+        context = newContext();
+        assertEquals("foo", resolver.getValue(context, bean, "name"));
+        assertTrue(context.isPropertyResolved());
+
+        context = newContext();
+        resolver.setValue(context, bean, "count", 42);
+        assertEquals(42, resolver.getValue(context, bean, "count"));
+    }
+
+    @Test
+    public void testTypeAndReadOnly() {
+        Bean bean = new Bean();
+
+        ELContext context = newContext();
+        assertSame(int.class, resolver.getType(context, bean, "count"));
+        assertTrue(context.isPropertyResolved());
+
+        assertFalse(resolver.isReadOnly(newContext(), bean, "name"));
+        assertTrue(resolver.isReadOnly(newContext(), bean, "readOnly"));
+    }
+
+    @Test
+    public void testUnknownOrUnreadablePropertyIsLeftToChain() {
+        Bean bean = new Bean();
+
+        ELContext context = newContext();
+        assertNull(resolver.getValue(context, bean, "unknown"));
+        assertFalse(context.isPropertyResolved());
+
+        context = newContext();
+        resolver.setValue(context, bean, "readOnly", "foo");
+        assertFalse(context.isPropertyResolved());
+
+        context = newContext();
+        assertNull(resolver.getValue(context, null, "name"));
+        assertFalse(context.isPropertyResolved());
+    }
+
+    @Test
+    public void testNonPublicClassIsAccessedThroughPublicInterface() {
+        ELContext context = newContext();
+        assertEquals("hidden", resolver.getValue(context, Named.create(), "name"));
+        assertTrue(context.isPropertyResolved());
+    }
+
+    @Test
+    public void testExceptionIsWrapped() {
+        try {
+            resolver.getValue(newContext(), new Bean(), "failing");
+            fail();
+        } catch (ELException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static ELContext newContext() {
+        return new ELContext() {
+
+            @Override
+            public ELResolver getELResolver() {
+                return null;
+            }
+
+            @Override
+            public FunctionMapper getFunctionMapper() {
+                return null;
+            }
+
+            @Override
+            public VariableMapper getVariableMapper() {
+                return null;
+            }
+        };
+    }
+
+    public static class Bean {
+
+        private String name;
+        private int count;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getReadOnly() {
+            return "readOnly";
+        }
+
+        public String getFailing() {
+            throw new IllegalStateException();
+        }
+    }
+
+    public interface Named {
+
+        String getName();
+
+        static Named create() {
+            return new HiddenNamed();
+        }
+    }
+
+    private static class HiddenNamed implements Named {
+
+        @Override
+        public String getName() {
+            return "hidden";
+        }
+    }
+
+}
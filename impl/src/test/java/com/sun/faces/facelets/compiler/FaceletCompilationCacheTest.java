@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.facelets.compiler;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.sun.faces.config.WebConfiguration;
+import com.sun.faces.facelets.tag.jsf.TagHandlerDelegateFactoryImpl;
+import com.sun.faces.facelets.tag.jsf.html.HtmlLibrary;
+import com.sun.faces.mock.MockFacesContext;
+import com.sun.faces.mock.MockServletContext;
+
+import jakarta.faces.FactoryFinder;
+import jakarta.faces.view.facelets.FaceletException;
+
+public class FaceletCompilationCacheTest {
+
+    private static final String DOCUMENT = "<?xml version='1.0' encoding='UTF-8' ?>\n"
+            + "<html xmlns=\"http://www.w3.org/1999/xhtml\" xmlns:h=\"http://java.sun.com/jsf/html\">\n"
+            + "<!-- comment -->\n"
+            + "<h:outputText value=\"#{bean.value}\" escape=\"false\"/>\n"
+            + "<script><![CDATA[ if (a < b) {} ]]></script>\n"
+            + "<?php echo 'pi' ?>\n"
+            + "</html>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        FactoryFinder.releaseFactories();
+    }
+
+    @Test
+    public void testRecordAndReplay() throws Exception {
+        File source = folder.newFile("page.xhtml");
+        Files.write(source.toPath(), DOCUMENT.getBytes(UTF_8));
+        URL url = source.toURI().toURL();
+        FaceletCompilationCache cache = new FaceletCompilationCache(folder.newFolder("cache"));
+
+        assertNull(cache.get(url, 1));
+
+        EventCollector parsed = new EventCollector();
+        FaceletCompilationCache.Recorder recorder = cache.createRecorder(url, 1, "<?xml version='1.0' encoding='UTF-8' ?>", parsed);
+        parse(url, recorder);
+        recorder.store();
+
+        FaceletCompilationCache.Recording recording = cache.get(url, 1);
+        assertNotNull(recording);
+        assertEquals("<?xml version='1.0' encoding='UTF-8' ?>", recording.getXmlDeclaration());
+
+        EventCollector replayed = new EventCollector();
+        recording.replay(replayed);
+        assertEquals(parsed.events, replayed.events);
+
+        // a different parser fingerprint must not match
+        assertNull(cache.get(url, 2));
+    }
+
+    @Test
+    public void testModifiedDocumentIsNotReplayed() throws Exception {
+        File source = folder.newFile("page.xhtml");
+        Files.write(source.toPath(), DOCUMENT.getBytes(UTF_8));
+        URL url = source.toURI().toURL();
+        FaceletCompilationCache cache = new FaceletCompilationCache(folder.newFolder("cache"));
+
+        FaceletCompilationCache.Recorder recorder = cache.createRecorder(url, 1, null, new EventCollector());
+        parse(url, recorder);
+        recorder.store();
+        assertNotNull(cache.get(url, 1));
+
+        source.setLastModified(source.lastModified() + 10000);
+        assertNull(cache.get(url, 1));
+    }
+
+    @Test
+    public void testPrecompiled() throws Exception {
+        File source = folder.newFile("page.xhtml");
+        Files.write(source.toPath(), DOCUMENT.getBytes(UTF_8));
+        URL url = source.toURI().toURL();
+        File entry = new File(folder.newFolder("precompiled"), "page.xhtml" + FaceletCompilationCache.SUFFIX);
+
+        createCompiler().precompile(url, "/page.xhtml", entry);
+
+        EventCollector parsed = new EventCollector();
+        parse(url, parsed);
+
+        int fingerprint = SAXCompiler.getParserFingerprint(false, false, false);
+        FaceletCompilationCache.Checksums checksums = new FaceletCompilationCache.Checksums();
+        FaceletCompilationCache.Recording recording = FaceletCompilationCache.getPrecompiled(entry.toURI().toURL(), url, "/page.xhtml", fingerprint, checksums);
+        assertNotNull(recording);
+        assertEquals("<?xml version='1.0' encoding='UTF-8' ?>", recording.getXmlDeclaration());
+
+        EventCollector replayed = new EventCollector();
+        recording.replay(replayed);
+        assertEquals(parsed.events, replayed.events);
+
+        // the entry is bound to the alias, the parser settings and the content of the document
+        assertNull(FaceletCompilationCache.getPrecompiled(entry.toURI().toURL(), url, "/other.xhtml", fingerprint, checksums));
+        assertNull(FaceletCompilationCache.getPrecompiled(entry.toURI().toURL(), url, "/page.xhtml", SAXCompiler.getParserFingerprint(false, true, true), checksums));
+        Files.write(source.toPath(), DOCUMENT.replace("comment", "changed").getBytes(UTF_8));
+        source.setLastModified(source.lastModified() + 10000);
+        assertNull(FaceletCompilationCache.getPrecompiled(entry.toURI().toURL(), url, "/page.xhtml", fingerprint, checksums));
+    }
+
+    @Test(expected = FaceletException.class)
+    public void testPrecompileUnknownTag() throws Exception {
+        File source = folder.newFile("page.xhtml");
+        Files.write(source.toPath(), DOCUMENT.replace("h:outputText", "h:outputTxt").getBytes(UTF_8));
+        File entry = new File(folder.newFolder("precompiled"), "page.xhtml" + FaceletCompilationCache.SUFFIX);
+
+        createCompiler().precompile(source.toURI().toURL(), "/page.xhtml", entry);
+    }
+
+    private static SAXCompiler createCompiler() {
+        // precompilation runs without a FacesContext, clear the one left over by other tests
+        new MockFacesContext().release();
+        FactoryFinder.setFactory(FactoryFinder.TAG_HANDLER_DELEGATE_FACTORY, TagHandlerDelegateFactoryImpl.class.getName());
+        SAXCompiler compiler = new SAXCompiler();
+        compiler.setWebConfiguration(WebConfiguration.getInstance(new MockServletContext()));
+        compiler.addTagLibrary(new HtmlLibrary());
+        return compiler;
+    }
+
+    private static void parse(URL url, DefaultHandler handler) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+        SAXParser parser = factory.newSAXParser();
+        parser.getXMLReader().setProperty("http://xml.org/sax/properties/lexical-handler", handler);
+        try (InputStream is = url.openStream()) {
+            parser.parse(is, handler);
+        }
+    }
+
+    private static class EventCollector extends DefaultHandler implements LexicalHandler {
+
+        private final List<String> events = new ArrayList<>();
+        private Locator locator;
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void startDocument() {
+            events.add("startDocument");
+        }
+
+        @Override
+        public void endDocument() {
+            events.add("endDocument");
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            events.add("startPrefixMapping " + prefix + " " + uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) {
+            events.add("endPrefixMapping " + prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            StringBuilder sb = new StringBuilder("startElement ").append(uri).append(' ').append(qName);
+            sb.append(" @").append(locator.getLineNumber()).append(':').append(locator.getColumnNumber());
+            for (int i = 0; i < attributes.getLength(); i++) {
+                sb.append(' ').append(attributes.getQName(i)).append('=').append(attributes.getValue(i));
+            }
+            events.add(sb.toString());
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            events.add("endElement " + qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            events.add("characters " + new String(ch, start, length));
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) {
+            events.add("processingInstruction " + target + " " + data);
+        }
+
+        @Override
+        public void startDTD(String name, String publicId, String systemId) {
+            events.add("startDTD " + name);
+        }
+
+        @Override
+        public void endDTD() {
+            events.add("endDTD");
+        }
+
+        @Override
+        public void startEntity(String name) {
+        }
+
+        @Override
+        public void endEntity(String name) {
+        }
+
+        @Override
+        public void startCDATA() {
+            events.add("startCDATA");
+        }
+
+        @Override
+        public void endCDATA() {
+            events.add("endCDATA");
+        }
+
+        @Override
+        public void comment(char[] ch, int start, int length) {
+            events.add("comment " + new String(ch, start, length));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.facelets.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jakarta.faces.view.facelets.FaceletCache;
+
+public class DefaultFaceletCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAsynchronousRefresh() throws Exception {
+        File file = folder.newFile("page.xhtml");
+        URL url = file.toURI().toURL();
+
+        AtomicInteger created = new AtomicInteger();
+        FaceletCache.MemberFactory<DefaultFacelet> factory = key -> {
+            created.incrementAndGet();
+            return null;
+        };
+        DefaultFaceletCache cache = new DefaultFaceletCache(20, executor);
+        cache.setCacheFactories(factory, factory);
+
+        cache.getFacelet(url);
+        cache.getFacelet(url);
+        assertEquals(1, created.get());
+        assertTrue(cache.isFaceletCached(url));
+
+        // the request thread doesn't notice the modification until the refresher did
+        assertTrue(file.setLastModified(file.lastModified() + 10000));
+        long timeout = System.currentTimeMillis() + 5000;
+        while (cache.isFaceletCached(url) && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertFalse(cache.isFaceletCached(url));
+
+        cache.getFacelet(url);
+        assertEquals(2, created.get());
+        assertTrue(cache.isFaceletCached(url));
+    }
+
+    @Test
+    public void testRefreshCancelledWithUnusedCache() throws Exception {
+        new DefaultFaceletCache(20, executor);
+        assertEquals(1, executor.getQueue().size());
+
+        Future<?> refresh = (Future<?>) executor.getQueue().peek();
+        long timeout = System.currentTimeMillis() + 5000;
+        while (!refresh.isCancelled() && System.currentTimeMillis() < timeout) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertTrue(refresh.isCancelled());
+    }
+
+    @Test
+    public void testBoundedCacheStatistics() throws Exception {
+        URL first = folder.newFile("first.xhtml").toURI().toURL();
+        URL second = folder.newFile("second.xhtml").toURI().toURL();
+        URL third = folder.newFile("third.xhtml").toURI().toURL();
+
+        FaceletCache.MemberFactory<DefaultFacelet> factory = key -> null;
+        FaceletCacheStatistics statistics = new FaceletCacheStatistics();
+        DefaultFaceletCache cache = new DefaultFaceletCache(-1, null, 2, 1, statistics);
+        cache.setCacheFactories(factory, factory);
+
+        cache.getFacelet(first);
+        cache.getFacelet(second);
+        cache.getFacelet(first);
+        cache.getFacelet(third);
+
+        // second is the least recently used
+        assertTrue(cache.isFaceletCached(first));
+        assertFalse(cache.isFaceletCached(second));
+        assertTrue(cache.isFaceletCached(third));
+        assertEquals(1, statistics.getFaceletHits());
+        assertEquals(3, statistics.getFaceletMisses());
+        assertEquals(1, statistics.getFaceletEvictions());
+
+        cache.getViewMetadataFacelet(first);
+        cache.getViewMetadataFacelet(second);
+        assertFalse(cache.isViewMetadataFaceletCached(first));
+        assertTrue(cache.isViewMetadataFaceletCached(second));
+        assertEquals(2, statistics.getMetadataFaceletMisses());
+        assertEquals(1, statistics.getMetadataFaceletEvictions());
+
+        statistics.reset();
+        assertEquals(0, statistics.getFaceletMisses());
+    }
+}
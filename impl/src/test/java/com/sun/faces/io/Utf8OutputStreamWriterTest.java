@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class Utf8OutputStreamWriterTest {
+
+    private static final String MIXED = "ascii éß €中 😀 end";
+
+    @Test
+    public void testEncodingMatchesCharset() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8OutputStreamWriter writer = new Utf8OutputStreamWriter(out);
+
+        writer.write(MIXED);
+        writer.write(MIXED.toCharArray(), 0, MIXED.length());
+        for (int i = 0; i < MIXED.length(); i++) {
+            writer.write(MIXED.charAt(i));
+        }
+        writer.flush();
+
+        assertArrayEquals((MIXED + MIXED + MIXED).getBytes(UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void testLongContent() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append(MIXED);
+        }
+        String text = builder.toString();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8OutputStreamWriter writer = new Utf8OutputStreamWriter(out);
+        writer.write(text);
+        writer.flush();
+
+        assertEquals(text, new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testSurrogatePairSplitAcrossWrites() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8OutputStreamWriter writer = new Utf8OutputStreamWriter(out);
+
+        writer.write("a\ud83d");
+        writer.write("\ude00b");
+        writer.flush();
+
+        assertEquals("a😀b", new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testUnpairedSurrogates() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8OutputStreamWriter writer = new Utf8OutputStreamWriter(out);
+
+        writer.write("a\ude00b\ud83dc");
+        writer.write("\ud83d");
+        writer.close();
+
+        assertEquals("a?b?c?", new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testWriteEncoded() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8OutputStreamWriter writer = new Utf8OutputStreamWriter(out);
+        EncodedText text = new EncodedText("<p>€</p>");
+
+        writer.write("before ");
+        text.write(writer);
+        writer.write(" after");
+        writer.flush();
+
+        assertEquals("before <p>€</p> after", new String(out.toByteArray(), UTF_8));
+        assertSame(text.getBytes(), text.getBytes());
+    }
+
+    @Test
+    public void testBufferedUntilFlush() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8OutputStreamWriter writer = new Utf8OutputStreamWriter(out);
+
+        writer.write("a");
+        writer.write("é".toCharArray(), 0, 1);
+        writer.write('€');
+        new EncodedText("<p/>").write(writer);
+        assertEquals(0, out.size());
+
+        writer.flushBuffer();
+        assertEquals("aé€<p/>", new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testEncodedTextLargerThanBuffer() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            builder.append(MIXED);
+        }
+        String text = builder.toString();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8OutputStreamWriter writer = new Utf8OutputStreamWriter(out);
+        writer.write("before ");
+        new EncodedText(text).write(writer);
+        writer.write(" after");
+        writer.close();
+
+        assertEquals("before " + text + " after", new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testEncodedTextFallsBackToCharacters() throws IOException {
+        FastStringWriter writer = new FastStringWriter();
+
+        new EncodedText("<p>€</p>").write(writer);
+
+        assertEquals("<p>€</p>", writer.toString());
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.lifecycle;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import com.sun.faces.util.LatencyHistogram;
+
+import jakarta.faces.component.UIOutput;
+import jakarta.faces.component.UIPanel;
+import jakarta.faces.event.PhaseId;
+
+public class LifecycleStatisticsTest {
+
+    @Test
+    public void testPhaseLatencies() {
+        LifecycleStatistics statistics = new LifecycleStatistics(Collections.emptyList());
+        assertEquals(Collections.emptyMap(), statistics.getPhaseLatencyMedians("/index.xhtml"));
+
+        for (int i = 0; i < 99; i++) {
+            statistics.phaseCompleted("/index.xhtml", PhaseId.RENDER_RESPONSE, 50_000);
+        }
+        statistics.phaseCompleted("/index.xhtml", PhaseId.RENDER_RESPONSE, 10_000_000_000L);
+        statistics.phaseCompleted("/index.xhtml", PhaseId.RESTORE_VIEW, 1_000_000);
+
+        assertEquals(Collections.singleton("/index.xhtml"), statistics.getViewIds());
+        assertEquals(Long.valueOf(64), statistics.getPhaseLatencyMedians("/index.xhtml").get("RENDER_RESPONSE"));
+        assertEquals(Long.valueOf(64), statistics.getPhaseLatency99thPercentiles("/index.xhtml").get("RENDER_RESPONSE"));
+        assertEquals(Long.valueOf(1024), statistics.getPhaseLatencyMedians("/index.xhtml").get("RESTORE_VIEW"));
+        assertEquals(1, statistics.getPhaseLatencyHistogram("/index.xhtml", "RENDER_RESPONSE")[LatencyHistogram.getBucket(10_000_000)]);
+        assertEquals(2, statistics.getPhaseLatencyMedians("/index.xhtml").size());
+
+        statistics.reset();
+        assertTrue(statistics.getViewIds().isEmpty());
+        assertArrayEquals(new long[20], statistics.getPhaseLatencyHistogram("/index.xhtml", "RENDER_RESPONSE"));
+    }
+
+    @Test
+    public void testViewRendered() {
+        LifecycleStatistics statistics = new LifecycleStatistics(Collections.emptyList());
+        statistics.viewRendered("/index.xhtml", 10, 100, 1000);
+        statistics.viewRendered("/index.xhtml", 20, -1, 3000);
+        statistics.viewRendered("/index.xhtml", -1, -1, 2000);
+
+        assertEquals(Collections.singletonMap("/index.xhtml", 3L), statistics.getRenderedViews());
+        assertEquals(Collections.singletonMap("/index.xhtml", 15.0), statistics.getAverageComponentCounts());
+        assertEquals(Collections.singletonMap("/index.xhtml", 100.0), statistics.getAverageStateSizes());
+        assertEquals(Collections.singletonMap("/index.xhtml", 2000.0), statistics.getAverageResponseLengths());
+    }
+
+    @Test
+    public void testComponentCount() {
+        UIPanel panel = new UIPanel();
+        panel.getChildren().add(new UIOutput());
+        panel.getChildren().add(new UIOutput());
+        panel.getFacets().put("header", new UIOutput());
+
+        assertEquals(4, LifecycleStatistics.getComponentCount(panel));
+    }
+
+    @Test
+    public void testRegisterAsMXBean() throws Exception {
+        LifecycleStatistics statistics = new LifecycleStatistics(Collections.emptyList());
+        statistics.register("/test");
+
+        try {
+            ObjectName name = new ObjectName("com.sun.faces:type=Lifecycle,application=" + ObjectName.quote("/test"));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertTrue(server.isRegistered(name));
+            assertTrue(server.getAttribute(name, "RenderedViews") instanceof TabularData);
+        } finally {
+            statistics.unregister();
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.sun.faces.spi.PushBroker;
+import com.sun.faces.spi.PushBroker.Message;
+
+public class PushBrokerTest {
+
+    @Test
+    public void testLoopbackDeliversToOtherBrokersOnly() {
+        List<Message> receivedByA = new ArrayList<>();
+        List<Message> receivedByB = new ArrayList<>();
+        LoopbackPushBroker a = new LoopbackPushBroker();
+        LoopbackPushBroker b = new LoopbackPushBroker();
+        a.start(receivedByA::addAll);
+        b.start(receivedByB::addAll);
+
+        try {
+            Message message = new Message("channel", null, "user", "{\"data\":1}");
+            a.publish(Collections.singletonList(message));
+
+            assertTrue(receivedByA.isEmpty());
+            assertEquals(Collections.singletonList(message), receivedByB);
+
+            b.stop();
+            a.publish(Collections.singletonList(message));
+            assertEquals(1, receivedByB.size());
+        } finally {
+            a.stop();
+            b.stop();
+        }
+    }
+
+    @Test
+    public void testDispatcherPublishesInBatches() {
+        List<List<Message>> published = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        WebsocketBrokerDispatcher dispatcher = new WebsocketBrokerDispatcher(new RecordingPushBroker(published), tasks::add);
+
+        Message first = new Message("channel", null, null, "1");
+        Message second = new Message("channel", "id", null, "2");
+        dispatcher.publish(first);
+        dispatcher.publish(second);
+
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(Collections.singletonList(Arrays.asList(first, second)), published);
+
+        dispatcher.publish(first);
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(2, published.size());
+    }
+
+    @Test
+    public void testSpoolDirectoryExample() throws Exception {
+        Path directory = Files.createTempDirectory("push-spool");
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Message> receivedByA = new CopyOnWriteArrayList<>();
+        List<Message> receivedByB = new CopyOnWriteArrayList<>();
+        SpoolDirectoryPushBroker a = new SpoolDirectoryPushBroker(directory, 10);
+        SpoolDirectoryPushBroker b = new SpoolDirectoryPushBroker(directory, 10);
+        a.start(receivedByA::addAll);
+        b.start(messages -> {
+            receivedByB.addAll(messages);
+            latch.countDown();
+        });
+
+        try {
+            a.publish(Arrays.asList(new Message("channel", null, null, "1"), new Message("channel", null, "user", "2")));
+
+            assertTrue(latch.await(10, SECONDS));
+            assertEquals(2, receivedByB.size());
+            assertEquals("user", receivedByB.get(1).getUser());
+            assertTrue(receivedByA.isEmpty());
+        } finally {
+            a.stop();
+            b.stop();
+        }
+    }
+
+    private static final class RecordingPushBroker implements PushBroker {
+
+        private final List<List<Message>> published;
+
+        RecordingPushBroker(List<List<Message>> published) {
+            this.published = published;
+        }
+
+        @Override
+        public void start(Receiver receiver) {
+        }
+
+        @Override
+        public void publish(List<Message> messages) {
+            published.add(messages);
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.faces.spi.PushBroker;
+
+/**
+ * Example push broker which uses a directory shared by all nodes as a stand-in for a messaging system. Every published
+ * batch is written as a file, and every node polls the directory for batch files written by other nodes.
+ */
+public class SpoolDirectoryPushBroker implements PushBroker {
+
+    private static final String SUFFIX = ".batch";
+
+    private final String node = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Set<String> received = new HashSet<>();
+    private final Path directory;
+    private final long pollInterval;
+    private ScheduledExecutorService poller;
+
+    public SpoolDirectoryPushBroker() {
+        this(Paths.get(System.getProperty("java.io.tmpdir"), "mojarra-push-spool"), 100);
+    }
+
+    public SpoolDirectoryPushBroker(Path directory, long pollInterval) {
+        this.directory = directory;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        try {
+            Files.createDirectories(directory);
+            // Batches published before this node started are not of interest.
+            received.addAll(list());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        poller = Executors.newSingleThreadScheduledExecutor();
+        poller.scheduleWithFixedDelay(() -> poll(receiver), pollInterval, pollInterval, MILLISECONDS);
+    }
+
+    @Override
+    public void publish(List<Message> messages) {
+        String name = String.format("%020d-%s-%010d%s", System.currentTimeMillis(), node, sequence.incrementAndGet(), SUFFIX);
+
+        try {
+            Path temp = Files.createTempFile(directory, node, ".tmp");
+
+            try (OutputStream output = Files.newOutputStream(temp); ObjectOutputStream objects = new ObjectOutputStream(output)) {
+                objects.writeObject(new ArrayList<>(messages));
+            }
+
+            Files.move(temp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void poll(Receiver receiver) {
+        try {
+            List<String> names = new ArrayList<>(list());
+            names.sort(null);
+
+            for (String name : names) {
+                if (!received.add(name) || name.contains(node)) {
+                    continue;
+                }
+
+                try (InputStream input = Files.newInputStream(directory.resolve(name)); ObjectInputStream objects = new ObjectInputStream(input)) {
+                    receiver.receive((List<Message>) objects.readObject());
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            // Try again on next poll.
+        }
+    }
+
+    private Set<String> list() throws IOException {
+        Set<String> names = new HashSet<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                names.add(file.getFileName().toString());
+            }
+        }
+
+        return names;
+    }
+
+}
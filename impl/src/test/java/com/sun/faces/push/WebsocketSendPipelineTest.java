@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.Test;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+public class WebsocketSendPipelineTest {
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final WebsocketStatistics statistics = new WebsocketStatistics();
+
+    @Test
+    public void testMessagesWithinWindowAreBatched() throws Exception {
+        WebsocketSendPipeline pipeline = new WebsocketSendPipeline(scheduler(), 100, 8, statistics);
+        MockSession first = new MockSession(true);
+        MockSession second = new MockSession(true);
+        List<Session> sessions = Arrays.asList(first.session, second.session);
+
+        Set<Future<Void>> results1 = pipeline.send("channel", sessions, "{\"data\":1}");
+        Set<Future<Void>> results2 = pipeline.send("channel", sessions, "{\"data\":2}");
+
+        assertEquals(2, results1.size());
+        assertEquals(results1, results2);
+        assertEquals(1, scheduled.size());
+        assertTrue(first.sent.isEmpty());
+
+        scheduled.remove(0).run();
+
+        assertEquals(Arrays.asList("[{\"data\":1},{\"data\":2}]"), first.sent);
+        assertEquals(first.sent, second.sent);
+        assertSame(first.sent.get(0), second.sent.get(0));
+
+        for (Future<Void> result : results1) {
+            assertTrue(result.isDone());
+            assertEquals(null, result.get());
+        }
+
+        pipeline.send("channel", sessions, "{\"data\":3}");
+        assertEquals(1, scheduled.size());
+        scheduled.remove(0).run();
+        assertEquals("[{\"data\":3}]", first.sent.get(1));
+    }
+
+    @Test
+    public void testSlowSessionFramesAreMergedAndDropped() throws Exception {
+        WebsocketSendPipeline pipeline = new WebsocketSendPipeline(scheduler(), 10, 2, statistics);
+        MockSession slow = new MockSession(false);
+        List<Session> sessions = Arrays.asList(slow.session);
+
+        List<Future<Void>> results = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            results.addAll(pipeline.send("channel", sessions, "{\"data\":" + i + "}"));
+            scheduled.remove(0).run();
+        }
+
+        // First frame is in flight, second is dropped, third and fourth are pending.
+        assertEquals(Arrays.asList("[{\"data\":1}]"), slow.sent);
+        assertFalse(results.get(0).isDone());
+        assertTrue(isFailed(results.get(1)));
+        assertEquals(1, statistics.getDroppedFrames());
+        assertEquals(2, statistics.getPendingFrames());
+
+        slow.complete();
+
+        assertTrue(results.get(0).isDone());
+        assertEquals(Arrays.asList("[{\"data\":1}]", "[{\"data\":3},{\"data\":4}]"), slow.sent);
+        assertFalse(results.get(2).isDone());
+
+        slow.complete();
+
+        assertTrue(results.get(2).isDone());
+        assertTrue(results.get(3).isDone());
+        assertFalse(isFailed(results.get(3)));
+        assertEquals(2, statistics.getSentFrames());
+        assertEquals(0, statistics.getPendingFrames());
+    }
+
+    @Test
+    public void testRemovedSessionFailsPendingFrames() throws Exception {
+        WebsocketSendPipeline pipeline = new WebsocketSendPipeline(scheduler(), 10, 8, statistics);
+        MockSession slow = new MockSession(false);
+        List<Session> sessions = Arrays.asList(slow.session);
+
+        pipeline.send("channel", sessions, "{\"data\":1}");
+        scheduled.remove(0).run();
+        Future<Void> pending = pipeline.send("channel", sessions, "{\"data\":2}").iterator().next();
+        scheduled.remove(0).run();
+
+        pipeline.remove(slow.session);
+
+        assertTrue(isFailed(pending));
+    }
+
+    // Helpers --------------------------------------------------------------------------------------------------------
+
+    private static boolean isFailed(Future<Void> result) throws InterruptedException {
+        assertTrue(result.isDone());
+
+        try {
+            result.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        return (ScheduledExecutorService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ScheduledExecutorService.class },
+                (proxy, method, args) -> {
+                    if ("schedule".equals(method.getName()) && args[0] instanceof Runnable) {
+                        scheduled.add((Runnable) args[0]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class MockSession {
+
+        private final List<String> sent = new ArrayList<>();
+        private final List<SendHandler> handlers = new ArrayList<>();
+        private final Session session;
+
+        MockSession(boolean completeImmediately) {
+            RemoteEndpoint.Async async = (RemoteEndpoint.Async) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { RemoteEndpoint.Async.class }, (proxy, method, args) -> {
+                        if ("sendText".equals(method.getName()) && args.length == 2) {
+                            sent.add((String) args[0]);
+                            if (completeImmediately) {
+                                ((SendHandler) args[1]).onResult(new SendResult());
+                            } else {
+                                handlers.add((SendHandler) args[1]);
+                            }
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+
+            session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Session.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                case "isOpen":
+                    return true;
+                case "getAsyncRemote":
+                    return async;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        void complete() {
+            handlers.remove(0).onResult(new SendResult());
+        }
+    }
+
+}
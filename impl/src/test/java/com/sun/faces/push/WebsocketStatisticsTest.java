@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package com.sun.faces.push;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import com.sun.faces.util.LatencyHistogram;
+
+public class WebsocketStatisticsTest {
+
+    @Test
+    public void testSendLatencies() {
+        WebsocketStatistics statistics = new WebsocketStatistics();
+        assertEquals(0, statistics.getSendLatencyMedian());
+
+        for (int i = 0; i < 99; i++) {
+            statistics.frameSent(50_000, true);
+        }
+        statistics.frameSent(10_000_000_000L, true);
+        statistics.frameSent(50_000, false);
+
+        assertEquals(100, statistics.getSentFrames());
+        assertEquals(1, statistics.getFailedFrames());
+        assertEquals(64, statistics.getSendLatencyMedian());
+        assertEquals(64, statistics.getSendLatency99thPercentile());
+        assertEquals(1, statistics.getSendLatencyHistogram()[LatencyHistogram.getBucket(10_000_000)]);
+
+        statistics.reset();
+        assertEquals(0, statistics.getSentFrames());
+        assertArrayEquals(new long[20], statistics.getSendLatencyHistogram());
+    }
+
+    @Test
+    public void testOpenSessionsPerChannel() {
+        WebsocketStatistics statistics = new WebsocketStatistics();
+        statistics.sessionOpened("a");
+        statistics.sessionOpened("a");
+        statistics.sessionOpened("b");
+        statistics.sessionClosed("b");
+
+        assertEquals(2, statistics.getOpenSessions());
+        assertEquals(Collections.singletonMap("a", 2L), statistics.getOpenSessionsPerChannel());
+
+        statistics.reset();
+        assertEquals(2, statistics.getOpenSessions());
+        assertTrue(statistics.getOpenSessionsPerChannel().containsKey("a"));
+    }
+
+    @Test
+    public void testRegisterAsMXBean() throws Exception {
+        WebsocketStatistics statistics = new WebsocketStatistics();
+        statistics.register("/test");
+
+        try {
+            ObjectName name = new ObjectName("com.sun.faces:type=Websocket,application=" + ObjectName.quote("/test"));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertTrue(server.isRegistered(name));
+            assertEquals(0L, server.getAttribute(name, "OpenSessions"));
+            assertTrue(server.getAttribute(name, "OpenSessionsPerChannel") instanceof TabularData);
+        } finally {
+            statistics.unregister();
+        }
+    }
+
+}
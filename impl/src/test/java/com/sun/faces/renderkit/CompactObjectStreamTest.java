@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.renderkit;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sun.faces.spi.SerializationProvider;
+
+public class CompactObjectStreamTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Map<String, Object> state = new HashMap<>();
+        state.put("form:input", new Object[] { null, new Object[] { "value", "text", "rendered", Boolean.FALSE } });
+        state.put("form:list", new ArrayList<>(Arrays.asList(1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE)));
+        state.put("form:unit", TimeUnit.SECONDS);
+        state.put("form:serialized", new Object[] { new Date(42), new BigDecimal("1.5"), new Date(42) });
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new CompactObjectOutputStream(baos);
+        oos.writeLong(123456789L);
+        oos.writeObject(null);
+        oos.writeObject(state);
+        oos.close();
+
+        ObjectInputStream ois = new CompactObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(123456789L, ois.readLong());
+        assertEquals(null, ois.readObject());
+        Map<?, ?> restored = (Map<?, ?>) ois.readObject();
+        ois.close();
+
+        assertEquals(4, restored.size());
+        Object[] input = (Object[]) restored.get("form:input");
+        assertEquals(null, input[0]);
+        assertArrayEquals(new Object[] { "value", "text", "rendered", Boolean.FALSE }, (Object[]) input[1]);
+        assertEquals(Arrays.asList(1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE), restored.get("form:list"));
+        assertSame(TimeUnit.SECONDS, restored.get("form:unit"));
+        assertArrayEquals(new Object[] { new Date(42), new BigDecimal("1.5"), new Date(42) }, (Object[]) restored.get("form:serialized"));
+    }
+
+    @Test
+    public void testSharedReferences() throws Exception {
+        List<Object> shared = new ArrayList<>(Arrays.asList("shared"));
+        Object[] cyclic = new Object[2];
+        cyclic[0] = "cyclic";
+        cyclic[1] = cyclic;
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new CompactObjectOutputStream(baos);
+        oos.writeObject(new Object[] { shared, shared });
+        oos.writeObject(cyclic);
+        oos.close();
+
+        ObjectInputStream ois = new CompactObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        Object[] restoredShared = (Object[]) ois.readObject();
+        Object[] restoredCyclic = (Object[]) ois.readObject();
+        ois.close();
+
+        assertEquals(shared, restoredShared[0]);
+        assertSame(restoredShared[0], restoredShared[1]);
+        assertEquals("cyclic", restoredCyclic[0]);
+        assertSame(restoredCyclic, restoredCyclic[1]);
+    }
+
+    @Test
+    public void testWrappedSerializationProvider() throws Exception {
+        List<String> created = new ArrayList<>();
+        SerializationProvider wrapped = new SerializationProvider() {
+            @Override
+            public ObjectOutputStream createObjectOutputStream(OutputStream destination) throws IOException {
+                created.add("output");
+                return new ObjectOutputStream(destination);
+            }
+
+            @Override
+            public ObjectInputStream createObjectInputStream(InputStream source) throws IOException {
+                created.add("input");
+                return new ObjectInputStream(source);
+            }
+        };
+        SerializationProvider provider = new CompactSerializationProvider(wrapped);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = provider.createObjectOutputStream(baos);
+        oos.writeObject(new Object[] { "value", new Date(42) });
+        oos.close();
+
+        ObjectInputStream ois = provider.createObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        assertArrayEquals(new Object[] { "value", new Date(42) }, (Object[]) ois.readObject());
+        ois.close();
+
+        assertEquals(Arrays.asList("output", "input"), created);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testEnumOfOtherClass() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new CompactObjectOutputStream(baos);
+        oos.writeObject(TimeUnit.SECONDS);
+        oos.close();
+
+        // replace the enum class name with that of a class of the same length which is not an enum
+        byte[] bytes = new String(baos.toByteArray(), ISO_8859_1).replace(TimeUnit.class.getName(), "java.util.concurrent.Executor").getBytes(ISO_8859_1);
+        try (ObjectInputStream ois = new CompactObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ois.readObject();
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void testSizeBeyondInput() throws Exception {
+        // an empty serialized part, followed by an array claiming Integer.MAX_VALUE elements but providing only one
+        byte[] bytes = { 0, CompactObjectOutputStream.OBJECT_ARRAY, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, CompactObjectOutputStream.NULL };
+        try (ObjectInputStream ois = new CompactObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ois.readObject();
+        }
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testNegativeSize() throws Exception {
+        byte[] bytes = { 0, CompactObjectOutputStream.STRING, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F };
+        try (ObjectInputStream ois = new CompactObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ois.readObject();
+        }
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() throws Exception {
+        Map<String, Object> state = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            List<Object> values = new ArrayList<>();
+            values.add(i);
+            values.add("styleClass");
+            state.put("form:table:" + i + ":cell", new Object[] { "value", values, TimeUnit.SECONDS });
+        }
+
+        ByteArrayOutputStream compact = new ByteArrayOutputStream();
+        write(new CompactObjectOutputStream(compact), state);
+        ByteArrayOutputStream java = new ByteArrayOutputStream();
+        write(new ObjectOutputStream(java), state);
+
+        assertTrue(compact.size() < java.size() / 2);
+    }
+
+    private static void write(ObjectOutputStream oos, Object state) throws IOException {
+        oos.writeObject(state);
+        oos.flush();
+        oos.close();
+    }
+
+}
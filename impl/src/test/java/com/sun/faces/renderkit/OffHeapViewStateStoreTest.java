@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.renderkit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class OffHeapViewStateStoreTest {
+
+    @Test
+    public void testPutAndGet() {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(1024, 1024, 10);
+        byte[] state = { 1, 2, 3 };
+        store.put("session", "1:1", state);
+
+        assertArrayEquals(state, store.get("session", "1:1"));
+        assertNull(store.get("other", "1:1"));
+        assertEquals(3, store.getSize());
+
+        store.put("session", "1:1", new byte[] { 4 });
+        assertArrayEquals(new byte[] { 4 }, store.get("session", "1:1"));
+        assertEquals(1, store.getSize());
+    }
+
+    @Test
+    public void testMaxEntriesPerSession() {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(1024, 1024, 2);
+        store.put("session", "1:1", new byte[1]);
+        store.put("session", "1:2", new byte[1]);
+
+        // touch the first state so that the second one is the least recently used
+        store.get("session", "1:1");
+        store.put("session", "1:3", new byte[1]);
+
+        assertNotNull(store.get("session", "1:1"));
+        assertNull(store.get("session", "1:2"));
+        assertNotNull(store.get("session", "1:3"));
+    }
+
+    @Test
+    public void testSessionQuota() {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(1024, 10, 100);
+        store.put("session", "1:1", new byte[6]);
+        store.put("other", "1:1", new byte[6]);
+        store.put("session", "1:2", new byte[6]);
+
+        assertNull(store.get("session", "1:1"));
+        assertNotNull(store.get("session", "1:2"));
+        assertNotNull(store.get("other", "1:1"));
+
+        // a single state exceeding the quota is never stored
+        store.put("session", "1:3", new byte[11]);
+        assertNull(store.get("session", "1:3"));
+    }
+
+    @Test
+    public void testMaxSize() {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(10, 10, 100);
+        store.put("first", "1:1", new byte[4]);
+        store.put("second", "1:1", new byte[4]);
+        store.put("third", "1:1", new byte[4]);
+
+        assertNull(store.get("first", "1:1"));
+        assertNotNull(store.get("second", "1:1"));
+        assertNotNull(store.get("third", "1:1"));
+        assertEquals(8, store.getSize());
+    }
+
+    @Test
+    public void testRemoveSession() {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(1024, 1024, 10);
+        store.put("session", "1:1", new byte[4]);
+        store.put("session", "1:2", new byte[4]);
+        store.put("other", "1:1", new byte[4]);
+
+        store.removeSession("session");
+
+        assertNull(store.get("session", "1:1"));
+        assertNull(store.get("session", "1:2"));
+        assertNotNull(store.get("other", "1:1"));
+        assertEquals(4, store.getSize());
+    }
+
+    @Test
+    public void testBuffersAreReused() {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(4096, 1024, 1);
+        store.put("session", "1:1", new byte[100]);
+        assertEquals(0, store.getPooledSize());
+
+        // evicts the first state, its buffer is kept for the next state of the same size class
+        store.put("session", "1:2", new byte[100]);
+        assertEquals(128, store.getPooledSize());
+
+        store.put("session", "1:3", new byte[110]);
+        assertEquals(128, store.getPooledSize());
+
+        store.removeSession("session");
+        assertEquals(256, store.getPooledSize());
+        assertEquals(0, store.getSize());
+    }
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        OffHeapViewStateStore store = new OffHeapViewStateStore(64 * 1024, 4 * 1024, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int t = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String sessionId = "session" + (i + t) % 32;
+                        String viewStateId = "1:" + i % 10;
+                        byte[] state = new byte[1 + (i * 37 + t) % 1000];
+                        Arrays.fill(state, (byte) state.length);
+                        store.put(sessionId, viewStateId, state);
+
+                        byte[] restored = store.get(sessionId, viewStateId);
+                        if (restored != null) {
+                            for (byte b : restored) {
+                                assertEquals((byte) restored.length, b);
+                            }
+                        }
+                        if (i % 100 == 0) {
+                            store.removeSession(sessionId);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(store.getSize() <= 64 * 1024);
+        for (int i = 0; i < 32; i++) {
+            store.removeSession("session" + i);
+        }
+        assertEquals(0, store.getSize());
+    }
+
+}
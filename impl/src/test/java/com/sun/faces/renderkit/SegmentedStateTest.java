@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.renderkit;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class SegmentedStateTest {
+
+    private final List<Object> serialized = new ArrayList<>();
+
+    @Test
+    public void testSaveAndRestore() {
+        Map<String, Object> state = state("form:a", "form:b", "form:c");
+
+        SegmentedState saved = SegmentedState.save(state, null, null, this::serialize);
+        Map<String, Object> restored = saved.restore(SegmentedStateTest::deserialize);
+
+        assertEquals(state.keySet(), restored.keySet());
+        for (Map.Entry<String, Object> entry : state.entrySet()) {
+            assertArrayEquals((Object[]) entry.getValue(), (Object[]) restored.get(entry.getKey()));
+        }
+
+        state.put("form:b", new Object[] { "changed" });
+        SegmentedState resaved = SegmentedState.save(state, saved, singleton("form:b"), this::serialize);
+        restored = resaved.restore(SegmentedStateTest::deserialize);
+
+        assertEquals(state.keySet(), restored.keySet());
+        assertArrayEquals(new Object[] { "changed" }, (Object[]) restored.get("form:b"));
+        assertArrayEquals((Object[]) state.get("form:a"), (Object[]) restored.get("form:a"));
+    }
+
+    @Test
+    public void testUnmodifiedStateReusesSegment() {
+        Map<String, Object> state = state("form:a", "form:b");
+        SegmentedState saved = SegmentedState.save(state, null, null, this::serialize);
+        serialized.clear();
+
+        SegmentedState resaved = SegmentedState.save(state, saved, emptySet(), this::serialize);
+
+        assertEquals(0, serialized.size());
+        assertEquals(1, resaved.getSegmentCount());
+        assertSame(saved.getSegment("form:a"), resaved.getSegment("form:a"));
+        assertSame(saved.getSegment("form:b"), resaved.getSegment("form:b"));
+    }
+
+    @Test
+    public void testModifiedStateIsSerializedIntoNewSegment() {
+        Map<String, Object> state = state("form:a", "form:b", "form:c");
+        SegmentedState saved = SegmentedState.save(state, null, null, this::serialize);
+        serialized.clear();
+
+        SegmentedState resaved = SegmentedState.save(state, saved, singleton("form:b"), this::serialize);
+
+        assertEquals(1, serialized.size());
+        assertEquals(singleton("form:b"), ((Map<?, ?>) serialized.get(0)).keySet());
+        assertEquals(2, resaved.getSegmentCount());
+        assertSame(saved.getSegment("form:a"), resaved.getSegment("form:a"));
+        assertNotSame(saved.getSegment("form:b"), resaved.getSegment("form:b"));
+    }
+
+    @Test
+    public void testAddedComponentIsSerialized() {
+        SegmentedState saved = SegmentedState.save(state("form:a"), null, null, this::serialize);
+        serialized.clear();
+
+        SegmentedState resaved = SegmentedState.save(state("form:a", "form:b"), saved, emptySet(), this::serialize);
+
+        assertEquals(1, serialized.size());
+        assertEquals(singleton("form:b"), ((Map<?, ?>) serialized.get(0)).keySet());
+        assertEquals(2, resaved.restore(SegmentedStateTest::deserialize).size());
+    }
+
+    @Test
+    public void testMissingBaseStateSavesAllState() {
+        Map<String, Object> state = state("form:a", "form:b");
+
+        SegmentedState saved = SegmentedState.save(state, null, emptySet(), this::serialize);
+
+        assertEquals(1, serialized.size());
+        assertEquals(state.keySet(), ((Map<?, ?>) serialized.get(0)).keySet());
+        assertEquals(1, saved.getSegmentCount());
+    }
+
+    @Test
+    public void testUntrackedModificationsSaveAllState() {
+        Map<String, Object> state = state("form:a", "form:b");
+        SegmentedState saved = SegmentedState.save(state, null, null, this::serialize);
+        serialized.clear();
+
+        SegmentedState resaved = SegmentedState.save(state, saved, null, this::serialize);
+
+        assertEquals(1, serialized.size());
+        assertEquals(state.keySet(), ((Map<?, ?>) serialized.get(0)).keySet());
+        assertNotSame(saved.getSegment("form:a"), resaved.getSegment("form:a"));
+    }
+
+    @Test
+    public void testStaleSegmentsAreCompacted() {
+        Map<String, Object> state = state("form:a", "form:b", "form:c", "form:d");
+        SegmentedState saved = SegmentedState.save(state, null, null, this::serialize);
+
+        // the first segment now only holds the current state of form:a
+        saved = SegmentedState.save(state, saved, singleton("form:b"), this::serialize);
+        saved = SegmentedState.save(state, saved, singleton("form:c"), this::serialize);
+        saved = SegmentedState.save(state, saved, singleton("form:d"), this::serialize);
+        assertEquals(4, saved.getSegmentCount());
+
+        state.remove("form:b");
+        state.remove("form:c");
+        serialized.clear();
+        SegmentedState resaved = SegmentedState.save(state, saved, emptySet(), this::serialize);
+
+        assertEquals(1, serialized.size());
+        assertEquals(state.keySet(), ((Map<?, ?>) serialized.get(0)).keySet());
+        assertEquals(1, resaved.getSegmentCount());
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static Map<String, Object> state(String... clientIds) {
+        Map<String, Object> state = new HashMap<>();
+        for (String clientId : clientIds) {
+            state.put(clientId, new Object[] { clientId, Boolean.TRUE });
+        }
+        return state;
+    }
+
+    private byte[] serialize(Object state) {
+        serialized.add(state);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(state);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        return baos.toByteArray();
+    }
+
+    private static Object deserialize(byte[] state) {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            return ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class ConcurrentLRUMapTest {
+
+    @Test
+    public void testLRUEviction() {
+        ConcurrentLRUMap<String, String> map = new ConcurrentLRUMap<>(3);
+        map.put("one", "one");
+        map.put("two", "two");
+        map.put("three", "three");
+
+        // touch "one" so that "two" becomes the eldest entry
+        assertEquals("one", map.get("one"));
+        map.put("four", "four");
+
+        assertEquals(3, map.size());
+        assertTrue(map.containsKey("one"));
+        assertFalse(map.containsKey("two"));
+        assertTrue(map.containsKey("three"));
+        assertTrue(map.containsKey("four"));
+    }
+
+    @Test
+    public void testClockEvictionKeepsRecentlyUsed() {
+        ConcurrentLRUMap<String, String> map = new ConcurrentLRUMap<>(1000);
+        for (int i = 0; i <= 1000; i++) {
+            map.put("key" + i, "value");
+        }
+
+        // the first eviction has moved the clock hand past all entries
+        List<String> used = new ArrayList<>();
+        for (int i = 0; i <= 1000 && used.size() < 100; i++) {
+            if (map.get("key" + i) != null) {
+                used.add("key" + i);
+            }
+        }
+        for (int i = 1001; i < 1101; i++) {
+            map.put("key" + i, "value");
+        }
+
+        assertEquals(1000, map.size());
+        for (String key : used) {
+            assertTrue(map.containsKey(key));
+        }
+        for (int i = 1001; i < 1101; i++) {
+            assertTrue(map.containsKey("key" + i));
+        }
+    }
+
+    @Test
+    public void testReplaceDoesNotEvict() {
+        ConcurrentLRUMap<String, String> map = new ConcurrentLRUMap<>(2);
+        map.put("one", "one");
+        map.put("two", "two");
+
+        assertEquals("two", map.put("two", "2"));
+        assertEquals("one", map.putIfAbsent("one", "1"));
+
+        assertEquals(2, map.size());
+        assertEquals("one", map.get("one"));
+        assertEquals("2", map.get("two"));
+        assertTrue(map.remove("two", "2"));
+        assertNull(map.get("two"));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final int threads = 8;
+        final int capacity = 15;
+        final ConcurrentLRUMap<String, Object[]> map = new ConcurrentLRUMap<>(capacity);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10000; i++) {
+                        String key = "j_id" + (thread * 10000 + i);
+                        map.put(key, new Object[] { key, null });
+                        Object[] state = map.get(key);
+                        if (state != null) {
+                            assertEquals(key, state[0]);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(map.size() <= capacity);
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, LatencyHistogram.getBucket(0));
+        assertEquals(0, LatencyHistogram.getBucket(64));
+        assertEquals(1, LatencyHistogram.getBucket(65));
+        assertEquals(1, LatencyHistogram.getBucket(128));
+        assertEquals(4, LatencyHistogram.getBucket(1000));
+        assertEquals(19, LatencyHistogram.getBucket(Long.MAX_VALUE));
+
+        long[] bounds = LatencyHistogram.getBounds();
+        assertEquals(64, bounds[0]);
+        assertEquals(1 << 24, bounds[18]);
+        assertEquals(Long.MAX_VALUE, bounds[19]);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(0.5));
+
+        for (int i = 0; i < 98; i++) {
+            histogram.record(50_000);
+        }
+        histogram.record(1_000_000);
+        histogram.record(100_000_000_000L);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(64, histogram.getPercentile(0.5));
+        assertEquals(1024, histogram.getPercentile(0.99));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(1));
+        assertEquals(98, histogram.getCounts()[0]);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertArrayEquals(new long[LatencyHistogram.BUCKETS], histogram.getCounts());
+    }
+
+}
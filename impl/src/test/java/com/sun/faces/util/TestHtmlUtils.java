@@ -132,6 +132,43 @@ public class TestHtmlUtils extends TestCase {
         }
     }
 
+    public void testWriteTextWithoutEscaping() throws IOException {
+        assertEquals("plain text", writeText("plain text", false, false));
+        assertEquals("a \"quoted\" longer text with 'apostrophes'\n", writeText("a \"quoted\" longer text with 'apostrophes'\n", false, false));
+        assertEquals("caf\u00e9 \u20ac", writeText("caf\u00e9 \u20ac", false, false));
+        assertEquals("a &lt;b&gt; &amp; c", writeText("a <b> & c", false, false));
+        assertEquals("caf&eacute;", writeText("caf\u00e9", false, true));
+        assertEquals("&euro;", writeText("\u20ac", true, false));
+        assertEquals("ab", writeText("a\u0000b", false, false));
+    }
+
+    public void testWriteAttributeWithoutEscaping() throws IOException {
+        assertEquals("plain-value", writeAttribute("plain-value", false));
+        assertEquals("a value longer than sixteen characters", writeAttribute("a value longer than sixteen characters", false));
+        assertEquals("&quot;quoted&quot;", writeAttribute("\"quoted\"", false));
+        assertEquals("a &lt;b&gt; &amp; c &{d}", writeAttribute("a <b> & c &{d}", false));
+        assertEquals("", writeAttribute("javascript:alert(1)", false));
+        assertEquals("javascript:alert(1)", writeAttribute("javascript:alert(1)", true));
+        assertEquals("scripts", writeAttribute("scripts", false));
+    }
+
+    private static String writeText(String text, boolean escapeUnicode, boolean escapeIso) throws IOException {
+        StringWriter writer = new StringWriter();
+        HtmlUtils.writeText(writer, escapeUnicode, escapeIso, new char[16], text, new char[1024]);
+
+        // the char array variant must produce the same result
+        StringWriter arrayWriter = new StringWriter();
+        HtmlUtils.writeText(arrayWriter, escapeUnicode, escapeIso, new char[16], text.toCharArray());
+        assertEquals(writer.toString(), arrayWriter.toString());
+        return writer.toString();
+    }
+
+    private static String writeAttribute(String text, boolean isScriptInAttributeValueEnabled) throws IOException {
+        StringWriter writer = new StringWriter();
+        HtmlUtils.writeAttribute(writer, false, false, new char[16], text, new char[1024], isScriptInAttributeValueEnabled);
+        return writer.toString();
+    }
+
     private void testURLEncoding(String urlToEncode, String expectedHTML, String expectedXML)
             throws IOException {
         char[] textBuffer = new char[1024];
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package jakarta.faces.component;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.sun.faces.component.StateModificationTracker;
+
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.ActionListener;
+
+public class ComponentStateHelperTest {
+
+    @Test
+    public void testModificationIsTrackedAfterInitialState() {
+        UICommand command = new UICommand();
+        command.setImmediate(false);
+        command.markInitialState();
+        StateModificationTracker tracker = tracker(command);
+        assertFalse(tracker.isModified());
+
+        command.setImmediate(true);
+        assertTrue(tracker.isModified());
+
+        tracker.clearModified();
+        assertFalse(tracker.isModified());
+
+        command.addActionListener(EasyMock.createNiceMock(ActionListener.class));
+        assertTrue(tracker.isModified());
+    }
+
+    @Test
+    public void testRestoreStateIsNoModification() {
+        FacesContext context = EasyMock.createNiceMock(FacesContext.class);
+        EasyMock.replay(context);
+
+        UICommand command = new UICommand();
+        command.markInitialState();
+        command.setImmediate(true);
+        Object state = command.saveState(context);
+
+        UICommand restored = new UICommand();
+        restored.markInitialState();
+        restored.restoreState(context, state);
+        StateModificationTracker tracker = tracker(restored);
+        assertTrue(restored.isImmediate());
+        assertFalse(tracker.isModified());
+
+        restored.setImmediate(false);
+        assertTrue(tracker.isModified());
+    }
+
+    private static StateModificationTracker tracker(UIComponent component) {
+        return (StateModificationTracker) component.getTransientStateHelper();
+    }
+
+}
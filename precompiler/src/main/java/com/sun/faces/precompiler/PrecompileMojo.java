@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.precompiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import com.sun.faces.application.ApplicationAssociate;
+import com.sun.faces.config.WebConfiguration;
+import com.sun.faces.config.WebConfiguration.BooleanWebContextInitParameter;
+import com.sun.faces.facelets.compiler.FaceletCompilationCache;
+import com.sun.faces.facelets.compiler.SAXCompiler;
+import com.sun.faces.facelets.tag.jsf.TagHandlerDelegateFactoryImpl;
+
+import jakarta.faces.FactoryFinder;
+import jakarta.faces.view.facelets.FaceletException;
+import jakarta.servlet.ServletContext;
+
+/**
+ * <p>
+ * Precompiles the Facelets views of a web application. Every view found below <code>webappDirectory</code> is compiled
+ * by the Facelets compiler, with the context parameters of <code>WEB-INF/web.xml</code>, compilation errors are
+ * reported, and the parsed form of each view is written to <code>outputDirectory/WEB-INF/faces-precompiled</code>, where
+ * the Facelets compiler picks it up at runtime instead of parsing the view again.
+ * </p>
+ *
+ * <p>
+ * Besides XML well-formedness, compilation checks the tags and required attributes of the tag libraries provided by the
+ * implementation. Tag libraries of the application and composite components are only resolved at runtime.
+ * </p>
+ */
+@Mojo(name = "precompile", defaultPhase = LifecyclePhase.PREPARE_PACKAGE, threadSafe = true)
+public class PrecompileMojo extends AbstractMojo {
+
+    /**
+     * The directory containing the views to precompile.
+     */
+    @Parameter(defaultValue = "${basedir}/src/main/webapp", required = true)
+    private File webappDirectory;
+
+    /**
+     * The directory of the exploded web application the precompiled views are written to.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/${project.build.finalName}", required = true)
+    private File outputDirectory;
+
+    /**
+     * Space separated list of the file suffixes of the views to precompile.
+     */
+    @Parameter(property = "faces.precompile.suffixes", defaultValue = ".xhtml")
+    private String suffixes;
+
+    /**
+     * Whether the build fails when a view cannot be precompiled.
+     */
+    @Parameter(property = "faces.precompile.failOnError", defaultValue = "true")
+    private boolean failOnError;
+
+    /**
+     * Context parameters overriding those of <code>WEB-INF/web.xml</code>, e.g. to compile with a different
+     * <code>com.sun.faces.disallowDoctypeDecl</code> setting than the one in use at runtime.
+     */
+    @Parameter
+    private Map<String, String> initParameters;
+
+    @Parameter(property = "faces.precompile.skip", defaultValue = "false")
+    private boolean skip;
+
+    // ------------------------------------------------------- Methods from Mojo
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping Facelets precompilation");
+            return;
+        }
+        if (!webappDirectory.isDirectory()) {
+            getLog().info("No web application directory found at " + webappDirectory);
+            return;
+        }
+
+        Path root = webappDirectory.toPath();
+        File target = new File(outputDirectory, FaceletCompilationCache.PRECOMPILED_DIRECTORY.substring(1));
+        List<Path> views;
+        try (Stream<Path> paths = Files.walk(root)) {
+            views = paths.filter(path -> Files.isRegularFile(path) && isView(path)).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to scan " + webappDirectory, e);
+        }
+
+        List<String> errors = new ArrayList<>();
+        ServletContext servletContext = createServletContext(root);
+
+        // FactoryFinder complains about the missing injection provider of a running application
+        Logger factoryFinderLogger = Logger.getLogger("jakarta.faces");
+        Level factoryFinderLevel = factoryFinderLogger.getLevel();
+        factoryFinderLogger.setLevel(Level.OFF);
+        try {
+            SAXCompiler compiler = createCompiler(servletContext);
+            for (Path view : views) {
+                String alias = '/' + root.relativize(view).toString().replace(File.separatorChar, '/');
+                try {
+                    compiler.precompile(view.toUri().toURL(), alias, new File(target, alias.substring(1) + FaceletCompilationCache.SUFFIX));
+                    if (getLog().isDebugEnabled()) {
+                        getLog().debug("Precompiled " + alias);
+                    }
+                } catch (FaceletException e) {
+                    errors.add(alias);
+                    getLog().error(e.getMessage());
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Unable to precompile " + alias, e);
+                }
+            }
+        } finally {
+            FactoryFinder.releaseFactories();
+            factoryFinderLogger.setLevel(factoryFinderLevel);
+        }
+
+        getLog().info("Precompiled " + (views.size() - errors.size()) + " of " + views.size() + " Facelets views to " + target);
+        if (!errors.isEmpty() && failOnError) {
+            throw new MojoFailureException("Unable to precompile " + errors.size() + " Facelets views: " + errors);
+        }
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private SAXCompiler createCompiler(ServletContext servletContext) {
+        // component tag handlers are created while compiling
+        FactoryFinder.setFactory(FactoryFinder.TAG_HANDLER_DELEGATE_FACTORY, TagHandlerDelegateFactoryImpl.class.getName());
+
+        WebConfiguration webConfig = WebConfiguration.getInstance(servletContext);
+        SAXCompiler compiler = new SAXCompiler();
+        compiler.setWebConfiguration(webConfig);
+        compiler.setTrimmingComments(webConfig.isOptionEnabled(BooleanWebContextInitParameter.FaceletsSkipComments));
+        ApplicationAssociate.addTagLibraries(compiler, false);
+        return compiler;
+    }
+
+    /*
+     * The minimal ServletContext WebConfiguration reads the context parameters and resources of the web application
+     * from.
+     */
+    private ServletContext createServletContext(Path root) throws MojoExecutionException {
+        Map<String, String> parameters = readContextParameters(root.resolve("WEB-INF/web.xml"));
+        if (initParameters != null) {
+            parameters.putAll(initParameters);
+        }
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "getInitParameter":
+                return parameters.get(args[0]);
+            case "getInitParameterNames":
+                return Collections.enumeration(parameters.keySet());
+            case "getAttribute":
+                return attributes.get(args[0]);
+            case "getAttributeNames":
+                return Collections.enumeration(attributes.keySet());
+            case "setAttribute":
+                if (args[1] == null) {
+                    attributes.remove(args[0]);
+                } else {
+                    attributes.put((String) args[0], args[1]);
+                }
+                return null;
+            case "removeAttribute":
+                attributes.remove(args[0]);
+                return null;
+            case "getContextPath":
+            case "getServletContextName":
+                return "";
+            case "getRealPath":
+                return root.resolve(((String) args[0]).replaceFirst("^/+", "")).toString();
+            case "getResource":
+                Path resource = root.resolve(((String) args[0]).replaceFirst("^/+", ""));
+                return Files.exists(resource) ? resource.toUri().toURL() : null;
+            case "getClassLoader":
+                return Thread.currentThread().getContextClassLoader();
+            case "log":
+                getLog().debug(String.valueOf(args[0]));
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "ServletContext[" + root + "]";
+            default:
+                return method.getReturnType() == boolean.class ? false : method.getReturnType() == int.class ? 0 : null;
+            }
+        };
+
+        return (ServletContext) Proxy.newProxyInstance(ServletContext.class.getClassLoader(), new Class<?>[] { ServletContext.class }, handler);
+    }
+
+    private static Map<String, String> readContextParameters(Path webXml) throws MojoExecutionException {
+        Map<String, String> parameters = new HashMap<>();
+        if (!Files.isRegularFile(webXml)) {
+            return parameters;
+        }
+
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            Document document = factory.newDocumentBuilder().parse(webXml.toFile());
+            NodeList contextParams = document.getElementsByTagNameNS("*", "context-param");
+            for (int i = 0; i < contextParams.getLength(); i++) {
+                Element contextParam = (Element) contextParams.item(i);
+                String name = getChildText(contextParam, "param-name");
+                if (name != null) {
+                    parameters.put(name, getChildText(contextParam, "param-value"));
+                }
+            }
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new MojoExecutionException("Unable to read the context parameters of " + webXml, e);
+        }
+        return parameters;
+    }
+
+    private static String getChildText(Element element, String name) {
+        NodeList children = element.getElementsByTagNameNS("*", name);
+        return children.getLength() > 0 ? children.item(0).getTextContent().trim() : null;
+    }
+
+    private boolean isView(Path path) {
+        String name = path.getFileName().toString();
+        for (String suffix : suffixes.trim().split("\\s+")) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 1997, 2020 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package com.sun.faces.precompiler;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.faces.facelets.compiler.FaceletCompilationCache;
+
+public class PrecompileMojoTest {
+
+    private static final String GOOD_VIEW = "<!DOCTYPE html>\n"
+            + "<html xmlns=\"http://www.w3.org/1999/xhtml\" xmlns:h=\"jakarta.faces.html\" xmlns:ui=\"jakarta.faces.facelets\">\n"
+            + "<h:head/><h:body><h:outputText value=\"#{bean.value}\"/><ui:include src=\"/included.xhtml\"/></h:body>\n"
+            + "</html>\n";
+
+    private static final String BAD_VIEW = "<html xmlns=\"http://www.w3.org/1999/xhtml\"><body></html>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPrecompilesViews() throws Exception {
+        File webapp = folder.newFolder("webapp");
+        File output = folder.newFolder("output");
+        write(new File(webapp, "index.xhtml"), GOOD_VIEW);
+        write(new File(webapp, "admin/users.xhtml"), GOOD_VIEW);
+
+        createMojo(webapp, output, true).execute();
+
+        assertTrue(getPrecompiled(output, "index.xhtml").isFile());
+        assertTrue(getPrecompiled(output, "admin/users.xhtml").isFile());
+    }
+
+    @Test
+    public void testReportsInvalidView() throws Exception {
+        File webapp = folder.newFolder("webapp");
+        File output = folder.newFolder("output");
+        write(new File(webapp, "index.xhtml"), GOOD_VIEW);
+        write(new File(webapp, "broken.xhtml"), BAD_VIEW);
+
+        try {
+            createMojo(webapp, output, true).execute();
+            fail("An invalid view must fail the build");
+        } catch (MojoFailureException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("/broken.xhtml"));
+        }
+
+        assertFalse(getPrecompiled(output, "broken.xhtml").exists());
+    }
+
+    @Test
+    public void testReportsInvalidViewWithoutFailing() throws Exception {
+        File webapp = folder.newFolder("webapp");
+        File output = folder.newFolder("output");
+        write(new File(webapp, "index.xhtml"), GOOD_VIEW);
+        write(new File(webapp, "broken.xhtml"), BAD_VIEW);
+
+        createMojo(webapp, output, false).execute();
+
+        assertTrue(getPrecompiled(output, "index.xhtml").isFile());
+        assertFalse(getPrecompiled(output, "broken.xhtml").exists());
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private static PrecompileMojo createMojo(File webapp, File output, boolean failOnError) throws Exception {
+        PrecompileMojo mojo = new PrecompileMojo();
+        set(mojo, "webappDirectory", webapp);
+        set(mojo, "outputDirectory", output);
+        set(mojo, "suffixes", ".xhtml");
+        set(mojo, "failOnError", failOnError);
+        return mojo;
+    }
+
+    private static void set(PrecompileMojo mojo, String name, Object value) throws Exception {
+        Field field = PrecompileMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    private static File getPrecompiled(File output, String view) {
+        return new File(output, FaceletCompilationCache.PRECOMPILED_DIRECTORY.substring(1) + '/' + view + FaceletCompilationCache.SUFFIX);
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+    }
+
+}